@@ -131,178 +131,23 @@ echo [SUCCESS] All dependencies found
 
 echo [4/7] Compiling all Java files...
 
-echo - Compiling utility classes first...
-javac -cp "lib\*" -d "target\classes" "src\main\java\quest\utils\DialogueUtil.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\utils\GrandExchangeUtil.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\utils\QuestData.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo - Compiling QuestLogger.java (Logging Utility)...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\utils\QuestLogger.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo - Compiling ItemGatheringUtil.java (Unified Item Management)...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\utils\ItemGatheringUtil.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo - Compiling RunEnergyUtil.java (Run Energy Management)...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\utils\RunEnergyUtil.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo - Compiling core classes (part 1)...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\core\QuestDatabase.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\core\QuestScript.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo - Compiling logging system...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\core\QuestEventLogger.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo - Compiling quest implementations...
-
-
-
-echo - Compiling Tree-Based Quest System...
-echo   - Compiling core tree classes...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\core\QuestNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\core\QuestTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo   - Compiling tree node classes...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\nodes\ActionNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\nodes\DecisionNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo   - Compiling action nodes...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\nodes\actions\TalkToNPCNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\nodes\actions\WalkToLocationNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\nodes\actions\InteractWithObjectNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-rem New action nodes
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\nodes\actions\TakeGroundItemNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\nodes\actions\EquipItemsNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\nodes\actions\UseItemOnObjectNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\nodes\actions\SelectDialogueOptionNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-rem New action node: UseItemOnNPCNode
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\nodes\actions\UseItemOnNPCNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-
-echo   - Compiling decision nodes...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\nodes\decisions\QuestProgressDecisionNode.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo   - Compiling QuestTree base class...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\core\QuestTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo   - Compiling quest trees...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\RomeoAndJulietTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\RuneMysteriesTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\CooksAssistantTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\WitchsPotionTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\SheepShearerTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\VampyreSlayerTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\DoricsQuestTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\PiratesTreasureTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\DemonSlayerTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\GoblinDiplomacyTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\XMarksTheSpotTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\RestlessGhostTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\BlackKnightsFortressTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-rem New quest tree: The Corsair Curse
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\CorsairCurseTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-rem New quest tree: Imp Catcher
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\ImpCatcherTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-rem New quest tree: The Knight's Sword
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\KnightsSwordTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-rem Prince Ali Rescue tree - TODO: Create implementation
-rem javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\PrinceAliRescueTree.java"
-rem if %errorlevel% neq 0 goto :compile_error
-
-rem New quest tree: Ernest the Chicken
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\ErnestTheChickenTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-rem New quest tree: Below Ice Mountain
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\BelowIceMountainTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-rem New quest tree: Dragon Slayer - Stage 1
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\trees\DragonSlayerTree.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo   - Compiling tree wrapper...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\core\TreeQuestWrapper.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo - Compiling quest executor (depends on tree system)...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\core\QuestExecutor.java"
-if %errorlevel% neq 0 goto :compile_error
-
-echo - Compiling GUI (depends on QuestExecutor)...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\gui\QuestSelectionGUI.java"
-if %errorlevel% neq 0 goto :compile_error
-
-
-
-echo - Compiling main script...
-javac -cp "lib\*;target\classes" -d "target\classes" "src\main\java\quest\SimpleQuestBot.java"
+REM The quest registry processor has to be compiled before it can run (same split as pom.xml)
+echo - Compiling the quest registry processor...
+if not exist "target\processor" mkdir "target\processor"
+javac -encoding UTF-8 -proc:none -d "target\processor" "src\main\java\quest\registry\QuestEntry.java" "src\main\java\quest\registry\QuestEntries.java" "src\main\java\quest\registry\QuestType.java" "src\main\java\quest\registry\QuestRegistryProcessor.java"
+if %errorlevel% neq 0 goto :compile_error
+
+REM Every package in one pass, so new packages and classes need no changes here.
+REM Paths go in the argument file with forward slashes (quoted backslashes are escapes to javac).
+echo - Compiling all sources (generates quest.registry.GeneratedQuestRegistry from @QuestEntry)...
+if not exist "target\generated-sources" mkdir "target\generated-sources"
+setlocal EnableDelayedExpansion
+(for /r "src\main\java" %%f in (*.java) do (
+    set "source=%%f"
+    if /i not "%%~nxf"=="QuestRegistryProcessor.java" echo "!source:\=/!"
+)) > "target\sources.txt"
+endlocal
+javac -encoding UTF-8 -cp "lib\*" -sourcepath "src\main\java" -processorpath "target\processor" -processor quest.registry.QuestRegistryProcessor -s "target\generated-sources" -d "target\classes" @target\sources.txt
 if %errorlevel% neq 0 goto :compile_error
 
 echo [SUCCESS] All Java files compiled successfully
@@ -14,6 +14,11 @@ import org.dreambot.api.methods.container.impl.bank.Bank;
 import quest.gui.QuestSelectionGUI;
 import quest.core.QuestEventLogger;
 import quest.core.QuestExecutor;
+import quest.definition.QuestDefinitions;
+import quest.fleet.FleetClient;
+import quest.metrics.MetricsHttpServer;
+import quest.metrics.QuestMetrics;
+import quest.utils.BankMirror;
 import quest.utils.RunEnergyUtil;
 
 import javax.swing.SwingUtilities;
@@ -35,7 +40,8 @@ import java.awt.Color;
 public class SimpleQuestBot extends AbstractScript implements ActionListener {
     
     // Core components
-    private QuestSelectionGUI gui;
+    // Set on the EDT, read from the script thread
+    private volatile QuestSelectionGUI gui;
     private QuestEventLogger questLogger;
     
     // Recording state
@@ -64,6 +70,15 @@ public class SimpleQuestBot extends AbstractScript implements ActionListener {
         // Initialize quest executor with script reference
         QuestExecutor.getInstance().setScriptReference(this);
         
+        // Local metrics endpoint (off unless metrics.http.enabled=true)
+        MetricsHttpServer.getInstance().startIfEnabled();
+        
+        // Fleet coordinator connection (off unless fleet.enabled=true)
+        FleetClient.getInstance().startIfEnabled();
+        
+        // Reload quest_data/quests definitions as they are saved (definitions.watch)
+        QuestDefinitions.watchIfEnabled();
+        
         // Launch GUI on Swing thread with error handling
         SwingUtilities.invokeLater(() -> {
             try {
@@ -113,6 +128,17 @@ public class SimpleQuestBot extends AbstractScript implements ActionListener {
     
     @Override
     public int onLoop() {
+        long started = System.currentTimeMillis();
+        int delay = runLoop();
+        QuestMetrics metrics = QuestMetrics.getInstance();
+        metrics.recordLoop(System.currentTimeMillis() - started);
+        // The client sleeps for the returned delay - count it as loop sleep
+        metrics.addPhaseTime(QuestMetrics.Phase.SLEEP, delay);
+        QuestExecutor.getInstance().publishStatus();
+        return delay;
+    }
+    
+    private int runLoop() {
         // CRITICAL: Always check if script should stop first
         if (!ScriptManager.getScriptManager().isRunning()) {
             log("Script stop requested - shutting down immediately");
@@ -128,6 +154,8 @@ public class SimpleQuestBot extends AbstractScript implements ActionListener {
         loopCount++;
         // Always manage run energy first.
         RunEnergyUtil.handleRunEnergy();
+        // Keep the bank snapshot fresh whenever a tree (or the user) has the bank open
+        BankMirror.getInstance().refreshIfOpen();
         
         if (!guiInitialized) {
             Sleep.sleep(100);
@@ -136,6 +164,17 @@ public class SimpleQuestBot extends AbstractScript implements ActionListener {
         
         // Check if quest automation is active
         QuestExecutor executor = QuestExecutor.getInstance();
+        
+        // Start/stop requests from the GUI are applied here, on the script thread
+        executor.processCommands();
+        
+        // Apply fleet commands and learned data, then start the next queued quest unless the fleet holds us
+        FleetClient fleet = FleetClient.getInstance();
+        fleet.tick();
+        if (!fleet.isHolding()) {
+            executor.tickQueue();
+        }
+        
         if (executor.isActive()) {
             // CRITICAL: Check for stop request before quest execution
             if (!ScriptManager.getScriptManager().isRunning()) {
@@ -148,11 +187,9 @@ public class SimpleQuestBot extends AbstractScript implements ActionListener {
                 // Extended sleep when walking is in progress - DO NOT interrupt walking
                 String walkingStatus = "AUTOMATION: " + executor.getCurrentQuestName() + " - WALKING IN PROGRESS";
                 if (!walkingStatus.equals(lastStatus)) {
-                    SwingUtilities.invokeLater(() -> {
-                        if (gui != null) {
-                            gui.appendAutomationLog(walkingStatus);
-                        }
-                    });
+                    if (gui != null) {
+                        gui.appendAutomationLog(walkingStatus);
+                    }
                     lastStatus = walkingStatus;
                 }
                 // Check for stop request during walking sleep
@@ -172,11 +209,9 @@ public class SimpleQuestBot extends AbstractScript implements ActionListener {
             // Update GUI with automation status
             String automationStatus = "AUTOMATION: " + executor.getCurrentQuestName() + " - " + executor.getCurrentStepDescription();
             if (!automationStatus.equals(lastStatus)) {
-                SwingUtilities.invokeLater(() -> {
-                    if (gui != null) {
-                        gui.appendAutomationLog(automationStatus);
-                    }
-                });
+                if (gui != null) {
+                    gui.appendAutomationLog(automationStatus);
+                }
                 lastStatus = automationStatus;
             }
             
@@ -217,22 +252,18 @@ public class SimpleQuestBot extends AbstractScript implements ActionListener {
             // Update GUI status - avoid spam
             String currentStatus = "RECORDING: " + selectedQuest + " - Complete quest manually";
             if (!currentStatus.equals(lastStatus)) {
-                SwingUtilities.invokeLater(() -> {
-                    if (gui != null) {
-                        gui.appendLog(currentStatus);
-                    }
-                });
+                if (gui != null) {
+                    gui.appendLog(currentStatus);
+                }
                 lastStatus = currentStatus;
             }
         } else {
             // Idle mode - only update status once, not constantly
             String currentStatus = "IDLE: Select quest to start recording";
             if (!currentStatus.equals(lastStatus)) {
-                SwingUtilities.invokeLater(() -> {
-                    if (gui != null) {
-                        gui.appendLog(currentStatus);
-                    }
-                });
+                if (gui != null) {
+                    gui.appendLog(currentStatus);
+                }
                 lastStatus = currentStatus;
             }
         }
@@ -334,7 +365,7 @@ public class SimpleQuestBot extends AbstractScript implements ActionListener {
         }
         
         log("RECORDING NOW ACTIVE - All 7 core action types will be logged!");
-        log("Log file location: C:\\Users\\Leone\\Desktop\\Projects in progress\\Dreambot Projects\\AI Quest system\\quest_logs\\");
+        log("Log file location: " + QuestEventLogger.getLogDirectory().getAbsolutePath());
         log("Console logs will show each action as you perform them");
         log("=======================================");
     }
@@ -375,6 +406,10 @@ public class SimpleQuestBot extends AbstractScript implements ActionListener {
             questLogger.close();
         }
         
+        MetricsHttpServer.getInstance().stop();
+        FleetClient.getInstance().stop();
+        QuestDefinitions.stopWatching();
+        
         if (gui != null) {
             SwingUtilities.invokeLater(() -> gui.dispose());
         }
@@ -0,0 +1,103 @@
+package quest.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Executor Command - a request for the QuestExecutor from another thread (GUI, fleet, tools).
+ * Submitted with QuestExecutor.submit() and applied on the script thread at the start of its next loop,
+ * so quest preparation and game API calls never run on the caller's thread.
+ */
+public final class ExecutorCommand {
+
+    public enum Type {
+        START,
+        STOP,
+        PAUSE,
+        RESUME,
+        ENQUEUE,
+        REPLAY
+    }
+
+    private final Type type;
+    private final String questId;
+    private final List<String> questIds;
+    private final boolean ordered;
+    private final QuestQueue.FailurePolicy failurePolicy;
+    private final File recording;
+    private final Consumer<Boolean> onDone;
+
+    private ExecutorCommand(Type type, String questId, List<String> questIds, boolean ordered,
+                            QuestQueue.FailurePolicy failurePolicy, File recording, Consumer<Boolean> onDone) {
+        this.type = type;
+        this.questId = questId;
+        this.questIds = questIds;
+        this.ordered = ordered;
+        this.failurePolicy = failurePolicy;
+        this.recording = recording;
+        this.onDone = onDone;
+    }
+
+    public static ExecutorCommand start(String questId) {
+        return new ExecutorCommand(Type.START, questId, Collections.emptyList(), false, null, null, null);
+    }
+
+    public static ExecutorCommand enqueue(List<String> questIds, boolean ordered, QuestQueue.FailurePolicy failurePolicy) {
+        return new ExecutorCommand(Type.ENQUEUE, null, Collections.unmodifiableList(new ArrayList<>(questIds)),
+            ordered, failurePolicy, null, null);
+    }
+
+    /**
+     * Replay a recorded quest log or journal as a macro (see ReplayTree)
+     */
+    public static ExecutorCommand replay(File recording) {
+        return new ExecutorCommand(Type.REPLAY, null, Collections.emptyList(), false, null, recording, null);
+    }
+
+    public static ExecutorCommand stop() {
+        return new ExecutorCommand(Type.STOP, null, Collections.emptyList(), false, null, null, null);
+    }
+
+    public static ExecutorCommand pause() {
+        return new ExecutorCommand(Type.PAUSE, null, Collections.emptyList(), false, null, null, null);
+    }
+
+    public static ExecutorCommand resume() {
+        return new ExecutorCommand(Type.RESUME, null, Collections.emptyList(), false, null, null, null);
+    }
+
+    /**
+     * Same command with a callback told whether it succeeded. Runs on the script thread -
+     * Swing callers must hop back with SwingUtilities.invokeLater.
+     */
+    public ExecutorCommand onDone(Consumer<Boolean> callback) {
+        return new ExecutorCommand(type, questId, questIds, ordered, failurePolicy, recording, callback);
+    }
+
+    void complete(boolean success) {
+        if (onDone != null) {
+            onDone.accept(success);
+        }
+    }
+
+    // Getters
+    public Type getType() { return type; }
+    public String getQuestId() { return questId; }
+    public List<String> getQuestIds() { return questIds; }
+    public boolean isOrdered() { return ordered; }
+    public QuestQueue.FailurePolicy getFailurePolicy() { return failurePolicy; }
+    public File getRecording() { return recording; }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case START: return "START " + questId;
+            case ENQUEUE: return "ENQUEUE " + questIds;
+            case REPLAY: return "REPLAY " + recording.getName();
+            default: return type.name();
+        }
+    }
+}
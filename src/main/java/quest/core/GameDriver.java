@@ -0,0 +1,41 @@
+package quest.core;
+
+import org.dreambot.api.methods.map.Tile;
+
+/**
+ * Game Driver - stands in for the client on an engine that runs quests without one (the replay
+ * harness). With a driver set (QuestEngine.setGameDriver) action nodes hand their work to it instead
+ * of performing it, and GameState answers the trees' reads from it; without one both go to the client.
+ */
+public interface GameDriver {
+
+    int getConfig(int id);
+
+    int getBitValue(int id);
+
+    Tile getPlayerTile();
+
+    boolean inventoryContains(String item);
+
+    boolean equipmentContains(String item);
+
+    /**
+     * True if an NPC of that name is in the loaded scene
+     */
+    boolean npcNearby(String name);
+
+    /**
+     * True if the object of that name on the tile offers the action (a door that can still be opened)
+     */
+    boolean objectHasAction(String name, Tile tile, String action);
+
+    /**
+     * Whether the node would skip itself (ActionNode.shouldSkip)
+     */
+    boolean skips(QuestNode node);
+
+    /**
+     * Run the node's action (ActionNode.performAction)
+     */
+    boolean perform(QuestNode node);
+}
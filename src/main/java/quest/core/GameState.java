@@ -0,0 +1,64 @@
+package quest.core;
+
+import org.dreambot.api.methods.container.impl.Inventory;
+import org.dreambot.api.methods.container.impl.equipment.Equipment;
+import org.dreambot.api.methods.interactive.GameObjects;
+import org.dreambot.api.methods.interactive.NPCs;
+import org.dreambot.api.methods.interactive.Players;
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.methods.settings.PlayerSettings;
+import org.dreambot.api.wrappers.interactive.NPC;
+
+/**
+ * Game State - the reads a tree's decision node makes (quest variable, position, inventory, what is
+ * in sight). They go to the client, or to the engine's GameDriver when it runs without one, so a
+ * tree that reads through here can be replayed offline.
+ */
+public final class GameState {
+
+    private GameState() {
+    }
+
+    private static GameDriver driver() {
+        return QuestEngine.current().getGameDriver();
+    }
+
+    public static int getConfig(int id) {
+        GameDriver driver = driver();
+        return driver != null ? driver.getConfig(id) : PlayerSettings.getConfig(id);
+    }
+
+    public static int getBitValue(int id) {
+        GameDriver driver = driver();
+        return driver != null ? driver.getBitValue(id) : PlayerSettings.getBitValue(id);
+    }
+
+    public static Tile getPlayerTile() {
+        GameDriver driver = driver();
+        return driver != null ? driver.getPlayerTile() : Players.getLocal().getTile();
+    }
+
+    public static boolean inventoryContains(String item) {
+        GameDriver driver = driver();
+        return driver != null ? driver.inventoryContains(item) : Inventory.contains(item);
+    }
+
+    public static boolean equipmentContains(String item) {
+        GameDriver driver = driver();
+        return driver != null ? driver.equipmentContains(item) : Equipment.contains(item);
+    }
+
+    public static boolean npcNearby(String name) {
+        GameDriver driver = driver();
+        if (driver != null) return driver.npcNearby(name);
+        NPC npc = NPCs.closest(name);
+        return npc != null && npc.exists();
+    }
+
+    public static boolean objectHasAction(String name, Tile tile, String action) {
+        GameDriver driver = driver();
+        if (driver != null) return driver.objectHasAction(name, tile, action);
+        return GameObjects.closest(obj -> obj != null && name.equals(obj.getName())
+            && obj.getTile().equals(tile) && obj.hasAction(action)) != null;
+    }
+}
@@ -1,5 +1,12 @@
 package quest.core;
 
+import org.dreambot.api.methods.quest.Quests;
+import org.dreambot.api.methods.quest.book.FreeQuest;
+import quest.definition.QuestDefinition;
+import quest.definition.QuestDefinitions;
+import quest.registry.QuestRegistry;
+import quest.registry.QuestType;
+
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -11,241 +18,69 @@ public class QuestDatabase {
     
     private static final Map<String, QuestInfo> questInfo = new ConcurrentHashMap<>();
     
+    // Quest points awarded on completion (used to order quests that gate on quest points)
+    private static final Map<String, Integer> questPointRewards = new HashMap<>();
+    
+    // Entries that came from a quest definition (replaced when the definition is reloaded)
+    private static final Set<String> definitionIds = ConcurrentHashMap.newKeySet();
+    
+    // Display name -> quest id, kept in step with questInfo by register()
+    private static final Map<String, String> idsByDisplayName = new ConcurrentHashMap<>();
+    
     static {
+        questPointRewards.put("COOKS_ASSISTANT", 1);
+        questPointRewards.put("VAMPIRE_SLAYER", 3);
+        questPointRewards.put("DEMON_SLAYER", 3);
+        questPointRewards.put("DORICS_QUEST", 1);
+        questPointRewards.put("PIRATES_TREASURE", 2);
+        questPointRewards.put("IMP_CATCHER", 1);
+        questPointRewards.put("THE_KNIGHTS_SWORD", 1);
+        questPointRewards.put("RUNE_MYSTERIES", 1);
+        questPointRewards.put("WITCHS_POTION", 1);
+        questPointRewards.put("ERNEST_THE_CHICKEN", 4);
+        questPointRewards.put("ROMEO_AND_JULIET", 5);
+        questPointRewards.put("SHEEP_SHEARER", 1);
+        questPointRewards.put("THE_RESTLESS_GHOST", 1);
+        questPointRewards.put("X_MARKS_THE_SPOT", 1);
+        questPointRewards.put("GOBLIN_DIPLOMACY", 5);
+        questPointRewards.put("BLACK_KNIGHTS_FORTRESS", 3);
+        questPointRewards.put("THE_CORSAIR_CURSE", 2);
+        questPointRewards.put("DRAGON_SLAYER", 2);
+        questPointRewards.put("PRINCE_ALI_RESCUE", 3);
+        questPointRewards.put("BELOW_ICE_MOUNTAIN", 1);
+        questPointRewards.put("MERLINS_CRYSTAL", 6);
+        
+        // Every quest with a QuestTree, from the @QuestEntry annotations on the trees
+        for (QuestRegistry.Entry entry : QuestRegistry.all()) {
+            register(new QuestInfo(
+                entry.getId(),
+                entry.getDisplayName(),
+                entry.getType(),
+                entry.getDifficulty(),
+                entry.getEstimatedMinutes(),
+                entry.getSkills(),
+                entry.getItems()
+            ));
+        }
+        
+        // Quests without a tree yet
+        
         // Tutorial Island (Special tutorial)
-        questInfo.put("TUTORIAL_ISLAND", new QuestInfo(
+        register(new QuestInfo(
             "TUTORIAL_ISLAND",
             "Tutorial Island",
+            QuestType.MINIQUEST,
             1, // difficulty
             30, // estimated duration minutes
             new ArrayList<>(), // skill requirements
             new ArrayList<>() // no items required - tutorial provides everything
         ));
         
-        // Cook's Assistant
-        questInfo.put("COOKS_ASSISTANT", new QuestInfo(
-            "COOKS_ASSISTANT",
-            "Cook's Assistant", 
-            1, // difficulty
-            5, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            Arrays.asList("Egg", "Bucket of milk", "Pot of flour") // required items
-        ));
-        
-        // Vampire Slayer
-        questInfo.put("VAMPIRE_SLAYER", new QuestInfo(
-            "VAMPIRE_SLAYER",
-            "Vampire Slayer",
-            2, // difficulty
-            15, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            Arrays.asList("Hammer", "Garlic", "Stake") // required items
-        ));
-
-        // Demon Slayer
-        questInfo.put("DEMON_SLAYER", new QuestInfo(
-            "DEMON_SLAYER",
-            "Demon Slayer",
-            2, // difficulty
-            20, // estimated duration minutes
-            new ArrayList<>(),
-            Arrays.asList("Bucket of water", "Bones x25")
-        ));
-        
-        // Doric's Quest
-        questInfo.put("DORICS_QUEST", new QuestInfo(
-            "DORICS_QUEST",
-            "Doric's Quest",
-            1, // difficulty (very easy)
-            5, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            Arrays.asList("Copper ore", "Clay", "Iron ore") // required items
-        ));
-        
-        // Pirate's Treasure
-        questInfo.put("PIRATES_TREASURE", new QuestInfo(
-            "PIRATES_TREASURE",
-            "Pirate's Treasure",
-            3, // difficulty (intermediate)
-            20, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            Arrays.asList("Karamjan rum", "White apron", "Spade", "30 gp") // required items
-        ));
-        
-        // Imp Catcher
-        questInfo.put("IMP_CATCHER", new QuestInfo(
-            "IMP_CATCHER",
-            "Imp Catcher",
-            1, // difficulty
-            10, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            Arrays.asList("Red bead", "Yellow bead", "Black bead", "White bead") // required items
-        ));
-
-        // The Knight's Sword
-        questInfo.put("THE_KNIGHTS_SWORD", new QuestInfo(
-            "THE_KNIGHTS_SWORD",
-            "The Knight's Sword",
-            2, // difficulty
-            20, // estimated duration minutes
-            new ArrayList<>(),
-            Arrays.asList("Redberry pie", "Iron bar x2", "Any pickaxe")
-        ));
-        
-        // Rune Mysteries
-        questInfo.put("RUNE_MYSTERIES", new QuestInfo(
-            "RUNE_MYSTERIES",
-            "Rune Mysteries",
-            1, // difficulty
-            8, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            new ArrayList<>() // no items required to start (Air talisman given during quest)
-        ));
-        
-        // Witch's Potion
-        questInfo.put("WITCHS_POTION", new QuestInfo(
-            "WITCHS_POTION",
-            "Witch's Potion",
-            1, // difficulty
-            15, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            Arrays.asList("Raw beef", "Eye of newt", "Onion") // required items
-        ));
-        
-        // Ernest the Chicken
-        questInfo.put("ERNEST_THE_CHICKEN", new QuestInfo(
-            "ERNEST_THE_CHICKEN",
-            "Ernest the Chicken",
-            1, // difficulty
-            10, // estimated duration minutes
-            new ArrayList<>(), // no skills required
-            Arrays.asList("Spade") // optional; spade can be helpful depending on route
-        ));
-        
-        // Romeo and Juliet
-        questInfo.put("ROMEO_AND_JULIET", new QuestInfo(
-            "ROMEO_AND_JULIET",
-            "Romeo and Juliet",
-            1, // difficulty
-            12, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            new ArrayList<>() // no items required to start
-        ));
-        
-        // Sheep Shearer
-        questInfo.put("SHEEP_SHEARER", new QuestInfo(
-            "SHEEP_SHEARER",
-            "Sheep Shearer",
-            1, // difficulty
-            8, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            new ArrayList<>() // no items required to start
-        ));
-        
-        // The Restless Ghost
-        questInfo.put("THE_RESTLESS_GHOST", new QuestInfo(
-            "THE_RESTLESS_GHOST",
-            "The Restless Ghost",
-            1, // difficulty
-            10, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            new ArrayList<>() // no items required to start (Ghostspeak amulet given during quest)
-        ));
-        
-        // X Marks the Spot
-        questInfo.put("X_MARKS_THE_SPOT", new QuestInfo(
-            "X_MARKS_THE_SPOT",
-            "X Marks the Spot",
-            1, // difficulty
-            8, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            Arrays.asList("Spade") // required items - need a spade to dig
-        ));
-
-        // Goblin Diplomacy
-        questInfo.put("GOBLIN_DIPLOMACY", new QuestInfo(
-            "GOBLIN_DIPLOMACY",
-            "Goblin Diplomacy",
-            1, // difficulty
-            8, // estimated duration minutes
-            new ArrayList<>(), // skill requirements
-            Arrays.asList("Orange dye", "Blue dye", "Goblin mail x3") // purchased via GE
-        ));
-
-        // Black Knights' Fortress
-        questInfo.put("BLACK_KNIGHTS_FORTRESS", new QuestInfo(
-            "BLACK_KNIGHTS_FORTRESS",
-            "Black Knights' Fortress",
-            2,
-            12,
-            new ArrayList<>(),
-            Arrays.asList("Iron chainbody", "Bronze med helm", "Cabbage")
-        ));
-
-        // The Corsair Curse
-        questInfo.put("THE_CORSAIR_CURSE", new QuestInfo(
-            "THE_CORSAIR_CURSE",
-            "The Corsair Curse",
-            1, // difficulty
-            12, // estimated duration minutes
-            new ArrayList<>(),
-            Arrays.asList("Spade") // based on log: used spade to dig
-        ));
-        
-        // Dragon Slayer
-        questInfo.put("DRAGON_SLAYER", new QuestInfo(
-            "DRAGON_SLAYER",
-            "Dragon Slayer",
-            3, // difficulty
-            20, // estimated duration minutes
-            Arrays.asList("32 Quest Points"), // skill requirements
-            Arrays.asList("Anti-dragon shield") // required items (for later stages)
-        ));
-
-        // Dragon Slayer (Stage 2 - Debug)
-        questInfo.put("DRAGON_SLAYER_STAGE_2_DEBUG", new QuestInfo(
-            "DRAGON_SLAYER_STAGE_2_DEBUG",
-            "Dragon Slayer - Stage 2 (debug)",
-            3,
-            15,
-            new ArrayList<>(),
-            Arrays.asList("Silk", "Lobster pot", "Unfired bowl", "Wizard's mind bomb")
-        ));
-
-        // Dragon Slayer (Stage 3 - Melzar's Map Piece - Debug)
-        questInfo.put("DRAGON_SLAYER_MELZAR_DEBUG", new QuestInfo(
-            "DRAGON_SLAYER_MELZAR_DEBUG",
-            "Dragon Slayer - Melzar's Map Piece (debug)",
-            4,
-            25,
-            new ArrayList<>(),
-            Arrays.asList("Maze key", "Combat gear", "Food for Lesser Demon fight")
-        ));
-
-        // Dragon Slayer (Stage 4 - Lozar's Map Piece - Debug)
-        questInfo.put("DRAGON_SLAYER_LOZAR_DEBUG", new QuestInfo(
-            "DRAGON_SLAYER_LOZAR_DEBUG",
-            "Dragon Slayer - Lozar's Map Piece (debug)",
-            3,
-            10,
-            new ArrayList<>(),
-            Arrays.asList("10,000 coins (or combat gear for Wormbrain)")
-        ));
-
-        // Dragon Slayer (Stage 5 - Boat Obtaining - Debug)
-        questInfo.put("DRAGON_SLAYER_BOAT_DEBUG", new QuestInfo(
-            "DRAGON_SLAYER_BOAT_DEBUG",
-            "Dragon Slayer - Boat Obtaining (debug)",
-            3,
-            15,
-            new ArrayList<>(),
-            Arrays.asList("Hammer", "3 planks", "90 steel nails", "2,000 coins", "Crandor map", "Amulet of glory (recommended)")
-        ));
-
         // Prince Ali Rescue
-        questInfo.put("PRINCE_ALI_RESCUE", new QuestInfo(
+        register(new QuestInfo(
             "PRINCE_ALI_RESCUE",
             "Prince Ali Rescue",
+            QuestType.F2P,
             1, // difficulty
             15, // estimated duration minutes
             new ArrayList<>(),
@@ -259,21 +94,12 @@ public class QuestDatabase {
                 "Soft clay"
             )
         ));
-
-        // Below Ice Mountain (BIM)
-        questInfo.put("BELOW_ICE_MOUNTAIN", new QuestInfo(
-            "BELOW_ICE_MOUNTAIN",
-            "Below Ice Mountain",
-            1,
-            20,
-            new ArrayList<>(),
-            new ArrayList<>()
-        ));
-
+        
         // Merlin's Crystal (Members Quest)
-        questInfo.put("MERLINS_CRYSTAL", new QuestInfo(
+        register(new QuestInfo(
             "MERLINS_CRYSTAL",
             "Merlin's Crystal",
+            QuestType.MEMBERS,
             3, // difficulty
             45, // estimated duration minutes
             new ArrayList<>(), // no skill requirements
@@ -286,16 +112,138 @@ public class QuestDatabase {
                 "Excalibur"
             )
         ));
+
+        registerDefinitions();
+    }
+    
+    /**
+     * Add the data-driven quests (quest_data/quests) that have no entry above.
+     * Called again after a definition reload, so added or renamed definitions show up and deleted
+     * ones go away.
+     */
+    public static synchronized void registerDefinitions() {
+        for (Iterator<String> it = definitionIds.iterator(); it.hasNext(); ) {
+            String id = it.next();
+            if (!QuestDefinitions.contains(id)) {
+                it.remove();
+                unregister(id);
+            }
+        }
+        for (QuestDefinition definition : QuestDefinitions.getAll()) {
+            QuestInfo existing = questInfo.get(definition.getId());
+            if (existing != null && !definitionIds.contains(definition.getId())) continue;
+            definitionIds.add(definition.getId());
+            register(new QuestInfo(
+                definition.getId(),
+                definition.getName(),
+                definition.getDifficulty(),
+                definition.getEstimatedMinutes(),
+                new ArrayList<>(),
+                definition.getItemNames()
+            ));
+        }
+    }
+    
+    private static synchronized void register(QuestInfo info) {
+        QuestInfo previous = questInfo.put(info.getQuestId(), info);
+        if (previous != null) {
+            idsByDisplayName.remove(previous.getDisplayName(), previous.getQuestId());
+        }
+        idsByDisplayName.put(info.getDisplayName(), info.getQuestId());
+    }
+    
+    private static synchronized void unregister(String questId) {
+        QuestInfo previous = questInfo.remove(questId);
+        if (previous != null) {
+            idsByDisplayName.remove(previous.getDisplayName(), questId);
+        }
     }
     
     public static QuestInfo getQuestInfo(String questId) {
         return questInfo.get(questId);
     }
     
+    /**
+     * Quest id for a display name ("Cook's Assistant" -> COOKS_ASSISTANT), or null
+     */
+    public static String findQuestId(String displayName) {
+        return displayName != null ? idsByDisplayName.get(displayName) : null;
+    }
+    
     public static boolean isQuestComplete(String questId) {
-        // This would normally check game state via DreamBot API
-        // For now, return false to allow testing
-        return false;
+        // Live check via the DreamBot quest API; debug stages and unknown ids are never "complete"
+        FreeQuest quest = getFreeQuest(questId);
+        if (quest == null) return false;
+        try {
+            return Quests.isFinished(quest);
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+    
+    /**
+     * Check whether the player currently meets a quest's requirements
+     * (quest points from the skill requirement list, plus the game's own requirement check)
+     */
+    public static boolean meetsRequirements(String questId) {
+        QuestInfo info = questInfo.get(questId);
+        if (info == null) return false;
+        try {
+            int requiredQuestPoints = getRequiredQuestPoints(questId);
+            if (requiredQuestPoints > 0 && Quests.getQuestPoints() < requiredQuestPoints) {
+                return false;
+            }
+            FreeQuest quest = getFreeQuest(questId);
+            return quest == null || quest.hasRequirements();
+        } catch (Throwable t) {
+            // Without live game state, assume eligible and let the tree decide
+            return true;
+        }
+    }
+    
+    /**
+     * Quest points listed in the skill requirements ("32 Quest Points"), or 0
+     */
+    public static int getRequiredQuestPoints(String questId) {
+        QuestInfo info = questInfo.get(questId);
+        if (info == null) return 0;
+        for (String requirement : info.getSkillRequirements()) {
+            String lower = requirement.toLowerCase();
+            if (lower.endsWith("quest points")) {
+                try {
+                    return Integer.parseInt(lower.replace("quest points", "").trim());
+                } catch (NumberFormatException ignored) {
+                    // Not a plain number, ignore
+                }
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Quest points awarded for completing a quest, or 0 if unknown
+     */
+    public static int getQuestPointReward(String questId) {
+        return questPointRewards.getOrDefault(questId, 0);
+    }
+    
+    /**
+     * Map our quest id onto DreamBot's FreeQuest enum (ids differ by "THE_" prefixes and spelling)
+     */
+    public static FreeQuest getFreeQuest(String questId) {
+        if (questId == null) return null;
+        String normalized = normalizeQuestKey(questId);
+        for (FreeQuest quest : FreeQuest.values()) {
+            if (normalizeQuestKey(quest.name()).equals(normalized)) {
+                return quest;
+            }
+        }
+        return null;
+    }
+    
+    private static String normalizeQuestKey(String key) {
+        String normalized = key.toUpperCase().replace("VAMPYRE", "VAMPIRE");
+        return normalized.startsWith("THE_") ? normalized.substring(4) : normalized;
     }
     
     public static Map<String, QuestInfo> getAllQuests() {
@@ -330,6 +278,7 @@ public class QuestDatabase {
     public static class QuestInfo {
         private final String questId;
         private final String displayName;
+        private final QuestType type;
         private final int difficulty;
         private final int estimatedDurationMinutes;
         private final List<String> skillRequirements;
@@ -338,8 +287,16 @@ public class QuestDatabase {
         public QuestInfo(String questId, String displayName, int difficulty, 
                         int estimatedDurationMinutes, List<String> skillRequirements, 
                         List<String> requiredItems) {
+            this(questId, displayName, QuestType.F2P, difficulty, estimatedDurationMinutes,
+                skillRequirements, requiredItems);
+        }
+        
+        public QuestInfo(String questId, String displayName, QuestType type, int difficulty, 
+                        int estimatedDurationMinutes, List<String> skillRequirements, 
+                        List<String> requiredItems) {
             this.questId = questId;
             this.displayName = displayName;
+            this.type = type;
             this.difficulty = difficulty;
             this.estimatedDurationMinutes = estimatedDurationMinutes;
             this.skillRequirements = new ArrayList<>(skillRequirements);
@@ -349,6 +306,7 @@ public class QuestDatabase {
         // Getters
         public String getQuestId() { return questId; }
         public String getDisplayName() { return displayName; }
+        public QuestType getType() { return type; }
         public int getDifficulty() { return difficulty; }
         public int getEstimatedDurationMinutes() { return estimatedDurationMinutes; }
         public List<String> getSkillRequirements() { return new ArrayList<>(skillRequirements); }
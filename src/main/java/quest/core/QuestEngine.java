@@ -0,0 +1,148 @@
+package quest.core;
+
+import quest.dialogue.DialogueEngine;
+import quest.metrics.QuestMetrics;
+import quest.travel.NpcSightings;
+import quest.travel.RunEnergyPlanner;
+import quest.travel.TeleportPlanner;
+import quest.travel.TravelPlanner;
+import quest.utils.BankMirror;
+import quest.utils.QuestLogger;
+
+import java.util.Properties;
+import java.util.concurrent.Callable;
+
+/**
+ * Quest Engine - one account's session: the executor and everything it learns or caches along the way
+ * (metrics, travel planner and route library, teleport and run energy planners, NPC sightings, bank
+ * mirror, dialogue engine, file logger) plus setting overrides on top of quest_data/settings.properties.
+ *
+ * The script runs on the default engine. Other engines (simulations, benchmarks, batch validation)
+ * are created with new QuestEngine(...) and used through run()/call(), which bind the engine to the
+ * calling thread; every static getInstance() in the framework is a thin adapter for current().
+ * Quest catalogs (QuestDatabase, QuestData, QuestLocations) are read-only and shared by all engines.
+ * An engine with a GameDriver runs its trees against that instead of the client.
+ */
+public class QuestEngine {
+
+    private static final ThreadLocal<QuestEngine> bound = new ThreadLocal<>();
+
+    private final String name;
+    private final Properties settings;
+
+    private final QuestMetrics metrics;
+    private final QuestLogger logger;
+    private final TravelPlanner travelPlanner;
+    private final TeleportPlanner teleportPlanner;
+    private final RunEnergyPlanner runEnergyPlanner;
+    private final NpcSightings npcSightings;
+    private final BankMirror bankMirror;
+    private final DialogueEngine dialogueEngine;
+    private final QuestExecutor executor;
+    // Null when the client is there; set by the replay harness
+    private volatile GameDriver gameDriver;
+
+    // Holder idiom: created on first use, without locking on every current() call
+    private static class DefaultHolder {
+        private static final QuestEngine INSTANCE = new QuestEngine("default", new Properties());
+    }
+
+    /**
+     * @param settings overrides for this engine only; keys as in settings.properties
+     */
+    public QuestEngine(String name, Properties settings) {
+        this.name = name;
+        this.settings = settings;
+        // Components must not reach for current() while being built - it may be another engine
+        this.metrics = new QuestMetrics();
+        this.logger = new QuestLogger();
+        this.travelPlanner = new TravelPlanner();
+        this.teleportPlanner = new TeleportPlanner();
+        this.runEnergyPlanner = new RunEnergyPlanner();
+        this.npcSightings = new NpcSightings();
+        this.bankMirror = new BankMirror();
+        this.dialogueEngine = new DialogueEngine();
+        this.executor = new QuestExecutor(this);
+    }
+
+    /**
+     * The engine the script runs on
+     */
+    public static QuestEngine getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * The engine bound to this thread, or the default engine
+     */
+    public static QuestEngine current() {
+        QuestEngine engine = bound.get();
+        return engine != null ? engine : DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Run a task with this engine bound to the calling thread
+     */
+    public void run(Runnable task) {
+        QuestEngine previous = bound.get();
+        bound.set(this);
+        try {
+            task.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Call a task with this engine bound to the calling thread
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        QuestEngine previous = bound.get();
+        bound.set(this);
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static void restore(QuestEngine previous) {
+        if (previous != null) {
+            bound.set(previous);
+        } else {
+            bound.remove();
+        }
+    }
+
+    /**
+     * Run this engine's quests against a stand-in for the client instead of the game
+     */
+    public void setGameDriver(GameDriver gameDriver) {
+        this.gameDriver = gameDriver;
+    }
+
+    /**
+     * This engine's override for a setting, or null to use the shared settings file
+     */
+    public String getSetting(String key) {
+        return settings.getProperty(key);
+    }
+
+    // Getters
+    public String getName() { return name; }
+    public QuestExecutor getExecutor() { return executor; }
+    public QuestMetrics getMetrics() { return metrics; }
+    public QuestLogger getLogger() { return logger; }
+    public TravelPlanner getTravelPlanner() { return travelPlanner; }
+    public TeleportPlanner getTeleportPlanner() { return teleportPlanner; }
+    public RunEnergyPlanner getRunEnergyPlanner() { return runEnergyPlanner; }
+    public NpcSightings getNpcSightings() { return npcSightings; }
+    public BankMirror getBankMirror() { return bankMirror; }
+    public DialogueEngine getDialogueEngine() { return dialogueEngine; }
+    public GameDriver getGameDriver() { return gameDriver; }
+
+    @Override
+    public String toString() {
+        return "QuestEngine[" + name + "]";
+    }
+}
@@ -33,11 +33,18 @@ import org.dreambot.api.script.listener.ActionListener;
 import org.dreambot.api.script.listener.VarListener;
 import org.dreambot.api.wrappers.widgets.MenuRow;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import quest.fleet.FleetClient;
+import quest.recording.RecordingIndex;
+import quest.recording.RecordingJournal;
+import quest.travel.RouteLibrary;
+import quest.travel.TravelGraph;
+import quest.travel.TravelPlanner;
+import quest.utils.QuestSettings;
+import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -56,7 +63,9 @@ import java.util.Map;
 public class QuestEventLogger implements ActionListener, VarListener {
     
     private final AbstractScript script;
-    private BufferedWriter logWriter;
+    // The script's sendDiscoveryToGUI(String), looked up once; null when the script has none
+    private final java.lang.reflect.Method guiSink;
+    private RecordingJournal journal;
     private String currentQuest;
     private int stepCounter = 1;
     private boolean initialized = false;
@@ -87,6 +96,7 @@ public class QuestEventLogger implements ActionListener, VarListener {
     // Journey tracking for better movement logging
     private Tile journeyStartTile = null;
     private long journeyStartTime = 0;
+    private final List<Tile> journeyCheckpoints = new ArrayList<>(); // Breadcrumbs for the route library
     // Removed: lastPosition - unused after movement tracking refactor
     
     // NEW: Movement spam reduction
@@ -181,6 +191,7 @@ public class QuestEventLogger implements ActionListener, VarListener {
     
     public QuestEventLogger(AbstractScript script, String questName) {
         this.script = script;
+        this.guiSink = findGuiSink(script);
         this.currentQuest = questName;
         initializeLogger();
         initializeStateTracking();
@@ -188,38 +199,22 @@ public class QuestEventLogger implements ActionListener, VarListener {
     
     private void initializeLogger() {
         try {
-            // Create quest_logs directory in the workspace
-            String workspacePath = "C:\\Users\\Leone\\Desktop\\Projects in progress\\Dreambot Projects\\AI Quest system";
-            java.io.File logDir = new java.io.File(workspacePath + "\\quest_logs");
-            if (!logDir.exists()) {
-                logDir.mkdirs();
-                script.log("Created quest logs directory at: " + logDir.getAbsolutePath());
-            }
-            
-            // Create log file
+            // Recordings go to a portable directory (relative to the client's working directory by default)
+            File logDir = getLogDirectory();
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String filename = "QUEST_" + currentQuest.replaceAll("[^a-zA-Z0-9]", "_") + "_" + timestamp + ".log";
-            String fullPath = logDir.getAbsolutePath() + "\\" + filename;
+            String baseName = "QUEST_" + currentQuest.replaceAll("[^a-zA-Z0-9]", "_") + "_" + timestamp;
             
-            logWriter = new BufferedWriter(new FileWriter(fullPath, true));
-            
-            // Write header
-            logWriter.write("=====================================\n");
-            logWriter.write("    QUEST SCRIPT RECREATION LOG     \n");
-            logWriter.write("=====================================\n");
-            logWriter.write("Quest: " + currentQuest + "\n");
-            logWriter.write("Started: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "\n");
-            logWriter.write("Player: " + (Players.getLocal() != null ? Players.getLocal().getName() : "Unknown") + "\n");
+            journal = RecordingJournal.create(logDir, baseName, currentQuest,
+                Players.getLocal() != null ? Players.getLocal().getName() : "Unknown",
+                QuestSettings.getBoolean("recording.text", true));
             if (Players.getLocal() != null) {
-                logWriter.write("Starting Location: " + formatLocation(Players.getLocal().getTile()) + "\n");
-                logWriter.write("Starting Inventory: " + getCurrentInventoryString() + "\n");
+                journal.headerField("Starting Location", formatLocation(Players.getLocal().getTile()));
+                journal.headerField("Starting Inventory", getCurrentInventoryString());
             }
-            logWriter.write("=====================================\n\n");
-            logWriter.flush();
             
             initialized = true;
             script.log("QUEST LOGGER: Initialized for " + currentQuest);
-            script.log("LOG FILE: " + fullPath);
+            script.log("LOG FILE: " + journal.getFile().getAbsolutePath());
             
             // Enable DreamBot console integration
             setupConsoleIntegration();
@@ -976,6 +971,8 @@ public class QuestEventLogger implements ActionListener, VarListener {
                 if (currentTime - lastMovementStartLog > MOVEMENT_LOG_COOLDOWN) {
                     journeyStartTile = currentPos;
                     journeyStartTime = currentTime;
+                    journeyCheckpoints.clear();
+                    journeyCheckpoints.add(currentPos);
                     logDetail("Movement", "Started significant journey from " + formatLocation(currentPos));
                     lastMovementStartLog = currentTime;
                 }
@@ -983,6 +980,8 @@ public class QuestEventLogger implements ActionListener, VarListener {
                 if (journeyStartTile == null) {
                     journeyStartTile = currentPos;
                     journeyStartTime = currentTime;
+                    journeyCheckpoints.clear();
+                    journeyCheckpoints.add(currentPos);
                 }
             } else {
                 // Stopped moving - CONSOLIDATED logging with distance filtering
@@ -997,6 +996,16 @@ public class QuestEventLogger implements ActionListener, VarListener {
                             "Walking.walk(new Tile(" + currentPos.getX() + ", " + currentPos.getY() + ", " + currentPos.getZ() + "))");
                         logDetail("Journey", "Walked " + String.format("%.0f", journeyDistance) + " tiles in " + (journeyTime/1000) + "s | " + 
                             formatLocation(journeyStartTile) + " → " + formatLocation(currentPos));
+                        
+                        // Keep the breadcrumb trail so the walker can replay this path later
+                        journeyCheckpoints.add(currentPos);
+                        if (journeyCheckpoints.size() >= 3) {
+                            logDetail("Route", RouteLibrary.formatRoute(journeyCheckpoints));
+                            if (TravelPlanner.getInstance().getRouteLibrary().record(
+                                    new ArrayList<>(journeyCheckpoints), journeyTime, "live")) {
+                                FleetClient.getInstance().shareRoute(journeyCheckpoints, journeyTime);
+                            }
+                        }
                     }
                     // Log teleports/cutscenes differently (less frequent but important)
                     else if (journeyDistance > TELEPORT_DISTANCE_THRESHOLD) {
@@ -1025,6 +1034,17 @@ public class QuestEventLogger implements ActionListener, VarListener {
             lastMovingState = currentlyMoving;
         }
         
+        // Drop a breadcrumb every few tiles while a journey is under way
+        if (currentlyMoving && journeyStartTile != null && currentPos != null && !journeyCheckpoints.isEmpty()) {
+            Tile lastCheckpoint = journeyCheckpoints.get(journeyCheckpoints.size() - 1);
+            if (!TravelGraph.sameLayer(lastCheckpoint, currentPos)) {
+                journeyCheckpoints.clear(); // Climbed mid-journey - only the walk after the climb is replayable
+                journeyCheckpoints.add(currentPos);
+            } else if (lastCheckpoint.distance(currentPos) >= RouteLibrary.CHECKPOINT_SPACING) {
+                journeyCheckpoints.add(currentPos);
+            }
+        }
+        
         // Position tracking handled by journey system
     }
     
@@ -1422,16 +1442,8 @@ public class QuestEventLogger implements ActionListener, VarListener {
     
     private void logStep(String description, String scriptCommand) {
         try {
-            if (logWriter != null) {
-                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                String logLine = String.format("[%s] QUEST STEP %d: %s\n", timestamp, stepCounter++, description);
-                
-                logWriter.write(logLine);
-                if (scriptCommand != null && !scriptCommand.isEmpty()) {
-                    logWriter.write("    SCRIPT: " + scriptCommand + "\n");
-                }
-                logWriter.write("\n");
-                logWriter.flush();
+            if (journal != null) {
+                journal.step(stepCounter++, description, scriptCommand);
                 
                 // Console output
                 script.log("QUEST STEP " + (stepCounter - 1) + ": " + description);
@@ -1449,16 +1461,8 @@ public class QuestEventLogger implements ActionListener, VarListener {
     
     private void logAction(String description, String scriptCommand) {
         try {
-            if (logWriter != null) {
-                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                String logLine = String.format("[%s] ACTION: %s\n", timestamp, description);
-                
-                logWriter.write(logLine);
-                if (scriptCommand != null && !scriptCommand.isEmpty()) {
-                    logWriter.write("    SCRIPT: " + scriptCommand + "\n");
-                }
-                logWriter.write("\n");
-                logWriter.flush();
+            if (journal != null) {
+                journal.action(description, scriptCommand);
                 
                 // Console output
                 script.log("ACTION: " + description);
@@ -1476,12 +1480,8 @@ public class QuestEventLogger implements ActionListener, VarListener {
     
     private void logDetail(String category, String details) {
         try {
-            if (logWriter != null) {
-                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                String logLine = String.format("[%s] %s: %s\n", timestamp, category, details);
-                
-                logWriter.write(logLine);
-                logWriter.flush();
+            if (journal != null) {
+                journal.detail(category, details);
                 
                 // Console output
                 script.log(category + ": " + details);
@@ -1498,15 +1498,24 @@ public class QuestEventLogger implements ActionListener, VarListener {
      * NEW: Send discovery message to GUI through main script
      */
     private void sendToGUI(String message) {
+        if (guiSink == null) {
+            return;
+        }
         try {
-            // Call sendDiscoveryToGUI method on the main script using reflection
-            java.lang.reflect.Method method = script.getClass().getMethod("sendDiscoveryToGUI", String.class);
-            method.invoke(script, message);
+            guiSink.invoke(script, message);
         } catch (Exception e) {
             // Silent fail - GUI communication is optional
         }
     }
     
+    private static java.lang.reflect.Method findGuiSink(AbstractScript script) {
+        try {
+            return script.getClass().getMethod("sendDiscoveryToGUI", String.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+    
     // Removed: legacyQuestStates - unused after varbit-based tracking
     
     // 8. Quest Progress Tracking - Enhanced with Real-Time Varbit Monitoring + NEW API Integration
@@ -2347,12 +2356,8 @@ public class QuestEventLogger implements ActionListener, VarListener {
     // Method to capture DreamBot script output
     public void logConsoleOutput(String message) {
         try {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-            String consoleLog = "[" + timestamp + "] DREAMBOT_CONSOLE: " + message + "\n";
-            
-            if (logWriter != null) {
-                logWriter.write(consoleLog);
-                logWriter.flush();
+            if (journal != null) {
+                journal.console(message);
             }
         } catch (Exception e) {
             // Silent fail to prevent recursion
@@ -2360,7 +2365,14 @@ public class QuestEventLogger implements ActionListener, VarListener {
     }
     
     private String getCurrentLogPath() {
-        return System.getProperty("user.home") + "\\Desktop\\Projects in progress\\Dreambot Projects\\AI Quest system\\quest_logs\\";
+        return getLogDirectory().getAbsolutePath();
+    }
+    
+    /**
+     * Directory recordings are written to (settings key recording.dir)
+     */
+    public static File getLogDirectory() {
+        return new File(QuestSettings.getString("recording.dir", RecordingIndex.DEFAULT_LOG_DIR));
     }
     
     /**
@@ -2451,9 +2463,9 @@ public class QuestEventLogger implements ActionListener, VarListener {
             baselineConfigs.clear();
             lastActiveQuestVarbitValues.clear();
 
-            if (logWriter != null) {
+            if (journal != null) {
                 logDetail("QUEST_END", "=== QUEST RECORDING ENDED ===");
-                logWriter.close();
+                journal.close();
                 script.log("Quest log closed successfully");
             }
         } catch (IOException e) {
@@ -1,36 +1,26 @@
 package quest.core;
 
-import quest.trees.RomeoAndJulietTree;
-import quest.trees.RuneMysteriesTree;
-import quest.trees.CooksAssistantTree;
-import quest.trees.WitchsPotionTree;
-import quest.trees.SheepShearerTree;
-import quest.trees.XMarksTheSpotTree;
-import quest.trees.RestlessGhostTree;
-import quest.trees.VampyreSlayerTree;
-import quest.trees.DoricsQuestTree;
-import quest.trees.PiratesTreasureTree;
-import quest.trees.DemonSlayerTree;
-import quest.trees.GoblinDiplomacyTree;
-import quest.trees.BlackKnightsFortressTree;
-import quest.trees.ImpCatcherTree;
-import quest.trees.CorsairCurseTree;
-import quest.trees.KnightsSwordTree;
-import quest.trees.BelowIceMountainTree;
-import quest.trees.ErnestTheChickenTree;
-import quest.trees.DragonSlayerTree;
-// import quest.trees.MerlinsCrystalTree; // TODO: Implement Merlin's Crystal tree
-// import quest.trees.PrinceAliRescueTree; // REMOVED: Tree deleted from project
-
+import quest.definition.DefinitionTree;
+import quest.definition.QuestDefinition;
+import quest.definition.QuestDefinitions;
+import quest.registry.QuestRegistry;
+import quest.replay.ReplayScript;
+import quest.replay.ReplayTree;
 import org.dreambot.api.methods.Calculations;
 import org.dreambot.api.utilities.Timer;
 import org.dreambot.api.script.AbstractScript;
 import org.dreambot.api.methods.interactive.Players;
 import org.dreambot.api.methods.walking.impl.Walking;
 import org.dreambot.api.methods.container.impl.bank.Bank;
+import org.dreambot.api.methods.map.Tile;
+import quest.metrics.ExecutorStatus;
+import quest.metrics.QuestMetrics;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * The automation engine that manages and executes quest scripts.
@@ -47,15 +37,16 @@ public class QuestExecutor {
         ERROR
     }
     
-    private static QuestExecutor instance;
-    private ExecutorState currentState;
-    private QuestScript activeQuest;
-    private String activeQuestId;
+    private final QuestEngine engine;
+    // Written on the script thread only; volatile so other threads read a consistent value
+    private volatile ExecutorState currentState;
+    private volatile QuestScript activeQuest;
+    private volatile String activeQuestId;
     private Timer questTimer;
     private Timer stepTimer;
     private Map<String, Object> questContext;
     private List<String> executionLog;
-    private boolean emergencyStop;
+    private volatile boolean emergencyStop;
     private int maxRetries;
     private int currentRetries;
     
@@ -68,13 +59,21 @@ public class QuestExecutor {
     // Script reference for quest initialization
     private AbstractScript scriptReference;
     
-    private QuestExecutor() {
+    // Multi-quest queue (null when running single quests from the GUI)
+    private volatile QuestQueue questQueue;
+    
+    // Requests from other threads, applied by processCommands() on the script thread
+    private final Queue<ExecutorCommand> commands = new ConcurrentLinkedQueue<>();
+    
+    QuestExecutor(QuestEngine engine) {
+        this.engine = engine;
         this.currentState = ExecutorState.IDLE;
         this.questContext = new ConcurrentHashMap<>();
-        this.executionLog = new ArrayList<>();
+        this.executionLog = Collections.synchronizedList(new ArrayList<>());
         this.maxRetries = 3;
         this.currentRetries = 0;
         this.emergencyStop = false;
+        engine.getMetrics().registerGauge(QuestMetrics.GAUGE_EXECUTOR_LOG_LINES, () -> executionLog.size());
     }
     
     /**
@@ -85,13 +84,66 @@ public class QuestExecutor {
     }
     
     /**
-     * Get singleton instance
+     * Executor of the current engine (see QuestEngine.current())
      */
     public static QuestExecutor getInstance() {
-        if (instance == null) {
-            instance = new QuestExecutor();
+        return QuestEngine.current().getExecutor();
+    }
+    
+    /**
+     * Hand a command to the script thread; safe from any thread and never blocks.
+     * A stop takes effect immediately - running steps and queued quests see it before it is applied.
+     */
+    public void submit(ExecutorCommand command) {
+        if (command.getType() == ExecutorCommand.Type.STOP) {
+            emergencyStop = true;
+        }
+        commands.add(command);
+    }
+    
+    /**
+     * Apply submitted commands in order - call from the main bot loop before executing steps
+     */
+    public void processCommands() {
+        ExecutorCommand command;
+        boolean applied = false;
+        while ((command = commands.poll()) != null) {
+            log("Command: " + command);
+            boolean success;
+            try {
+                success = apply(command);
+            } catch (Exception e) {
+                log("ERROR: Command " + command + " failed - " + e.getMessage());
+                success = false;
+            }
+            command.complete(success);
+            applied = true;
+        }
+        if (applied) {
+            publishStatus();
+        }
+    }
+    
+    private boolean apply(ExecutorCommand command) {
+        switch (command.getType()) {
+            case START:
+                return startQuest(command.getQuestId());
+            case ENQUEUE:
+                return startQueue(command.getQuestIds(), command.isOrdered(), command.getFailurePolicy());
+            case REPLAY:
+                return startReplay(command.getRecording());
+            case STOP:
+                stopQuest();
+                return true;
+            case PAUSE:
+                pauseQuest();
+                return currentState == ExecutorState.PAUSED;
+            case RESUME:
+                resumeQuest();
+                return currentState == ExecutorState.EXECUTING;
+            default:
+                return false;
         }
-        return instance;
     }
     
     /**
@@ -130,6 +182,38 @@ public class QuestExecutor {
         }
         log("DEBUG: Quest script loaded successfully: " + questScript.getClass().getSimpleName());
         
+        return begin(questId, questInfo.getDisplayName(), questInfo.getEstimatedDurationMinutes(), questScript);
+    }
+    
+    /**
+     * Replay a recorded quest log (.log) or journal (.qrj) - the clicks as recorded, checked against
+     * the recorded quest variable (see ReplayTree). Not tied to a QuestDatabase entry.
+     */
+    public boolean startReplay(File recording) {
+        log("=== Starting Replay: " + recording.getName() + " ===");
+        if (isActive()) {
+            log("ERROR: Cannot start replay - another quest is already running: " + activeQuestId);
+            return false;
+        }
+        ReplayScript script;
+        try {
+            script = ReplayScript.load(recording, null);
+        } catch (IOException | RuntimeException e) {
+            log("ERROR: Cannot read recording " + recording + ": " + e.getMessage());
+            return false;
+        }
+        if (script.getSteps().isEmpty()) {
+            log("ERROR: Nothing to replay in " + recording.getName());
+            return false;
+        }
+        log(script.toString());
+        String questId = "REPLAY_" + recording.getName();
+        ReplayTree tree = new ReplayTree(script);
+        return begin(questId, tree.getQuestName(), Math.max(1, script.getRecordedSeconds() / 60),
+            new TreeQuestWrapper(tree, questId, tree.getQuestName()));
+    }
+    
+    private boolean begin(String questId, String displayName, int estimatedMinutes, QuestScript questScript) {
         // Initialize the quest script with dependencies
         if (scriptReference != null) {
             log("DEBUG: Initializing quest script with script reference");
@@ -148,8 +232,8 @@ public class QuestExecutor {
         this.currentRetries = 0;
         this.questContext.clear();
         
-        log("Starting quest: " + questInfo.getDisplayName());
-        log("Estimated duration: " + questInfo.getEstimatedDurationMinutes() + " minutes");
+        log("Starting quest: " + displayName);
+        log("Estimated duration: " + estimatedMinutes + " minutes");
         
         // Prepare quest
         log("DEBUG: Calling prepareQuest()...");
@@ -157,6 +241,122 @@ public class QuestExecutor {
         log("DEBUG: prepareQuest() returned: " + result);
         return result;
     }    /**
+     * Queue several quests to run back-to-back.
+     * Quests are started from the script thread by tickQueue(), so this is safe to call from the GUI.
+     * @param ordered run in the given order (true) or re-order to minimise travel between quests (false)
+     */
+    public boolean startQueue(List<String> questIds, boolean ordered, QuestQueue.FailurePolicy failurePolicy) {
+        if (isActive() || (questQueue != null && !questQueue.isFinished())) {
+            log("ERROR: Cannot start queue - executor is busy");
+            return false;
+        }
+        if (questIds == null || questIds.isEmpty()) {
+            log("ERROR: Cannot start an empty quest queue");
+            return false;
+        }
+        
+        questQueue = new QuestQueue(questIds, ordered, failurePolicy);
+        emergencyStop = false;
+        log("=== Quest queue started: " + questQueue.getRemainingQuestIds() + " (policy " + failurePolicy + ") ===");
+        return true;
+    }
+    
+    /**
+     * Advance the quest queue - call from the main bot loop.
+     * Gathers combined supplies once, then starts the next eligible quest whenever the executor is idle.
+     */
+    public void tickQueue() {
+        if (questQueue == null || emergencyStop) {
+            return;
+        }
+        if (isActive() || currentState == ExecutorState.PAUSED) {
+            return;
+        }
+        
+        if (!questQueue.isSuppliesPrepared()) {
+            questQueue.setSuppliesPrepared(true);
+            SupplyAggregator.SupplyPlan plan = SupplyAggregator.aggregate(questQueue.getRemainingQuestIds());
+            if (!plan.isEmpty()) {
+                log("Queue setup: gathering combined supplies - " + plan);
+                // PREPARING keeps GE/bank utilities active while no quest is running
+                currentState = ExecutorState.PREPARING;
+                try {
+                    if (!SupplyAggregator.gatherSupplies(plan)) {
+                        log("Queue setup: some supplies are still missing - quests will buy their own");
+                    }
+                } catch (Exception e) {
+                    log("Queue setup: supply gathering failed - " + e.getMessage());
+                }
+                if (currentState == ExecutorState.PREPARING) {
+                    currentState = ExecutorState.IDLE;
+                }
+                return;
+            }
+        }
+        
+        if (!questQueue.isRoutePlanned()) {
+            Tile origin = questQueue.getLastEndTile();
+            QuestOrderPlanner.Plan plan = questQueue.planRoute(origin != null ? origin : getPlayerTile());
+            if (plan != null) {
+                log("Queue route planned: " + plan);
+            }
+        }
+        
+        String nextQuestId = questQueue.nextEligible();
+        if (nextQuestId == null) {
+            finishQueue();
+            return;
+        }
+        
+        log("Queue: starting next quest " + nextQuestId + " (" + questQueue.getSummary() + ")");
+        questQueue.markStarted(nextQuestId);
+        if (!startQuest(nextQuestId)) {
+            // startQuest can leave ERROR state behind when preparation fails
+            resetExecutor();
+            if (!questQueue.markFailed(nextQuestId, 0, "Failed to start", getPlayerTile())) {
+                finishQueue();
+            }
+        }
+    }
+    
+    /**
+     * Log the final queue report and clear it
+     */
+    private void finishQueue() {
+        if (questQueue == null) return;
+        log("=== QUEST QUEUE FINISHED: " + questQueue.getSummary() + " in " + formatTime(questQueue.getElapsedMs()) + " ===");
+        for (QuestQueue.QuestRunStats stats : questQueue.getStats()) {
+            log("  " + stats);
+        }
+        questQueue = null;
+    }
+    
+    /**
+     * Stop the queue without touching the running quest
+     */
+    public void cancelQueue() {
+        if (questQueue != null) {
+            log("Quest queue cancelled");
+            questQueue.cancel();
+        }
+    }
+    
+    /**
+     * Get the active quest queue (null if none)
+     */
+    public QuestQueue getQuestQueue() {
+        return questQueue;
+    }
+    
+    private Tile getPlayerTile() {
+        try {
+            return Players.getLocal() != null ? Players.getLocal().getTile() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    /**
      * Prepare quest before execution
      */
     private boolean prepareQuest() {
@@ -227,6 +427,7 @@ public class QuestExecutor {
             
             // Reset step timer
             stepTimer = new Timer();
+            publishStatus();
             
             // Execute current step with enhanced logging
             String stepDesc = activeQuest.getCurrentStepDescription();
@@ -244,11 +445,7 @@ public class QuestExecutor {
                 log("[SUCCESS] Step completed successfully (total steps: " + stepsCompleted + ")");
                 
                 // Small delay between steps
-                try {
-                    Thread.sleep(Calculations.random(1000, 2000));
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+                pause(1000, 2000);
                 
             } else {
                 currentRetries++;
@@ -256,25 +453,34 @@ public class QuestExecutor {
                 
                 if (currentRetries >= maxRetries) {
                     log("🛑 Max retries reached - stopping quest execution");
-                    stopQuest();
+                    failActiveQuest("Max retries reached at: " + stepDesc);
                     return;
                 }
                 
                 // Wait before retry
-                try {
-                    Thread.sleep(Calculations.random(3000, 5000));
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+                pause(3000, 5000);
             }
             
         } catch (Exception e) {
             log("💥 CRITICAL ERROR during step execution: " + e.getMessage());
             e.printStackTrace();
-            stopQuest();
+            failActiveQuest("Critical error: " + e.getMessage());
         }
     }
     
+    /**
+     * Sleep between steps, counted as executor sleep in the metrics
+     */
+    private void pause(int minMs, int maxMs) {
+        int ms = Calculations.random(minMs, maxMs);
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        engine.getMetrics().addPhaseTime(QuestMetrics.Phase.SLEEP, ms);
+    }
+    
     /**
      * Complete the current quest
      */
@@ -286,7 +492,7 @@ public class QuestExecutor {
             questsCompleted++;
             
             log("=== QUEST COMPLETED ===");
-            log("Quest: " + QuestDatabase.getQuestInfo(activeQuestId).getDisplayName());
+            log("Quest: " + getCurrentQuestName());
             log("Total time: " + formatTime(totalExecutionTime));
             log("Steps completed: " + stepsCompleted);
             log("=======================");
@@ -294,6 +500,10 @@ public class QuestExecutor {
             activeQuest.onQuestComplete();
             currentState = ExecutorState.COMPLETED;
             
+            if (questQueue != null) {
+                questQueue.markCompleted(activeQuestId, stepsCompleted, getPlayerTile());
+            }
+            
             // Reset for next quest
             resetExecutor();
             
@@ -302,12 +512,43 @@ public class QuestExecutor {
         }
     }
     
+    /**
+     * Fail the running quest. Outside a queue this behaves like stopQuest();
+     * inside a queue the failure policy decides whether the next quest starts.
+     */
+    private void failActiveQuest(String reason) {
+        if (questQueue == null) {
+            stopQuest();
+            return;
+        }
+        
+        log("Quest failed in queue: " + activeQuestId + " - " + reason);
+        if (activeQuest != null) {
+            try {
+                activeQuest.cleanup();
+            } catch (Exception e) {
+                log("Error during quest cleanup: " + e.getMessage());
+            }
+        }
+        boolean keepGoing = questQueue.markFailed(activeQuestId, stepsCompleted, reason, getPlayerTile());
+        resetExecutor();
+        if (!keepGoing) {
+            finishQueue();
+        }
+    }
+    
     /**
      * Stop the current quest execution
      */
     public void stopQuest() {
         log("STOP QUEST REQUESTED - Immediate halt of all quest activities");
         
+        // A manual stop also ends any queued run
+        if (questQueue != null) {
+            questQueue.cancel();
+            finishQueue();
+        }
+        
         // CRITICAL: Set emergency stop flag first to prevent any new executions
         emergencyStop = true;
         currentState = ExecutorState.IDLE;
@@ -391,85 +632,22 @@ public class QuestExecutor {
     }
     
     /**
-     * Load quest script for given quest ID
-     * Now includes our discovered quest scripts!
+     * Load quest script for given quest ID - a registered tree (@QuestEntry), else a quest definition.
+     * Only the tree for this quest is constructed.
      */
     private QuestScript loadQuestScript(String questId) {
-        switch (questId) {
-            case "PRINCE_ALI_RESCUE":
-                log("Prince Ali Rescue quest tree not available (tree deleted from project)");
-                return null; // Tree was deleted from project
-            case "THE_KNIGHTS_SWORD":
-                log("Starting The Knight's Sword quest tree...");
-                return new TreeQuestWrapper(new KnightsSwordTree(), questId, "The Knight's Sword");
-            case "IMP_CATCHER":
-                log("Starting Imp Catcher quest tree...");
-                return new TreeQuestWrapper(new ImpCatcherTree(), questId, "Imp Catcher");
-            case "THE_CORSAIR_CURSE":
-                log("Starting The Corsair Curse tree...");
-                return new TreeQuestWrapper(new CorsairCurseTree(), questId, "The Corsair Curse");
-            case "VAMPIRE_SLAYER":
-                log("Starting Vampyre Slayer quest tree...");
-                return new TreeQuestWrapper(new VampyreSlayerTree(), questId, "Vampyre Slayer");
-            case "DEMON_SLAYER":
-                log("Starting Demon Slayer quest tree...");
-                return new TreeQuestWrapper(new DemonSlayerTree(), questId, "Demon Slayer");
-            case "DORICS_QUEST":
-                log("Starting Doric's Quest tree...");
-                return new TreeQuestWrapper(new DoricsQuestTree(), questId, "Doric's Quest");
-            case "PIRATES_TREASURE":
-                log("Starting Pirate's Treasure tree...");
-                return new TreeQuestWrapper(new PiratesTreasureTree(), questId, "Pirate's Treasure");
-            case "COOKS_ASSISTANT":
-                return new TreeQuestWrapper(new CooksAssistantTree(), questId, "Cook's Assistant");
-            case "RUNE_MYSTERIES":
-                return new TreeQuestWrapper(new RuneMysteriesTree(), questId, "Rune Mysteries");
-            case "WITCHS_POTION":
-                return new TreeQuestWrapper(new WitchsPotionTree(), questId, "Witch's Potion");
-            case "ROMEO_AND_JULIET":
-                return new TreeQuestWrapper(new RomeoAndJulietTree(), questId, "Romeo and Juliet");
-            case "SHEEP_SHEARER":
-                return new TreeQuestWrapper(new SheepShearerTree(), questId, "Sheep Shearer");
-            case "X_MARKS_THE_SPOT":
-                return new TreeQuestWrapper(new XMarksTheSpotTree(), questId, "X Marks the Spot");  
-            case "THE_RESTLESS_GHOST":
-                return new TreeQuestWrapper(new RestlessGhostTree(), questId, "The Restless Ghost");
-            case "GOBLIN_DIPLOMACY":
-                return new TreeQuestWrapper(new GoblinDiplomacyTree(), questId, "Goblin Diplomacy");
-            case "BLACK_KNIGHTS_FORTRESS":
-                return new TreeQuestWrapper(new BlackKnightsFortressTree(), questId, "Black Knights' Fortress");
-            case "BELOW_ICE_MOUNTAIN":
-                log("Starting Below Ice Mountain quest tree...");
-                return new TreeQuestWrapper(new BelowIceMountainTree(), questId, "Below Ice Mountain");
-            case "ERNEST_THE_CHICKEN":
-                log("Starting Ernest the Chicken quest tree...");
-                return new TreeQuestWrapper(new ErnestTheChickenTree(), questId, "Ernest the Chicken");
-            case "DRAGON_SLAYER":
-                log("Starting Dragon Slayer quest tree...");
-                return new TreeQuestWrapper(new DragonSlayerTree(), questId, "Dragon Slayer");
-            case "DRAGON_SLAYER_STAGE_2_DEBUG":
-                log("Starting Dragon Slayer - Stage 2 (debug) quest tree...");
-                return new TreeQuestWrapper(new DragonSlayerTree(true), questId, "Dragon Slayer - Stage 2 (debug)");
-            case "DRAGON_SLAYER_MELZAR_DEBUG":
-                log("Starting Dragon Slayer - Melzar's Map Piece (debug) quest tree...");
-                return new TreeQuestWrapper(new DragonSlayerTree("melzar"), questId, "Dragon Slayer - Melzar's Map Piece (debug)");
-            case "DRAGON_SLAYER_LOZAR_DEBUG":
-                log("Starting Dragon Slayer - Lozar's Map Piece (debug) quest tree...");
-                return new TreeQuestWrapper(new DragonSlayerTree("lozar"), questId, "Dragon Slayer - Lozar's Map Piece (debug)");
-            case "DRAGON_SLAYER_BOAT_DEBUG":
-                log("Starting Dragon Slayer - Boat Obtaining (debug) quest tree...");
-                return new TreeQuestWrapper(new DragonSlayerTree("boat"), questId, "Dragon Slayer - Boat Obtaining (debug)");
-            case "MERLINS_CRYSTAL":
-                log("Merlin's Crystal quest tree not yet implemented - waiting for manual logs");
-                return null; // TODO: Implement Merlin's Crystal tree
-            case "RESTLESS_GHOST": 
-                // TODO: Implement Restless Ghost script
-                log("Restless Ghost script not yet implemented");
-                return null;
-            default:
-                log("No quest script available for: " + questId);
-                return null;
+        QuestRegistry.Entry entry = QuestRegistry.get(questId);
+        if (entry != null) {
+            log("Starting " + entry.getDisplayName() + " quest tree...");
+            return new TreeQuestWrapper(entry.createTree(), questId, entry.getDisplayName());
+        }
+        QuestDefinition definition = QuestDefinitions.get(questId);
+        if (definition != null) {
+            log("Starting " + definition.getName() + " from its quest definition...");
+            return new TreeQuestWrapper(new DefinitionTree(definition), questId, definition.getName());
         }
+        log("No quest script available for: " + questId);
+        return null;
     }
     
     /**
@@ -486,6 +664,10 @@ public class QuestExecutor {
         return activeQuestId;
     }
     
+    public int getQuestsCompleted() {
+        return questsCompleted;
+    }
+    
     /**
      * Get quest execution progress
      */
@@ -506,9 +688,35 @@ public class QuestExecutor {
         stats.put("totalExecutionTime", formatTime(totalExecutionTime));
         stats.put("currentRetries", currentRetries);
         stats.put("maxRetries", maxRetries);
+        if (questQueue != null) {
+            stats.put("queueSummary", questQueue.getSummary());
+            stats.put("queueRemaining", questQueue.getRemainingQuestIds());
+            if (questQueue.getRoutePlan() != null) {
+                stats.put("queueEstimatedMinutes", Math.round(questQueue.getRoutePlan().getEstimatedTotalSeconds() / 60));
+            }
+        }
+        stats.putAll(engine.getMetrics().getSnapshot());
         return stats;
     }
     
+    /**
+     * Per-node / per-tree timing report (see QuestMetrics)
+     */
+    public String getMetricsReport() {
+        return engine.getMetrics().formatReport(15);
+    }
+    
+    /**
+     * Publish an immutable status snapshot for other threads (GUI, metrics endpoint).
+     * Called from the script thread only.
+     */
+    public void publishStatus() {
+        engine.getMetrics().publishStatus(new ExecutorStatus(currentState.name(), activeQuestId,
+            activeQuestId != null ? getCurrentQuestName() : null,
+            activeQuest != null ? activeQuest.getCurrentStepDescription() : null,
+            getCurrentProgress(), questQueue != null, System.currentTimeMillis()));
+    }
+    
     /**
      * Get execution log
      */
@@ -602,7 +810,8 @@ public class QuestExecutor {
     public String getCurrentQuestName() {
         if (activeQuestId != null) {
             QuestDatabase.QuestInfo info = QuestDatabase.getQuestInfo(activeQuestId);
-            return info != null ? info.getDisplayName() : activeQuestId;
+            QuestScript quest = activeQuest;
+            return info != null ? info.getDisplayName() : quest != null ? quest.getQuestName() : activeQuestId;
         }
         return "None";
     }
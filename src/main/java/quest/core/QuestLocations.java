@@ -0,0 +1,163 @@
+package quest.core;
+
+import org.dreambot.api.methods.map.Tile;
+
+import java.util.*;
+
+/**
+ * Quest Locations - where each quest starts, ends and the major stops in between.
+ * Tiles are taken from the quest trees' Tile constants so the planner and the trees agree.
+ */
+public class QuestLocations {
+
+    // OSRS underground areas sit 6400 tiles north of the surface area above them
+    private static final int UNDERGROUND_Y_OFFSET = 6400;
+
+    private static final Map<String, QuestFootprint> footprints = new HashMap<>();
+
+    static {
+        register("COOKS_ASSISTANT", new Tile(3207, 3214, 0), new Tile(3207, 3214, 0));
+
+        register("VAMPIRE_SLAYER", new Tile(3098, 3268, 0), new Tile(3077, 9775, 0),
+            new Tile(3223, 3397, 0),    // Dr Harlow, Blue Moon Inn
+            new Tile(3109, 3353, 0));   // Draynor Manor entrance
+
+        register("DEMON_SLAYER", new Tile(3205, 3424, 0), new Tile(3216, 3374, 0),
+            new Tile(3205, 3473, 0),    // Sir Prysin
+            new Tile(3205, 3496, 2),    // Captain Rovin
+            new Tile(3112, 3162, 1),    // Traiborn
+            new Tile(3211, 3432, 0),    // Varrock drain
+            new Tile(3232, 9901, 0));   // Sewers key
+
+        register("DORICS_QUEST", new Tile(2951, 3451, 0), new Tile(2951, 3451, 0));
+
+        register("PIRATES_TREASURE", new Tile(3049, 3253, 0), new Tile(2999, 3383, 0),
+            new Tile(3027, 3218, 0),    // Port Sarim docks
+            new Tile(2936, 3152, 0),    // Karamja plantation
+            new Tile(3219, 3396, 1));   // Blue Moon Inn chest
+
+        register("IMP_CATCHER", new Tile(3103, 3163, 2), new Tile(3103, 3163, 2));
+
+        register("THE_KNIGHTS_SWORD", new Tile(2978, 3339, 0), new Tile(2978, 3339, 0),
+            new Tile(3210, 3494, 0),    // Reldo
+            new Tile(3000, 3145, 0),    // Thurgo
+            new Tile(3049, 9567, 0),    // Ice dungeon
+            new Tile(2984, 3336, 2));   // Portrait cupboard
+
+        register("RUNE_MYSTERIES", new Tile(3210, 3224, 1), new Tile(3102, 9570, 0),
+            new Tile(3102, 9570, 0),    // Sedridor
+            new Tile(3253, 3403, 0));   // Aubury
+
+        register("WITCHS_POTION", new Tile(2969, 3207, 0), new Tile(2969, 3207, 0));
+
+        register("ERNEST_THE_CHICKEN", new Tile(3110, 3328, 0), new Tile(3108, 3364, 2),
+            new Tile(3109, 3353, 0),    // Manor entrance
+            new Tile(3102, 9758, 0));   // Basement puzzle
+
+        register("ROMEO_AND_JULIET", new Tile(3219, 3427, 0), new Tile(3209, 3423, 0),
+            new Tile(3158, 3425, 1),    // Juliet
+            new Tile(3254, 3487, 0),    // Father Lawrence
+            new Tile(3271, 3366, 0),    // Cadava bush
+            new Tile(3197, 3406, 0));   // Apothecary
+
+        register("SHEEP_SHEARER", new Tile(3188, 3272, 0), new Tile(3188, 3272, 0),
+            new Tile(3211, 3261, 0));   // Sheep field gate
+
+        register("THE_RESTLESS_GHOST", new Tile(3242, 3208, 0), new Tile(3249, 3192, 0),
+            new Tile(3150, 3175, 0),    // Father Urhney
+            new Tile(3250, 3195, 0),    // Ghost
+            new Tile(3120, 9566, 0));   // Altar under the Wizards' Tower
+
+        register("X_MARKS_THE_SPOT", new Tile(3228, 3242, 0), new Tile(3053, 3249, 0),
+            new Tile(3229, 3209, 0),
+            new Tile(3203, 3212, 0),
+            new Tile(3108, 3264, 0),
+            new Tile(3077, 3260, 0));
+
+        register("GOBLIN_DIPLOMACY", new Tile(2956, 3512, 0), new Tile(2956, 3512, 0));
+
+        register("BLACK_KNIGHTS_FORTRESS", new Tile(2960, 3336, 2), new Tile(2960, 3336, 2),
+            new Tile(3016, 3514, 0),    // Fortress door
+            new Tile(3026, 3507, 0));   // Grill
+
+        register("THE_CORSAIR_CURSE", new Tile(2906, 3226, 0), new Tile(2574, 2835, 1),
+            new Tile(2578, 2839, 0),    // Corsair Cove dock
+            new Tile(2530, 2840, 1),    // Ithoi
+            new Tile(2554, 2859, 1),    // Arsen
+            new Tile(2545, 2863, 1));   // Gnocchi
+
+        register("DRAGON_SLAYER", new Tile(3189, 3359, 0), new Tile(3068, 3517, 0),
+            new Tile(3068, 3517, 0),    // Oziach
+            new Tile(3013, 3500, 0),    // Oracle
+            new Tile(3057, 9841, 0),    // Dwarven mine chest
+            new Tile(2941, 3248, 0));   // Melzar's maze
+
+        register("BELOW_ICE_MOUNTAIN", new Tile(3003, 3435, 0), new Tile(2989, 3442, 0),
+            new Tile(3087, 3415, 0),    // Checkal
+            new Tile(3087, 3471, 0),    // Marley
+            new Tile(3231, 3401, 0),    // Cook
+            new Tile(2956, 3368, 0));   // Burntof
+    }
+
+    private QuestLocations() {
+        // Static registry
+    }
+
+    private static void register(String questId, Tile start, Tile end, Tile... waypoints) {
+        footprints.put(questId, new QuestFootprint(questId, start, end, Arrays.asList(waypoints)));
+    }
+
+    /**
+     * Get the known locations for a quest (null if the quest has not been mapped)
+     */
+    public static QuestFootprint getFootprint(String questId) {
+        return footprints.get(questId);
+    }
+
+    public static boolean hasFootprint(String questId) {
+        return footprints.containsKey(questId);
+    }
+
+    /**
+     * Project a tile onto the surface - dungeons are walked to via the area above them
+     */
+    public static Tile toSurface(Tile tile) {
+        if (tile == null) return null;
+        int y = tile.getY() >= UNDERGROUND_Y_OFFSET ? tile.getY() - UNDERGROUND_Y_OFFSET : tile.getY();
+        return new Tile(tile.getX(), y, tile.getZ());
+    }
+
+    /**
+     * Start, end and the major stops of a single quest
+     */
+    public static class QuestFootprint {
+        private final String questId;
+        private final Tile start;
+        private final Tile end;
+        private final List<Tile> waypoints;
+
+        public QuestFootprint(String questId, Tile start, Tile end, List<Tile> waypoints) {
+            this.questId = questId;
+            this.start = start;
+            this.end = end;
+            this.waypoints = Collections.unmodifiableList(new ArrayList<>(waypoints));
+        }
+
+        /**
+         * Start, waypoints and end in the order the quest visits them
+         */
+        public List<Tile> getPath() {
+            List<Tile> path = new ArrayList<>();
+            path.add(start);
+            path.addAll(waypoints);
+            path.add(end);
+            return path;
+        }
+
+        // Getters
+        public String getQuestId() { return questId; }
+        public Tile getStart() { return start; }
+        public Tile getEnd() { return end; }
+        public List<Tile> getWaypoints() { return waypoints; }
+    }
+}
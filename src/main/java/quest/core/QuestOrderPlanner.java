@@ -0,0 +1,241 @@
+package quest.core;
+
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.methods.quest.Quests;
+import quest.core.QuestLocations.QuestFootprint;
+import quest.travel.TravelGraph;
+
+import java.util.*;
+
+/**
+ * Quest Order Planner - orders a set of quests to minimise walking between them.
+ * Treats the ordering as an asymmetric TSP (each quest is entered at its start tile and left
+ * from its end tile) with quest point prerequisites, solved with nearest-neighbour + 2-opt.
+ */
+public class QuestOrderPlanner {
+
+    private static final double SECONDS_PER_PLANE_CHANGE = 4.0;
+    private static final double SECONDS_PER_DUNGEON_ENTRY = 10.0;
+    private static final double SECONDS_PER_SEA_CROSSING = 60.0;
+    private static final int MAX_TWO_OPT_PASSES = 20;
+
+    private QuestOrderPlanner() {
+        // Static utility
+    }
+
+    /**
+     * Plan an ordering starting from the given tile using the player's current quest points
+     */
+    public static Plan plan(List<String> questIds, Tile origin) {
+        int questPoints = 0;
+        try {
+            questPoints = Quests.getQuestPoints();
+        } catch (Throwable t) {
+            // No live game state - plan as a fresh account
+        }
+        return plan(questIds, origin, questPoints);
+    }
+
+    /**
+     * Plan an ordering starting from the given tile
+     * @param origin where the player is now (null to start at the first quest)
+     * @param startingQuestPoints quest points before any of these quests are run
+     */
+    public static Plan plan(List<String> questIds, Tile origin, int startingQuestPoints) {
+        List<String> mapped = new ArrayList<>();
+        List<String> unmapped = new ArrayList<>();
+        for (String questId : new LinkedHashSet<>(questIds)) {
+            if (QuestLocations.hasFootprint(questId)) {
+                mapped.add(questId);
+            } else {
+                unmapped.add(questId);
+            }
+        }
+
+        List<String> ordering = nearestNeighbour(mapped, origin, startingQuestPoints);
+        double before = travelSeconds(ordering, origin);
+        twoOpt(ordering, origin, startingQuestPoints);
+        double after = travelSeconds(ordering, origin);
+
+        // Quests without known locations cannot be placed on the map - run them last, in the order given
+        ordering.addAll(unmapped);
+
+        List<String> blocked = new ArrayList<>();
+        int questPoints = startingQuestPoints;
+        double questSeconds = 0;
+        for (String questId : ordering) {
+            if (questPoints < QuestDatabase.getRequiredQuestPoints(questId)) {
+                blocked.add(questId);
+            }
+            questPoints += QuestDatabase.getQuestPointReward(questId);
+            questSeconds += estimateQuestSeconds(questId);
+        }
+
+        return new Plan(ordering, after, before, questSeconds, blocked, unmapped);
+    }
+
+    /**
+     * Greedy construction: always walk to the closest quest whose prerequisites are already met.
+     * Quests that can never become eligible in this set are appended at the end.
+     */
+    private static List<String> nearestNeighbour(List<String> questIds, Tile origin, int startingQuestPoints) {
+        List<String> remaining = new ArrayList<>(questIds);
+        List<String> ordering = new ArrayList<>();
+        int questPoints = startingQuestPoints;
+        Tile current = origin;
+
+        while (!remaining.isEmpty()) {
+            String best = null;
+            double bestCost = Double.MAX_VALUE;
+            for (String questId : remaining) {
+                if (questPoints < QuestDatabase.getRequiredQuestPoints(questId)) continue;
+                double cost = current != null ? travelSeconds(current, QuestLocations.getFootprint(questId).getStart()) : 0;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = questId;
+                }
+            }
+            if (best == null) {
+                ordering.addAll(remaining);
+                break;
+            }
+            remaining.remove(best);
+            ordering.add(best);
+            questPoints += QuestDatabase.getQuestPointReward(best);
+            current = QuestLocations.getFootprint(best).getEnd();
+        }
+        return ordering;
+    }
+
+    /**
+     * Improve the ordering by reversing segments while it gets shorter and stays feasible
+     */
+    private static void twoOpt(List<String> ordering, Tile origin, int startingQuestPoints) {
+        int n = ordering.size();
+        if (n < 3) return;
+
+        double bestCost = travelSeconds(ordering, origin);
+        boolean improved = true;
+        for (int pass = 0; pass < MAX_TWO_OPT_PASSES && improved; pass++) {
+            improved = false;
+            for (int i = 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    Collections.reverse(ordering.subList(i, j + 1));
+                    // Start and end tiles differ, so every reversal changes the cost of the whole segment
+                    double cost = travelSeconds(ordering, origin);
+                    if (cost + 0.5 < bestCost && isFeasible(ordering, startingQuestPoints)) {
+                        bestCost = cost;
+                        improved = true;
+                    } else {
+                        Collections.reverse(ordering.subList(i, j + 1));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isFeasible(List<String> ordering, int startingQuestPoints) {
+        int questPoints = startingQuestPoints;
+        boolean blockedSeen = false;
+        for (String questId : ordering) {
+            boolean blocked = questPoints < QuestDatabase.getRequiredQuestPoints(questId);
+            // Quests that were unreachable in the greedy order may stay at the back, nothing may follow them
+            if (blocked) {
+                blockedSeen = true;
+            } else if (blockedSeen) {
+                return false;
+            }
+            questPoints += QuestDatabase.getQuestPointReward(questId);
+        }
+        return true;
+    }
+
+    /**
+     * Total walking time between quests for an ordering (time inside quests is order-independent)
+     */
+    public static double travelSeconds(List<String> ordering, Tile origin) {
+        double total = 0;
+        Tile current = origin;
+        for (String questId : ordering) {
+            QuestFootprint footprint = QuestLocations.getFootprint(questId);
+            if (footprint == null) continue;
+            if (current != null) {
+                total += travelSeconds(current, footprint.getStart());
+            }
+            current = footprint.getEnd();
+        }
+        return total;
+    }
+
+    /**
+     * Estimated walking time between two tiles
+     */
+    public static double travelSeconds(Tile from, Tile to) {
+        Tile a = QuestLocations.toSurface(from);
+        Tile b = QuestLocations.toSurface(to);
+        double seconds = TravelGraph.walkSeconds(a, b);
+        seconds += Math.abs(a.getZ() - b.getZ()) * SECONDS_PER_PLANE_CHANGE;
+        if (TravelGraph.isUnderground(from)) seconds += SECONDS_PER_DUNGEON_ENTRY;
+        if (TravelGraph.isUnderground(to)) seconds += SECONDS_PER_DUNGEON_ENTRY;
+        if (!TravelGraph.sameLandmass(a, b)) seconds += SECONDS_PER_SEA_CROSSING;
+        return seconds;
+    }
+
+    /**
+     * Time spent inside a quest: the database estimate, or the walk through its footprint
+     */
+    private static double estimateQuestSeconds(String questId) {
+        QuestDatabase.QuestInfo info = QuestDatabase.getQuestInfo(questId);
+        if (info != null && info.getEstimatedDurationMinutes() > 0) {
+            return info.getEstimatedDurationMinutes() * 60.0;
+        }
+        QuestFootprint footprint = QuestLocations.getFootprint(questId);
+        if (footprint == null) return 0;
+        double seconds = 0;
+        List<Tile> path = footprint.getPath();
+        for (int i = 1; i < path.size(); i++) {
+            seconds += travelSeconds(path.get(i - 1), path.get(i));
+        }
+        return seconds;
+    }
+
+    /**
+     * A planned ordering with its time estimate
+     */
+    public static class Plan {
+        private final List<String> ordering;
+        private final double travelSeconds;
+        private final double greedyTravelSeconds;
+        private final double questSeconds;
+        private final List<String> blocked;
+        private final List<String> unmapped;
+
+        Plan(List<String> ordering, double travelSeconds, double greedyTravelSeconds, double questSeconds,
+             List<String> blocked, List<String> unmapped) {
+            this.ordering = Collections.unmodifiableList(new ArrayList<>(ordering));
+            this.travelSeconds = travelSeconds;
+            this.greedyTravelSeconds = greedyTravelSeconds;
+            this.questSeconds = questSeconds;
+            this.blocked = Collections.unmodifiableList(new ArrayList<>(blocked));
+            this.unmapped = Collections.unmodifiableList(new ArrayList<>(unmapped));
+        }
+
+        // Getters
+        public List<String> getOrdering() { return ordering; }
+        public double getTravelSeconds() { return travelSeconds; }
+        public double getGreedyTravelSeconds() { return greedyTravelSeconds; }
+        public double getQuestSeconds() { return questSeconds; }
+        public double getEstimatedTotalSeconds() { return travelSeconds + questSeconds; }
+        public List<String> getBlocked() { return blocked; }
+        public List<String> getUnmapped() { return unmapped; }
+
+        @Override
+        public String toString() {
+            return String.format("%s - est. %d min total (%d min travel, greedy %d min)%s%s",
+                ordering, Math.round(getEstimatedTotalSeconds() / 60), Math.round(travelSeconds / 60),
+                Math.round(greedyTravelSeconds / 60),
+                blocked.isEmpty() ? "" : ", blocked: " + blocked,
+                unmapped.isEmpty() ? "" : ", no locations: " + unmapped);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package quest.core;
+
+import org.dreambot.api.methods.map.Tile;
+
+import java.util.*;
+
+/**
+ * Quest Queue - ordered or unordered set of quests run back-to-back by the QuestExecutor
+ * Tracks per-quest statistics and decides what to run next from live quest state.
+ */
+public class QuestQueue {
+
+    /**
+     * What the queue does when a quest fails
+     */
+    public enum FailurePolicy {
+        STOP_QUEUE,     // Abort the whole queue on the first failure
+        SKIP_QUEST,     // Record the failure and move on to the next quest
+        RETRY_LATER     // Move the failed quest to the back of the queue (bounded attempts)
+    }
+
+    public enum RunStatus {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        SKIPPED
+    }
+
+    private static final int MAX_ATTEMPTS_PER_QUEST = 2;
+
+    private final LinkedList<String> pending = new LinkedList<>();
+    private final Map<String, QuestRunStats> stats = new LinkedHashMap<>();
+    private final boolean ordered;
+    private final FailurePolicy failurePolicy;
+    private final long createdTime;
+    private boolean suppliesPrepared = false;
+    private boolean routePlanned = false;
+    private QuestOrderPlanner.Plan routePlan;
+    private boolean cancelled = false;
+    private String runningQuestId;
+
+    public QuestQueue(List<String> questIds, boolean ordered, FailurePolicy failurePolicy) {
+        this.ordered = ordered;
+        this.failurePolicy = failurePolicy;
+        this.createdTime = System.currentTimeMillis();
+        for (String questId : questIds) {
+            if (questId != null && !stats.containsKey(questId)) {
+                pending.add(questId);
+                stats.put(questId, new QuestRunStats(questId));
+            }
+        }
+        if (!ordered) {
+            // Quick, easy quests first until planRoute() knows where the player is
+            pending.sort(Comparator
+                .comparingInt((String id) -> difficultyOf(id))
+                .thenComparingInt(QuestQueue::durationOf));
+        }
+    }
+
+    private static int difficultyOf(String questId) {
+        QuestDatabase.QuestInfo info = QuestDatabase.getQuestInfo(questId);
+        return info != null ? info.getDifficulty() : Integer.MAX_VALUE;
+    }
+
+    private static int durationOf(String questId) {
+        QuestDatabase.QuestInfo info = QuestDatabase.getQuestInfo(questId);
+        return info != null ? info.getEstimatedDurationMinutes() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Re-order the pending quests to minimise walking between them (unordered queues only).
+     * @param origin where the player is now, e.g. after the supply trip or where the last quest ended
+     * @return the plan, or null if the queue keeps its given order
+     */
+    public QuestOrderPlanner.Plan planRoute(Tile origin) {
+        routePlanned = true;
+        if (ordered || pending.size() < 2) return null;
+
+        routePlan = QuestOrderPlanner.plan(pending, origin);
+        pending.clear();
+        pending.addAll(routePlan.getOrdering());
+        return routePlan;
+    }
+
+    /**
+     * Pick the next quest to run.
+     * Quests that are already finished in-game are skipped. Quests whose requirements are not
+     * met yet (e.g. Dragon Slayer's quest points) are deferred until something eligible has run.
+     * @return the next quest id, or null when nothing is runnable
+     */
+    public String nextEligible() {
+        if (cancelled) return null;
+
+        Iterator<String> it = pending.iterator();
+        while (it.hasNext()) {
+            String questId = it.next();
+            if (QuestDatabase.isQuestComplete(questId)) {
+                QuestRunStats s = stats.get(questId);
+                s.status = RunStatus.SKIPPED;
+                s.failureReason = "Already complete";
+                it.remove();
+            }
+        }
+
+        // A blocked quest never stalls the queue - the first eligible one in queue order runs
+        for (String questId : pending) {
+            if (QuestDatabase.meetsRequirements(questId)) {
+                return questId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mark a quest as started
+     */
+    public void markStarted(String questId) {
+        pending.remove(questId);
+        runningQuestId = questId;
+        QuestRunStats s = stats.get(questId);
+        if (s != null) {
+            s.status = RunStatus.RUNNING;
+            s.attempts++;
+            s.startTime = System.currentTimeMillis();
+            s.endTime = 0;
+            s.failureReason = null;
+        }
+    }
+
+    /**
+     * Record a finished quest
+     */
+    public void markCompleted(String questId, int steps, Tile endTile) {
+        QuestRunStats s = stats.get(questId);
+        if (s != null) {
+            s.status = RunStatus.COMPLETED;
+            s.endTime = System.currentTimeMillis();
+            s.steps += steps;
+            s.endTile = endTile;
+        }
+        runningQuestId = null;
+        // Re-plan what is left from where this quest ended
+        routePlanned = false;
+    }
+
+    /**
+     * Record a failed quest and apply the failure policy
+     * @return true if the queue should keep going
+     */
+    public boolean markFailed(String questId, int steps, String reason, Tile endTile) {
+        QuestRunStats s = stats.get(questId);
+        runningQuestId = null;
+        if (s == null) return !cancelled;
+
+        s.endTime = System.currentTimeMillis();
+        s.steps += steps;
+        s.failureReason = reason;
+        s.endTile = endTile;
+
+        switch (failurePolicy) {
+            case STOP_QUEUE:
+                s.status = RunStatus.FAILED;
+                cancel();
+                return false;
+            case RETRY_LATER:
+                if (s.attempts < MAX_ATTEMPTS_PER_QUEST) {
+                    s.status = RunStatus.PENDING;
+                    pending.addLast(questId);
+                } else {
+                    s.status = RunStatus.FAILED;
+                }
+                return true;
+            case SKIP_QUEST:
+            default:
+                s.status = RunStatus.FAILED;
+                return true;
+        }
+    }
+
+    /**
+     * Stop the queue; remaining quests are marked skipped
+     */
+    public void cancel() {
+        cancelled = true;
+        for (String questId : pending) {
+            QuestRunStats s = stats.get(questId);
+            if (s != null && s.status == RunStatus.PENDING) {
+                s.status = RunStatus.SKIPPED;
+                s.failureReason = "Queue stopped";
+            }
+        }
+        pending.clear();
+    }
+
+    /**
+     * True once nothing is running or left to run. Only looks at the queue itself - whether the
+     * remaining quests are eligible is up to nextEligible(), which the executor calls each tick.
+     */
+    public boolean isFinished() {
+        return runningQuestId == null && (cancelled || pending.isEmpty());
+    }
+
+    public List<String> getRemainingQuestIds() {
+        return new ArrayList<>(pending);
+    }
+
+    public List<QuestRunStats> getStats() {
+        return new ArrayList<>(stats.values());
+    }
+
+    public int countWithStatus(RunStatus status) {
+        int count = 0;
+        for (QuestRunStats s : stats.values()) {
+            if (s.status == status) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Where the most recently finished quest left the player - the origin the rest of the route is planned from
+     */
+    public Tile getLastEndTile() {
+        Tile tile = null;
+        long latest = 0;
+        for (QuestRunStats s : stats.values()) {
+            if (s.endTile != null && s.endTime > latest) {
+                latest = s.endTime;
+                tile = s.endTile;
+            }
+        }
+        return tile;
+    }
+
+    public boolean isSuppliesPrepared() { return suppliesPrepared; }
+    public void setSuppliesPrepared(boolean suppliesPrepared) { this.suppliesPrepared = suppliesPrepared; }
+    public boolean isRoutePlanned() { return routePlanned; }
+    public QuestOrderPlanner.Plan getRoutePlan() { return routePlan; }
+    public boolean isOrdered() { return ordered; }
+    public boolean isCancelled() { return cancelled; }
+    public FailurePolicy getFailurePolicy() { return failurePolicy; }
+    public String getRunningQuestId() { return runningQuestId; }
+    public long getElapsedMs() { return System.currentTimeMillis() - createdTime; }
+
+    /**
+     * One-line summary for logs and the GUI
+     */
+    public String getSummary() {
+        return String.format("%d completed, %d failed, %d skipped, %d remaining",
+            countWithStatus(RunStatus.COMPLETED), countWithStatus(RunStatus.FAILED),
+            countWithStatus(RunStatus.SKIPPED), pending.size());
+    }
+
+    /**
+     * Per-quest run statistics
+     */
+    public static class QuestRunStats {
+        private final String questId;
+        private RunStatus status = RunStatus.PENDING;
+        private int attempts;
+        private int steps;
+        private long startTime;
+        private long endTime;
+        private String failureReason;
+        private Tile endTile;
+
+        QuestRunStats(String questId) {
+            this.questId = questId;
+        }
+
+        // Getters
+        public String getQuestId() { return questId; }
+        public RunStatus getStatus() { return status; }
+        public int getAttempts() { return attempts; }
+        public int getSteps() { return steps; }
+        public long getStartTime() { return startTime; }
+        public long getEndTime() { return endTime; }
+        public String getFailureReason() { return failureReason; }
+        public Tile getEndTile() { return endTile; }
+
+        public long getDurationMs() {
+            if (startTime == 0) return 0;
+            return (endTime > 0 ? endTime : System.currentTimeMillis()) - startTime;
+        }
+
+        @Override
+        public String toString() {
+            return questId + ": " + status + " (" + (getDurationMs() / 1000) + "s, " + steps + " steps, "
+                + attempts + " attempts" + (failureReason != null ? ", " + failureReason : "") + ")";
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package quest.core;
+
+import quest.utils.GrandExchangeUtil.ItemRequest;
+import quest.utils.QuestData;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Normalized quest item requirements
+ * Parses the free-text entries in QuestDatabase ("Bones x25", "30 gp", "3 planks")
+ * and the ItemRequest lists in QuestData once, and caches the result per quest.
+ *
+ * Each requirement carries the last quest stage (value of the quest's progress variable) it is
+ * needed at, so a quest resumed after handing an item in is not asked for it again.
+ */
+public class QuestRequirements {
+
+    /**
+     * Whether an item is used up by the quest or can be carried on to the next one
+     */
+    public enum Usage {
+        CONSUMED,   // Handed in or destroyed during the quest
+        REUSABLE    // Tools and gear that survive the quest (Spade, Hammer, ...)
+    }
+
+    // Stages are values of the quest's progress variable; 0 is "not started" for every quest
+    public static final int STAGE_START = 0;
+    // Needed up to completion - every item whose hand-in stage is not known
+    public static final int STAGE_END = Integer.MAX_VALUE;
+
+    private static final Map<String, List<Requirement>> cache = new ConcurrentHashMap<>();
+
+    // "Bones x25", "Iron bar x2", "3x Ball of wool"
+    private static final Pattern SUFFIX_QUANTITY = Pattern.compile("^(.+?)\\s*x\\s*(\\d[\\d,]*)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern PREFIX_X_QUANTITY = Pattern.compile("^(\\d[\\d,]*)\\s*x\\s+(.+)$", Pattern.CASE_INSENSITIVE);
+    // "30 gp", "3 planks", "2,000 coins", "90 steel nails"
+    private static final Pattern PREFIX_QUANTITY = Pattern.compile("^(\\d[\\d,]*)\\s+(.+)$");
+    private static final Pattern OR_WORD = Pattern.compile("\\bor\\b");
+
+    // Items that survive a quest and only need to be carried once per run
+    private static final Set<String> REUSABLE_ITEMS = new HashSet<>(Arrays.asList(
+        "Spade", "Hammer", "Pickaxe", "Tinderbox", "Knife", "Chisel", "Needle", "Shears",
+        "Anti-dragon shield", "Amulet of glory", "Combat gear", "Ghostspeak amulet", "Lobster pot"
+    ));
+
+    // Quest-obtained items and gear placeholders - never bought, only checked
+    private static final Set<String> UNPURCHASABLE_ITEMS = new HashSet<>(Arrays.asList(
+        "Maze key", "Crandor map", "Excalibur", "Combat gear", "Food for Lesser Demon fight"
+    ));
+
+    // Where each quest's stage is read: {1 = varbit / 0 = config, id}
+    private static final Map<String, int[]> STAGE_VARS = new HashMap<>();
+
+    // Items a quest hands in before it ends: quest id -> item -> last stage the item is needed at
+    private static final Map<String, Map<String, Integer>> HAND_IN_STAGES = new HashMap<>();
+
+    // Normalizes plural / shorthand names to the in-game item name
+    private static final Map<String, String> ITEM_ALIASES = new HashMap<>();
+
+    // Known item ids for the items our quests use (-1 when unknown, names are still authoritative)
+    private static final Map<String, Integer> ITEM_IDS = new HashMap<>();
+
+    static {
+        ITEM_ALIASES.put("gp", "Coins");
+        ITEM_ALIASES.put("coins", "Coins");
+        ITEM_ALIASES.put("planks", "Plank");
+        ITEM_ALIASES.put("steel nails", "Steel nails");
+        ITEM_ALIASES.put("any pickaxe", "Pickaxe");
+        ITEM_ALIASES.put("bucket of wax", "Bucket of wax");
+        ITEM_ALIASES.put("bat bones", "Bat bones");
+
+        ITEM_IDS.put("Coins", 995);
+        ITEM_IDS.put("Spade", 952);
+        ITEM_IDS.put("Hammer", 2347);
+        ITEM_IDS.put("Tinderbox", 590);
+        ITEM_IDS.put("Knife", 946);
+        ITEM_IDS.put("Chisel", 1755);
+        ITEM_IDS.put("Bones", 526);
+        ITEM_IDS.put("Egg", 1944);
+        ITEM_IDS.put("Bucket of milk", 1927);
+        ITEM_IDS.put("Pot of flour", 1933);
+        ITEM_IDS.put("Bucket of water", 1929);
+        ITEM_IDS.put("Garlic", 1550);
+        ITEM_IDS.put("Beer", 1917);
+        ITEM_IDS.put("Raw beef", 2132);
+        ITEM_IDS.put("Eye of newt", 221);
+        ITEM_IDS.put("Onion", 1957);
+        ITEM_IDS.put("Copper ore", 436);
+        ITEM_IDS.put("Clay", 434);
+        ITEM_IDS.put("Iron ore", 440);
+        ITEM_IDS.put("Iron bar", 2351);
+        ITEM_IDS.put("Redberry pie", 2325);
+        ITEM_IDS.put("Karamjan rum", 431);
+        ITEM_IDS.put("White apron", 1005);
+        ITEM_IDS.put("Red bead", 1470);
+        ITEM_IDS.put("Yellow bead", 1472);
+        ITEM_IDS.put("Black bead", 1474);
+        ITEM_IDS.put("White bead", 1476);
+        ITEM_IDS.put("Cabbage", 1965);
+        ITEM_IDS.put("Iron chainbody", 1101);
+        ITEM_IDS.put("Bronze med helm", 1139);
+        ITEM_IDS.put("Anti-dragon shield", 1540);
+        ITEM_IDS.put("Steel nails", 1539);
+        ITEM_IDS.put("Plank", 960);
+        ITEM_IDS.put("Goblin mail", 288);
+        ITEM_IDS.put("Orange dye", 1769);
+        ITEM_IDS.put("Blue dye", 1767);
+
+        STAGE_VARS.put("COOKS_ASSISTANT", new int[] {0, 29});
+        STAGE_VARS.put("VAMPIRE_SLAYER", new int[] {0, 178});
+        STAGE_VARS.put("DEMON_SLAYER", new int[] {1, 2561});
+        STAGE_VARS.put("DRAGON_SLAYER", new int[] {0, 176});
+        STAGE_VARS.put("DRAGON_SLAYER_BOAT_DEBUG", new int[] {0, 176});
+
+        // The Cook takes the ingredients at 1; Traiborn takes the bones while the keys are gathered (2)
+        handIn("COOKS_ASSISTANT", 1, "Egg", "Bucket of milk", "Pot of flour");
+        handIn("DEMON_SLAYER", 2, "Bones", "Bucket of water");
+        // Dr Harlow swaps the beer for the stake at 1
+        handIn("VAMPIRE_SLAYER", 1, "Beer");
+        // The boat is bought below 3 and repaired below 6
+        handIn("DRAGON_SLAYER_BOAT_DEBUG", 2, "Coins");
+        handIn("DRAGON_SLAYER_BOAT_DEBUG", 5, "Plank", "Steel nails");
+    }
+
+    private static void handIn(String questId, int stage, String... items) {
+        Map<String, Integer> stages = HAND_IN_STAGES.computeIfAbsent(questId, id -> new HashMap<>());
+        for (String item : items) {
+            stages.put(item, stage);
+        }
+    }
+
+    private QuestRequirements() {
+        // Static registry
+    }
+
+    /**
+     * Get the normalized requirements for a quest (parsed on first access, then cached)
+     */
+    public static List<Requirement> getRequirements(String questId) {
+        if (questId == null) return Collections.emptyList();
+        return cache.computeIfAbsent(questId, QuestRequirements::buildRequirements);
+    }
+
+    /**
+     * Get only the requirements still ahead at a stage of a quest - items handed in at an earlier
+     * stage are left out
+     */
+    public static List<Requirement> getRequirements(String questId, int stage) {
+        List<Requirement> stageRequirements = new ArrayList<>();
+        for (Requirement requirement : getRequirements(questId)) {
+            if (requirement.getStage() >= stage) {
+                stageRequirements.add(requirement);
+            }
+        }
+        return stageRequirements;
+    }
+
+    /**
+     * The quest's current stage from its progress variable, or STAGE_START when the variable is not
+     * known (then every requirement counts)
+     */
+    public static int readStage(String questId) {
+        int[] var = STAGE_VARS.get(questId);
+        if (var == null) return STAGE_START;
+        return var[0] == 1 ? GameState.getBitValue(var[1]) : GameState.getConfig(var[1]);
+    }
+
+    /**
+     * Last stage an item is needed at in a quest
+     */
+    public static int stageOf(String questId, String itemName) {
+        Map<String, Integer> stages = HAND_IN_STAGES.get(questId);
+        Integer stage = stages != null ? stages.get(itemName) : null;
+        return stage != null ? stage : STAGE_END;
+    }
+
+    /**
+     * Drop cached requirements (e.g. after QuestData was extended at runtime)
+     */
+    public static void invalidate() {
+        cache.clear();
+    }
+
+    /**
+     * Merge QuestDatabase free-text entries with QuestData item requests.
+     * When both sources list the same item, the larger quantity wins.
+     */
+    private static List<Requirement> buildRequirements(String questId) {
+        Map<String, Requirement> merged = new LinkedHashMap<>();
+
+        QuestDatabase.QuestInfo info = QuestDatabase.getQuestInfo(questId);
+        if (info != null) {
+            for (String text : info.getRequiredItems()) {
+                Requirement requirement = parseRequirement(text, questId);
+                if (requirement != null) {
+                    mergeInto(merged, requirement);
+                }
+            }
+
+            for (ItemRequest request : QuestData.getRequiredItems(info.getDisplayName())) {
+                String name = normalizeItemName(request.getItemName());
+                mergeInto(merged, new Requirement(name, lookupItemId(name), request.getQuantity(),
+                    usageOf(name), stageOf(questId, name), false, request.getItemName()));
+            }
+        }
+
+        return Collections.unmodifiableList(new ArrayList<>(merged.values()));
+    }
+
+    private static void mergeInto(Map<String, Requirement> merged, Requirement requirement) {
+        String key = requirement.getStage() + "|" + requirement.getItemName();
+        Requirement existing = merged.get(key);
+        if (existing == null || requirement.getQuantity() > existing.getQuantity()) {
+            merged.put(key, requirement);
+        }
+    }
+
+    /**
+     * Parse a single free-text requirement such as "Bones x25", "30 gp",
+     * "Wig or 3x Ball of wool" or "Amulet of glory (recommended)".
+     * @param questId quest the text belongs to, for the item's hand-in stage (null for none)
+     * @return the normalized requirement, or null if the text is empty
+     */
+    public static Requirement parseRequirement(String text, String questId) {
+        if (text == null || text.trim().isEmpty()) return null;
+
+        String working = text.trim();
+        boolean optional = false;
+
+        // Strip parenthesized notes, remembering whether they mark the item optional
+        int paren = working.indexOf('(');
+        if (paren > 0) {
+            String note = working.substring(paren).toLowerCase();
+            optional = note.contains("recommended") || note.contains("optional") || OR_WORD.matcher(note).find();
+            working = working.substring(0, paren).trim();
+        }
+
+        // Alternatives ("Wig or 3x Ball of wool") - the first alternative is the primary requirement
+        int orIndex = working.toLowerCase().indexOf(" or ");
+        if (orIndex > 0) {
+            working = working.substring(0, orIndex).trim();
+        }
+
+        int quantity = 1;
+        String name = working;
+
+        Matcher matcher = SUFFIX_QUANTITY.matcher(working);
+        if (matcher.matches()) {
+            name = matcher.group(1);
+            quantity = parseQuantity(matcher.group(2));
+        } else if ((matcher = PREFIX_X_QUANTITY.matcher(working)).matches()) {
+            quantity = parseQuantity(matcher.group(1));
+            name = matcher.group(2);
+        } else if ((matcher = PREFIX_QUANTITY.matcher(working)).matches()) {
+            quantity = parseQuantity(matcher.group(1));
+            name = matcher.group(2);
+        }
+
+        name = normalizeItemName(name);
+        return new Requirement(name, lookupItemId(name), quantity, usageOf(name), stageOf(questId, name), optional, text);
+    }
+
+    private static int parseQuantity(String raw) {
+        try {
+            return Math.max(1, Integer.parseInt(raw.replace(",", "")));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Map shorthand and plural names onto in-game item names
+     */
+    public static String normalizeItemName(String name) {
+        String trimmed = name.trim();
+        String alias = ITEM_ALIASES.get(trimmed.toLowerCase());
+        if (alias != null) return alias;
+        if (trimmed.isEmpty()) return trimmed;
+        // In-game names are sentence case ("Bucket of milk")
+        return Character.toUpperCase(trimmed.charAt(0)) + trimmed.substring(1);
+    }
+
+    public static int lookupItemId(String itemName) {
+        return ITEM_IDS.getOrDefault(itemName, -1);
+    }
+
+    public static boolean isPurchasable(String itemName) {
+        return !UNPURCHASABLE_ITEMS.contains(itemName);
+    }
+
+    public static Usage usageOf(String itemName) {
+        return REUSABLE_ITEMS.contains(itemName) ? Usage.REUSABLE : Usage.CONSUMED;
+    }
+
+    /**
+     * A single normalized item requirement
+     */
+    public static class Requirement {
+        private final String itemName;
+        private final int itemId;
+        private final int quantity;
+        private final Usage usage;
+        private final int stage;
+        private final boolean optional;
+        private final String sourceText;
+
+        public Requirement(String itemName, int itemId, int quantity, Usage usage,
+                           int stage, boolean optional, String sourceText) {
+            this.itemName = itemName;
+            this.itemId = itemId;
+            this.quantity = quantity;
+            this.usage = usage;
+            this.stage = stage;
+            this.optional = optional;
+            this.sourceText = sourceText;
+        }
+
+        // Getters
+        public String getItemName() { return itemName; }
+        public int getItemId() { return itemId; }
+        public int getQuantity() { return quantity; }
+        public Usage getUsage() { return usage; }
+        public int getStage() { return stage; }
+        public boolean isOptional() { return optional; }
+        public boolean isReusable() { return usage == Usage.REUSABLE; }
+        public boolean isPurchasable() { return QuestRequirements.isPurchasable(itemName); }
+        public String getSourceText() { return sourceText; }
+
+        @Override
+        public String toString() {
+            return quantity + "x " + itemName + " (" + usage + (optional ? ", optional" : "")
+                + (stage != STAGE_END ? ", until stage " + stage : "") + ")";
+        }
+    }
+}
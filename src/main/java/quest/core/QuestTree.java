@@ -1,6 +1,8 @@
 package quest.core;
 
 import org.dreambot.api.utilities.Logger;
+import quest.metrics.QuestMetrics;
+import quest.metrics.jfr.QuestJfr;
 
 /**
  * Base class for tree-based quest implementations
@@ -30,7 +32,20 @@ public abstract class QuestTree {
      * @return true if quest should continue, false if quest is complete/failed
      */
     public boolean execute() {
+        QuestMetrics metrics = QuestMetrics.getInstance();
+        metrics.setCurrentTree(questName);
+        long started = System.currentTimeMillis();
         try {
+            return executeStep(metrics);
+        } finally {
+            metrics.recordTreeStep(questName, System.currentTimeMillis() - started);
+        }
+    }
+    
+    private boolean executeStep(QuestMetrics metrics) {
+        try {
+            beforeStep();
+            
             // Initialize current node if not set
             if (currentNode == null) {
                 currentNode = rootNode;
@@ -44,11 +59,19 @@ public abstract class QuestTree {
             }
             
             log("Executing node: " + currentNode.getDescription());
-            QuestNode.ExecutionResult result = currentNode.execute();
+            QuestNode node = currentNode;
+            long token = metrics.enterNode(node);
+            QuestNode.ExecutionResult result = null;
+            try {
+                result = node.execute();
+            } finally {
+                metrics.exitNode(node, token, result);
+            }
             
             if (result.isSuccess()) {
                 QuestNode nextNode = result.getNextNode();
                 if (nextNode != null) {
+                    QuestJfr.decision(questName, node.getNodeId(), nextNode.getNodeId(), result.getStatusMessage());
                     log("Moving to next node: " + nextNode.getDescription());
                     currentNode = nextNode;
                 } else {
@@ -87,6 +110,13 @@ public abstract class QuestTree {
         }
     }
     
+    /**
+     * Called at the start of every tick, before the current node runs - the one point where no
+     * node is mid-action, so a subclass can safely swap its nodes here (see DefinitionTree)
+     */
+    protected void beforeStep() {
+    }
+    
     /**
      * Check if the quest is complete
      */
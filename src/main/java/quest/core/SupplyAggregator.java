@@ -0,0 +1,232 @@
+package quest.core;
+
+import org.dreambot.api.methods.container.impl.Inventory;
+import org.dreambot.api.methods.container.impl.bank.Bank;
+import org.dreambot.api.utilities.Logger;
+import org.dreambot.api.utilities.Sleep;
+import quest.core.QuestRequirements.Requirement;
+import quest.core.QuestRequirements.Usage;
+import quest.metrics.QuestMetrics;
+import quest.metrics.jfr.QuestJfr;
+import quest.utils.BankMirror;
+import quest.utils.GrandExchangeUtil;
+import quest.utils.GrandExchangeUtil.ItemRequest;
+import quest.utils.GrandExchangeUtil.PriceStrategy;
+
+import java.util.*;
+
+/**
+ * Cross-quest supply aggregator
+ * Combines the normalized requirements of several quests into one shopping/withdrawal list,
+ * so a multi-quest run can do a single bank visit and a single Grand Exchange trip up front.
+ *
+ * Consumed items are summed across quests; reusable tools (Spade, Hammer, ...) are only
+ * needed once, so their quantity is the maximum any single quest asks for. Each quest only
+ * contributes the requirements still ahead of its current stage.
+ */
+public class SupplyAggregator {
+
+    private SupplyAggregator() {
+        // Static utility
+    }
+
+    /**
+     * Build the combined supply plan for the given quests
+     */
+    public static SupplyPlan aggregate(List<String> questIds) {
+        return aggregate(questIds, false);
+    }
+
+    /**
+     * Build the combined supply plan for the given quests
+     * @param includeOptional whether "recommended" items should be gathered too
+     */
+    public static SupplyPlan aggregate(List<String> questIds, boolean includeOptional) {
+        Map<String, SupplyLine> lines = new LinkedHashMap<>();
+
+        for (String questId : questIds) {
+            // A quest already under way only needs what it has not handed in yet
+            int stage = QuestRequirements.readStage(questId);
+            for (Requirement requirement : QuestRequirements.getRequirements(questId, stage)) {
+                if (requirement.isOptional() && !includeOptional) continue;
+
+                SupplyLine line = lines.get(requirement.getItemName());
+                if (line == null) {
+                    line = new SupplyLine(requirement.getItemName(), requirement.getItemId(), requirement.getUsage());
+                    lines.put(requirement.getItemName(), line);
+                }
+                line.add(questId, requirement.getQuantity());
+            }
+        }
+
+        return new SupplyPlan(new ArrayList<>(lines.values()));
+    }
+
+    /**
+     * Gather everything in the plan: take what is already carried, withdraw what the bank has,
+     * then buy the remainder in one Grand Exchange session.
+     * @return true if every purchasable line is now covered by the inventory
+     */
+    public static boolean gatherSupplies(SupplyPlan plan) {
+        Logger.log("[SupplyAggregator] Gathering supplies for " + plan.getQuestIds().size() + " quests: " + plan);
+
+        Map<String, Integer> missing = plan.getMissing(countInventory(plan));
+        if (missing.isEmpty()) {
+            Logger.log("[SupplyAggregator] All supplies already in inventory");
+            return true;
+        }
+
+        // Single bank visit for everything the bank can cover
+        QuestMetrics.getInstance().increment(QuestMetrics.BANK_SESSIONS);
+        QuestMetrics.getInstance().beginPhase(QuestMetrics.Phase.BANKING);
+        try {
+            withdrawFromBank(missing);
+        } finally {
+            QuestMetrics.getInstance().endPhase();
+        }
+
+        // Single Grand Exchange trip for the remainder
+        ItemRequest[] toBuy = plan.toItemRequests(countInventory(plan));
+        if (toBuy.length > 0) {
+            Logger.log("[SupplyAggregator] Buying " + toBuy.length + " items in one Grand Exchange trip");
+            if (!GrandExchangeUtil.buyItems(toBuy)) {
+                Logger.log("[SupplyAggregator] Grand Exchange trip did not complete");
+                return false;
+            }
+        }
+
+        Map<String, Integer> stillMissing = plan.getMissing(countInventory(plan));
+        stillMissing.keySet().removeIf(name -> !QuestRequirements.isPurchasable(name));
+        Logger.log("[SupplyAggregator] Supplies gathered, still missing: " + stillMissing);
+        return stillMissing.isEmpty();
+    }
+
+    private static void withdrawFromBank(Map<String, Integer> missing) {
+        Object bankEvent = QuestJfr.bankSessionBegin("quest supplies");
+        if (Bank.open() && Sleep.sleepUntil(Bank::isOpen, 15000)) {
+            int withdrawn = 0;
+            for (Map.Entry<String, Integer> entry : missing.entrySet()) {
+                String itemName = entry.getKey();
+                if (!Bank.contains(itemName)) continue;
+                int before = Inventory.count(itemName);
+                if (Bank.withdraw(itemName, entry.getValue())) {
+                    Sleep.sleepUntil(() -> Inventory.count(itemName) > before, 3000);
+                    withdrawn += Inventory.count(itemName) - before;
+                }
+            }
+            BankMirror.getInstance().refreshIfOpen();
+            Bank.close();
+            Sleep.sleepUntil(() -> !Bank.isOpen(), 3000);
+            QuestJfr.bankSessionEnd(bankEvent, true, withdrawn);
+        } else {
+            QuestJfr.bankSessionEnd(bankEvent, false, 0);
+            Logger.log("[SupplyAggregator] Could not open bank - buying everything from the Grand Exchange");
+        }
+    }
+
+    private static Map<String, Integer> countInventory(SupplyPlan plan) {
+        Map<String, Integer> owned = new HashMap<>();
+        for (SupplyLine line : plan.getLines()) {
+            owned.put(line.getItemName(), Inventory.count(line.getItemName()));
+        }
+        return owned;
+    }
+
+    /**
+     * The combined supply list for a set of quests
+     */
+    public static class SupplyPlan {
+        private final List<SupplyLine> lines;
+
+        public SupplyPlan(List<SupplyLine> lines) {
+            this.lines = Collections.unmodifiableList(lines);
+        }
+
+        public List<SupplyLine> getLines() {
+            return lines;
+        }
+
+        public Set<String> getQuestIds() {
+            Set<String> questIds = new LinkedHashSet<>();
+            for (SupplyLine line : lines) {
+                questIds.addAll(line.getQuestIds());
+            }
+            return questIds;
+        }
+
+        public boolean isEmpty() {
+            return lines.isEmpty();
+        }
+
+        /**
+         * Quantities still needed given what is already owned (item name -> count)
+         */
+        public Map<String, Integer> getMissing(Map<String, Integer> owned) {
+            Map<String, Integer> missing = new LinkedHashMap<>();
+            for (SupplyLine line : lines) {
+                int needed = line.getQuantity() - owned.getOrDefault(line.getItemName(), 0);
+                if (needed > 0) {
+                    missing.put(line.getItemName(), needed);
+                }
+            }
+            return missing;
+        }
+
+        /**
+         * Grand Exchange requests for the purchasable part of the plan, ignoring coins
+         */
+        public ItemRequest[] toItemRequests(Map<String, Integer> owned) {
+            List<ItemRequest> requests = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : getMissing(owned).entrySet()) {
+                if ("Coins".equals(entry.getKey()) || !QuestRequirements.isPurchasable(entry.getKey())) continue;
+                requests.add(new ItemRequest(entry.getKey(), entry.getValue(), PriceStrategy.MODERATE));
+            }
+            return requests.toArray(new ItemRequest[0]);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (SupplyLine line : lines) {
+                if (sb.length() > 0) sb.append(", ");
+                sb.append(line);
+            }
+            return sb.length() > 0 ? sb.toString() : "<nothing>";
+        }
+    }
+
+    /**
+     * One item in the combined plan, with the quests that need it
+     */
+    public static class SupplyLine {
+        private final String itemName;
+        private final int itemId;
+        private final Usage usage;
+        private final Set<String> questIds = new LinkedHashSet<>();
+        private int quantity;
+
+        public SupplyLine(String itemName, int itemId, Usage usage) {
+            this.itemName = itemName;
+            this.itemId = itemId;
+            this.usage = usage;
+        }
+
+        void add(String questId, int amount) {
+            questIds.add(questId);
+            // Reusable tools are carried from quest to quest, consumables are used up
+            quantity = usage == Usage.REUSABLE ? Math.max(quantity, amount) : quantity + amount;
+        }
+
+        // Getters
+        public String getItemName() { return itemName; }
+        public int getItemId() { return itemId; }
+        public Usage getUsage() { return usage; }
+        public int getQuantity() { return quantity; }
+        public Set<String> getQuestIds() { return Collections.unmodifiableSet(questIds); }
+
+        @Override
+        public String toString() {
+            return quantity + "x " + itemName + (usage == Usage.REUSABLE ? " (reusable)" : "");
+        }
+    }
+}
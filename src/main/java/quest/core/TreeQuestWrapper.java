@@ -1,8 +1,8 @@
 package quest.core;
 
+import org.dreambot.api.methods.container.impl.Inventory;
 import org.dreambot.api.utilities.Logger;
 import quest.utils.QuestLogger;
-import quest.utils.RunEnergyUtil;
 
 /**
  * Wrapper class to make tree-based quests compatible with the existing QuestScript interface
@@ -52,9 +52,6 @@ public class TreeQuestWrapper implements QuestScript {
     @Override
     public boolean executeCurrentStep() {
         try {
-            // Ensure run energy is managed every loop (energy pots + run toggle)
-            RunEnergyUtil.handleRunEnergy();
-
             // Execute one iteration of the quest tree
             boolean shouldContinue = questTree.execute();
             
@@ -79,15 +76,33 @@ public class TreeQuestWrapper implements QuestScript {
     
     @Override
     public boolean hasRequiredItems() {
-        // Tree-based quests handle their own item requirements
-        // For now, assume all items are available (they can be bought via GE)
+        // Only a warning - the trees gather their own items when they get to the step that needs them.
+        // Items handed in at an earlier stage (a resumed quest) are not asked for again.
+        java.util.List<String> missing = new java.util.ArrayList<>();
+        int stage = QuestRequirements.readStage(questId);
+        for (QuestRequirements.Requirement requirement : QuestRequirements.getRequirements(questId, stage)) {
+            if (requirement.isOptional() || !requirement.isPurchasable()) continue;
+            int carried = Inventory.count(requirement.getItemName());
+            if (carried < requirement.getQuantity()) {
+                missing.add((requirement.getQuantity() - carried) + "x " + requirement.getItemName());
+            }
+        }
+        if (!missing.isEmpty()) {
+            Logger.log("[TreeQuestWrapper] " + questName + " (stage " + stage + ") starts without: "
+                + String.join(", ", missing) + " - the quest will gather them");
+        }
         return true;
     }
     
     @Override
     public String[] getRequiredItems() {
-        // Return empty array - tree-based quests handle their own requirements
-        return new String[0];
+        // Normalized requirements (parsed once and cached by QuestRequirements)
+        java.util.List<QuestRequirements.Requirement> requirements = QuestRequirements.getRequirements(questId);
+        String[] items = new String[requirements.size()];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = requirements.get(i).toString();
+        }
+        return items;
     }
     
     @Override
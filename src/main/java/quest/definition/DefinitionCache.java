@@ -0,0 +1,166 @@
+package quest.definition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Definition Cache - loads a directory of quest definitions through a binary cache of their parsed,
+ * validated form. Entries are keyed by the SHA-256 of the JSON text, so an unchanged file is read
+ * straight from the cache and an edited one (whatever its timestamp says) is parsed again. The
+ * cache is rewritten only when something was parsed or a stale entry dropped out.
+ */
+final class DefinitionCache {
+
+    private static final int MAGIC = 0x51444546; // "QDEF"
+    // Bump when QuestDefinition.writeTo changes layout
+    private static final int VERSION = 1;
+
+    private DefinitionCache() {
+        // Static utility
+    }
+
+    /**
+     * Load every *.json in the directory. Files that fail validation are reported in the result
+     * and left out; the rest load regardless.
+     */
+    static LoadResult load(File directory, File cacheFile) {
+        LoadResult result = new LoadResult();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null) {
+            return result;
+        }
+        Arrays.sort(files);
+
+        Map<String, QuestDefinition> cached = read(cacheFile);
+        Map<String, QuestDefinition> keep = new LinkedHashMap<>();
+        Map<String, String> idSources = new HashMap<>();
+        boolean dirty = false;
+
+        for (File file : files) {
+            String json;
+            try {
+                json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                result.errors.put(file.getName(), e.getMessage());
+                continue;
+            }
+            String hash = sha256(json);
+            QuestDefinition definition = cached.get(hash);
+            if (definition != null) {
+                result.cached++;
+            } else {
+                try {
+                    definition = QuestDefinition.parse(json, file.getName(), hash);
+                    result.parsed++;
+                    dirty = true;
+                } catch (QuestDefinitionException e) {
+                    result.errors.put(file.getName(), String.join("; ", e.getProblems()));
+                    continue;
+                }
+            }
+            String other = idSources.putIfAbsent(definition.getId(), file.getName());
+            if (other != null) {
+                result.errors.put(file.getName(), "id " + definition.getId() + " is already defined by " + other);
+                continue;
+            }
+            keep.put(hash, definition);
+            result.definitions.put(file.getName(), definition);
+        }
+
+        if (dirty || !keep.keySet().equals(cached.keySet())) {
+            try {
+                write(cacheFile, keep.values());
+            } catch (IOException e) {
+                result.errors.put(cacheFile.getName(), "could not write cache - " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, QuestDefinition> read(File cacheFile) {
+        Map<String, QuestDefinition> cached = new HashMap<>();
+        if (!cacheFile.isFile()) {
+            return cached;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return cached;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String hash = in.readUTF();
+                cached.put(hash, QuestDefinition.readFrom(in, hash));
+            }
+        } catch (IOException | RuntimeException e) {
+            // Unreadable cache - everything is parsed again and the cache rewritten
+            cached.clear();
+        }
+        return cached;
+    }
+
+    private static void write(File cacheFile, Collection<QuestDefinition> definitions) throws IOException {
+        File parent = cacheFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("cannot create " + parent);
+        }
+        File temp = new File(cacheFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(definitions.size());
+            for (QuestDefinition definition : definitions) {
+                out.writeUTF(definition.getHash());
+                definition.writeTo(out);
+            }
+        }
+        if (cacheFile.exists() && !cacheFile.delete() || !temp.renameTo(cacheFile)) {
+            throw new IOException("cannot replace " + cacheFile);
+        }
+    }
+
+    static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * What a load found: the definitions by file name, how many came from the cache, and per-file problems
+     */
+    static final class LoadResult {
+        private final Map<String, QuestDefinition> definitions = new LinkedHashMap<>();
+        private final Map<String, String> errors = new LinkedHashMap<>();
+        private int parsed;
+        private int cached;
+
+        // Getters
+        Map<String, QuestDefinition> getDefinitions() { return definitions; }
+        Map<String, String> getErrors() { return errors; }
+        int getParsed() { return parsed; }
+        int getCached() { return cached; }
+
+        @Override
+        public String toString() {
+            return definitions.size() + " definitions (" + cached + " cached, " + parsed + " parsed"
+                + (errors.isEmpty() ? "" : ", " + errors.size() + " failed") + ")";
+        }
+    }
+}
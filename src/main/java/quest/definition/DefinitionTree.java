@@ -0,0 +1,303 @@
+package quest.definition;
+
+import quest.core.QuestNode;
+import quest.core.QuestTree;
+import quest.dialogue.DialogueScript;
+import quest.nodes.ActionNode;
+import quest.nodes.actions.InteractWithNPCNode;
+import quest.nodes.actions.InteractWithObjectNode;
+import quest.nodes.actions.ItemActionNode;
+import quest.nodes.actions.SelectDialogueOptionNode;
+import quest.nodes.actions.TakeGroundItemNode;
+import quest.nodes.actions.TalkToNPCNode;
+import quest.nodes.actions.UseItemOnItemNode;
+import quest.nodes.actions.UseItemOnNPCNode;
+import quest.nodes.actions.UseItemOnObjectNode;
+import quest.nodes.actions.WalkToLocationNode;
+import org.dreambot.api.methods.container.impl.Inventory;
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.methods.settings.PlayerSettings;
+import org.dreambot.api.utilities.Sleep;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Definition Tree - runs a QuestDefinition. Each stage's steps are compiled once into the usual
+ * action nodes; the root reads the quest variable, picks the stage it falls in and hands out that
+ * stage's nodes in order, starting over from the first when the variable moves to a new stage.
+ * A stage that runs through all of its steps MAX_STAGE_ROUNDS times without the variable moving
+ * fails the quest rather than looping forever. The choosing is StageRouter's, which the replay
+ * harness also drives offline.
+ *
+ * When QuestDefinitions loads a new version of the definition (hot reload), the tree recompiles at
+ * the start of its next tick and carries on from the equivalent step: same stage, the same step
+ * (matched by what it does, not by position, so inserted or removed steps do not shift it), and
+ * the same repeat of a counted step.
+ */
+public class DefinitionTree extends QuestTree {
+
+    private QuestDefinition definition;
+    private QuestNode[][] stageNodes;
+    // Which node of which stage runs next - see StageRouter
+    private StageRouter router;
+
+    public DefinitionTree(QuestDefinition definition) {
+        super(definition.getName());
+        this.definition = definition;
+        compile();
+    }
+
+    @Override
+    protected void buildTree() {
+        // Called from QuestTree's constructor, before the stages are compiled - the router reads them lazily
+        rootNode = new QuestNode("definition_router", "Quest definition stage router") {
+            @Override
+            public ExecutionResult execute() {
+                return route();
+            }
+        };
+    }
+
+    private QuestNode.ExecutionResult route() {
+        int value = readProgress();
+        switch (router.route(value)) {
+            case COMPLETE:
+                log("-> Quest complete (" + definition.getVarKey() + " = " + value + ")");
+                setQuestComplete();
+                return QuestNode.ExecutionResult.questComplete();
+            case NO_STAGE:
+                return QuestNode.ExecutionResult.failure("No stage in " + definition.getId() + " covers "
+                    + definition.getVarKey() + " = " + value);
+            case STUCK:
+                return QuestNode.ExecutionResult.failure(router.getStage() + " ran " + router.getRounds()
+                    + " times without " + definition.getVarKey() + " moving from " + value);
+            default:
+                break;
+        }
+
+        QuestDefinition.Stage stage = router.getStage();
+        if (router.isNewStage()) {
+            log("-> " + stage + " (" + definition.getVarKey() + " = " + value + ")");
+        } else if (router.isNewRound()) {
+            log("-> " + stage + " again (round " + (router.getRounds() + 1) + ")");
+        }
+        QuestNode[] nodes = stageNodes[stage.getIndex()];
+        QuestNode next = nodes[router.getNode()];
+        return QuestNode.ExecutionResult.success(next, stage + " step " + router.getCursor() + "/" + nodes.length);
+    }
+
+    // ---- Hot reload ----
+
+    @Override
+    protected void beforeStep() {
+        QuestDefinition latest = QuestDefinitions.get(definition.getId());
+        if (latest != null && latest != definition) {
+            reload(latest);
+        }
+    }
+
+    private void reload(QuestDefinition latest) {
+        StageRouter old = router;
+        int stageIndex = old.getStageIndex();
+        QuestDefinition.Stage oldStage = old.getStage();
+        QuestNode[] oldNodes = stageIndex >= 0 ? stageNodes[stageIndex] : null;
+        int[] oldSteps = stageIndex >= 0 ? old.getLayout()[stageIndex] : null;
+        // Where we are: the node being run (or retried), or at the root the next one to hand out
+        boolean atRoot = currentNode == null || currentNode == rootNode;
+        int position = oldNodes == null ? -1 : atRoot ? old.getCursor() : Arrays.asList(oldNodes).indexOf(currentNode);
+
+        definition = latest;
+        compile();
+
+        QuestDefinition.Stage newStage = oldStage != null ? latest.stageFor(oldStage.getMin()) : null;
+        if (newStage == null || position < 0) {
+            currentNode = rootNode;
+            log("Definition reloaded - choosing the stage again");
+            return;
+        }
+        int[] newSteps = router.getLayout()[newStage.getIndex()];
+        int cursor;
+        if (atRoot && position >= oldNodes.length) {
+            cursor = newSteps.length;
+        } else {
+            int mapped = mapNode(oldStage, oldSteps, position, newStage, newSteps);
+            if (atRoot) {
+                cursor = mapped;
+            } else {
+                currentNode = stageNodes[newStage.getIndex()][mapped];
+                cursor = mapped + 1;
+            }
+        }
+        router.resume(old, newStage.getIndex(), cursor);
+        int step = Math.min(atRoot ? cursor + 1 : cursor, newSteps.length);
+        log("Definition reloaded - continuing " + newStage + " at step " + step + "/" + newSteps.length);
+    }
+
+    /**
+     * The node in the new stage equivalent to node k of the old one
+     */
+    private static int mapNode(QuestDefinition.Stage oldStage, int[] oldSteps, int k,
+                               QuestDefinition.Stage newStage, int[] newSteps) {
+        int oldStep = oldSteps[k];
+        if (oldStep < 0 || newSteps[0] < 0) return 0;
+        int repeat = k - firstNode(oldSteps, oldStep);
+
+        String key = stepKey(oldStage.getSteps().get(oldStep));
+        List<QuestDefinition.Step> steps = newStage.getSteps();
+        int best = -1;
+        for (int i = 0; i < steps.size(); i++) {
+            if (key.equals(stepKey(steps.get(i))) && (best < 0 || Math.abs(i - oldStep) < Math.abs(best - oldStep))) {
+                best = i;
+            }
+        }
+        if (best < 0) best = Math.min(oldStep, steps.size() - 1);
+
+        int first = Math.min(firstNode(newSteps, best), newSteps.length - 1);
+        int node = first;
+        while (node - first < repeat && node + 1 < newSteps.length && newSteps[node + 1] == newSteps[first]) {
+            node++;
+        }
+        return node;
+    }
+
+    private static int firstNode(int[] steps, int step) {
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i] >= step) return i;
+        }
+        return steps.length;
+    }
+
+    private static String stepKey(QuestDefinition.Step step) {
+        return step.getType() + "|" + step.getSubject() + "|" + step.getAction() + "|" + step.getTarget();
+    }
+
+    private int readProgress() {
+        return definition.isVarbit()
+            ? PlayerSettings.getBitValue(definition.getVarId())
+            : PlayerSettings.getConfig(definition.getVarId());
+    }
+
+    // ---- Compiling steps to nodes ----
+
+    private void compile() {
+        StageRouter compiledRouter = new StageRouter(definition);
+        QuestNode[][] compiled = new QuestNode[definition.getStages().size()][];
+        Tile lastTile = firstTile(definition);
+        for (QuestDefinition.Stage stage : definition.getStages()) {
+            int[] layout = compiledRouter.getLayout()[stage.getIndex()];
+            List<QuestNode> nodes = new ArrayList<>();
+            List<QuestDefinition.Step> steps = stage.getSteps();
+            for (int i = 0; i < steps.size(); i++) {
+                QuestDefinition.Step step = steps.get(i);
+                Tile tile = step.hasTile() ? new Tile(step.getX(), step.getY(), step.getZ()) : lastTile;
+                String nodeId = definition.getId().toLowerCase() + "_s" + stage.getIndex() + "_" + i + "_" + step.getType().key();
+                if (!contains(layout, i)) {
+                    log("Skipping " + step + " - no tile to find it at");
+                    continue;
+                }
+                for (int n = 0; n < step.getCount(); n++) {
+                    nodes.add(node(step, step.getCount() > 1 ? nodeId + "_" + (n + 1) : nodeId, tile));
+                }
+                if (tile != null) lastTile = tile;
+            }
+            if (nodes.isEmpty()) {
+                nodes.add(waitNode(stage));
+            }
+            compiled[stage.getIndex()] = nodes.toArray(new QuestNode[0]);
+        }
+        stageNodes = compiled;
+        router = compiledRouter;
+    }
+
+    private static boolean contains(int[] layout, int step) {
+        for (int s : layout) {
+            if (s == step) return true;
+        }
+        return false;
+    }
+
+    private QuestNode node(QuestDefinition.Step step, String nodeId, Tile tile) {
+        switch (step.getType()) {
+            case WALK:
+                return new WalkToLocationNode(nodeId, tile, step.getDistance(), tile.toString());
+            case TALK:
+                return new TalkToNPCNode(nodeId, step.getSubject(), tile, dialogueScript(step));
+            case NPC:
+                return new InteractWithNPCNode(nodeId, step.getSubject(), step.getAction(), tile);
+            case OBJECT:
+                return new InteractWithObjectNode(nodeId, step.getSubject(), step.getAction(), tile, tile.toString());
+            case TAKE:
+                return takeNode(nodeId, step.getSubject(), step.hasTile() ? tile : null);
+            case USE:
+                switch (step.getOn()) {
+                    case NPC: return new UseItemOnNPCNode(nodeId, step.getSubject(), step.getTarget());
+                    case ITEM: return new UseItemOnItemNode(nodeId, step.getSubject(), step.getTarget());
+                    default: return new UseItemOnObjectNode(nodeId, step.getSubject(), step.getTarget());
+                }
+            case ITEM:
+                return new ItemActionNode(nodeId, step.getSubject(), step.getAction());
+            case DIALOGUE:
+                return new SelectDialogueOptionNode(nodeId, String.join(" / ", step.getOptions()), dialogueScript(step));
+        }
+        throw new IllegalArgumentException("Unknown step type " + step.getType());
+    }
+
+    private static DialogueScript dialogueScript(QuestDefinition.Step step) {
+        if (step.getOptions().isEmpty()) {
+            return DialogueScript.CONTINUE;
+        }
+        DialogueScript.Builder builder = DialogueScript.builder(step.toString());
+        Set<String> distinct = new LinkedHashSet<>(step.getOptions());
+        for (String option : distinct) {
+            builder.option(option);
+        }
+        // A dialogue step stops at the option screen after its last choice and leaves the rest to the next step
+        return step.getType() == QuestDefinition.StepType.TALK
+            ? builder.fallbackToFirst().build()
+            : builder.maxChoices(step.getOptions().size()).build();
+    }
+
+    private static QuestNode takeNode(String nodeId, String itemName, Tile tile) {
+        return new TakeGroundItemNode(nodeId, itemName, tile, tile != null ? tile.toString() : null) {
+            @Override
+            public boolean shouldSkip() {
+                return Inventory.contains(itemName);
+            }
+        };
+    }
+
+    private QuestNode waitNode(QuestDefinition.Stage stage) {
+        return new ActionNode(definition.getId().toLowerCase() + "_s" + stage.getIndex() + "_wait",
+            "Wait for " + definition.getVarKey() + " to leave " + stage) {
+            @Override
+            protected boolean performAction() {
+                Sleep.sleepUntil(() -> definition.stageFor(readProgress()) != stage, StageRouter.STAGE_WAIT_MS, 600);
+                return true;
+            }
+        };
+    }
+
+    private static Tile firstTile(QuestDefinition definition) {
+        for (QuestDefinition.Stage stage : definition.getStages()) {
+            for (QuestDefinition.Step step : stage.getSteps()) {
+                if (step.hasTile()) return new Tile(step.getX(), step.getY(), step.getZ());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getQuestProgress() {
+        if (questComplete) return 100;
+        int stages = definition.getStages().size();
+        int stageIndex = router.getStageIndex();
+        return stageIndex < 0 || stages == 0 ? 0 : stageIndex * 100 / stages;
+    }
+
+    // Getters
+    public QuestDefinition getDefinition() { return definition; }
+}
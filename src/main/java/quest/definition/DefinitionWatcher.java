@@ -0,0 +1,132 @@
+package quest.definition;
+
+import org.dreambot.api.utilities.Logger;
+import quest.core.QuestDatabase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Definition Watcher - reloads QuestDefinitions when a file in the definitions directory is saved.
+ * Events are collected until the directory has been quiet for SETTLE_MS (editors write a file in
+ * several steps), then everything is loaded and validated again in one go. The watcher only swaps
+ * the catalog; running DefinitionTrees pick the new version up at their next tick.
+ */
+final class DefinitionWatcher {
+
+    private static final long SETTLE_MS = 300;
+
+    private final Path directory;
+    private final WatchService service;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private DefinitionWatcher(Path directory, WatchService service) {
+        this.directory = directory;
+        this.service = service;
+        this.thread = new Thread(this::run, "quest-definition-watch");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * @return the running watcher, or null if the directory cannot be watched
+     */
+    static DefinitionWatcher start(File directory) {
+        if (!directory.isDirectory()) {
+            Logger.log("[QuestDefinitions] Not watching " + directory.getPath() + " - no such directory");
+            return null;
+        }
+        try {
+            Path path = directory.toPath();
+            WatchService service = FileSystems.getDefault().newWatchService();
+            path.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+            DefinitionWatcher watcher = new DefinitionWatcher(path, service);
+            watcher.thread.start();
+            Logger.log("[QuestDefinitions] Watching " + directory.getPath() + " for changes");
+            return watcher;
+        } catch (IOException e) {
+            Logger.log("[QuestDefinitions] Could not watch " + directory.getPath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        Object context = event.context();
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || context != null && context.toString().endsWith(".json")) {
+                            changed = true;
+                        }
+                    }
+                    key.reset();
+                    key = service.poll(SETTLE_MS, TimeUnit.MILLISECONDS);
+                }
+                if (changed && running) {
+                    apply();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    private void apply() {
+        Map<String, String> before = hashes();
+        try {
+            QuestDefinitions.reload();
+            QuestDatabase.registerDefinitions();
+        } catch (RuntimeException e) {
+            Logger.log("[QuestDefinitions] Reload failed: " + e.getMessage());
+            return;
+        }
+        Map<String, String> after = hashes();
+        for (Map.Entry<String, String> entry : after.entrySet()) {
+            String previous = before.get(entry.getKey());
+            if (previous == null) {
+                Logger.log("[QuestDefinitions] Added " + QuestDefinitions.get(entry.getKey()));
+            } else if (!previous.equals(entry.getValue())) {
+                Logger.log("[QuestDefinitions] Reloaded " + QuestDefinitions.get(entry.getKey()));
+            }
+        }
+        for (String id : before.keySet()) {
+            if (!after.containsKey(id)) {
+                Logger.log("[QuestDefinitions] Removed " + id + " - no longer listed (a quest already running keeps its version)");
+            }
+        }
+    }
+
+    private static Map<String, String> hashes() {
+        Map<String, String> hashes = new HashMap<>();
+        for (QuestDefinition definition : QuestDefinitions.getAll()) {
+            hashes.put(definition.getId(), definition.getHash());
+        }
+        return hashes;
+    }
+
+    void stop() {
+        running = false;
+        try {
+            service.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+        thread.interrupt();
+        Logger.log("[QuestDefinitions] Stopped watching " + directory);
+    }
+}
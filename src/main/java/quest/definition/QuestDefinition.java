@@ -0,0 +1,623 @@
+package quest.definition;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Quest Definition - a quest described as data (quest_data/quests/*.json) instead of a QuestTree class.
+ *
+ *   {
+ *     "format": 1, "id": "VAMPIRE_SLAYER", "name": "Vampire Slayer",
+ *     "progress": {"type": "config", "id": 178, "complete": 4},
+ *     "items": [{"name": "Hammer", "quantity": 1}],
+ *     "stages": [
+ *       {"min": 0, "max": 0, "steps": [{"type": "talk", "npc": "Morgan", "tile": [3098, 3268, 0]}]}
+ *     ]
+ *   }
+ *
+ * A stage runs while the quest variable is in [min, max]; its steps run in order until the variable
+ * moves. Step types (see RecordingCompiler, which writes this format from recordings):
+ *
+ *   walk      tile | area [x1, y1, x2, y2, z], distance
+ *   talk      npc, tile, dialogue[]
+ *   npc       npc, action, tile
+ *   object    object, action, tile
+ *   take      item, tile
+ *   use       item, target, on (object | npc | item)
+ *   item      item, action
+ *   dialogue  options[]
+ *
+ * A missing tile on talk/npc/object/take means "near the last known tile". Any step may have
+ * "count" (run it that many times); anything may have a "note". Parsing validates
+ * everything up front and reports every problem at once; the result is immutable and is what the
+ * binary cache stores (see QuestDefinitions).
+ */
+public final class QuestDefinition {
+
+    public static final int FORMAT = 1;
+
+    public enum StepType {
+        WALK, TALK, NPC, OBJECT, TAKE, USE, ITEM, DIALOGUE;
+
+        public String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    public enum UseTarget { OBJECT, NPC, ITEM }
+
+    private static final Map<StepType, Set<String>> STEP_KEYS = new EnumMap<>(StepType.class);
+    private static final Set<String> COMMON_STEP_KEYS = keys("type", "count", "note");
+
+    static {
+        STEP_KEYS.put(StepType.WALK, keys("tile", "area", "distance"));
+        STEP_KEYS.put(StepType.TALK, keys("npc", "tile", "dialogue"));
+        STEP_KEYS.put(StepType.NPC, keys("npc", "action", "tile"));
+        STEP_KEYS.put(StepType.OBJECT, keys("object", "action", "tile"));
+        STEP_KEYS.put(StepType.TAKE, keys("item", "tile"));
+        STEP_KEYS.put(StepType.USE, keys("item", "target", "on"));
+        STEP_KEYS.put(StepType.ITEM, keys("item", "action"));
+        STEP_KEYS.put(StepType.DIALOGUE, keys("options"));
+    }
+
+    private static final int DEFAULT_WALK_DISTANCE = 3;
+    private static final int DEFAULT_DIFFICULTY = 1;
+    private static final int DEFAULT_MINUTES = 15;
+
+    private final String id;
+    private final String name;
+    private final boolean varbit;
+    private final int varId;
+    private final int complete;
+    private final int difficulty;
+    private final int estimatedMinutes;
+    private final List<Item> items;
+    private final List<Stage> stages;
+    private final String hash;
+
+    private QuestDefinition(String id, String name, boolean varbit, int varId, int complete, int difficulty,
+                            int estimatedMinutes, List<Item> items, List<Stage> stages, String hash) {
+        this.id = id;
+        this.name = name;
+        this.varbit = varbit;
+        this.varId = varId;
+        this.complete = complete;
+        this.difficulty = difficulty;
+        this.estimatedMinutes = estimatedMinutes;
+        this.items = Collections.unmodifiableList(items);
+        this.stages = Collections.unmodifiableList(stages);
+        this.hash = hash;
+    }
+
+    /**
+     * The stage for a value of the quest variable, or null (not covered, or complete)
+     */
+    public Stage stageFor(int value) {
+        for (Stage stage : stages) {
+            if (value >= stage.min && value <= stage.max) return stage;
+        }
+        return null;
+    }
+
+    public boolean isComplete(int value) {
+        return value >= complete;
+    }
+
+    public List<String> getItemNames() {
+        List<String> names = new ArrayList<>();
+        for (Item item : items) {
+            names.add(item.quantity > 1 ? item.name + " x" + item.quantity : item.name);
+        }
+        return names;
+    }
+
+    /**
+     * "config 178" / "varbit 6071"
+     */
+    public String getVarKey() {
+        return (varbit ? "varbit " : "config ") + varId;
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public boolean isVarbit() { return varbit; }
+    public int getVarId() { return varId; }
+    public int getComplete() { return complete; }
+    public int getDifficulty() { return difficulty; }
+    public int getEstimatedMinutes() { return estimatedMinutes; }
+    public List<Item> getItems() { return items; }
+    public List<Stage> getStages() { return stages; }
+    public String getHash() { return hash; }
+
+    @Override
+    public String toString() {
+        return id + " (" + name + ", " + getVarKey() + ", " + stages.size() + " stages)";
+    }
+
+    public static final class Item {
+        private final String name;
+        private final int quantity;
+
+        Item(String name, int quantity) {
+            this.name = name;
+            this.quantity = quantity;
+        }
+
+        // Getters
+        public String getName() { return name; }
+        public int getQuantity() { return quantity; }
+    }
+
+    public static final class Stage {
+        private final int index;
+        private final int min;
+        private final int max;
+        private final List<Step> steps;
+
+        Stage(int index, int min, int max, List<Step> steps) {
+            this.index = index;
+            this.min = min;
+            this.max = max;
+            this.steps = Collections.unmodifiableList(steps);
+        }
+
+        // Getters
+        public int getIndex() { return index; }
+        public int getMin() { return min; }
+        public int getMax() { return max; }
+        public List<Step> getSteps() { return steps; }
+
+        @Override
+        public String toString() {
+            return min == max ? "stage " + min : "stage " + min + "-" + max;
+        }
+    }
+
+    public static final class Step {
+        private final StepType type;
+        private final String subject;     // npc, object or item
+        private final String action;
+        private final String target;      // what an item is used on
+        private final UseTarget on;
+        private final boolean hasTile;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final int distance;
+        private final List<String> options;
+        private final int count;
+
+        Step(StepType type, String subject, String action, String target, UseTarget on, boolean hasTile,
+             int x, int y, int z, int distance, List<String> options, int count) {
+            this.type = type;
+            this.subject = subject;
+            this.action = action;
+            this.target = target;
+            this.on = on;
+            this.hasTile = hasTile;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.distance = distance;
+            this.options = Collections.unmodifiableList(options);
+            this.count = count;
+        }
+
+        /**
+         * A single step built in code rather than parsed - how an action node describes itself to the
+         * replay harness (ActionNode.toStep)
+         * @param tile {x, y, z}, or null for none
+         */
+        public static Step of(StepType type, String subject, String action, String target, UseTarget on, int[] tile) {
+            return new Step(type, subject, action, target, on, tile != null,
+                tile != null ? tile[0] : 0, tile != null ? tile[1] : 0, tile != null ? tile[2] : 0,
+                0, Collections.emptyList(), 1);
+        }
+
+        // Getters
+        public StepType getType() { return type; }
+        public String getSubject() { return subject; }
+        public String getAction() { return action; }
+        public String getTarget() { return target; }
+        public UseTarget getOn() { return on; }
+        public boolean hasTile() { return hasTile; }
+        public int getX() { return x; }
+        public int getY() { return y; }
+        public int getZ() { return z; }
+        public int getDistance() { return distance; }
+        public List<String> getOptions() { return options; }
+        public int getCount() { return count; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(type.key());
+            if (action != null) sb.append(' ').append(action);
+            if (subject != null) sb.append(' ').append(subject);
+            if (target != null) sb.append(" on ").append(target);
+            if (hasTile) sb.append(" (").append(x).append(", ").append(y).append(", ").append(z).append(')');
+            if (!options.isEmpty()) sb.append(' ').append(options);
+            if (count > 1) sb.append(" x").append(count);
+            return sb.toString();
+        }
+    }
+
+    // ---- Parsing and validation ----
+
+    /**
+     * Parse and validate a definition
+     * @param source file name for error messages
+     * @param hash content hash the cache keys it by
+     */
+    public static QuestDefinition parse(String json, String source, String hash) throws QuestDefinitionException {
+        JSONObject root;
+        try {
+            root = new JSONObject(json);
+        } catch (JSONException e) {
+            throw new QuestDefinitionException(source, Collections.singletonList("not valid JSON - " + e.getMessage()));
+        }
+        Parser parser = new Parser();
+        QuestDefinition definition = parser.definition(root, hash);
+        if (!parser.problems.isEmpty()) {
+            throw new QuestDefinitionException(source, parser.problems);
+        }
+        return definition;
+    }
+
+    private static final class Parser {
+        final List<String> problems = new ArrayList<>();
+
+        QuestDefinition definition(JSONObject root, String hash) {
+            allowOnly(root, "", keys("format", "id", "name", "progress", "items", "stages", "sources", "difficulty",
+                "minutes", "note"));
+            int format = root.optInt("format", -1);
+            if (format != FORMAT) problem("", "format must be " + FORMAT + " (was " + root.opt("format") + ")");
+
+            String id = string(root, "", "id", true);
+            if (id != null && !id.matches("[A-Z0-9_]+")) problem("", "id must be UPPER_SNAKE_CASE: " + id);
+            String name = string(root, "", "name", true);
+
+            boolean varbit = false;
+            int varId = 0, complete = 0;
+            JSONObject progress = root.optJSONObject("progress");
+            if (progress == null) {
+                problem("", "missing progress {type, id, complete}");
+            } else {
+                allowOnly(progress, "progress", keys("type", "id", "complete"));
+                String type = string(progress, "progress", "type", true);
+                if (type != null && !type.equals("varbit") && !type.equals("config")) {
+                    problem("progress", "type must be varbit or config: " + type);
+                }
+                varbit = "varbit".equals(type);
+                varId = integer(progress, "progress", "id", true, 0);
+                complete = integer(progress, "progress", "complete", true, 0);
+            }
+            int difficulty = integer(root, "", "difficulty", false, DEFAULT_DIFFICULTY);
+            int minutes = integer(root, "", "minutes", false, DEFAULT_MINUTES);
+
+            List<Item> items = new ArrayList<>();
+            JSONArray itemArray = root.optJSONArray("items");
+            for (int i = 0; itemArray != null && i < itemArray.length(); i++) {
+                String at = "items[" + i + "]";
+                JSONObject item = itemArray.optJSONObject(i);
+                if (item == null) {
+                    problem(at, "must be an object");
+                    continue;
+                }
+                allowOnly(item, at, keys("name", "quantity", "note"));
+                String itemName = string(item, at, "name", true);
+                int quantity = integer(item, at, "quantity", false, 1);
+                if (quantity < 1) problem(at, "quantity must be at least 1");
+                if (itemName != null) items.add(new Item(itemName, quantity));
+            }
+
+            List<Stage> stages = new ArrayList<>();
+            JSONArray stageArray = root.optJSONArray("stages");
+            if (stageArray == null || stageArray.length() == 0) {
+                problem("", "needs at least one stage");
+            }
+            for (int i = 0; stageArray != null && i < stageArray.length(); i++) {
+                String at = "stages[" + i + "]";
+                JSONObject stage = stageArray.optJSONObject(i);
+                if (stage == null) {
+                    problem(at, "must be an object");
+                    continue;
+                }
+                allowOnly(stage, at, keys("min", "max", "next", "source", "steps", "note"));
+                int min = integer(stage, at, "min", true, 0);
+                int max = integer(stage, at, "max", false, min);
+                if (max < min) problem(at, "max " + max + " is below min " + min);
+                if (max >= complete && progress != null) problem(at, "overlaps the complete value " + complete);
+                for (Stage other : stages) {
+                    if (min <= other.max && max >= other.min) problem(at, "overlaps " + other);
+                }
+                List<Step> steps = new ArrayList<>();
+                JSONArray stepArray = stage.optJSONArray("steps");
+                if (stepArray == null) problem(at, "missing steps (use [] for a stage that only waits)");
+                for (int s = 0; stepArray != null && s < stepArray.length(); s++) {
+                    Step step = step(stepArray.optJSONObject(s), at + ".steps[" + s + "]");
+                    if (step != null) steps.add(step);
+                }
+                stages.add(new Stage(stages.size(), min, max, steps));
+            }
+            stages.sort(Comparator.comparingInt(Stage::getMin));
+            return new QuestDefinition(id, name, varbit, varId, complete, difficulty, minutes, items, reindex(stages), hash);
+        }
+
+        Step step(JSONObject step, String at) {
+            if (step == null) {
+                problem(at, "must be an object");
+                return null;
+            }
+            String typeName = string(step, at, "type", true);
+            if (typeName == null) return null;
+            StepType type;
+            try {
+                type = StepType.valueOf(typeName.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                problem(at, "unknown type '" + typeName + "'");
+                return null;
+            }
+            Set<String> allowed = new HashSet<>(COMMON_STEP_KEYS);
+            allowed.addAll(STEP_KEYS.get(type));
+            allowOnly(step, at, allowed);
+
+            String subject = null, action = null, target = null;
+            UseTarget on = null;
+            int[] tile = null;
+            int distance = 0;
+            List<String> options = new ArrayList<>();
+            switch (type) {
+                case WALK: {
+                    JSONArray area = step.optJSONArray("area");
+                    if (area != null) {
+                        int[] corners = ints(area, at + ".area", 5);
+                        if (corners != null) {
+                            tile = new int[] {(corners[0] + corners[2]) / 2, (corners[1] + corners[3]) / 2, corners[4]};
+                            distance = Math.max(Math.abs(corners[2] - corners[0]), Math.abs(corners[3] - corners[1])) / 2;
+                        }
+                    } else {
+                        tile = tile(step, at, true);
+                    }
+                    distance = integer(step, at, "distance", false, Math.max(distance, DEFAULT_WALK_DISTANCE));
+                    break;
+                }
+                case TALK:
+                    subject = string(step, at, "npc", true);
+                    tile = tile(step, at, false);
+                    options = strings(step, at, "dialogue", false);
+                    break;
+                case NPC:
+                    subject = string(step, at, "npc", true);
+                    action = string(step, at, "action", true);
+                    tile = tile(step, at, false);
+                    break;
+                case OBJECT:
+                    subject = string(step, at, "object", true);
+                    action = string(step, at, "action", true);
+                    tile = tile(step, at, false);
+                    break;
+                case TAKE:
+                    subject = string(step, at, "item", true);
+                    tile = tile(step, at, false);
+                    break;
+                case USE: {
+                    subject = string(step, at, "item", true);
+                    target = string(step, at, "target", true);
+                    String onName = string(step, at, "on", false);
+                    try {
+                        on = onName != null ? UseTarget.valueOf(onName.toUpperCase()) : UseTarget.OBJECT;
+                    } catch (IllegalArgumentException e) {
+                        problem(at, "on must be object, npc or item: " + onName);
+                    }
+                    break;
+                }
+                case ITEM:
+                    subject = string(step, at, "item", true);
+                    action = string(step, at, "action", true);
+                    break;
+                case DIALOGUE:
+                    options = strings(step, at, "options", true);
+                    break;
+            }
+            int count = integer(step, at, "count", false, 1);
+            if (count < 1) problem(at, "count must be at least 1");
+            return new Step(type, subject, action, target, on, tile != null,
+                tile != null ? tile[0] : 0, tile != null ? tile[1] : 0, tile != null ? tile[2] : 0,
+                distance, options, count);
+        }
+
+        private String string(JSONObject object, String at, String key, boolean required) {
+            Object value = object.opt(key);
+            if (value == null) {
+                if (required) problem(at, "missing " + key);
+                return null;
+            }
+            if (!(value instanceof String) || ((String) value).trim().isEmpty()) {
+                problem(at, key + " must be a non-empty string");
+                return null;
+            }
+            return ((String) value).trim();
+        }
+
+        private int integer(JSONObject object, String at, String key, boolean required, int defaultValue) {
+            Object value = object.opt(key);
+            if (value == null) {
+                if (required) problem(at, "missing " + key);
+                return defaultValue;
+            }
+            if (!(value instanceof Integer)) {
+                problem(at, key + " must be a whole number");
+                return defaultValue;
+            }
+            return (Integer) value;
+        }
+
+        private List<String> strings(JSONObject object, String at, String key, boolean required) {
+            List<String> values = new ArrayList<>();
+            JSONArray array = object.optJSONArray(key);
+            if (array == null) {
+                if (object.has(key)) problem(at, key + " must be a list of strings");
+                else if (required) problem(at, "missing " + key);
+                return values;
+            }
+            for (int i = 0; i < array.length(); i++) {
+                Object value = array.opt(i);
+                if (!(value instanceof String) || ((String) value).trim().isEmpty()) {
+                    problem(at, key + "[" + i + "] must be a non-empty string");
+                } else {
+                    values.add(((String) value).trim());
+                }
+            }
+            if (required && values.isEmpty() && array.length() == 0) problem(at, key + " is empty");
+            return values;
+        }
+
+        private int[] tile(JSONObject object, String at, boolean required) {
+            JSONArray array = object.optJSONArray("tile");
+            if (array == null) {
+                if (object.has("tile")) problem(at, "tile must be [x, y, z]");
+                else if (required) problem(at, "missing tile");
+                return null;
+            }
+            return ints(array, at + ".tile", 3);
+        }
+
+        private int[] ints(JSONArray array, String at, int length) {
+            if (array.length() != length) {
+                problem(at, "needs " + length + " numbers");
+                return null;
+            }
+            int[] values = new int[length];
+            for (int i = 0; i < length; i++) {
+                Object value = array.opt(i);
+                if (!(value instanceof Integer)) {
+                    problem(at, "needs whole numbers");
+                    return null;
+                }
+                values[i] = (Integer) value;
+            }
+            return values;
+        }
+
+        private void allowOnly(JSONObject object, String at, Set<String> allowed) {
+            for (String key : object.keySet()) {
+                if (!allowed.contains(key)) problem(at, "unknown key '" + key + "'");
+            }
+        }
+
+        private void problem(String at, String message) {
+            problems.add(at.isEmpty() ? message : at + ": " + message);
+        }
+    }
+
+    private static List<Stage> reindex(List<Stage> stages) {
+        List<Stage> indexed = new ArrayList<>(stages.size());
+        for (Stage stage : stages) {
+            indexed.add(stage.index == indexed.size() ? stage : new Stage(indexed.size(), stage.min, stage.max, stage.steps));
+        }
+        return indexed;
+    }
+
+    private static Set<String> keys(String... keys) {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+
+    // ---- Binary form (cache) ----
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(id);
+        out.writeUTF(name);
+        out.writeBoolean(varbit);
+        out.writeInt(varId);
+        out.writeInt(complete);
+        out.writeInt(difficulty);
+        out.writeInt(estimatedMinutes);
+        out.writeInt(items.size());
+        for (Item item : items) {
+            out.writeUTF(item.name);
+            out.writeInt(item.quantity);
+        }
+        out.writeInt(stages.size());
+        for (Stage stage : stages) {
+            out.writeInt(stage.min);
+            out.writeInt(stage.max);
+            out.writeInt(stage.steps.size());
+            for (Step step : stage.steps) {
+                out.writeByte(step.type.ordinal());
+                writeNullable(out, step.subject);
+                writeNullable(out, step.action);
+                writeNullable(out, step.target);
+                out.writeByte(step.on != null ? step.on.ordinal() : -1);
+                out.writeBoolean(step.hasTile);
+                out.writeInt(step.x);
+                out.writeInt(step.y);
+                out.writeInt(step.z);
+                out.writeInt(step.distance);
+                out.writeInt(step.options.size());
+                for (String option : step.options) {
+                    out.writeUTF(option);
+                }
+                out.writeInt(step.count);
+            }
+        }
+    }
+
+    static QuestDefinition readFrom(DataInput in, String hash) throws IOException {
+        String id = in.readUTF();
+        String name = in.readUTF();
+        boolean varbit = in.readBoolean();
+        int varId = in.readInt();
+        int complete = in.readInt();
+        int difficulty = in.readInt();
+        int minutes = in.readInt();
+        int itemCount = in.readInt();
+        List<Item> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new Item(in.readUTF(), in.readInt()));
+        }
+        int stageCount = in.readInt();
+        List<Stage> stages = new ArrayList<>(stageCount);
+        for (int i = 0; i < stageCount; i++) {
+            int min = in.readInt();
+            int max = in.readInt();
+            int stepCount = in.readInt();
+            List<Step> steps = new ArrayList<>(stepCount);
+            for (int s = 0; s < stepCount; s++) {
+                StepType type = StepType.values()[in.readByte()];
+                String subject = readNullable(in);
+                String action = readNullable(in);
+                String target = readNullable(in);
+                int on = in.readByte();
+                boolean hasTile = in.readBoolean();
+                int x = in.readInt(), y = in.readInt(), z = in.readInt();
+                int distance = in.readInt();
+                int optionCount = in.readInt();
+                List<String> options = new ArrayList<>(optionCount);
+                for (int o = 0; o < optionCount; o++) {
+                    options.add(in.readUTF());
+                }
+                int count = in.readInt();
+                steps.add(new Step(type, subject, action, target, on >= 0 ? UseTarget.values()[on] : null, hasTile,
+                    x, y, z, distance, options, count));
+            }
+            stages.add(new Stage(i, min, max, steps));
+        }
+        return new QuestDefinition(id, name, varbit, varId, complete, difficulty, minutes, items, stages, hash);
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,24 @@
+package quest.definition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A quest definition that failed to parse or validate. Carries every problem found, each prefixed
+ * with where it is ("stages[2].steps[0]: unknown type 'tlak'").
+ */
+public class QuestDefinitionException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> problems;
+
+    public QuestDefinitionException(String source, List<String> problems) {
+        super(source + ": " + (problems.size() == 1 ? problems.get(0) : problems.size() + " problems, first: " + problems.get(0)));
+        this.problems = Collections.unmodifiableList(new ArrayList<>(problems));
+    }
+
+    // Getters
+    public List<String> getProblems() { return problems; }
+}
@@ -0,0 +1,110 @@
+package quest.definition;
+
+import org.dreambot.api.utilities.Logger;
+import quest.utils.QuestSettings;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Quest Definitions - the data-driven quests in quest_data/quests, loaded once (through the binary
+ * cache) and shared by every engine like the other quest catalogs. A definition whose id has no
+ * QuestTree class is run by a DefinitionTree; see QuestExecutor. While watched, edits to the files
+ * are loaded as they are saved and running DefinitionTrees switch over at their next tick.
+ */
+public final class QuestDefinitions {
+
+    public static final String DEFAULT_DIR = RecordingCompiler.DEFAULT_OUT_DIR;
+    public static final String DEFAULT_CACHE = "quest_data/quests.cache";
+
+    private static volatile Map<String, QuestDefinition> definitions;
+    // Which file each loaded definition came from, so a broken edit can keep the last good version
+    private static Map<String, QuestDefinition> byFile = Collections.emptyMap();
+    private static DefinitionWatcher watcher;
+    private static int watchers = 0;
+
+    private QuestDefinitions() {
+        // Static utility
+    }
+
+    public static QuestDefinition get(String questId) {
+        return loaded().get(questId);
+    }
+
+    public static Collection<QuestDefinition> getAll() {
+        return loaded().values();
+    }
+
+    public static boolean contains(String questId) {
+        return loaded().containsKey(questId);
+    }
+
+    /**
+     * Load the directory again. A file that no longer validates keeps its last good version (on a
+     * reload) so a half-finished edit never takes a running quest down; the problems are logged.
+     */
+    public static synchronized DefinitionCache.LoadResult reload() {
+        long start = System.currentTimeMillis();
+        DefinitionCache.LoadResult result = DefinitionCache.load(getDirectory(), getCacheFile());
+        Map<String, QuestDefinition> files = new LinkedHashMap<>(result.getDefinitions());
+        Map<String, QuestDefinition> loaded = new LinkedHashMap<>();
+        for (QuestDefinition definition : files.values()) {
+            loaded.put(definition.getId(), definition);
+        }
+        for (Map.Entry<String, String> error : result.getErrors().entrySet()) {
+            QuestDefinition previous = byFile.get(error.getKey());
+            if (previous != null && !loaded.containsKey(previous.getId())) {
+                files.put(error.getKey(), previous);
+                loaded.put(previous.getId(), previous);
+                Logger.log("[QuestDefinitions] " + error.getKey() + ": " + error.getValue() + " - keeping the previous version");
+            } else {
+                Logger.log("[QuestDefinitions] " + error.getKey() + ": " + error.getValue());
+            }
+        }
+        byFile = files;
+        definitions = Collections.unmodifiableMap(loaded);
+
+        Logger.log("[QuestDefinitions] " + result + " from " + getDirectory().getPath()
+            + " in " + (System.currentTimeMillis() - start) + "ms");
+        return result;
+    }
+
+    /**
+     * Start watching the definitions directory for edits (definitions.watch); each start needs a stop
+     */
+    public static synchronized void watchIfEnabled() {
+        if (!QuestSettings.getBoolean("definitions.watch", true)) return;
+        if (watchers++ == 0) {
+            loaded();
+            watcher = DefinitionWatcher.start(getDirectory());
+        }
+    }
+
+    public static synchronized void stopWatching() {
+        if (watchers > 0 && --watchers == 0 && watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+    }
+
+    private static Map<String, QuestDefinition> loaded() {
+        Map<String, QuestDefinition> current = definitions;
+        if (current == null) {
+            synchronized (QuestDefinitions.class) {
+                if (definitions == null) {
+                    reload();
+                }
+                current = definitions;
+            }
+        }
+        return current;
+    }
+
+    public static File getDirectory() {
+        return new File(QuestSettings.getString("definitions.dir", DEFAULT_DIR));
+    }
+
+    public static File getCacheFile() {
+        return new File(QuestSettings.getString("definitions.cache", DEFAULT_CACHE));
+    }
+}
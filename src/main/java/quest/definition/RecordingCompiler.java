@@ -0,0 +1,643 @@
+package quest.definition;
+
+import org.json.JSONObject;
+import quest.recording.RecordingEvent;
+import quest.recording.RecordingIndex;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recording Compiler - turns one or more recorded quest logs into a quest definition (JSON).
+ *
+ * The recording is cut into stages at each transition of the quest variable (the varbit/config
+ * that moves most often, or --var). A stage holds the actions between the previous transition and
+ * the one they caused:
+ *
+ *   talk     npc, tile, dialogue[]       ("Selected 'Talk-to' on ..." + the choices that followed)
+ *   npc      npc, action, tile           (Attack, Pickpocket, ...)
+ *   object   object, action, tile        (Open, Search, Pick, ...)
+ *   take     item, tile
+ *   use      item, target, on            (on = object | npc | item)
+ *   item     item, action                (Dig, Read, Wield, ...)
+ *   dialogue options[]                  (choices with no talk before them in the stage)
+ *   walk     tile                        (where the player stopped before a step without a tile)
+ *
+ * Stairs, ladders and boats are left out (the TravelPlanner routes over them), as are potions, food,
+ * banking and teleports. With several recordings the shortest segment for each stage wins.
+ *
+ * What only held for the recorded run is left out too: tiles inside instances (their coordinates
+ * change every time), dialogue screens the game answers differently each time (Delrith's
+ * incantation), and - from the required items - anything the quest itself handed over, plus gear
+ * the player only put on.
+ *
+ * Usage: java quest.definition.RecordingCompiler [--logs DIR] [--index FILE] [--var varbit:6071]
+ *            [--id ID] [--name NAME] [--out FILE] (--quest QUEST | LOG...)
+ */
+public class RecordingCompiler {
+
+    public static final String DEFAULT_OUT_DIR = "quest_data/quests";
+    public static final int FORMAT = 1;
+
+    // A step without its own tile gets a walk first if the player stopped further than this from the last one
+    private static final int WALK_DISTANCE = 6;
+
+    private static final Pattern SELECTED = Pattern.compile("^Selected '([^']+)' on (.+)$");
+    private static final Pattern TILE = Pattern.compile("\\((\\d+), (\\d+), (\\d+)\\)");
+    private static final Pattern STARTING_INVENTORY = Pattern.compile("^Starting Inventory: (.*)$");
+    private static final Pattern STACK = Pattern.compile(" x\\d+$");
+    // Header lines read looking for the starting inventory
+    private static final int HEADER_LINES = 20;
+    // Instances are copied into map space east of the real map, at different coordinates every time
+    private static final int INSTANCE_MIN_X = 6400;
+
+    private static final Set<String> TRAVEL_ACTIONS = new HashSet<>(Arrays.asList(
+        "climb-up", "climb-down", "climb", "walk-down", "walk-up", "go-down", "go-up", "enter", "exit", "cross"
+    ));
+    private static final Set<String> IGNORED_ACTIONS = new HashSet<>(Arrays.asList(
+        "drink", "eat", "drop", "cast", "bank", "collect", "exchange", "examine", "walk here", "cancel", "follow",
+        "trade with", "check", "toggle run",
+        // Bank, equipment and GE interface clicks
+        "select", "release", "view tab", "remove", "value", "buy", "sell", "offer", "placeholder"
+    ));
+    private static final Set<String> ITEM_ACTIONS = new HashSet<>(Arrays.asList(
+        "dig", "read", "rub", "bury", "break", "wield", "wear", "inspect", "look-at", "combine"
+    ));
+    // Item actions that only put gear on - the item is not a requirement when nothing else uses it
+    private static final Set<String> GEAR_ACTIONS = new HashSet<>(Arrays.asList("wield", "wear"));
+
+    private final String varKey;
+    private final Map<Integer, Stage> stages = new TreeMap<>();
+    private final Set<String> npcs = new HashSet<>();
+    private final List<String> sources = new ArrayList<>();
+    private final Map<String, Integer> questVotes = new HashMap<>();
+    // Option screen -> the choices made on it, per recording
+    private final Map<String, Map<String, List<String>>> choices = new HashMap<>();
+    // Items a recording used without having started with, withdrawn, bought or picked them up
+    private final Set<String> handedOver = new HashSet<>();
+    private String headerQuest;
+    private int dropped = 0;
+    private int dynamicDropped = 0;
+    private boolean finished = false;
+
+    public RecordingCompiler(String varKey) {
+        this.varKey = varKey;
+    }
+
+    /**
+     * The quest variable of a set of recordings: the var with the most forward transitions
+     */
+    public static String detectVar(Collection<RecordingIndex.FileEntry> files) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (RecordingIndex.FileEntry file : files) {
+            for (RecordingEvent event : file.getEvents()) {
+                if (event.hasVar() && event.getVarTo() > event.getVarFrom()) {
+                    counts.merge(event.getVarKey(), 1, Integer::sum);
+                }
+            }
+        }
+        String best = null;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (best == null || entry.getValue() > counts.get(best)
+                || (entry.getValue().equals(counts.get(best)) && entry.getKey().compareTo(best) > 0)) {
+                best = entry.getKey();
+            }
+        }
+        return best;
+    }
+
+    // ---- Segmenting ----
+
+    /**
+     * Cut one recording into stages and merge them in
+     */
+    public void add(RecordingIndex.FileEntry file) {
+        sources.add(file.getName());
+        if (headerQuest == null && file.getHeaderQuest() != null && !"Free_Discovery".equals(file.getHeaderQuest())) {
+            headerQuest = file.getHeaderQuest();
+        }
+
+        List<RecordingEvent> events = file.getEvents();
+        // NPC names first, so "Use X -> Y" can tell an NPC target from an object
+        for (RecordingEvent event : events) {
+            Matcher selected = SELECTED.matcher(event.getText());
+            if ("ACTION".equals(event.getType()) && selected.matches() && event.getDetail() != null
+                && event.getDetail().startsWith("NPCs.")) {
+                npcs.add(selected.group(2).trim());
+            }
+        }
+        Set<String> inventory = new HashSet<>();
+        // What the player had on them or fetched, when the recording says what they started with
+        Set<String> brought = startingInventory(file.getFile());
+        String screen = null;
+
+        Segment segment = new Segment(null);
+        int lastFrom = Integer.MIN_VALUE, lastTo = Integer.MIN_VALUE;
+        for (int i = 0; i < events.size(); i++) {
+            RecordingEvent event = events.get(i);
+            String type = event.getType();
+
+            if (event.hasVar()) {
+                if (!event.getVarKey().equals(varKey) || event.getVarTo() <= event.getVarFrom()) continue;
+                if (event.getVarFrom() == lastFrom && event.getVarTo() == lastTo) continue;
+                lastFrom = event.getVarFrom();
+                lastTo = event.getVarTo();
+                if (event.getQuest() != null) questVotes.merge(event.getQuest(), 1, Integer::sum);
+                segment.close(file.getName(), event.getVarFrom(), event.getVarTo());
+                segment = new Segment(segment.position);
+                continue;
+            }
+
+            if ("POSITION".equals(type) || "JOURNEY".equals(type)) {
+                int[] tile = lastTile(event.getText());
+                // Inside an instance there is nowhere to walk back to
+                if (tile != null) segment.position = outsideInstance(tile);
+                continue;
+            }
+            if ("DIALOGUE_OPTIONS".equals(type)) {
+                screen = event.getText();
+                continue;
+            }
+            if ("DIALOGUE_SELECTION".equals(type) && event.getDetail() != null) {
+                if (screen != null) {
+                    choices.computeIfAbsent(screen, k -> new HashMap<>())
+                        .computeIfAbsent(file.getName(), k -> new ArrayList<>()).add(event.getDetail().trim());
+                }
+                segment.dialogue(event.getDetail().trim());
+                continue;
+            }
+            if (!"ACTION".equals(type)) continue;
+
+            Matcher selected = SELECTED.matcher(event.getText());
+            if (!selected.matches()) continue;
+            String action = selected.group(1).trim();
+            String target = selected.group(2).trim();
+            if (brought != null) {
+                String lower = action.toLowerCase();
+                if (lower.startsWith("withdraw") || lower.startsWith("buy") || lower.equals("take")) {
+                    brought.add(target);
+                } else if (event.getDetail() != null && event.getDetail().startsWith("Inventory.")
+                    && !brought.contains(target)) {
+                    handedOver.add(target);
+                }
+            }
+            // The USER_ACTION line right after says what was clicked and where
+            RecordingEvent user = i + 1 < events.size() && "USER_ACTION".equals(events.get(i + 1).getType())
+                ? events.get(i + 1) : null;
+            segment.action(action, target, event.getDetail(), user, inventory);
+        }
+        dropped += segment.steps.size();
+    }
+
+    /**
+     * Steps collected since the last transition
+     */
+    private final class Segment {
+        final List<Step> steps = new ArrayList<>();
+        int[] position;
+        int[] lastStepTile;
+        Step lastTalk;
+
+        Segment(int[] position) {
+            this.position = position;
+            this.lastStepTile = position;
+        }
+
+        void action(String action, String target, String script, RecordingEvent user, Set<String> inventory) {
+            String lower = action.toLowerCase();
+            if (TRAVEL_ACTIONS.contains(lower) || IGNORED_ACTIONS.contains(lower)
+                || lower.startsWith("withdraw") || lower.startsWith("deposit")
+                || lower.startsWith("buy ") || lower.startsWith("sell ")) {
+                return;
+            }
+            boolean npcTile = user != null && user.getText().contains("NPC_Tile");
+            boolean objectTile = user != null && user.getText().contains("Object_Tile");
+            int[] tile = user != null && user.hasTile()
+                ? outsideInstance(new int[] {user.getX(), user.getY(), user.getZ()}) : null;
+
+            if ("use".equals(lower)) {
+                int arrow = target.indexOf("->");
+                if (arrow < 0) {
+                    // First half of a use - the item being used
+                    inventory.add(target);
+                    return;
+                }
+                String item = target.substring(0, arrow).trim();
+                String on = target.substring(arrow + 2).trim();
+                String kind = npcs.contains(on) ? "npc" : inventory.contains(on) ? "item" : "object";
+                walkIfNeeded(tile);
+                add(new Step("use").put("item", item).put("target", on).put("on", kind), tile);
+                return;
+            }
+            if ("take".equals(lower)) {
+                inventory.add(target);
+                tile = tile != null ? tile : position;
+                add(new Step("take").put("item", target).tile(tile), tile);
+                return;
+            }
+            if (npcTile || (script != null && script.startsWith("NPCs.")) || (!objectTile && npcs.contains(target))) {
+                Step step = "talk-to".equals(lower)
+                    ? new Step("talk").put("npc", target)
+                    : new Step("npc").put("npc", target).put("action", action);
+                add(step.tile(tile), tile);
+                if (step.type.equals("talk")) lastTalk = steps.get(steps.size() - 1);
+                return;
+            }
+            if (ITEM_ACTIONS.contains(lower) || (script != null && script.startsWith("Inventory."))
+                || (!objectTile && inventory.contains(target))) {
+                inventory.add(target);
+                walkIfNeeded(null);
+                add(new Step("item").put("item", target).put("action", action), null);
+                return;
+            }
+            if (!objectTile) {
+                walkIfNeeded(null);
+                tile = position;
+            }
+            add(new Step("object").put("object", target).put("action", action).tile(tile), tile);
+        }
+
+        void dialogue(String option) {
+            if (lastTalk != null && steps.get(steps.size() - 1) == lastTalk) {
+                lastTalk.dialogue.add(option);
+                return;
+            }
+            Step last = steps.isEmpty() ? null : steps.get(steps.size() - 1);
+            if (last == null || !last.type.equals("dialogue")) {
+                last = new Step("dialogue");
+                steps.add(last);
+            }
+            last.dialogue.add(option);
+        }
+
+        /**
+         * Walk to where the player stood if the step itself has no tile to route to
+         */
+        private void walkIfNeeded(int[] tile) {
+            if (tile != null || position == null) return;
+            if (lastStepTile == null || lastStepTile[2] != position[2]
+                || Math.max(Math.abs(lastStepTile[0] - position[0]), Math.abs(lastStepTile[1] - position[1])) > WALK_DISTANCE) {
+                add(new Step("walk").tile(position), position);
+            }
+        }
+
+        private void add(Step step, int[] tile) {
+            Step last = steps.isEmpty() ? null : steps.get(steps.size() - 1);
+            if (last != null && last.sameAs(step)) {
+                last.count++;
+                return;
+            }
+            steps.add(step);
+            if (tile != null) lastStepTile = tile;
+            if (step != lastTalk) lastTalk = null;
+        }
+
+        void close(String source, int from, int to) {
+            Stage stage = new Stage(from, to, source, steps);
+            Stage existing = stages.get(from);
+            if (existing == null || (stage.steps.size() < existing.steps.size() && !stage.steps.isEmpty())
+                || existing.steps.isEmpty()) {
+                stages.put(from, stage);
+            }
+        }
+    }
+
+    private static final class Stage {
+        final int from;
+        final int to;
+        final String source;
+        final List<Step> steps;
+
+        Stage(int from, int to, String source, List<Step> steps) {
+            this.from = from;
+            this.to = to;
+            this.source = source;
+            this.steps = steps;
+        }
+    }
+
+    /**
+     * One step of a stage; fields are kept in insertion order for a readable file
+     */
+    private static final class Step {
+        final String type;
+        final Map<String, Object> fields = new LinkedHashMap<>();
+        final List<String> dialogue = new ArrayList<>();
+        int[] tile;
+        int count = 1;
+
+        Step(String type) {
+            this.type = type;
+        }
+
+        Step put(String key, String value) {
+            fields.put(key, value);
+            return this;
+        }
+
+        Step tile(int[] tile) {
+            this.tile = tile;
+            return this;
+        }
+
+        boolean sameAs(Step other) {
+            return type.equals(other.type) && fields.equals(other.fields) && dialogue.isEmpty() && other.dialogue.isEmpty()
+                && !type.equals("walk") && !type.equals("dialogue");
+        }
+
+        void write(StringBuilder out) {
+            out.append("{\"type\": ").append(JSONObject.quote(type));
+            for (Map.Entry<String, Object> field : fields.entrySet()) {
+                out.append(", ").append(JSONObject.quote(field.getKey())).append(": ")
+                    .append(JSONObject.quote(String.valueOf(field.getValue())));
+            }
+            if (tile != null) {
+                out.append(", \"tile\": [").append(tile[0]).append(", ").append(tile[1]).append(", ").append(tile[2]).append(']');
+            }
+            if (count > 1) {
+                out.append(", \"count\": ").append(count);
+            }
+            if (!dialogue.isEmpty()) {
+                out.append(", \"").append(type.equals("dialogue") ? "options" : "dialogue").append("\": [");
+                for (int i = 0; i < dialogue.size(); i++) {
+                    if (i > 0) out.append(", ");
+                    out.append(JSONObject.quote(dialogue.get(i)));
+                }
+                out.append(']');
+            }
+            out.append('}');
+        }
+    }
+
+    // ---- Output ----
+
+    /**
+     * The quest id the recordings were detected as (ACTIVE_QUEST_DETECTED), or one made from the quest
+     * or file name
+     */
+    public String getQuestId() {
+        String best = null;
+        for (Map.Entry<String, Integer> vote : questVotes.entrySet()) {
+            if (best == null || vote.getValue() > questVotes.get(best)) best = vote.getKey();
+        }
+        if (best == null && headerQuest != null) best = headerQuest;
+        if (best == null && !sources.isEmpty()) best = sources.get(0).replaceAll("\\.log$", "");
+        return best != null ? best.toUpperCase().replaceAll("[^A-Z0-9]+", "_").replaceAll("^_|_$", "") : "UNKNOWN";
+    }
+
+    public String getQuestName(String id) {
+        if (headerQuest != null) return headerQuest;
+        StringBuilder name = new StringBuilder();
+        for (String word : id.toLowerCase().split("_")) {
+            if (word.isEmpty()) continue;
+            if (name.length() > 0) name.append(' ');
+            name.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+        }
+        return name.toString();
+    }
+
+    /**
+     * Write the definition. Stages run from their var value up to (not including) the next one;
+     * the quest is complete at the highest value reached.
+     */
+    public void write(Writer out, String id, String name) throws IOException {
+        if (!finished) {
+            finished = true;
+            dropDynamicChoices();
+        }
+        String[] var = varKey.split(" ");
+        int complete = Integer.MIN_VALUE;
+        for (Stage stage : stages.values()) complete = Math.max(complete, stage.to);
+
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("{\n");
+        sb.append("    \"format\": ").append(FORMAT).append(",\n");
+        sb.append("    \"id\": ").append(JSONObject.quote(id)).append(",\n");
+        sb.append("    \"name\": ").append(JSONObject.quote(name)).append(",\n");
+        sb.append("    \"progress\": {\"type\": ").append(JSONObject.quote(var[0])).append(", \"id\": ").append(var[1])
+            .append(", \"complete\": ").append(complete).append("},\n");
+        sb.append("    \"sources\": [");
+        for (int i = 0; i < sources.size(); i++) {
+            sb.append(i > 0 ? ", " : "").append(JSONObject.quote(sources.get(i)));
+        }
+        sb.append("],\n");
+
+        sb.append("    \"items\": [");
+        List<String> items = requiredItems();
+        for (int i = 0; i < items.size(); i++) {
+            sb.append(i > 0 ? ", " : "").append("{\"name\": ").append(JSONObject.quote(items.get(i))).append(", \"quantity\": 1}");
+        }
+        sb.append("],\n");
+
+        sb.append("    \"stages\": [");
+        int written = 0;
+        for (Stage stage : stages.values()) {
+            sb.append(written++ > 0 ? ",\n" : "\n");
+            sb.append("        {\n");
+            sb.append("            \"min\": ").append(stage.from).append(", \"max\": ").append(stage.to - 1)
+                .append(", \"next\": ").append(stage.to).append(",\n");
+            sb.append("            \"source\": ").append(JSONObject.quote(stage.source)).append(",\n");
+            sb.append("            \"steps\": [");
+            for (int i = 0; i < stage.steps.size(); i++) {
+                sb.append(i > 0 ? ",\n" : "\n").append("                ");
+                stage.steps.get(i).write(sb);
+            }
+            sb.append(stage.steps.isEmpty() ? "]\n" : "\n            ]\n");
+            sb.append("        }");
+        }
+        sb.append(written > 0 ? "\n    ]\n" : "]\n");
+        sb.append("}\n");
+        out.write(sb.toString());
+    }
+
+    /**
+     * Items the steps use but never pick up themselves, less what the quest hands over and gear
+     * that is only ever put on (Wield/Wear)
+     */
+    private List<String> requiredItems() {
+        Set<String> taken = new HashSet<>();
+        Set<String> used = new LinkedHashSet<>();
+        Set<String> needed = new HashSet<>();
+        for (Stage stage : stages.values()) {
+            for (Step step : stage.steps) {
+                Object item = step.fields.get("item");
+                if (item == null) continue;
+                if (step.type.equals("take")) {
+                    taken.add(item.toString());
+                } else if (!taken.contains(item.toString())) {
+                    used.add(item.toString());
+                    Object action = step.fields.get("action");
+                    if (!step.type.equals("item") || action == null || !GEAR_ACTIONS.contains(action.toString().toLowerCase())) {
+                        needed.add(item.toString());
+                    }
+                }
+            }
+        }
+        used.retainAll(needed);
+        used.removeAll(handedOver);
+        return new ArrayList<>(used);
+    }
+
+    /**
+     * Choices on option screens the game answers differently from run to run - a screen where one
+     * recording picks an option again after picking another (a password or incantation rather than
+     * a list of questions), or where recordings disagree
+     */
+    private Set<String> dynamicChoices() {
+        Set<String> dynamic = new HashSet<>();
+        for (Map<String, List<String>> bySource : choices.values()) {
+            boolean varies = new HashSet<>(bySource.values()).size() > 1;
+            for (List<String> picked : bySource.values()) {
+                Set<String> distinct = new HashSet<>(picked);
+                varies |= distinct.size() > 1 && distinct.size() < picked.size();
+            }
+            if (varies) {
+                for (List<String> picked : bySource.values()) {
+                    dynamic.addAll(picked);
+                }
+            }
+        }
+        return dynamic;
+    }
+
+    /**
+     * Leave out dynamic choices (see dynamicChoices), and dialogue steps left with none
+     */
+    private void dropDynamicChoices() {
+        Set<String> dynamic = dynamicChoices();
+        if (dynamic.isEmpty()) return;
+        for (Stage stage : stages.values()) {
+            Iterator<Step> it = stage.steps.iterator();
+            while (it.hasNext()) {
+                Step step = it.next();
+                int before = step.dialogue.size();
+                step.dialogue.removeAll(dynamic);
+                dynamicDropped += before - step.dialogue.size();
+                if (step.type.equals("dialogue") && step.dialogue.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * What the log header says the player started with, or null if it doesn't say (journals)
+     */
+    private static Set<String> startingInventory(File file) {
+        if (!file.getName().endsWith(".log")) return null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            for (int i = 0; i < HEADER_LINES && (line = reader.readLine()) != null; i++) {
+                Matcher matcher = STARTING_INVENTORY.matcher(line.trim());
+                if (matcher.matches()) {
+                    Set<String> items = new HashSet<>();
+                    for (String item : matcher.group(1).split(", ")) {
+                        if (!item.trim().isEmpty()) items.add(STACK.matcher(item.trim()).replaceAll(""));
+                    }
+                    return items;
+                }
+            }
+        } catch (IOException e) {
+            // Unreadable header - treat it as not saying
+        }
+        return null;
+    }
+
+    private static int[] outsideInstance(int[] tile) {
+        return tile[0] >= INSTANCE_MIN_X ? null : tile;
+    }
+
+    private static int[] lastTile(String text) {
+        Matcher tile = TILE.matcher(text);
+        int[] last = null;
+        while (tile.find()) {
+            last = new int[] {Integer.parseInt(tile.group(1)), Integer.parseInt(tile.group(2)), Integer.parseInt(tile.group(3))};
+        }
+        return last;
+    }
+
+    // Getters
+    public int getStageCount() { return stages.size(); }
+    public int getDroppedSteps() { return dropped; }
+    public int getDynamicChoicesDropped() { return dynamicDropped; }
+    public String getVarKey() { return varKey; }
+
+    public static void main(String[] args) throws IOException {
+        String logs = RecordingIndex.DEFAULT_LOG_DIR;
+        String indexPath = RecordingIndex.DEFAULT_INDEX;
+        String var = null, id = null, name = null, out = null, quest = null;
+        List<String> names = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--logs": logs = args[++i]; break;
+                case "--index": indexPath = args[++i]; break;
+                case "--var": var = args[++i].replace(':', ' ').toLowerCase(); break;
+                case "--id": id = args[++i]; break;
+                case "--name": name = args[++i]; break;
+                case "--out": out = args[++i]; break;
+                case "--quest": quest = args[++i]; break;
+                default:
+                    if (args[i].startsWith("--")) {
+                        System.err.println("Unknown argument: " + args[i]);
+                        return;
+                    }
+                    names.add(new File(args[i]).getName());
+            }
+        }
+        if (names.isEmpty() && quest == null) {
+            System.err.println("Usage: java quest.definition.RecordingCompiler [--logs DIR] [--index FILE] [--var varbit:ID]"
+                + " [--id ID] [--name NAME] [--out FILE] (--quest QUEST | LOG...)");
+            return;
+        }
+
+        RecordingIndex index = RecordingIndex.open(new File(logs), new File(indexPath));
+        List<RecordingIndex.FileEntry> files = new ArrayList<>();
+        for (RecordingIndex.FileEntry entry : index.getFiles()) {
+            boolean wanted = names.contains(entry.getName());
+            if (!wanted && quest != null) {
+                wanted = !index.query(new RecordingIndex.Query().file(entry.getName()).quest(quest).limit(1)).isEmpty();
+            }
+            if (wanted) files.add(entry);
+        }
+        if (files.isEmpty()) {
+            System.err.println("No recordings matched in " + logs);
+            return;
+        }
+        if (var == null) var = detectVar(files);
+        if (var == null) {
+            System.err.println("No quest variable transitions in these recordings; pass --var varbit:ID or config:ID");
+            return;
+        }
+
+        RecordingCompiler compiler = new RecordingCompiler(var);
+        for (RecordingIndex.FileEntry file : files) {
+            compiler.add(file);
+        }
+        if (id == null) id = compiler.getQuestId();
+        if (name == null) name = compiler.getQuestName(id);
+        File target = new File(out != null ? out : DEFAULT_OUT_DIR + "/" + id.toLowerCase() + ".json");
+        if (target.getParentFile() != null && !target.getParentFile().isDirectory() && !target.getParentFile().mkdirs()) {
+            System.err.println("Could not create " + target.getParentFile());
+            return;
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(target), StandardCharsets.UTF_8)) {
+            compiler.write(writer, id, name);
+        }
+        System.out.println("Compiled " + files.size() + " recording(s) on " + var + " into " + compiler.getStageCount()
+            + " stages -> " + target + (compiler.getDroppedSteps() > 0
+                ? " (" + compiler.getDroppedSteps() + " steps after the last transition left out)" : "")
+            + (compiler.getDynamicChoicesDropped() > 0
+                ? " (" + compiler.getDynamicChoicesDropped() + " dialogue choices that change every run left out)" : ""));
+    }
+}
@@ -0,0 +1,134 @@
+package quest.definition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stage Router - the part of DefinitionTree that decides what runs next: which stage the quest
+ * variable falls in, which of that stage's nodes comes next, and when a stage has gone round
+ * MAX_STAGE_ROUNDS times without the variable moving. It only knows node positions, not nodes,
+ * so the replay harness (quest.replay.ReplayHarness) routes through exactly the same code offline.
+ */
+public final class StageRouter {
+
+    public static final int MAX_STAGE_ROUNDS = 3;
+    // How long a stage's wait node waits for the variable to move
+    public static final long STAGE_WAIT_MS = 30000;
+
+    public enum Outcome {
+        NODE,       // run getNode() of getStage()
+        COMPLETE,   // the variable reached the complete value
+        NO_STAGE,   // no stage covers the variable
+        STUCK       // the stage ran MAX_STAGE_ROUNDS times without the variable moving
+    }
+
+    private final QuestDefinition definition;
+    private final int[][] layout;
+
+    private int stageIndex = -1;
+    private int cursor = 0;
+    private int rounds = 0;
+    private int node = -1;
+    private boolean newStage;
+    private boolean newRound;
+
+    public StageRouter(QuestDefinition definition) {
+        this.definition = definition;
+        this.layout = layout(definition);
+    }
+
+    /**
+     * The step (index within its stage) each node of each stage runs, in order; a step with a count
+     * gets that many nodes, and a stage with nothing to run gets a single wait node (-1). Talk and
+     * object steps are left out when the definition has no tile at all to look for them near.
+     */
+    public static int[][] layout(QuestDefinition definition) {
+        boolean located = false;
+        for (QuestDefinition.Stage stage : definition.getStages()) {
+            for (QuestDefinition.Step step : stage.getSteps()) {
+                located |= step.hasTile();
+            }
+        }
+        int[][] layout = new int[definition.getStages().size()][];
+        for (QuestDefinition.Stage stage : definition.getStages()) {
+            List<Integer> nodes = new ArrayList<>();
+            List<QuestDefinition.Step> steps = stage.getSteps();
+            for (int i = 0; i < steps.size(); i++) {
+                if (!located && needsTile(steps.get(i))) continue;
+                for (int n = 0; n < steps.get(i).getCount(); n++) {
+                    nodes.add(i);
+                }
+            }
+            if (nodes.isEmpty()) nodes.add(-1);
+            layout[stage.getIndex()] = nodes.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return layout;
+    }
+
+    private static boolean needsTile(QuestDefinition.Step step) {
+        return step.getType() == QuestDefinition.StepType.TALK || step.getType() == QuestDefinition.StepType.OBJECT;
+    }
+
+    /**
+     * Decide the next move for a value of the quest variable
+     */
+    public Outcome route(int value) {
+        newStage = false;
+        newRound = false;
+        node = -1;
+        if (definition.isComplete(value)) {
+            return Outcome.COMPLETE;
+        }
+        QuestDefinition.Stage stage = definition.stageFor(value);
+        if (stage == null) {
+            return Outcome.NO_STAGE;
+        }
+        if (stage.getIndex() != stageIndex) {
+            stageIndex = stage.getIndex();
+            cursor = 0;
+            rounds = 0;
+            newStage = true;
+        }
+        int[] nodes = layout[stageIndex];
+        if (cursor >= nodes.length) {
+            cursor = 0;
+            rounds++;
+            if (rounds >= MAX_STAGE_ROUNDS) {
+                return Outcome.STUCK;
+            }
+            newRound = true;
+        }
+        node = cursor++;
+        return Outcome.NODE;
+    }
+
+    /**
+     * Carry on from a node of a stage where the router for an older version of the definition
+     * left off (hot reload), keeping the rounds it had already run
+     */
+    public void resume(StageRouter previous, int stageIndex, int cursor) {
+        this.stageIndex = stageIndex;
+        this.cursor = cursor;
+        this.rounds = previous.rounds;
+    }
+
+    /**
+     * The step node k of the current stage runs, or -1 for a wait node
+     */
+    public int stepOf(int k) {
+        return layout[stageIndex][k];
+    }
+
+    public QuestDefinition.Stage getStage() {
+        return stageIndex >= 0 ? definition.getStages().get(stageIndex) : null;
+    }
+
+    // Getters
+    public int[][] getLayout() { return layout; }
+    public int getStageIndex() { return stageIndex; }
+    public int getCursor() { return cursor; }
+    public int getRounds() { return rounds; }
+    public int getNode() { return node; }
+    public boolean isNewStage() { return newStage; }
+    public boolean isNewRound() { return newRound; }
+}
@@ -0,0 +1,286 @@
+package quest.dialogue;
+
+import org.dreambot.api.methods.dialogues.Dialogues;
+import org.dreambot.api.utilities.Logger;
+import org.dreambot.api.utilities.Sleep;
+import quest.core.QuestEngine;
+import quest.core.QuestEventLogger;
+import quest.metrics.QuestMetrics;
+import quest.utils.QuestSettings;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Dialogue Engine - runs a conversation from whatever screen is open until it closes.
+ * Instead of sleeping a fixed 600-2000ms after every click, it polls the dialogue widgets every
+ * POLL_MS and acts as soon as the screen changes (new text, new options, or closed), so a
+ * conversation moves at the game's pace rather than the script's.
+ *
+ * Option screens are answered by a compiled DialogueScript; every decision is logged with the
+ * options shown and the rule that picked one. The same option screen coming back the script's
+ * maxRepeats times without a once() rule being used up in between is reported as a LOOP rather
+ * than clicked forever (see LoopDetector).
+ *
+ * When nothing in the script matches and it would otherwise guess option 1, an answer learned from
+ * recorded quest logs (DialogueKnowledge) is used instead - "dialogue.learned=false" turns that off.
+ */
+public class DialogueEngine {
+
+    public enum Outcome {
+        COMPLETED,      // dialogue closed
+        OPTIONS_LEFT,   // stopped at an option screen the script doesn't answer (or choice limit reached)
+        LOOP,           // the same option screen kept coming back
+        STALLED,        // the screen stopped changing
+        TIMEOUT
+    }
+
+    // How often the widgets are checked while waiting for the next screen
+    private static final long POLL_MS = 50;
+    // Longest wait for a screen to change after continuing or choosing (about four game ticks)
+    private static final long SCREEN_TIMEOUT_MS = 2400;
+    // Consecutive screens that didn't change before giving up
+    private static final int MAX_STALLS = 3;
+    private static final int RECENT_DECISIONS = 200;
+
+    private final Deque<Decision> recentDecisions = new ArrayDeque<>();
+    // Built on first use - the log directory comes from the engine's settings, which aren't bound yet here
+    private DialogueKnowledge knowledge;
+
+    /**
+     * Instance for the current engine (see QuestEngine.current())
+     */
+    public static DialogueEngine getInstance() {
+        return QuestEngine.current().getDialogueEngine();
+    }
+
+    /**
+     * Run the open conversation with this script
+     * @param who NPC (or context) name for the decision log
+     */
+    public Result run(String who, DialogueScript script, long timeoutMs) {
+        QuestMetrics metrics = QuestMetrics.getInstance();
+        metrics.beginPhase(QuestMetrics.Phase.DIALOGUE);
+        try {
+            return converse(who, script, timeoutMs, metrics);
+        } finally {
+            metrics.endPhase();
+        }
+    }
+
+    private Result converse(String who, DialogueScript script, long timeoutMs, QuestMetrics metrics) {
+        long start = System.currentTimeMillis();
+        long deadline = start + timeoutMs;
+        List<Decision> decisions = new ArrayList<>();
+        LoopDetector loops = new LoopDetector(script.getMaxRepeats());
+        Set<Integer> spent = new HashSet<>();
+        List<String> path = new ArrayList<>();
+        int screens = 0;
+        int stalls = 0;
+
+        while (Dialogues.inDialogue()) {
+            if (System.currentTimeMillis() > deadline) {
+                return finish(who, script, Outcome.TIMEOUT, decisions, screens, start);
+            }
+            String signature = signature();
+            screens++;
+
+            if (Dialogues.areOptionsAvailable()) {
+                String[] options = Dialogues.getOptions();
+                if (decisions.size() >= script.getMaxChoices()) {
+                    return finish(who, script, Outcome.OPTIONS_LEFT, decisions, screens, start);
+                }
+                if (loops.visit(signature, spent.size())) {
+                    Logger.log("[Dialogue] " + who + ": loop - options " + Arrays.toString(options) + " came back "
+                        + loops.getRepeats(signature) + " times with nothing new chosen");
+                    return finish(who, script, Outcome.LOOP, decisions, screens, start);
+                }
+                String screen = DialogueKnowledge.signature(options);
+                if (path.isEmpty() || !screen.equals(path.get(path.size() - 1))) {
+                    path.add(screen);
+                }
+                Decision decision = decide(who, script, options, spent, path);
+                if (decision == null) {
+                    return finish(who, script, Outcome.OPTIONS_LEFT, decisions, screens, start);
+                }
+                decisions.add(decision);
+                remember(decision);
+                metrics.increment(QuestMetrics.API_DIALOGUE);
+                Dialogues.chooseOption(decision.getIndex() + 1);
+            } else if (Dialogues.canContinue()) {
+                metrics.increment(QuestMetrics.API_DIALOGUE);
+                if (!Dialogues.spaceToContinue()) {
+                    Dialogues.continueDialogue();
+                }
+            }
+            // else: between screens (NPC animating, server catching up) - just wait for the change
+
+            if (waitForChange(signature, Math.min(SCREEN_TIMEOUT_MS, Math.max(0, deadline - System.currentTimeMillis())))) {
+                stalls = 0;
+            } else if (++stalls >= MAX_STALLS) {
+                Logger.log("[Dialogue] " + who + ": screen stopped changing - " + signature);
+                return finish(who, script, Outcome.STALLED, decisions, screens, start);
+            }
+        }
+        return finish(who, script, Outcome.COMPLETED, decisions, screens, start);
+    }
+
+    private Decision decide(String who, DialogueScript script, String[] options, Set<Integer> spent, List<String> path) {
+        OptionMatcher.Match match = script.getMatcher().match(options, spent);
+        if (match != null) {
+            if (match.getRule().isOnce()) {
+                spent.add(match.getRule().getPriority());
+            }
+            Logger.log("[Dialogue] " + who + ": " + Arrays.toString(options) + " -> " + (match.getIndex() + 1)
+                + " '" + match.getOption() + "' by " + match.getRule());
+            return new Decision(who, script.getName(), options, match.getIndex(), match.getRule().toString());
+        }
+        if (script.isFallbackToFirst() && options.length > 0) {
+            DialogueKnowledge.Suggestion learned = QuestSettings.getBoolean("dialogue.learned", true)
+                ? getKnowledge().suggest(who, path, options) : null;
+            if (learned != null) {
+                QuestMetrics.getInstance().increment(QuestMetrics.DIALOGUE_LEARNED);
+                Logger.log("[Dialogue] " + who + ": " + Arrays.toString(options) + " -> " + (learned.getIndex() + 1)
+                    + " '" + learned.getOption() + "' " + learned);
+                return new Decision(who, script.getName(), options, learned.getIndex(), learned.toString());
+            }
+            Logger.log("[Dialogue] " + who + ": " + Arrays.toString(options) + " -> 1 '" + options[0] + "' by fallback");
+            return new Decision(who, script.getName(), options, 0, "fallback");
+        }
+        Logger.log("[Dialogue] " + who + ": no rule in " + script.getName() + " matches " + Arrays.toString(options));
+        return null;
+    }
+
+    /**
+     * Wait until the dialogue closes or shows something other than this signature
+     */
+    private static boolean waitForChange(String signature, long timeoutMs) {
+        return Sleep.sleepUntil(() -> !Dialogues.inDialogue() || !signature.equals(signature()), timeoutMs, POLL_MS);
+    }
+
+    /**
+     * What the player currently sees: NPC text plus any options
+     */
+    private static String signature() {
+        String text = Dialogues.getNPCDialogue();
+        String[] options = Dialogues.areOptionsAvailable() ? Dialogues.getOptions() : null;
+        return (text != null ? text : "") + (options != null ? " " + Arrays.toString(options) : "");
+    }
+
+    private Result finish(String who, DialogueScript script, Outcome outcome, List<Decision> decisions,
+                          int screens, long start) {
+        long elapsed = System.currentTimeMillis() - start;
+        if (outcome != Outcome.COMPLETED) {
+            Logger.log("[Dialogue] " + who + " (" + script.getName() + "): " + outcome + " after "
+                + screens + " screens, " + decisions.size() + " choices, " + elapsed + "ms");
+        }
+        return new Result(outcome, decisions, screens, elapsed);
+    }
+
+    private synchronized void remember(Decision decision) {
+        if (recentDecisions.size() >= RECENT_DECISIONS) {
+            recentDecisions.removeFirst();
+        }
+        recentDecisions.addLast(decision);
+    }
+
+    public synchronized DialogueKnowledge getKnowledge() {
+        if (knowledge == null) {
+            knowledge = new DialogueKnowledge(DialogueKnowledge.DEFAULT_DIR, QuestEventLogger.getLogDirectory().getPath());
+        }
+        return knowledge;
+    }
+
+    /**
+     * Most recent decisions across all conversations, oldest first
+     */
+    public synchronized List<Decision> getRecentDecisions() {
+        return new ArrayList<>(recentDecisions);
+    }
+
+    /**
+     * One option screen and what was picked
+     */
+    public static final class Decision {
+        private final String who;
+        private final String script;
+        private final String[] options;
+        private final int index;
+        private final String reason;
+        private final long time = System.currentTimeMillis();
+
+        Decision(String who, String script, String[] options, int index, String reason) {
+            this.who = who;
+            this.script = script;
+            this.options = options;
+            this.index = index;
+            this.reason = reason;
+        }
+
+        // Getters
+        public String getWho() { return who; }
+        public String getScript() { return script; }
+        public String[] getOptions() { return options.clone(); }
+        public int getIndex() { return index; }
+        public String getChosen() { return options[index]; }
+        public String getReason() { return reason; }
+        public long getTime() { return time; }
+
+        @Override
+        public String toString() {
+            return who + ": '" + getChosen() + "' (" + reason + ")";
+        }
+    }
+
+    /**
+     * How a conversation ended
+     */
+    public static final class Result {
+        private final Outcome outcome;
+        private final List<Decision> decisions;
+        private final int screens;
+        private final long elapsedMs;
+
+        Result(Outcome outcome, List<Decision> decisions, int screens, long elapsedMs) {
+            this.outcome = outcome;
+            this.decisions = Collections.unmodifiableList(decisions);
+            this.screens = screens;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public boolean isCompleted() {
+            return outcome == Outcome.COMPLETED;
+        }
+
+        /**
+         * Whether the script picked an option containing this text
+         */
+        public boolean chose(String text) {
+            String needle = OptionMatcher.normalize(text);
+            for (Decision decision : decisions) {
+                if (OptionMatcher.normalize(decision.getChosen()).contains(needle)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Getters
+        public Outcome getOutcome() { return outcome; }
+        public List<Decision> getDecisions() { return decisions; }
+        public int getChoices() { return decisions.size(); }
+        public int getScreens() { return screens; }
+        public long getElapsedMs() { return elapsedMs; }
+
+        @Override
+        public String toString() {
+            return outcome + " (" + decisions.size() + " choices, " + screens + " screens, " + elapsedMs + "ms)";
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package quest.dialogue;
+
+import org.dreambot.api.methods.settings.PlayerSettings;
+import org.dreambot.api.utilities.Logger;
+import quest.fleet.FleetClient;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Dialogue Knowledge - answers to dialogue prompts learned from recorded quest logs.
+ * For every NPC and quest stage it keeps a trie of option screens: the path of screens seen in a
+ * conversation leads to the answers given there, with how often each was picked, how often the
+ * quest advanced afterwards, and how long the next screen took.
+ *
+ * DialogueMiner builds it from quest_logs; the result is stored as one small tab-separated file per
+ * quest under quest_data/dialogue plus an NPC index. Only the index is read up front - a quest's
+ * file is loaded the first time one of its NPCs is talked to. When a finished recording is newer
+ * than the index the logs are mined again on a background thread and the result swapped in; a
+ * conversation only ever reads what was last built.
+ */
+public class DialogueKnowledge {
+
+    public static final String DEFAULT_DIR = "quest_data/dialogue";
+    static final String ANY_STAGE = "*";
+
+    private static final String INDEX_FILE = "index.tsv";
+    private static final String SHARD_SUFFIX = ".tsv";
+    private static final String HEADER = "# dialogue knowledge v1";
+    private static final Pattern STAGE = Pattern.compile("(varbit|config) (\\d+)=(-?\\d+)");
+    // Answers that moved a quest on are offered to the fleet after a rebuild, at most this many
+    private static final int MAX_SHARED = 300;
+
+    private final File directory;
+    private final String logDirectory;
+
+    private final Map<String, Set<String>> shardsByNpc = new HashMap<>();
+    private final Set<String> loadedShards = new LinkedHashSet<>();
+    private final Map<String, NpcKnowledge> npcs = new HashMap<>();
+    // Answers other bots learned (FleetClient), kept across rebuilds
+    private final Map<String, DialogueMiner.Row> fleetRows = new LinkedHashMap<>();
+    private boolean indexed = false;
+    private boolean rebuilding = false;
+
+    public DialogueKnowledge(String directory, String logDirectory) {
+        this.directory = new File(directory);
+        this.logDirectory = logDirectory;
+    }
+
+    /**
+     * Learned answer for the current option screen
+     * @param path option screens of this conversation so far, the current one last (see signature())
+     * @return the answer, or null if nothing learned fits the options on screen
+     */
+    public synchronized Suggestion suggest(String npc, List<String> path, String[] options) {
+        NpcKnowledge knowledge = forNpc(npc);
+        if (knowledge == null || options == null || options.length == 0) return null;
+
+        String signature = signature(options);
+        List<String> stages = knowledge.matchingStages();
+        for (String stage : stages) {
+            Suggestion suggestion = pick(walk(knowledge.tries.get(stage), path), options, "path");
+            if (suggestion != null) return suggestion;
+        }
+        for (String stage : stages) {
+            Map<String, Node> prompts = knowledge.byPrompt.get(stage);
+            Suggestion suggestion = pick(prompts != null ? prompts.get(signature) : null, options, "prompt");
+            if (suggestion != null) return suggestion;
+        }
+        return pick(knowledge.anyStage.get(signature), options, "any stage");
+    }
+
+    /**
+     * Key of an option screen, the same for a live screen and a recorded DIALOGUE_OPTIONS line
+     */
+    public static String signature(String[] options) {
+        return OptionMatcher.normalize(Arrays.toString(options));
+    }
+
+    private static Node walk(Node root, List<String> path) {
+        Node node = root;
+        for (int i = 0; node != null && i < path.size(); i++) {
+            node = node.children.get(path.get(i));
+        }
+        return node;
+    }
+
+    private static Suggestion pick(Node node, String[] options, String how) {
+        if (node == null || node.choices.isEmpty()) return null;
+        List<Choice> ranked = new ArrayList<>(node.choices.values());
+        ranked.sort(Comparator.comparingInt((Choice c) -> -c.advanced).thenComparingInt(c -> -c.seen));
+        for (Choice choice : ranked) {
+            for (int i = 0; i < options.length; i++) {
+                if (options[i] != null && OptionMatcher.normalize(options[i]).equals(choice.key)) {
+                    return new Suggestion(i, options[i], how, choice.seen, choice.advanced, choice.delayMs);
+                }
+            }
+        }
+        return null;
+    }
+
+    // ---- Loading ----
+
+    private NpcKnowledge forNpc(String npc) {
+        if (npc == null) return null;
+        if (!indexed) {
+            indexed = true;
+            readIndex();
+            if (isStale()) {
+                rebuildInBackground();
+            }
+        }
+        String key = npc.trim().toLowerCase();
+        Set<String> shards = shardsByNpc.get(key);
+        if (shards != null) {
+            for (String shard : shards) {
+                if (loadedShards.add(shard)) {
+                    readShard(shard);
+                }
+            }
+        }
+        return npcs.get(key);
+    }
+
+    private boolean isStale() {
+        File index = new File(directory, INDEX_FILE);
+        if (!index.isFile()) return true;
+        File[] logs = DialogueMiner.recordedLogs(logDirectory);
+        if (logs == null) return false;
+        for (File log : logs) {
+            if (log.lastModified() > index.lastModified()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Mine the recorded logs on a daemon thread; lookups keep using the stored knowledge meanwhile
+     */
+    public synchronized void rebuildInBackground() {
+        if (rebuilding) return;
+        rebuilding = true;
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                Logger.log("[Dialogue] Could not learn from recorded quest logs: " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    rebuilding = false;
+                }
+            }
+        }, "DialogueKnowledge-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Mine the recorded logs again, rewrite the stored knowledge and swap it in.
+     * Slow - call it off the script thread (rebuildInBackground) or offline.
+     * @return number of learned answers
+     */
+    public int rebuild() {
+        Collection<DialogueMiner.Row> rows = DialogueMiner.mineDirectory(logDirectory);
+
+        Map<String, List<DialogueMiner.Row>> byShard = new TreeMap<>();
+        Map<String, Set<String>> shards = new HashMap<>();
+        Map<String, NpcKnowledge> learned = new HashMap<>();
+        for (DialogueMiner.Row row : rows) {
+            byShard.computeIfAbsent(row.shard, k -> new ArrayList<>()).add(row);
+            shards.computeIfAbsent(row.npc.toLowerCase(), k -> new LinkedHashSet<>()).add(row.shard);
+            learned.computeIfAbsent(row.npc.toLowerCase(), k -> new NpcKnowledge()).add(row);
+        }
+        // Engines on other threads may rebuild at the same moment
+        synchronized (DialogueKnowledge.class) {
+            try {
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("cannot create " + directory);
+                }
+                for (Map.Entry<String, List<DialogueMiner.Row>> shard : byShard.entrySet()) {
+                    writeShard(shard.getKey(), shard.getValue());
+                }
+                writeIndex(shards);
+            } catch (IOException e) {
+                Logger.log("[Dialogue] Could not store learned dialogue: " + e.getMessage());
+            }
+        }
+        synchronized (this) {
+            shardsByNpc.clear();
+            shardsByNpc.putAll(shards);
+            loadedShards.clear();
+            loadedShards.addAll(byShard.keySet());
+            npcs.clear();
+            npcs.putAll(learned);
+            for (DialogueMiner.Row row : fleetRows.values()) {
+                npcs.computeIfAbsent(row.npc.toLowerCase(), k -> new NpcKnowledge()).add(row);
+            }
+            indexed = true;
+        }
+        Logger.log("[Dialogue] Learned " + rows.size() + " answers for " + shards.size()
+            + " NPCs from recorded quest logs");
+        shareWithFleet(rows);
+        return rows.size();
+    }
+
+    private static void shareWithFleet(Collection<DialogueMiner.Row> rows) {
+        FleetClient fleet = FleetClient.getInstance();
+        if (!fleet.isEnabled()) return;
+        List<DialogueMiner.Row> useful = new ArrayList<>();
+        for (DialogueMiner.Row row : rows) {
+            if (row.advanced > 0) useful.add(row);
+        }
+        useful.sort(Comparator.comparingInt((DialogueMiner.Row r) -> -r.advanced).thenComparingInt(r -> -r.seen));
+        for (DialogueMiner.Row row : useful.subList(0, Math.min(MAX_SHARED, useful.size()))) {
+            fleet.shareDialogue(row);
+        }
+    }
+
+    /**
+     * Take in an answer another bot learned; a later copy of the same answer replaces it at the
+     * next rebuild
+     * @return false if it was already known
+     */
+    public synchronized boolean learn(String origin, DialogueMiner.Row row) {
+        boolean known = fleetRows.put(origin + '\t' + row.key(), row) != null;
+        if (!known) {
+            npcs.computeIfAbsent(row.npc.toLowerCase(), k -> new NpcKnowledge()).add(row);
+        }
+        return !known;
+    }
+
+    private void writeShard(String shard, List<DialogueMiner.Row> rows) throws IOException {
+        try (BufferedWriter writer = writer(new File(directory, shard + SHARD_SUFFIX))) {
+            writer.write(HEADER);
+            writer.newLine();
+            // npc, stage, choice, seen, advanced, delay, then the option screens leading to the choice
+            for (DialogueMiner.Row row : rows) {
+                writer.write(row.npc + '\t' + row.stage + '\t' + row.choice + '\t' + row.seen + '\t' + row.advanced
+                    + '\t' + row.getAverageDelayMs() + '\t' + String.join("\t", row.path));
+                writer.newLine();
+            }
+        }
+    }
+
+    private void writeIndex(Map<String, Set<String>> shards) throws IOException {
+        try (BufferedWriter writer = writer(new File(directory, INDEX_FILE))) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String, Set<String>> entry : new TreeMap<>(shards).entrySet()) {
+                writer.write(entry.getKey() + '\t' + String.join(",", entry.getValue()));
+                writer.newLine();
+            }
+        }
+    }
+
+    private void readIndex() {
+        List<String[]> rows;
+        synchronized (DialogueKnowledge.class) {
+            rows = readRows(new File(directory, INDEX_FILE));
+        }
+        for (String[] fields : rows) {
+            if (fields.length < 2) continue;
+            shardsByNpc.put(fields[0], new LinkedHashSet<>(Arrays.asList(fields[1].split(","))));
+        }
+    }
+
+    private void readShard(String shard) {
+        int count = 0;
+        List<String[]> rows;
+        synchronized (DialogueKnowledge.class) {
+            rows = readRows(new File(directory, shard + SHARD_SUFFIX));
+        }
+        for (String[] fields : rows) {
+            if (fields.length < 7) continue;
+            try {
+                DialogueMiner.Row row = DialogueMiner.Row.of(fields[0], fields[1],
+                    Arrays.asList(fields).subList(6, fields.length), fields[2],
+                    Integer.parseInt(fields[3]), Integer.parseInt(fields[4]), Long.parseLong(fields[5]));
+                npcs.computeIfAbsent(row.npc.toLowerCase(), k -> new NpcKnowledge()).add(row);
+                count++;
+            } catch (NumberFormatException e) {
+                // Skip a damaged line, keep the rest
+            }
+        }
+        Logger.log("[Dialogue] Loaded " + count + " learned answers for " + shard);
+    }
+
+    private static List<String[]> readRows(File file) {
+        List<String[]> rows = new ArrayList<>();
+        if (!file.isFile()) return rows;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                rows.add(line.split("\t"));
+            }
+        } catch (IOException e) {
+            Logger.log("[Dialogue] Could not read " + file.getName() + ": " + e.getMessage());
+        }
+        return rows;
+    }
+
+    private static BufferedWriter writer(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Whether the game is at this recorded stage ("varbit 6071=20", "config 101=15" or "*")
+     */
+    private static boolean atStage(String stage) {
+        Matcher matcher = STAGE.matcher(stage);
+        if (!matcher.matches()) return false;
+        int id = Integer.parseInt(matcher.group(2));
+        int value = Integer.parseInt(matcher.group(3));
+        return ("varbit".equals(matcher.group(1)) ? PlayerSettings.getBitValue(id) : PlayerSettings.getConfig(id)) == value;
+    }
+
+    public synchronized int getNpcCount() {
+        return shardsByNpc.size();
+    }
+
+    public synchronized Set<String> getLoadedShards() {
+        return new LinkedHashSet<>(loadedShards);
+    }
+
+    /**
+     * Everything learned about one NPC
+     */
+    private static final class NpcKnowledge {
+        final Map<String, Node> tries = new HashMap<>();                    // stage -> trie of option screens
+        final Map<String, Map<String, Node>> byPrompt = new HashMap<>();    // stage -> screen -> answers on any path
+        final Map<String, Node> anyStage = new HashMap<>();                 // screen -> answers at any stage
+
+        void add(DialogueMiner.Row row) {
+            if (row.path.isEmpty()) return;
+            Node node = tries.computeIfAbsent(row.stage, k -> new Node());
+            for (String screen : row.path) {
+                node = node.children.computeIfAbsent(screen, k -> new Node());
+            }
+            node.add(row);
+            String prompt = row.path.get(row.path.size() - 1);
+            byPrompt.computeIfAbsent(row.stage, k -> new HashMap<>()).computeIfAbsent(prompt, k -> new Node()).add(row);
+            anyStage.computeIfAbsent(prompt, k -> new Node()).add(row);
+        }
+
+        /**
+         * Stages the game is at right now, the stage-less recordings last
+         */
+        List<String> matchingStages() {
+            List<String> stages = new ArrayList<>();
+            for (String stage : tries.keySet()) {
+                if (!ANY_STAGE.equals(stage) && atStage(stage)) {
+                    stages.add(stage);
+                }
+            }
+            if (tries.containsKey(ANY_STAGE)) {
+                stages.add(ANY_STAGE);
+            }
+            return stages;
+        }
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        final Map<String, Choice> choices = new HashMap<>();
+
+        void add(DialogueMiner.Row row) {
+            Choice choice = choices.computeIfAbsent(OptionMatcher.normalize(row.choice), Choice::new);
+            choice.seen += row.seen;
+            choice.advanced += row.advanced;
+            long delayMs = row.getAverageDelayMs();
+            if (delayMs >= 0) {
+                choice.delayMs = choice.delayMs < 0 ? delayMs : (choice.delayMs + delayMs) / 2;
+            }
+        }
+    }
+
+    private static final class Choice {
+        final String key;
+        int seen = 0;
+        int advanced = 0;
+        long delayMs = -1;
+
+        Choice(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A learned answer for the screen on display
+     */
+    public static final class Suggestion {
+        private final int index;
+        private final String option;
+        private final String how;
+        private final int seen;
+        private final int advanced;
+        private final long delayMs;
+
+        Suggestion(int index, String option, String how, int seen, int advanced, long delayMs) {
+            this.index = index;
+            this.option = option;
+            this.how = how;
+            this.seen = seen;
+            this.advanced = advanced;
+            this.delayMs = delayMs;
+        }
+
+        // Getters
+        public int getIndex() { return index; }
+        public String getOption() { return option; }
+        public int getSeen() { return seen; }
+        public int getAdvanced() { return advanced; }
+        public long getDelayMs() { return delayMs; }
+
+        @Override
+        public String toString() {
+            return "learned by " + how + " (seen " + seen + "x, advanced " + advanced + "x"
+                + (delayMs >= 0 ? ", next screen ~" + delayMs + "ms" : "") + ")";
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package quest.dialogue;
+
+import org.dreambot.api.utilities.Logger;
+import quest.recording.RecordingJournal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Dialogue Miner - learns dialogue answers from recorded quest logs.
+ * Follows each conversation from the Talk-to to the next other interaction, e.g.
+ *
+ *   [22:17:06] ACTION: Selected 'Talk-to' on Redbeard Frank
+ *   [22:17:25] DIALOGUE_OPTIONS: [I'm in search of treasure., Arr!, Do you have anything for trade?]
+ *   [22:17:26] ACTION: DIALOGUE_SELECTION
+ *       SCRIPT: I'm in search of treasure.
+ *   [00:13:14] QUEST STEP 5: VARBIT DISCOVERED: Unknown Quest varbit 6071 changed from 15 to 20
+ *
+ * Every answered prompt becomes a Row: the NPC, the quest stage (last varbit/config value seen),
+ * the option screens leading up to it, the choice, whether the quest advanced before the
+ * conversation ended, and how long the next screen took to appear.
+ */
+public final class DialogueMiner {
+
+    private static final Pattern TIMESTAMP = Pattern.compile("^\\[(\\d+):(\\d+):(\\d+)\\]");
+    private static final Pattern QUEST = Pattern.compile("^Quest: (.+)$");
+    private static final Pattern SELECTED = Pattern.compile("ACTION: Selected '([^']+)' on (.+)$");
+    private static final Pattern OPTIONS = Pattern.compile("DIALOGUE_OPTIONS: (.+)$");
+    private static final Pattern SCRIPT = Pattern.compile("^\\s+SCRIPT: (.+)$");
+    private static final Pattern ACTIVE_QUEST = Pattern.compile("ACTIVE_QUEST_DETECTED: (\\w+)");
+    // "varbit 6071 changed from 15 to 20" / "config 101 changed from 10 to 15"
+    private static final Pattern VAR_CHANGE = Pattern.compile("(varbit|config) (\\d+) changed from -?\\d+ to (-?\\d+)");
+
+    // Recordings started without a quest are named like this
+    private static final String DISCOVERY_QUEST = "Free_Discovery";
+    static final String MISC_SHARD = "misc";
+    // Longer gaps are the player looking away, not the game
+    private static final long MAX_DELAY_MS = 30000;
+
+    private DialogueMiner() {
+        // Static utility
+    }
+
+    /**
+     * Mine every .log file in a directory, except a recording still being written
+     * @return rows merged by NPC, stage, path and choice
+     */
+    public static Collection<Row> mineDirectory(String directory) {
+        Map<String, Row> rows = new LinkedHashMap<>();
+        File[] files = recordedLogs(directory);
+        if (files == null) return rows.values();
+        for (File file : files) {
+            try {
+                for (Row row : mineFile(file)) {
+                    rows.merge(row.key(), row, Row::merge);
+                }
+            } catch (IOException e) {
+                Logger.log("[Dialogue] Could not read " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return rows.values();
+    }
+
+    /**
+     * The finished .log recordings in a directory - the one this session is still writing is
+     * always newer than anything built from it, and only half done
+     */
+    static File[] recordedLogs(String directory) {
+        return new File(directory).listFiles((d, name) -> name.endsWith(".log")
+            && !RecordingJournal.isBeingWritten(new File(d, name)));
+    }
+
+    /**
+     * Mine the conversations of a single recorded log
+     */
+    public static List<Row> mineFile(File file) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        String headerQuest = null;
+        String activeQuest = null;
+        String stage = DialogueKnowledge.ANY_STAGE;
+
+        String npc = null;                          // NPC of the open conversation
+        List<String> path = new ArrayList<>();      // option screens seen in it so far
+        String prompt = null;                       // last option screen, not yet answered
+        Row lastRow = null;                         // last answer in this conversation
+        int lastAnsweredAt = -1;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (headerQuest == null) {
+                    Matcher quest = QUEST.matcher(line);
+                    if (quest.find()) {
+                        headerQuest = quest.group(1).trim();
+                        continue;
+                    }
+                }
+                int time = seconds(line);
+
+                Matcher selected = SELECTED.matcher(line);
+                if (selected.find()) {
+                    // Any interaction ends the conversation; a Talk-to starts the next one
+                    npc = "Talk-to".equalsIgnoreCase(selected.group(1)) ? selected.group(2).trim() : null;
+                    path = new ArrayList<>();
+                    prompt = null;
+                    lastRow = null;
+                    continue;
+                }
+
+                Matcher options = OPTIONS.matcher(line);
+                if (options.find()) {
+                    String signature = OptionMatcher.normalize(options.group(1));
+                    if (signature.equals(prompt)) continue; // the same screen logged again
+                    if (prompt != null) path.add(prompt); // answered, but the answer is unknown
+                    prompt = signature;
+                    if (lastRow != null && lastAnsweredAt >= 0) {
+                        long delayMs = (time - lastAnsweredAt) * 1000L;
+                        if (delayMs >= 0 && delayMs <= MAX_DELAY_MS) {
+                            lastRow.addDelay(delayMs);
+                        }
+                        lastAnsweredAt = -1;
+                    }
+                    continue;
+                }
+
+                if (line.contains("ACTION: DIALOGUE_SELECTION")) {
+                    String choice = readScript(reader);
+                    if (npc != null && prompt != null && choice != null) {
+                        path.add(prompt);
+                        lastRow = new Row(npc, stage, path, choice);
+                        lastAnsweredAt = time;
+                        rows.add(lastRow);
+                        prompt = null;
+                    }
+                    continue;
+                }
+
+                Matcher change = VAR_CHANGE.matcher(line);
+                if (change.find()) {
+                    stage = change.group(1) + " " + change.group(2) + "=" + change.group(3);
+                    if (lastRow != null) {
+                        lastRow.advanced = 1;
+                    }
+                    continue;
+                }
+
+                Matcher active = ACTIVE_QUEST.matcher(line);
+                if (active.find() && activeQuest == null) {
+                    activeQuest = active.group(1);
+                }
+            }
+        }
+
+        String shard = shardName(headerQuest != null && !DISCOVERY_QUEST.equals(headerQuest) ? headerQuest : activeQuest);
+        for (Row row : rows) {
+            row.shard = shard;
+        }
+        return rows;
+    }
+
+    private static String readScript(BufferedReader reader) throws IOException {
+        String next = reader.readLine();
+        if (next == null) return null;
+        Matcher script = SCRIPT.matcher(next);
+        // "// User selected one of: [...]" means the recorder could not tell which
+        return script.find() && !script.group(1).startsWith("//") ? script.group(1).trim() : null;
+    }
+
+    private static int seconds(String line) {
+        Matcher matcher = TIMESTAMP.matcher(line);
+        if (!matcher.find()) return -1;
+        return Integer.parseInt(matcher.group(1)) * 3600 + Integer.parseInt(matcher.group(2)) * 60
+            + Integer.parseInt(matcher.group(3));
+    }
+
+    /**
+     * File-safe shard name for a quest ("Pirate's Treasure" -> "pirate_s_treasure")
+     */
+    static String shardName(String quest) {
+        if (quest == null || quest.trim().isEmpty()) return MISC_SHARD;
+        String name = quest.trim().toLowerCase().replaceAll("[^a-z0-9]+", "_").replaceAll("^_+|_+$", "");
+        return name.isEmpty() ? MISC_SHARD : name;
+    }
+
+    /**
+     * One learned answer: at this NPC and stage, after these option screens, this choice was made
+     */
+    public static final class Row {
+        final String npc;
+        final String stage;
+        final List<String> path;
+        final String choice;
+        String shard = MISC_SHARD;
+        int seen = 1;
+        int advanced = 0;
+        long delayTotalMs = 0;
+        int delayCount = 0;
+
+        Row(String npc, String stage, List<String> path, String choice) {
+            this.npc = npc;
+            this.stage = stage;
+            this.path = new ArrayList<>(path);
+            this.choice = choice;
+        }
+
+        /**
+         * A row as stored or shared by another bot - totals instead of one observation
+         */
+        public static Row of(String npc, String stage, List<String> path, String choice,
+                             int seen, int advanced, long delayMs) {
+            Row row = new Row(npc, stage, path, choice);
+            row.seen = seen;
+            row.advanced = advanced;
+            if (delayMs >= 0) row.addDelay(delayMs);
+            return row;
+        }
+
+        void addDelay(long delayMs) {
+            delayTotalMs += delayMs;
+            delayCount++;
+        }
+
+        String key() {
+            return npc + '\t' + stage + '\t' + choice + '\t' + String.join("\t", path);
+        }
+
+        Row merge(Row other) {
+            seen += other.seen;
+            advanced += other.advanced;
+            delayTotalMs += other.delayTotalMs;
+            delayCount += other.delayCount;
+            return this;
+        }
+
+        // Getters
+        public String getNpc() { return npc; }
+        public String getStage() { return stage; }
+        public List<String> getPath() { return path; }
+        public String getChoice() { return choice; }
+        public String getShard() { return shard; }
+        public int getSeen() { return seen; }
+        public int getAdvanced() { return advanced; }
+        public long getAverageDelayMs() { return delayCount > 0 ? delayTotalMs / delayCount : -1; }
+    }
+}
@@ -0,0 +1,144 @@
+package quest.dialogue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dialogue Script - which options to pick in a conversation, compiled once into an OptionMatcher.
+ * Entries are listed in order of preference; each can match exactly, by prefix, by regex or by
+ * substring, and can be limited to once per conversation (for "ask every question, then leave").
+ *
+ * Build scripts once - as static finals in the tree, or in a node's constructor - and hand them to
+ * DialogueEngine.run(). Scripts are immutable and safe to share.
+ */
+public final class DialogueScript {
+
+    /**
+     * Continue to the end; at an option screen take option 1 (the old continueDialogue behaviour)
+     */
+    public static final DialogueScript CONTINUE = builder("continue").fallbackToFirst().build();
+
+    /**
+     * Continue until the dialogue closes or options appear, never choosing anything
+     */
+    public static final DialogueScript CONTINUE_ONLY = builder("continue-only").build();
+
+    private static final int DEFAULT_MAX_REPEATS = 3;
+
+    private final String name;
+    private final OptionMatcher matcher;
+    private final boolean fallbackToFirst;
+    private final int maxChoices;
+    private final int maxRepeats;
+
+    private DialogueScript(Builder builder) {
+        this.name = builder.name;
+        this.matcher = new OptionMatcher(builder.rules);
+        this.fallbackToFirst = builder.fallbackToFirst;
+        this.maxChoices = builder.maxChoices;
+        this.maxRepeats = builder.maxRepeats;
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    // Getters
+    public String getName() { return name; }
+    public OptionMatcher getMatcher() { return matcher; }
+    public boolean isFallbackToFirst() { return fallbackToFirst; }
+    public int getMaxChoices() { return maxChoices; }
+    public int getMaxRepeats() { return maxRepeats; }
+
+    @Override
+    public String toString() {
+        return "DialogueScript[" + name + ", " + matcher.getRuleCount() + " rules]";
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final List<OptionMatcher.Rule> rules = new ArrayList<>();
+        private int priority = 0;
+        private boolean fallbackToFirst = false;
+        private int maxChoices = Integer.MAX_VALUE;
+        private int maxRepeats = DEFAULT_MAX_REPEATS;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Option with exactly this text (case, tags, spacing and trailing dots ignored)
+         */
+        public Builder exact(String text) {
+            return add(false, OptionMatcher.Kind.EXACT, text);
+        }
+
+        public Builder prefix(String text) {
+            return add(false, OptionMatcher.Kind.PREFIX, text);
+        }
+
+        /**
+         * Regex searched in the normalized option text (lower case, no trailing dots)
+         */
+        public Builder regex(String pattern) {
+            return add(false, OptionMatcher.Kind.REGEX, pattern);
+        }
+
+        public Builder contains(String text) {
+            return add(false, OptionMatcher.Kind.CONTAINS, text);
+        }
+
+        /**
+         * The usual entry: exact text, falling back to any option containing it
+         */
+        public Builder option(String text) {
+            return add(false, OptionMatcher.Kind.EXACT, text, OptionMatcher.Kind.CONTAINS);
+        }
+
+        /**
+         * Like option(), but used at most once per conversation
+         */
+        public Builder once(String text) {
+            return add(true, OptionMatcher.Kind.EXACT, text, OptionMatcher.Kind.CONTAINS);
+        }
+
+        /**
+         * Take option 1 when nothing matches instead of stopping
+         */
+        public Builder fallbackToFirst() {
+            this.fallbackToFirst = true;
+            return this;
+        }
+
+        /**
+         * Stop at the next option screen after this many choices (leave it to the caller)
+         */
+        public Builder maxChoices(int maxChoices) {
+            this.maxChoices = maxChoices;
+            return this;
+        }
+
+        /**
+         * Times the same option screen may come back, without a once() rule being used up in between,
+         * before the conversation counts as a loop
+         */
+        public Builder maxRepeats(int maxRepeats) {
+            this.maxRepeats = maxRepeats;
+            return this;
+        }
+
+        private Builder add(boolean once, OptionMatcher.Kind kind, String text, OptionMatcher.Kind... alsoAs) {
+            int entry = priority++;
+            rules.add(new OptionMatcher.Rule(entry, kind, text, once));
+            for (OptionMatcher.Kind other : alsoAs) {
+                rules.add(new OptionMatcher.Rule(entry, other, text, once));
+            }
+            return this;
+        }
+
+        public DialogueScript build() {
+            return new DialogueScript(this);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package quest.dialogue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loop Detector - tells an option screen that keeps coming back on its own from one a script
+ * returns to on purpose. A menu the script works through with once() rules ("ask every question,
+ * then leave") is shown again after every answer; such a visit only counts as a repeat when no
+ * once() rule was used up since the screen was last shown.
+ */
+final class LoopDetector {
+
+    private final int maxRepeats;
+    // Screen signature -> {repeats so far, once() rules used up when it was last shown}
+    private final Map<String, int[]> screens = new HashMap<>();
+
+    LoopDetector(int maxRepeats) {
+        this.maxRepeats = maxRepeats;
+    }
+
+    /**
+     * Record that an option screen is showing
+     * @param spent once() rules used up so far in this conversation
+     * @return true if the screen has now come back maxRepeats times with nothing used up in between
+     */
+    boolean visit(String signature, int spent) {
+        int[] seen = screens.get(signature);
+        if (seen == null) {
+            screens.put(signature, new int[] {0, spent});
+            return false;
+        }
+        if (spent == seen[1]) {
+            seen[0]++;
+        }
+        seen[1] = spent;
+        return seen[0] >= maxRepeats;
+    }
+
+    /**
+     * Times the screen came back with nothing used up in between
+     */
+    int getRepeats(String signature) {
+        int[] seen = screens.get(signature);
+        return seen != null ? seen[0] : 0;
+    }
+}
@@ -0,0 +1,197 @@
+package quest.dialogue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Option Matcher - a dialogue script's option rules compiled once for fast matching.
+ * Option text is normalized (tags stripped, lower case, collapsed spaces, no trailing dots) on both
+ * sides; exact rules become a hash lookup, the rest are kept sorted by priority so a scan can stop
+ * as soon as it can't beat the best match so far.
+ *
+ * Rules are ranked by priority (script order). When several options match the same rule, an exact
+ * match beats a prefix, a prefix beats a regex, and a regex beats a plain substring.
+ */
+public final class OptionMatcher {
+
+    /**
+     * Kinds in precedence order
+     */
+    public enum Kind {
+        EXACT,
+        PREFIX,
+        REGEX,
+        CONTAINS
+    }
+
+    private static final Pattern TAGS = Pattern.compile("<[^>]*>");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final Map<String, Rule> exact = new HashMap<>();
+    private final List<Rule> prefixes = new ArrayList<>();
+    private final List<Rule> regexes = new ArrayList<>();
+    private final List<Rule> contains = new ArrayList<>();
+    private final int ruleCount;
+
+    OptionMatcher(List<Rule> rules) {
+        for (Rule rule : rules) {
+            switch (rule.kind) {
+                case EXACT:
+                    exact.merge(rule.text, rule, (a, b) -> a.priority <= b.priority ? a : b);
+                    break;
+                case PREFIX:
+                    prefixes.add(rule);
+                    break;
+                case REGEX:
+                    regexes.add(rule);
+                    break;
+                default:
+                    contains.add(rule);
+                    break;
+            }
+        }
+        Comparator<Rule> byPriority = Comparator.comparingInt(r -> r.priority);
+        prefixes.sort(byPriority);
+        regexes.sort(byPriority);
+        contains.sort(byPriority);
+        this.ruleCount = rules.size();
+    }
+
+    /**
+     * Best option for this screen, skipping rules whose priority is in spent (used-up once rules)
+     * @return the match, or null if no option matches any live rule
+     */
+    public Match match(String[] options, Set<Integer> spent) {
+        if (options == null) {
+            return null;
+        }
+        Match best = null;
+        for (int i = 0; i < options.length; i++) {
+            if (options[i] == null) continue;
+            String text = normalize(options[i]);
+            Rule rule = bestRule(text, spent, best != null ? best.rule : null);
+            if (rule != null && (best == null || outranks(rule, best.rule))) {
+                best = new Match(i, options[i], rule);
+            }
+        }
+        return best;
+    }
+
+    private Rule bestRule(String text, Set<Integer> spent, Rule toBeat) {
+        Rule best = toBeat;
+        Rule hit = exact.get(text);
+        if (hit != null && !spent.contains(hit.priority) && (best == null || outranks(hit, best))) {
+            best = hit;
+        }
+        best = scan(prefixes, text, spent, best);
+        best = scan(regexes, text, spent, best);
+        best = scan(contains, text, spent, best);
+        return best != toBeat ? best : null;
+    }
+
+    private static Rule scan(List<Rule> rules, String text, Set<Integer> spent, Rule best) {
+        for (Rule rule : rules) {
+            if (best != null && rule.priority > best.priority) {
+                break; // sorted - nothing further can win
+            }
+            if (!spent.contains(rule.priority) && rule.matches(text) && (best == null || outranks(rule, best))) {
+                best = rule;
+            }
+        }
+        return best;
+    }
+
+    private static boolean outranks(Rule a, Rule b) {
+        return a.priority != b.priority ? a.priority < b.priority : a.kind.ordinal() < b.kind.ordinal();
+    }
+
+    static String normalize(String option) {
+        String text = TAGS.matcher(option).replaceAll("");
+        text = SPACES.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        int end = text.length();
+        while (end > 0 && (text.charAt(end - 1) == '.' || text.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        return text.substring(0, end);
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    public boolean isEmpty() {
+        return ruleCount == 0;
+    }
+
+    /**
+     * One pattern of a script; rules added for the same script entry share a priority
+     */
+    public static final class Rule {
+        private final int priority;
+        private final Kind kind;
+        private final String pattern;
+        private final String text;
+        private final Pattern regex;
+        private final boolean once;
+
+        Rule(int priority, Kind kind, String pattern, boolean once) {
+            this.priority = priority;
+            this.kind = kind;
+            this.pattern = pattern;
+            this.once = once;
+            if (kind == Kind.REGEX) {
+                this.text = null;
+                this.regex = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+            } else {
+                this.text = normalize(pattern);
+                this.regex = null;
+            }
+        }
+
+        boolean matches(String normalizedOption) {
+            switch (kind) {
+                case EXACT: return normalizedOption.equals(text);
+                case PREFIX: return normalizedOption.startsWith(text);
+                case REGEX: return regex.matcher(normalizedOption).find();
+                default: return normalizedOption.contains(text);
+            }
+        }
+
+        // Getters
+        public int getPriority() { return priority; }
+        public Kind getKind() { return kind; }
+        public String getPattern() { return pattern; }
+        public boolean isOnce() { return once; }
+
+        @Override
+        public String toString() {
+            return kind + " '" + pattern + "'" + (once ? " once" : "");
+        }
+    }
+
+    /**
+     * The option picked for a screen and the rule that picked it
+     */
+    public static final class Match {
+        private final int index;
+        private final String option;
+        private final Rule rule;
+
+        Match(int index, String option, Rule rule) {
+            this.index = index;
+            this.option = option;
+            this.rule = rule;
+        }
+
+        // Getters
+        public int getIndex() { return index; }
+        public String getOption() { return option; }
+        public Rule getRule() { return rule; }
+    }
+}
@@ -0,0 +1,297 @@
+package quest.fleet;
+
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.utilities.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import quest.core.QuestExecutor;
+import quest.core.QuestQueue;
+import quest.dialogue.DialogueEngine;
+import quest.dialogue.DialogueMiner;
+import quest.metrics.ExecutorStatus;
+import quest.metrics.QuestMetrics;
+import quest.travel.NpcSightings;
+import quest.travel.RouteLibrary;
+import quest.travel.TravelPlanner;
+import quest.utils.GrandExchangeUtil;
+import quest.utils.QuestSettings;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Fleet Client - connects this bot to a FleetCoordinator on the same host.
+ * Off unless "fleet.enabled=true". Shares what this bot learns (walking routes, GE fill prices,
+ * NPC sightings, dialogue answers) and applies what the others learned; takes quest queues and pause/resume/stop
+ * commands from the coordinator and reports status every few seconds.
+ * Everything received is applied from tick() on the script thread.
+ */
+public class FleetClient {
+
+    private static FleetClient instance;
+
+    private static final long STATUS_INTERVAL_MS = 5000;
+    private static final int MAX_MESSAGES_PER_TICK = 200;
+
+    private FleetConnection connection;
+    private final Map<String, List<Consumer<JSONObject>>> listeners = new ConcurrentHashMap<>();
+
+    // Set by a fleet pause: no queued quest starts until resumed
+    private volatile boolean holding = false;
+    private JSONObject pendingAssignment;
+    private long lastStatusAt = 0;
+
+    private FleetClient() {
+        onLearned(FleetProtocol.KIND_ROUTE, this::applyRoute);
+        onLearned(FleetProtocol.KIND_PRICE, data ->
+            GrandExchangeUtil.rememberFillPrice(data.getString("item"), data.getInt("price")));
+        onLearned(FleetProtocol.KIND_NPC, data ->
+            NpcSightings.getInstance().record(data.getString("name"), readTile(data)));
+        onLearned(FleetProtocol.KIND_DIALOGUE, this::applyDialogue);
+    }
+
+    public static synchronized FleetClient getInstance() {
+        if (instance == null) {
+            instance = new FleetClient();
+        }
+        return instance;
+    }
+
+    /**
+     * Connect to the coordinator if the settings ask for it
+     */
+    public synchronized void startIfEnabled() {
+        if (connection != null || !QuestSettings.getBoolean("fleet.enabled", false)) {
+            return;
+        }
+        connection = new FleetConnection(QuestSettings.getInstanceName(),
+            QuestSettings.getInt("fleet.port", FleetProtocol.DEFAULT_PORT), Logger::log);
+        connection.start();
+    }
+
+    public synchronized void stop() {
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return connection != null;
+    }
+
+    /**
+     * Register a handler for one kind of learned data (called on the script thread)
+     */
+    public void onLearned(String kind, Consumer<JSONObject> handler) {
+        listeners.computeIfAbsent(kind, k -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Apply incoming messages and report status - call once per loop from the script thread
+     */
+    public void tick() {
+        FleetConnection conn = connection;
+        if (conn == null) return;
+
+        JSONObject message;
+        int handled = 0;
+        while (handled++ < MAX_MESSAGES_PER_TICK && (message = conn.poll()) != null) {
+            handle(message);
+        }
+
+        QuestExecutor executor = QuestExecutor.getInstance();
+        if (pendingAssignment != null && !holding && !executor.isBusy()) {
+            startAssignment(executor);
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastStatusAt >= STATUS_INTERVAL_MS) {
+            lastStatusAt = now;
+            conn.send(buildStatus(executor));
+        }
+    }
+
+    /**
+     * True while the fleet has paused this bot - the main loop must not start queued quests
+     */
+    public boolean isHolding() {
+        return holding;
+    }
+
+    // ---- Sharing ----
+
+    public void share(String kind, String key, JSONObject data) {
+        FleetConnection conn = connection;
+        if (conn != null) {
+            conn.send(FleetProtocol.learned(kind, key, data, conn.getInstance()));
+        }
+    }
+
+    public void shareRoute(List<Tile> checkpoints, long durationMs) {
+        if (connection == null) return;
+        JSONArray tiles = new JSONArray();
+        for (Tile tile : checkpoints) {
+            tiles.put(new JSONArray().put(tile.getX()).put(tile.getY()).put(tile.getZ()));
+        }
+        Tile start = checkpoints.get(0);
+        Tile end = checkpoints.get(checkpoints.size() - 1);
+        String key = start.getX() + "," + start.getY() + "," + start.getZ() + ">"
+            + end.getX() + "," + end.getY() + "," + end.getZ() + "@" + durationMs;
+        share(FleetProtocol.KIND_ROUTE, key, new JSONObject().put("tiles", tiles).put("durationMs", durationMs));
+    }
+
+    public void sharePrice(String item, int price) {
+        if (connection == null) return;
+        share(FleetProtocol.KIND_PRICE, item, new JSONObject().put("item", item).put("price", price));
+    }
+
+    public void shareNpcSighting(String npcName, Tile tile) {
+        if (connection == null) return;
+        share(FleetProtocol.KIND_NPC, npcName, new JSONObject().put("name", npcName)
+            .put("x", tile.getX()).put("y", tile.getY()).put("z", tile.getZ()));
+    }
+
+    /**
+     * A dialogue answer mined from this bot's recordings (DialogueKnowledge shares them after a rebuild)
+     */
+    public void shareDialogue(DialogueMiner.Row row) {
+        FleetConnection conn = connection;
+        if (conn == null) return;
+        // Keyed by instance too, so two bots' counts for the same answer don't replace each other
+        share(FleetProtocol.KIND_DIALOGUE, conn.getInstance() + '\t' + row.getNpc() + '\t' + row.getStage() + '\t'
+            + row.getChoice() + '\t' + String.join("\t", row.getPath()), new JSONObject()
+            .put("npc", row.getNpc()).put("stage", row.getStage()).put("path", new JSONArray(row.getPath()))
+            .put("choice", row.getChoice()).put("seen", row.getSeen()).put("advanced", row.getAdvanced())
+            .put("delayMs", row.getAverageDelayMs()));
+    }
+
+    // ---- Receiving ----
+
+    private void handle(JSONObject message) {
+        switch (message.getString("type")) {
+            case FleetProtocol.WELCOME:
+                JSONArray learned = message.optJSONArray("learned");
+                int count = learned != null ? learned.length() : 0;
+                for (int i = 0; i < count; i++) {
+                    applyLearned(learned.getJSONObject(i));
+                }
+                Logger.log("[Fleet] Joined fleet, applied " + count + " learned entries");
+                break;
+            case FleetProtocol.LEARNED:
+                applyLearned(message);
+                break;
+            case FleetProtocol.COMMAND:
+                applyCommand(message);
+                break;
+            default:
+                Logger.log("[Fleet] Ignoring unknown message " + message.getString("type"));
+        }
+    }
+
+    private void applyLearned(JSONObject message) {
+        List<Consumer<JSONObject>> handlers = listeners.get(message.optString("kind"));
+        if (handlers == null) return;
+        JSONObject data = message.optJSONObject("data");
+        if (data == null) return;
+        data.put("origin", message.optString("origin"));
+        for (Consumer<JSONObject> handler : handlers) {
+            try {
+                handler.accept(data);
+            } catch (RuntimeException e) {
+                Logger.log("[Fleet] Bad " + message.optString("kind") + " entry from " + message.optString("origin") + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void applyRoute(JSONObject data) {
+        JSONArray tiles = data.getJSONArray("tiles");
+        List<Tile> checkpoints = new ArrayList<>(tiles.length());
+        for (int i = 0; i < tiles.length(); i++) {
+            JSONArray xyz = tiles.getJSONArray(i);
+            checkpoints.add(new Tile(xyz.getInt(0), xyz.getInt(1), xyz.getInt(2)));
+        }
+        RouteLibrary library = TravelPlanner.getInstance().getRouteLibrary();
+        library.record(checkpoints, data.getLong("durationMs"), "fleet:" + data.optString("origin"));
+    }
+
+    private void applyDialogue(JSONObject data) {
+        String origin = data.optString("origin");
+        FleetConnection conn = connection;
+        if (conn != null && origin.equals(conn.getInstance())) {
+            return; // Our own answers coming back in the welcome replay - already mined from our logs
+        }
+        JSONArray screens = data.getJSONArray("path");
+        List<String> path = new ArrayList<>(screens.length());
+        for (int i = 0; i < screens.length(); i++) {
+            path.add(screens.getString(i));
+        }
+        DialogueEngine.getInstance().getKnowledge().learn(origin, DialogueMiner.Row.of(data.getString("npc"),
+            data.getString("stage"), path, data.getString("choice"), data.getInt("seen"), data.getInt("advanced"),
+            data.getLong("delayMs")));
+    }
+
+    private void applyCommand(JSONObject command) {
+        QuestExecutor executor = QuestExecutor.getInstance();
+        String action = command.optString("action");
+        Logger.log("[Fleet] Coordinator command: " + action);
+        switch (action) {
+            case FleetProtocol.PAUSE:
+                holding = true;
+                executor.pauseQuest();
+                break;
+            case FleetProtocol.RESUME:
+                holding = false;
+                executor.resumeQuest();
+                break;
+            case FleetProtocol.STOP:
+                pendingAssignment = null;
+                executor.stopQuest();
+                break;
+            case FleetProtocol.ASSIGN:
+                // Started from tick() once the executor is free
+                pendingAssignment = command;
+                break;
+            default:
+                Logger.log("[Fleet] Unknown command " + action);
+        }
+    }
+
+    private void startAssignment(QuestExecutor executor) {
+        JSONArray quests = pendingAssignment.optJSONArray("quests");
+        List<String> questIds = new ArrayList<>();
+        for (int i = 0; quests != null && i < quests.length(); i++) {
+            questIds.add(quests.getString(i));
+        }
+        boolean ordered = pendingAssignment.optBoolean("ordered", false);
+        QuestQueue.FailurePolicy policy = pendingAssignment.optEnum(QuestQueue.FailurePolicy.class, "policy",
+            QuestQueue.FailurePolicy.SKIP_QUEST);
+        pendingAssignment = null;
+        if (executor.startQueue(questIds, ordered, policy)) {
+            Logger.log("[Fleet] Started assigned queue " + questIds);
+        }
+    }
+
+    private JSONObject buildStatus(QuestExecutor executor) {
+        QuestMetrics metrics = QuestMetrics.getInstance();
+        ExecutorStatus status = metrics.getStatus();
+        JSONObject message = new JSONObject().put("type", FleetProtocol.STATUS);
+        message.put("state", holding ? "HELD" : status.getState());
+        message.put("quest", status.getQuestId() != null ? status.getQuestId() : "-");
+        message.put("step", status.getStep() != null ? status.getStep() : JSONObject.NULL);
+        message.put("progress", status.getProgress());
+        message.put("completed", executor.getQuestsCompleted());
+        QuestQueue queue = executor.getQuestQueue();
+        if (queue != null) {
+            message.put("queue", queue.getSummary());
+        }
+        message.put("counters", new JSONObject(metrics.getCounters()));
+        return message;
+    }
+
+    private static Tile readTile(JSONObject data) {
+        return new Tile(data.getInt("x"), data.getInt("y"), data.getInt("z"));
+    }
+}
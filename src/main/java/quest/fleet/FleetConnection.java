@@ -0,0 +1,181 @@
+package quest.fleet;
+
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Fleet Connection - the client end of the coordinator socket.
+ * A reader thread connects (and reconnects with backoff), sends hello and queues incoming messages;
+ * a writer thread drains the outgoing queue. Callers only touch the two queues, so the script
+ * thread never blocks on the network. Outgoing messages wait while disconnected and are dropped
+ * only when the queue is full.
+ */
+public class FleetConnection {
+
+    private static final int OUTBOX_CAPACITY = 1000;
+    private static final int CONNECT_TIMEOUT_MS = 2000;
+    private static final long MIN_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 30000;
+
+    private final String instance;
+    private final int port;
+    private final Consumer<String> log;
+
+    private final BlockingQueue<JSONObject> outbox = new ArrayBlockingQueue<>(OUTBOX_CAPACITY);
+    private final Queue<JSONObject> inbox = new ConcurrentLinkedQueue<>();
+    private final Object writeLock = new Object();
+
+    private volatile boolean running = false;
+    private volatile Socket socket;
+    private volatile Writer out;
+    private volatile long dropped = 0;
+
+    public FleetConnection(String instance, int port, Consumer<String> log) {
+        this.instance = instance;
+        this.port = port;
+        this.log = log;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        daemon(this::readLoop, "fleet-reader-" + instance).start();
+        daemon(this::writeLoop, "fleet-writer-" + instance).start();
+    }
+
+    public synchronized void close() {
+        running = false;
+        disconnect();
+    }
+
+    /**
+     * Queue a message for the coordinator
+     * @return false if the outbox is full and the message was dropped
+     */
+    public boolean send(JSONObject message) {
+        if (outbox.offer(message)) return true;
+        dropped++;
+        return false;
+    }
+
+    /**
+     * Next message from the coordinator, or null
+     */
+    public JSONObject poll() {
+        return inbox.poll();
+    }
+
+    private void readLoop() {
+        long backoff = MIN_BACKOFF_MS;
+        while (running) {
+            try (Socket s = new Socket()) {
+                s.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MS);
+                s.setTcpNoDelay(true);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                synchronized (writeLock) {
+                    socket = s;
+                    out = new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8);
+                    writeLine(FleetProtocol.hello(instance));
+                }
+                log.accept("[Fleet] Connected to coordinator on port " + port);
+                backoff = MIN_BACKOFF_MS;
+
+                String line;
+                while (running && (line = reader.readLine()) != null) {
+                    JSONObject message = FleetProtocol.parse(line);
+                    if (message != null) {
+                        inbox.add(message);
+                    }
+                }
+                if (running) log.accept("[Fleet] Coordinator closed the connection");
+            } catch (IOException e) {
+                if (running && backoff == MIN_BACKOFF_MS) {
+                    log.accept("[Fleet] Coordinator not reachable on port " + port + " (" + e.getMessage() + "), retrying");
+                }
+            } finally {
+                disconnect();
+            }
+            if (!running) break;
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                break;
+            }
+            backoff = Math.min(MAX_BACKOFF_MS, backoff * 2);
+        }
+    }
+
+    private void writeLoop() {
+        // Held across reconnects so a message is never lost between taking it and writing it
+        JSONObject pending = null;
+        while (running) {
+            try {
+                if (pending == null) {
+                    pending = outbox.poll(200, TimeUnit.MILLISECONDS);
+                    if (pending == null) continue;
+                }
+                if (out == null) {
+                    Thread.sleep(200); // Waiting for the reader to reconnect
+                    continue;
+                }
+                synchronized (writeLock) {
+                    if (out == null) continue;
+                    writeLine(pending);
+                }
+                pending = null;
+            } catch (IOException e) {
+                disconnect(); // The reader notices and reconnects
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    private void writeLine(JSONObject message) throws IOException {
+        out.write(message.toString());
+        out.write('\n');
+        out.flush();
+    }
+
+    private void disconnect() {
+        synchronized (writeLock) {
+            out = null;
+            Socket s = socket;
+            socket = null;
+            if (s != null) {
+                try {
+                    s.close();
+                } catch (IOException ignored) {
+                    // Already closed
+                }
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // Getters
+    public String getInstance() { return instance; }
+    public boolean isConnected() { return out != null; }
+    public int getPendingOutgoing() { return outbox.size(); }
+    public long getDropped() { return dropped; }
+}
@@ -0,0 +1,367 @@
+package quest.fleet;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fleet Coordinator - one process that manages every bot on the host.
+ * Bots connect with FleetClient over loopback TCP. The coordinator hands out quest queues,
+ * relays learned data (routes, GE fill prices, NPC sightings, dialogue scripts) so every bot
+ * benefits from what any one of them found, keeps each bot's latest status for a fleet-wide view,
+ * and forwards pause/resume/stop commands typed on its console.
+ *
+ * Usage: java quest.fleet.FleetCoordinator [--port 9470] [--queue ID,ID,...] [--ordered] [--store FILE]
+ * Run FleetStubClient against it to try it without any game clients.
+ */
+public class FleetCoordinator {
+
+    private static final String DEFAULT_STORE = "quest_data/fleet_learned.jsonl";
+    private static final int MAX_LEARNED = 5000;
+
+    private final int port;
+    private final List<String> defaultQueue;
+    private final boolean ordered;
+    private final File store;
+
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+    // Learned data by kind|key, oldest first; replayed to every bot that connects
+    private final Map<String, JSONObject> learned = new LinkedHashMap<String, JSONObject>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JSONObject> eldest) {
+            return size() > MAX_LEARNED;
+        }
+    };
+    // Instances that already received the default queue (survives reconnects)
+    private final Set<String> assigned = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running = true;
+    private ServerSocket server;
+
+    public FleetCoordinator(int port, List<String> defaultQueue, boolean ordered, File store) {
+        this.port = port;
+        this.defaultQueue = defaultQueue;
+        this.ordered = ordered;
+        this.store = store;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = FleetProtocol.DEFAULT_PORT;
+        List<String> queue = new ArrayList<>();
+        boolean ordered = false;
+        String storePath = DEFAULT_STORE;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--queue": queue = parseQuestIds(args[++i]); break;
+                case "--ordered": ordered = true; break;
+                case "--store": storePath = args[++i]; break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    return;
+            }
+        }
+        FleetCoordinator coordinator = new FleetCoordinator(port, queue, ordered, new File(storePath));
+        coordinator.start();
+        coordinator.console();
+    }
+
+    public void start() throws IOException {
+        loadStore();
+        server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "fleet-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log("Listening on 127.0.0.1:" + port + " (" + learned.size() + " learned entries"
+            + (defaultQueue.isEmpty() ? "" : ", default queue " + defaultQueue) + ")");
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            server.close();
+        } catch (IOException ignored) {
+            // Already closed
+        }
+        for (Peer peer : peers.values()) {
+            peer.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                Thread handler = new Thread(() -> handle(socket), "fleet-peer-" + socket.getPort());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (running) log("Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        Peer peer = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JSONObject message = FleetProtocol.parse(line);
+                if (message == null) continue;
+                String type = message.getString("type");
+                if (peer == null) {
+                    if (!FleetProtocol.HELLO.equals(type)) continue; // Must introduce itself first
+                    peer = register(socket, message.optString("instance", "peer-" + socket.getPort()));
+                    continue;
+                }
+                switch (type) {
+                    case FleetProtocol.STATUS:
+                        peer.lastStatus = message;
+                        peer.lastStatusAt = System.currentTimeMillis();
+                        break;
+                    case FleetProtocol.LEARNED:
+                        onLearned(peer, message);
+                        break;
+                    default:
+                        log(peer.instance + " sent unknown message type " + type);
+                }
+            }
+        } catch (IOException e) {
+            // Peer went away
+        } finally {
+            if (peer != null) {
+                peers.remove(peer.instance, peer);
+                log(peer.instance + " disconnected (" + peers.size() + " connected)");
+                peer.close();
+            } else {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // Already closed
+                }
+            }
+        }
+    }
+
+    private Peer register(Socket socket, String instance) throws IOException {
+        Peer peer = new Peer(instance, socket);
+        Peer previous = peers.put(instance, peer);
+        if (previous != null) {
+            previous.close(); // Reconnected before the old socket timed out
+        }
+        JSONArray replay;
+        synchronized (learned) {
+            replay = new JSONArray(learned.values());
+        }
+        peer.send(FleetProtocol.welcome(replay));
+        log(instance + " connected (" + peers.size() + " connected, sent " + replay.length() + " learned entries)");
+
+        if (!defaultQueue.isEmpty() && assigned.add(instance)) {
+            peer.send(FleetProtocol.assign(defaultQueue, ordered));
+            log("Assigned default queue to " + instance);
+        }
+        return peer;
+    }
+
+    private void onLearned(Peer from, JSONObject message) {
+        message.put("origin", from.instance);
+        String id = message.optString("kind") + "|" + message.optString("key");
+        synchronized (learned) {
+            learned.remove(id); // Re-insert so the newest entries survive the cap
+            learned.put(id, message);
+        }
+        appendStore(message);
+        for (Peer peer : peers.values()) {
+            if (peer != from) {
+                peer.send(message);
+            }
+        }
+    }
+
+    // ---- Commands ----
+
+    /**
+     * Send a command to one instance, or to all with "all"
+     * @return number of instances it was sent to
+     */
+    public int command(String target, JSONObject command) {
+        int sent = 0;
+        for (Peer peer : peers.values()) {
+            if ("all".equals(target) || peer.instance.equals(target)) {
+                peer.send(command);
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Fleet-wide view: one line per bot and the summed counters
+     */
+    public String formatStats() {
+        StringBuilder sb = new StringBuilder();
+        Map<String, Long> totals = new TreeMap<>();
+        List<Peer> sorted = new ArrayList<>(peers.values());
+        sorted.sort(Comparator.comparing(peer -> peer.instance));
+        long now = System.currentTimeMillis();
+        for (Peer peer : sorted) {
+            JSONObject status = peer.lastStatus;
+            if (status == null) {
+                sb.append(String.format("  %-16s (no status yet)%n", peer.instance));
+                continue;
+            }
+            sb.append(String.format("  %-16s %-10s %-24s %3d%%  completed=%d  %ds ago%n",
+                peer.instance, status.optString("state"), status.optString("quest", "-"),
+                status.optInt("progress"), status.optInt("completed"), (now - peer.lastStatusAt) / 1000));
+            JSONObject counters = status.optJSONObject("counters");
+            if (counters != null) {
+                for (String name : counters.keySet()) {
+                    totals.merge(name, counters.optLong(name), Long::sum);
+                }
+            }
+        }
+        sb.append(peers.size()).append(" connected, ").append(learned.size()).append(" learned entries\n");
+        if (!totals.isEmpty()) {
+            sb.append("Fleet counters: ").append(totals).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void console() throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        System.out.println("Commands: stats | pause|resume|stop <instance|all> | assign <instance|all> ID,ID [ordered] | quit");
+        String line;
+        while (running && (line = in.readLine()) != null) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts[0].isEmpty()) continue;
+            switch (parts[0]) {
+                case "stats":
+                    System.out.print(formatStats());
+                    break;
+                case FleetProtocol.PAUSE:
+                case FleetProtocol.RESUME:
+                case FleetProtocol.STOP:
+                    String target = parts.length > 1 ? parts[1] : "all";
+                    log(parts[0] + " sent to " + command(target, FleetProtocol.command(parts[0])) + " instance(s)");
+                    break;
+                case FleetProtocol.ASSIGN:
+                    if (parts.length < 3) {
+                        System.out.println("assign <instance|all> ID,ID [ordered]");
+                        break;
+                    }
+                    JSONObject assign = FleetProtocol.assign(parseQuestIds(parts[2]), parts.length > 3 && "ordered".equals(parts[3]));
+                    log("Queue sent to " + command(parts[1], assign) + " instance(s)");
+                    break;
+                case "quit":
+                    stop();
+                    return;
+                default:
+                    System.out.println("Unknown command: " + parts[0]);
+            }
+        }
+    }
+
+    // ---- Learned data store ----
+
+    private void loadStore() {
+        if (!store.isFile()) return;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(store), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JSONObject message = FleetProtocol.parse(line);
+                if (message != null) {
+                    learned.put(message.optString("kind") + "|" + message.optString("key"), message);
+                }
+            }
+        } catch (IOException e) {
+            log("Could not read " + store + ": " + e.getMessage());
+        }
+        compactStore(); // Later lines replaced earlier ones; rewrite without the duplicates
+    }
+
+    private synchronized void appendStore(JSONObject message) {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(store, true), StandardCharsets.UTF_8)) {
+            writer.write(message.toString());
+            writer.write('\n');
+        } catch (IOException e) {
+            log("Could not write " + store + ": " + e.getMessage());
+        }
+    }
+
+    private synchronized void compactStore() {
+        File parent = store.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(store), StandardCharsets.UTF_8))) {
+            synchronized (learned) {
+                for (JSONObject message : learned.values()) {
+                    writer.println(message.toString());
+                }
+            }
+        } catch (IOException e) {
+            log("Could not write " + store + ": " + e.getMessage());
+        }
+    }
+
+    private static List<String> parseQuestIds(String csv) {
+        List<String> ids = new ArrayList<>();
+        for (String id : csv.split(",")) {
+            if (!id.trim().isEmpty()) ids.add(id.trim().toUpperCase());
+        }
+        return ids;
+    }
+
+    private static void log(String message) {
+        System.out.println("[Fleet] " + message);
+    }
+
+    /**
+     * A connected bot
+     */
+    private static class Peer {
+        private final String instance;
+        private final Socket socket;
+        private final Writer out;
+        private volatile JSONObject lastStatus;
+        private volatile long lastStatusAt;
+
+        Peer(String instance, Socket socket) throws IOException {
+            this.instance = instance;
+            this.socket = socket;
+            this.out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        }
+
+        synchronized void send(JSONObject message) {
+            try {
+                out.write(message.toString());
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                close(); // Its handler thread sees the closed socket and unregisters it
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package quest.fleet;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.List;
+
+/**
+ * Fleet Protocol - messages exchanged between bots and the FleetCoordinator.
+ * One JSON object per line over a loopback TCP socket; every message has a "type".
+ *
+ *   client -> coordinator   hello, status, learned
+ *   coordinator -> client   welcome (with everything learned so far), learned, command
+ *
+ * Kept free of client classes so the coordinator and the stub clients run without DreamBot.
+ */
+public final class FleetProtocol {
+
+    public static final int DEFAULT_PORT = 9470;
+    public static final int VERSION = 1;
+
+    // Message types
+    public static final String HELLO = "hello";
+    public static final String WELCOME = "welcome";
+    public static final String STATUS = "status";
+    public static final String LEARNED = "learned";
+    public static final String COMMAND = "command";
+
+    // Command actions
+    public static final String PAUSE = "pause";
+    public static final String RESUME = "resume";
+    public static final String STOP = "stop";
+    public static final String ASSIGN = "assign";
+
+    // Kinds of learned data
+    public static final String KIND_ROUTE = "route";
+    public static final String KIND_PRICE = "price";
+    public static final String KIND_NPC = "npc";
+    public static final String KIND_DIALOGUE = "dialogue";
+
+    private FleetProtocol() {
+    }
+
+    public static JSONObject hello(String instance) {
+        return new JSONObject().put("type", HELLO).put("instance", instance).put("version", VERSION);
+    }
+
+    public static JSONObject welcome(JSONArray learned) {
+        return new JSONObject().put("type", WELCOME).put("learned", learned);
+    }
+
+    /**
+     * One piece of learned data; a later message with the same kind and key replaces it
+     */
+    public static JSONObject learned(String kind, String key, JSONObject data, String origin) {
+        return new JSONObject().put("type", LEARNED).put("kind", kind).put("key", key)
+            .put("data", data).put("origin", origin);
+    }
+
+    public static JSONObject command(String action) {
+        return new JSONObject().put("type", COMMAND).put("action", action);
+    }
+
+    public static JSONObject assign(List<String> questIds, boolean ordered) {
+        return command(ASSIGN).put("quests", new JSONArray(questIds)).put("ordered", ordered);
+    }
+
+    /**
+     * Parse one line; null if it is not a JSON object with a type
+     */
+    public static JSONObject parse(String line) {
+        if (line == null || line.isEmpty() || line.charAt(0) != '{') return null;
+        try {
+            JSONObject message = new JSONObject(line);
+            return message.has("type") ? message : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package quest.fleet;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fleet Stub Client - fake bots for trying the coordinator without game clients.
+ * Each stub connects like a real FleetClient, reports a made-up status, shares an occasional
+ * route, price or dialogue answer, and prints every command and learned entry it receives.
+ * FleetCoordinatorTest drives a few of them directly.
+ *
+ * Usage: java quest.fleet.FleetStubClient [count] [port] [seconds]
+ */
+public class FleetStubClient {
+
+    private final FleetConnection connection;
+    private final Random random;
+    private String state = "IDLE";
+    private List<String> queue = new ArrayList<>();
+    private int progress = 0;
+    private int completed = 0;
+    private int received = 0;
+    // kind|key of every learned entry received, in order
+    private final List<String> learnedKeys = new ArrayList<>();
+
+    public FleetStubClient(String instance, int port, long seed) {
+        this.connection = new FleetConnection(instance, port, System.out::println);
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : FleetProtocol.DEFAULT_PORT;
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : Long.MAX_VALUE / 1000;
+
+        List<FleetStubClient> stubs = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            FleetStubClient stub = new FleetStubClient("stub-" + i, port, i);
+            stub.connection.start();
+            stubs.add(stub);
+        }
+        long end = System.currentTimeMillis() + seconds * 1000;
+        while (System.currentTimeMillis() < end) {
+            for (FleetStubClient stub : stubs) {
+                stub.tick();
+            }
+            Thread.sleep(1000);
+        }
+        for (FleetStubClient stub : stubs) {
+            System.out.println(stub.connection.getInstance() + ": received " + stub.received + " learned entries, completed " + stub.completed);
+            stub.connection.close();
+        }
+    }
+
+    void tick() {
+        receive();
+
+        // Pretend to quest: advance the current quest, finish it, move on to the next
+        if ("EXECUTING".equals(state) && !queue.isEmpty()) {
+            progress = Math.min(100, progress + 10 + random.nextInt(20));
+            if (progress >= 100) {
+                queue.remove(0);
+                completed++;
+                progress = 0;
+                if (queue.isEmpty()) state = "IDLE";
+            }
+        }
+        if (random.nextInt(10) == 0) {
+            shareRandomRoute();
+        }
+        if (random.nextInt(30) == 0) {
+            connection.send(FleetProtocol.learned(FleetProtocol.KIND_DIALOGUE, connection.getInstance() + "\tCook",
+                new JSONObject().put("npc", "Cook").put("stage", "config 29=0")
+                    .put("path", new JSONArray().put("[what's wrong?, can you make me a cake?]"))
+                    .put("choice", "What's wrong?").put("seen", 1).put("advanced", 1).put("delayMs", 1200),
+                connection.getInstance()));
+        }
+        if (random.nextInt(20) == 0) {
+            connection.send(FleetProtocol.learned(FleetProtocol.KIND_PRICE, "Bucket",
+                new JSONObject().put("item", "Bucket").put("price", 5 + random.nextInt(10)), connection.getInstance()));
+        }
+
+        connection.send(new JSONObject().put("type", FleetProtocol.STATUS)
+            .put("state", state).put("quest", queue.isEmpty() ? "-" : queue.get(0))
+            .put("progress", progress).put("completed", completed)
+            .put("counters", new JSONObject().put("api.walk", random.nextInt(50))));
+    }
+
+    /**
+     * Handle everything the coordinator sent since the last call
+     */
+    void receive() {
+        JSONObject message;
+        while ((message = connection.poll()) != null) {
+            handle(message);
+        }
+    }
+
+    private void handle(JSONObject message) {
+        String who = connection.getInstance();
+        switch (message.getString("type")) {
+            case FleetProtocol.WELCOME:
+                JSONArray learned = message.getJSONArray("learned");
+                int count = learned.length();
+                for (int i = 0; i < count; i++) {
+                    JSONObject entry = learned.getJSONObject(i);
+                    learnedKeys.add(entry.optString("kind") + "|" + entry.optString("key"));
+                }
+                received += count;
+                System.out.println(who + ": welcome with " + count + " learned entries");
+                break;
+            case FleetProtocol.LEARNED:
+                learnedKeys.add(message.optString("kind") + "|" + message.optString("key"));
+                received++;
+                System.out.println(who + ": learned " + message.optString("kind") + " " + message.optString("key")
+                    + " from " + message.optString("origin"));
+                break;
+            case FleetProtocol.COMMAND:
+                String action = message.getString("action");
+                System.out.println(who + ": command " + message);
+                if (FleetProtocol.ASSIGN.equals(action)) {
+                    queue = new ArrayList<>();
+                    JSONArray quests = message.getJSONArray("quests");
+                    for (int i = 0; i < quests.length(); i++) queue.add(quests.getString(i));
+                    state = queue.isEmpty() ? "IDLE" : "EXECUTING";
+                } else if (FleetProtocol.PAUSE.equals(action) && "EXECUTING".equals(state)) {
+                    state = "PAUSED";
+                } else if (FleetProtocol.RESUME.equals(action) && "PAUSED".equals(state)) {
+                    state = "EXECUTING";
+                } else if (FleetProtocol.STOP.equals(action)) {
+                    queue.clear();
+                    state = "IDLE";
+                }
+                break;
+            default:
+                System.out.println(who + ": unexpected " + message);
+        }
+    }
+
+    private void shareRandomRoute() {
+        int x = 3200 + random.nextInt(40);
+        int y = 3200 + random.nextInt(40);
+        JSONArray tiles = new JSONArray();
+        for (int i = 0; i < 4; i++) {
+            tiles.put(new JSONArray().put(x + i * 10).put(y + i * 8).put(0));
+        }
+        long durationMs = 20000 + random.nextInt(10000);
+        String key = x + "," + y + ",0>" + (x + 30) + "," + (y + 24) + ",0@" + durationMs;
+        connection.send(FleetProtocol.learned(FleetProtocol.KIND_ROUTE, key,
+            new JSONObject().put("tiles", tiles).put("durationMs", durationMs), connection.getInstance()));
+    }
+
+    // For FleetCoordinatorTest
+    FleetConnection getConnection() { return connection; }
+    String getState() { return state; }
+    List<String> getQueue() { return queue; }
+    int getReceived() { return received; }
+    List<String> getLearnedKeys() { return learnedKeys; }
+}
@@ -0,0 +1,317 @@
+package quest.gui;
+
+import quest.metrics.ExecutorStatus;
+import quest.metrics.LatencyHistogram;
+import quest.metrics.QuestMetrics;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.TitledBorder;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard Panel - live view of what the script thread is doing and how fast.
+ * Samples QuestMetrics once per SAMPLE_MS on a Swing timer (and only while the tab is showing):
+ * current node and time in it, loop time over the last two minutes, time split by phase over the
+ * last minute, API calls per loop, log backlogs, heap, and the most expensive nodes.
+ * Everything shown is a delta between two samples, so the numbers reflect now, not the whole run.
+ */
+public class DashboardPanel extends JPanel {
+
+    private static final int SAMPLE_MS = 1000;
+    // Samples kept for the loop chart and the phase window
+    private static final int CHART_SAMPLES = 120;
+    private static final int PHASE_WINDOW = 60;
+    private static final int TOP_NODES = 30;
+    private static final Color ACCENT = new Color(100, 150, 255);
+    // A node this long without returning is probably stuck
+    private static final long STUCK_MS = 60_000;
+
+    private final Timer timer;
+
+    private final JLabel stateLabel = valueLabel();
+    private final JLabel nodeLabel = valueLabel();
+    private final JLabel nodeTimeLabel = valueLabel();
+    private final JLabel loopLabel = valueLabel();
+    private final JLabel apiLabel = valueLabel();
+    private final JLabel logQueueLabel = valueLabel();
+    private final JLabel heapLabel = valueLabel();
+
+    private final LoopChart loopChart = new LoopChart();
+    private final JProgressBar[] phaseBars = new JProgressBar[QuestMetrics.Phase.values().length];
+    private final NodeTableModel nodeTable = new NodeTableModel();
+
+    // Previous sample, for deltas
+    private long lastLoopCount = -1;
+    private long lastLoopSum = 0;
+    private long lastApiCalls = 0;
+    private final long[] lastPhaseMs = new long[QuestMetrics.Phase.values().length];
+    // Per-sample phase deltas, oldest overwritten first
+    private final long[][] phaseWindow = new long[PHASE_WINDOW][QuestMetrics.Phase.values().length];
+    private int phaseWindowNext = 0;
+
+    public DashboardPanel() {
+        super(new BorderLayout(8, 8));
+        setBackground(UIManager.getColor("Panel.background"));
+        setBorder(new EmptyBorder(10, 10, 10, 10));
+
+        JPanel top = new JPanel(new GridLayout(1, 2, 8, 0));
+        top.setOpaque(false);
+        top.add(createStatusPanel());
+        top.add(createPhasePanel());
+
+        JPanel center = new JPanel(new GridLayout(2, 1, 0, 8));
+        center.setOpaque(false);
+        loopChart.setBorder(titled("Loop time (ms, mean per second)"));
+        center.add(loopChart);
+        JTable table = new JTable(nodeTable);
+        table.setFont(new Font("Consolas", Font.PLAIN, 10));
+        table.getColumnModel().getColumn(0).setPreferredWidth(220);
+        JScrollPane tableScroll = new JScrollPane(table);
+        tableScroll.setBorder(titled("Node latency (ms, slowest by total time)"));
+        center.add(tableScroll);
+
+        add(top, BorderLayout.NORTH);
+        add(center, BorderLayout.CENTER);
+
+        timer = new Timer(SAMPLE_MS, e -> {
+            if (isShowing()) {
+                sample();
+            }
+        });
+        timer.start();
+    }
+
+    /**
+     * Stop sampling; called when the window is disposed
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    private JPanel createStatusPanel() {
+        JPanel panel = new JPanel(new GridLayout(0, 2, 6, 2));
+        panel.setBorder(titled("Now"));
+        addRow(panel, "State", stateLabel);
+        addRow(panel, "Node", nodeLabel);
+        addRow(panel, "Time in node", nodeTimeLabel);
+        addRow(panel, "Loop (last s)", loopLabel);
+        addRow(panel, "API calls / loop", apiLabel);
+        addRow(panel, "Log queues", logQueueLabel);
+        addRow(panel, "Heap", heapLabel);
+        return panel;
+    }
+
+    private JPanel createPhasePanel() {
+        JPanel panel = new JPanel(new GridLayout(0, 2, 6, 2));
+        panel.setBorder(titled("Time by phase (last minute)"));
+        QuestMetrics.Phase[] phases = QuestMetrics.Phase.values();
+        for (int i = 0; i < phases.length; i++) {
+            phaseBars[i] = new JProgressBar(0, 100);
+            phaseBars[i].setStringPainted(true);
+            phaseBars[i].setString("0%");
+            addRow(panel, phases[i].name().toLowerCase().replace('_', ' '), phaseBars[i]);
+        }
+        return panel;
+    }
+
+    /**
+     * Read QuestMetrics once and refresh every widget (EDT)
+     */
+    private void sample() {
+        QuestMetrics metrics = QuestMetrics.getInstance();
+        long now = System.currentTimeMillis();
+
+        ExecutorStatus status = metrics.getStatus();
+        stateLabel.setText(status.getQuestName() != null
+            ? status.getState() + " - " + status.getQuestName() + " (" + status.getProgress() + "%)"
+            : status.getState());
+
+        String nodeId = metrics.getCurrentNodeId();
+        nodeLabel.setText(nodeId != null ? nodeId : "-");
+        long inNode = nodeId != null ? now - metrics.getCurrentNodeSince() : 0;
+        nodeTimeLabel.setText(nodeId != null ? formatDuration(inNode) : "-");
+        nodeTimeLabel.setForeground(inNode > STUCK_MS ? Color.RED : UIManager.getColor("Label.foreground"));
+
+        // Loop time and API calls since the last sample
+        LatencyHistogram loops = metrics.getLoopTimes();
+        long loopCount = loops.getCount();
+        long loopSum = loops.getSum();
+        long apiCalls = 0;
+        for (Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+            if (counter.getKey().startsWith("api.")) {
+                apiCalls += counter.getValue();
+            }
+        }
+        if (lastLoopCount >= 0 && loopCount >= lastLoopCount) {
+            long loopsDone = loopCount - lastLoopCount;
+            double meanMs = loopsDone > 0 ? (loopSum - lastLoopSum) / (double) loopsDone : 0;
+            loopChart.add(meanMs);
+            loopLabel.setText(String.format("%d loops, mean %.0f ms, p95 %d ms (run)", loopsDone, meanMs,
+                loops.getPercentile(95)));
+            apiLabel.setText(loopsDone > 0 ? String.format("%.1f", Math.max(0, apiCalls - lastApiCalls) / (double) loopsDone) : "-");
+        }
+        lastLoopCount = loopCount;
+        lastLoopSum = loopSum;
+        lastApiCalls = apiCalls;
+
+        samplePhases(metrics);
+
+        logQueueLabel.setText("GUI " + metrics.getGauge(QuestMetrics.GAUGE_GUI_LOG_BACKLOG)
+            + " pending, " + metrics.getGauge(QuestMetrics.GAUGE_GUI_LOG_DROPPED) + " dropped; executor "
+            + metrics.getGauge(QuestMetrics.GAUGE_EXECUTOR_LOG_LINES) + " lines");
+        Runtime runtime = Runtime.getRuntime();
+        long usedMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        heapLabel.setText(usedMb + " / " + runtime.maxMemory() / (1024 * 1024) + " MB");
+
+        nodeTable.update(metrics.getNodeStats());
+    }
+
+    private void samplePhases(QuestMetrics metrics) {
+        QuestMetrics.Phase[] phases = QuestMetrics.Phase.values();
+        long[] slot = phaseWindow[phaseWindowNext];
+        phaseWindowNext = (phaseWindowNext + 1) % PHASE_WINDOW;
+        for (int i = 0; i < phases.length; i++) {
+            long ms = metrics.getPhaseMillis(phases[i]);
+            // A metrics reset makes the totals go backwards - treat that sample as empty
+            slot[i] = Math.max(0, ms - lastPhaseMs[i]);
+            lastPhaseMs[i] = ms;
+        }
+        long[] totals = new long[phases.length];
+        long windowMs = 0;
+        for (long[] sample : phaseWindow) {
+            for (int i = 0; i < phases.length; i++) {
+                totals[i] += sample[i];
+                windowMs += sample[i];
+            }
+        }
+        for (int i = 0; i < phases.length; i++) {
+            int percent = windowMs > 0 ? (int) Math.round(totals[i] * 100.0 / windowMs) : 0;
+            phaseBars[i].setValue(percent);
+            phaseBars[i].setString(percent + "% (" + totals[i] / 1000 + "s)");
+        }
+    }
+
+    private static String formatDuration(long ms) {
+        long seconds = ms / 1000;
+        return seconds >= 60 ? (seconds / 60) + "m " + (seconds % 60) + "s" : seconds + "s";
+    }
+
+    private static JLabel valueLabel() {
+        JLabel label = new JLabel("-");
+        label.setFont(new Font("Consolas", Font.PLAIN, 11));
+        return label;
+    }
+
+    private static void addRow(JPanel panel, String name, JComponent value) {
+        JLabel label = new JLabel(name);
+        label.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        panel.add(label);
+        panel.add(value);
+    }
+
+    private static TitledBorder titled(String title) {
+        return new TitledBorder(
+            BorderFactory.createLineBorder(ACCENT, 1),
+            title,
+            TitledBorder.DEFAULT_JUSTIFICATION,
+            TitledBorder.DEFAULT_POSITION,
+            new Font("Segoe UI", Font.PLAIN, 10),
+            ACCENT
+        );
+    }
+
+    /**
+     * Line chart of the last CHART_SAMPLES values, scaled to the largest one shown
+     */
+    private static class LoopChart extends JComponent {
+        private final double[] values = new double[CHART_SAMPLES];
+        private int next = 0;
+        private int size = 0;
+
+        LoopChart() {
+            setPreferredSize(new Dimension(400, 110));
+        }
+
+        void add(double value) {
+            values[next] = value;
+            next = (next + 1) % CHART_SAMPLES;
+            size = Math.min(size + 1, CHART_SAMPLES);
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Insets insets = getInsets();
+            int x0 = insets.left + 4;
+            int y0 = insets.top + 4;
+            int w = getWidth() - insets.left - insets.right - 8;
+            int h = getHeight() - insets.top - insets.bottom - 8;
+            if (size < 2 || w <= 0 || h <= 0) {
+                return;
+            }
+            double max = 1;
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, values[i]);
+            }
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(ACCENT);
+            int oldest = (next - size + CHART_SAMPLES) % CHART_SAMPLES;
+            int prevX = -1;
+            int prevY = -1;
+            for (int i = 0; i < size; i++) {
+                double value = values[(oldest + i) % CHART_SAMPLES];
+                int x = x0 + (int) ((long) i * w / (CHART_SAMPLES - 1));
+                int y = y0 + h - (int) (value / max * h);
+                if (prevX >= 0) {
+                    g2.drawLine(prevX, prevY, x, y);
+                }
+                prevX = x;
+                prevY = y;
+            }
+            g2.setColor(UIManager.getColor("Label.foreground"));
+            g2.setFont(new Font("Consolas", Font.PLAIN, 10));
+            g2.drawString(String.format("max %.0f ms", max), x0, y0 + 10);
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Top nodes by total time; rows are copied out of QuestMetrics on each sample
+     */
+    private static class NodeTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Node", "Calls", "Mean", "p95", "Max", "Retry", "Fail"};
+        private List<Object[]> rows = new ArrayList<>();
+
+        void update(List<QuestMetrics.NodeStats> stats) {
+            List<Object[]> next = new ArrayList<>();
+            for (int i = 0; i < Math.min(TOP_NODES, stats.size()); i++) {
+                QuestMetrics.NodeStats node = stats.get(i);
+                LatencyHistogram latency = node.getLatency();
+                next.add(new Object[] {
+                    node.getKey(), latency.getCount(), Math.round(latency.getMean()),
+                    latency.getPercentile(95), latency.getMax(), node.getRetries(), node.getFailures()
+                });
+            }
+            rows = next;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() { return rows.size(); }
+
+        @Override
+        public int getColumnCount() { return COLUMNS.length; }
+
+        @Override
+        public String getColumnName(int column) { return COLUMNS[column]; }
+
+        @Override
+        public Object getValueAt(int row, int column) { return rows.get(row)[column]; }
+    }
+}
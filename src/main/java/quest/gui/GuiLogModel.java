@@ -0,0 +1,215 @@
+package quest.gui;
+
+import javax.swing.AbstractListModel;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GUI Log Model - the quest log behind the GUI's JList.
+ * Any thread can add() lines: they go into a lock-free intake queue and nothing touches Swing.
+ * The GUI drains the intake on a timer (EDT) in one batch, so the list gets one change event per
+ * tick however many lines arrived. Lines are kept in a fixed-capacity ring buffer - the oldest fall
+ * off - and the list only shows categories that pass the filter, so memory and UI cost stay flat
+ * over a long session.
+ */
+public class GuiLogModel extends AbstractListModel<GuiLogModel.Entry> {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Category {
+        QUEST("Quest"),
+        AUTOMATION("Automation"),
+        DISCOVERY("Discovery");
+
+        private final String label;
+
+        Category(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() { return label; }
+    }
+
+    /**
+     * One log line, formatted once when it is added
+     */
+    public static final class Entry {
+        private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+        private final Category category;
+        private final String text;
+
+        Entry(Category category, String message) {
+            this.category = category;
+            String prefix = category == Category.AUTOMATION ? "[AUTO] " : category == Category.DISCOVERY ? "[DISC] " : "";
+            this.text = "[" + LocalTime.now().format(TIME) + "] " + prefix + message;
+        }
+
+        // Getters
+        public Category getCategory() { return category; }
+        public String getText() { return text; }
+
+        @Override
+        public String toString() { return text; }
+    }
+
+    // Most lines moved from the intake per drain; the rest wait for the next tick
+    private static final int MAX_DRAIN = 500;
+
+    private final int capacity;
+    private final Queue<Entry> intake = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger intakeSize = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // EDT only
+    private final Ring all;
+    private final Ring visible;
+    private final Set<Category> shown = EnumSet.allOf(Category.class);
+
+    public GuiLogModel(int capacity) {
+        this.capacity = capacity;
+        this.all = new Ring(capacity);
+        this.visible = new Ring(capacity);
+    }
+
+    /**
+     * Queue a line from any thread. If the GUI has fallen a whole buffer behind,
+     * the line is dropped (and counted) rather than growing the intake.
+     */
+    public void add(Category category, String message) {
+        if (intakeSize.get() >= capacity) {
+            dropped.incrementAndGet();
+            return;
+        }
+        intakeSize.incrementAndGet();
+        intake.add(new Entry(category, message));
+    }
+
+    /**
+     * Move queued lines into the buffer (EDT). Returns how many were added to the list.
+     */
+    public int drain() {
+        int removedBefore = 0;
+        int added = 0;
+        Entry entry;
+        for (int i = 0; i < MAX_DRAIN && (entry = intake.poll()) != null; i++) {
+            intakeSize.decrementAndGet();
+            Entry evicted = all.add(entry);
+            if (evicted != null && visible.size() > 0 && visible.get(0) == evicted) {
+                visible.removeFirst();
+                if (added > 0 && visible.size() < added) {
+                    // The entry falling off was added in this batch and never reported
+                    added--;
+                } else {
+                    removedBefore++;
+                }
+            }
+            if (shown.contains(entry.getCategory())) {
+                visible.add(entry);
+                added++;
+            }
+        }
+        if (removedBefore > 0) {
+            fireIntervalRemoved(this, 0, removedBefore - 1);
+        }
+        if (added > 0) {
+            fireIntervalAdded(this, visible.size() - added, visible.size() - 1);
+        }
+        return added;
+    }
+
+    /**
+     * Show or hide a category (EDT) - rebuilds the visible list from the buffer
+     */
+    public void setShown(Category category, boolean show) {
+        if (show ? !shown.add(category) : !shown.remove(category)) {
+            return;
+        }
+        int oldSize = visible.size();
+        visible.clear();
+        for (int i = 0; i < all.size(); i++) {
+            Entry entry = all.get(i);
+            if (shown.contains(entry.getCategory())) {
+                visible.add(entry);
+            }
+        }
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        if (visible.size() > 0) {
+            fireIntervalAdded(this, 0, visible.size() - 1);
+        }
+    }
+
+    public boolean isShown(Category category) {
+        return shown.contains(category);
+    }
+
+    @Override
+    public int getSize() {
+        return visible.size();
+    }
+
+    @Override
+    public Entry getElementAt(int index) {
+        return visible.get(index);
+    }
+
+    // Getters
+    public int getPending() { return intakeSize.get(); }
+    public long getDropped() { return dropped.get(); }
+    public int getCapacity() { return capacity; }
+
+    /**
+     * Fixed-size circular array; adding to a full ring evicts the oldest entry
+     */
+    private static final class Ring {
+        private final Entry[] items;
+        private int head = 0;
+        private int size = 0;
+
+        Ring(int capacity) {
+            this.items = new Entry[capacity];
+        }
+
+        Entry add(Entry entry) {
+            Entry evicted = null;
+            if (size == items.length) {
+                evicted = removeFirst();
+            }
+            items[(head + size) % items.length] = entry;
+            size++;
+            return evicted;
+        }
+
+        Entry removeFirst() {
+            Entry first = items[head];
+            items[head] = null;
+            head = (head + 1) % items.length;
+            size--;
+            return first;
+        }
+
+        Entry get(int index) {
+            return items[(head + index) % items.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            Arrays.fill(items, null);
+            head = 0;
+            size = 0;
+        }
+    }
+}
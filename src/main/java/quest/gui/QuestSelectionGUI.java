@@ -11,13 +11,21 @@ import java.awt.event.ActionListener;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import quest.core.QuestDatabase;
+import quest.core.QuestEventLogger;
+import quest.core.ExecutorCommand;
 import quest.core.QuestExecutor;
+import quest.core.QuestQueue;
+import quest.metrics.ExecutorStatus;
+import quest.metrics.QuestMetrics;
 
 /**
  * Modern AI Quest Framework GUI
@@ -34,6 +42,7 @@ public class QuestSelectionGUI extends JFrame {
     private JLabel discoveryStatusLabel;
     private JButton recordErnestButton;
     private JButton stopRecordingButton;
+    private JButton replayRecordingButton;
     
     // Quest Execution Components
     private JComboBox<String> f2pQuestDropdown;
@@ -41,9 +50,27 @@ public class QuestSelectionGUI extends JFrame {
     private JComboBox<String> miniQuestDropdown;
     private JButton startQuestButton;
     private JButton stopQuestButton;
+    private JButton runQueueButton;
     private JLabel questStatusLabel;
     private JProgressBar questProgressBar;
-    private JTextArea questLogArea;
+    private JList<GuiLogModel.Entry> questLogList;
+    private JScrollPane questLogScroll;
+    
+    // Metrics Components
+    private JTextArea metricsArea;
+    private DashboardPanel dashboardPanel;
+    
+    // Quest log: any thread adds lines, logTimer renders them in batches (~10 per second)
+    private static final int LOG_CAPACITY = 2000;
+    private static final int LOG_DRAIN_MS = 100;
+    private final GuiLogModel logModel = new GuiLogModel(LOG_CAPACITY);
+    private Timer logTimer;
+    
+    // Polls the executor's published status so the quest panel follows the script thread
+    private static final int STATUS_POLL_MS = 250;
+    private Timer statusTimer;
+    private long lastStatusPublishedAt = 0;
+    private boolean sawExecutorBusy = false;
     
     private boolean questRunning = false;
     private boolean discoveryRunning = false;
@@ -57,47 +84,16 @@ public class QuestSelectionGUI extends JFrame {
         MEMBERS_QUESTS.add("-- Select a Members Quest --");
         MINI_QUESTS.add("-- Select a Mini-Quest --");
         
-        // Add quests from QuestDatabase
-        for (QuestDatabase.QuestInfo quest : QuestDatabase.getAllQuests().values()) {
-            // Determine quest category based on quest name/content
-            if (isMiniQuest(quest.getDisplayName())) {
-                MINI_QUESTS.add(quest.getDisplayName());
-            } else if (isMembersQuest(quest.getDisplayName())) {
-                MEMBERS_QUESTS.add(quest.getDisplayName());
-            } else {
-                F2P_QUESTS.add(quest.getDisplayName());
-            }
-        }
-    }
-    
-    private static boolean isMembersQuest(String questName) {
-        // Define members quests - add more as needed
-        String[] membersQuests = {
-            "Dragon Slayer", "Dragon Slayer - Lozar's Map Piece (debug)", 
-            "Dragon Slayer - Boat Obtaining (debug)", "Dragon Slayer - Elvarg Fight (debug)"
-        };
-        
-        for (String membersQuest : membersQuests) {
-            if (questName.contains(membersQuest)) {
-                return true;
+        // Add quests from QuestDatabase, grouped by the type declared with each quest
+        List<QuestDatabase.QuestInfo> quests = new ArrayList<>(QuestDatabase.getAllQuests().values());
+        quests.sort(Comparator.comparing(QuestDatabase.QuestInfo::getDisplayName));
+        for (QuestDatabase.QuestInfo quest : quests) {
+            switch (quest.getType()) {
+                case MINIQUEST: MINI_QUESTS.add(quest.getDisplayName()); break;
+                case MEMBERS: MEMBERS_QUESTS.add(quest.getDisplayName()); break;
+                default: F2P_QUESTS.add(quest.getDisplayName()); break;
             }
         }
-        return false;
-    }
-    
-    private static boolean isMiniQuest(String questName) {
-        // Define mini-quests - add more as needed
-        String[] miniQuests = {
-            "Mini-Quest", "Tutorial", "Tutorial Island", "Stronghold of Security",
-            "Stronghold of Player Safety", "Stronghold of Security", "Tutorial Island Quest"
-        };
-        
-        for (String miniQuest : miniQuests) {
-            if (questName.contains(miniQuest)) {
-                return true;
-            }
-        }
-        return false;
     }
     
     public interface QuestStartListener {
@@ -107,7 +103,10 @@ public class QuestSelectionGUI extends JFrame {
         void onDiscoveryStop();
     }
     
-    public static QuestSelectionGUI getInstance() {
+    /**
+     * The script's window - it drives the default QuestEngine
+     */
+    public static synchronized QuestSelectionGUI getInstance() {
         if (instance == null) {
             instance = new QuestSelectionGUI();
         }
@@ -115,6 +114,8 @@ public class QuestSelectionGUI extends JFrame {
     }
     
     private QuestSelectionGUI() {
+        QuestMetrics.getInstance().registerGauge(QuestMetrics.GAUGE_GUI_LOG_BACKLOG, logModel::getPending);
+        QuestMetrics.getInstance().registerGauge(QuestMetrics.GAUGE_GUI_LOG_DROPPED, () -> (int) Math.min(Integer.MAX_VALUE, logModel.getDropped()));
         try {
             initializeGUI();
         } catch (Exception e) {
@@ -165,6 +166,57 @@ public class QuestSelectionGUI extends JFrame {
         
         add(mainContainer);
         setLocationRelativeTo(null);
+        
+        statusTimer = new Timer(STATUS_POLL_MS, e -> applyExecutorStatus());
+        statusTimer.start();
+        logTimer = new Timer(LOG_DRAIN_MS, e -> drainLog());
+        logTimer.start();
+    }
+    
+    /**
+     * Render log lines queued since the last tick (EDT, via logTimer). Follows the newest line
+     * only while the list is already scrolled to the bottom, so reading older lines isn't interrupted.
+     */
+    private void drainLog() {
+        if (questLogList == null) {
+            return;
+        }
+        JScrollBar bar = questLogScroll.getVerticalScrollBar();
+        boolean atBottom = bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - questLogList.getFixedCellHeight();
+        if (logModel.drain() > 0 && atBottom) {
+            questLogList.ensureIndexIsVisible(logModel.getSize() - 1);
+        }
+    }
+    
+    /**
+     * Reflect the latest published ExecutorStatus in the quest panel (EDT, via statusTimer)
+     */
+    private void applyExecutorStatus() {
+        ExecutorStatus status = QuestMetrics.getInstance().getStatus();
+        if (status.getPublishedAt() == lastStatusPublishedAt) {
+            return;
+        }
+        lastStatusPublishedAt = status.getPublishedAt();
+        
+        QuestExecutor.ExecutorState state = QuestExecutor.ExecutorState.valueOf(status.getState());
+        boolean busy = status.isQueueActive() || (state != QuestExecutor.ExecutorState.IDLE
+            && state != QuestExecutor.ExecutorState.COMPLETED && state != QuestExecutor.ExecutorState.ERROR);
+        if (busy) {
+            sawExecutorBusy = true;
+            if (status.getQuestName() != null) {
+                String prefix = state == QuestExecutor.ExecutorState.PAUSED ? "PAUSED: " : "RUNNING: ";
+                questStatusLabel.setText(prefix + status.getQuestName());
+                questProgressBar.setValue(status.getProgress());
+                questProgressBar.setString(status.getProgress() + "% - " + (status.getStep() != null ? status.getStep() : state.name()));
+            }
+        } else if (sawExecutorBusy) {
+            // The executor finished or stopped on its own (or a stop we sent has been applied)
+            sawExecutorBusy = false;
+            if (questRunning) {
+                resetQuestUI();
+                questStatusLabel.setText(state == QuestExecutor.ExecutorState.ERROR ? "Quest failed" : "Quest finished");
+            }
+        }
     }
     
     private JPanel createHeaderPanel() {
@@ -216,9 +268,66 @@ public class QuestSelectionGUI extends JFrame {
         JPanel questPanel = createQuestPanel();
         tabbedPane.addTab("Quest Automation", questPanel);
         
+        // Metrics Tab
+        JPanel metricsPanel = createMetricsPanel();
+        tabbedPane.addTab("Metrics", metricsPanel);
+        
+        // Dashboard Tab - live sampling while it's showing
+        dashboardPanel = new DashboardPanel();
+        tabbedPane.addTab("Dashboard", dashboardPanel);
+        
         return tabbedPane;
     }
     
+    private JPanel createMetricsPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(UIManager.getColor("Panel.background"));
+        panel.setBorder(new EmptyBorder(15, 15, 15, 15));
+        
+        metricsArea = new JTextArea(14, 60);
+        metricsArea.setFont(new Font("Consolas", Font.PLAIN, 10));
+        metricsArea.setEditable(false);
+        metricsArea.setText("Press REFRESH to see where the current run spends its time");
+        
+        JScrollPane scrollPane = new JScrollPane(metricsArea);
+        scrollPane.setBorder(new TitledBorder(
+            BorderFactory.createLineBorder(new Color(100, 150, 255), 1),
+            "Node Timing",
+            TitledBorder.DEFAULT_JUSTIFICATION,
+            TitledBorder.DEFAULT_POSITION,
+            new Font("Segoe UI", Font.PLAIN, 10),
+            new Color(100, 150, 255)
+        ));
+        
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 5));
+        buttonPanel.setBackground(UIManager.getColor("Panel.background"));
+        
+        JButton refreshButton = new JButton("REFRESH");
+        refreshButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        refreshButton.setFocusPainted(false);
+        refreshButton.addActionListener(e -> refreshMetrics());
+        
+        JButton resetButton = new JButton("RESET");
+        resetButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        resetButton.setFocusPainted(false);
+        resetButton.addActionListener(e -> {
+            QuestMetrics.getInstance().reset();
+            refreshMetrics();
+        });
+        
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(resetButton);
+        
+        panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+        return panel;
+    }
+    
+    private void refreshMetrics() {
+        metricsArea.setText(QuestMetrics.getInstance().formatReport(25));
+        metricsArea.setCaretPosition(0);
+    }
+    
     private JPanel createDiscoveryPanel() {
         JPanel panel = new JPanel(new BorderLayout(10, 10));
         panel.setBackground(UIManager.getColor("Panel.background"));
@@ -279,6 +388,16 @@ public class QuestSelectionGUI extends JFrame {
         });
         controlPanel.add(recordErnestButton);
 
+        // Replay a recording directly as a macro
+        replayRecordingButton = new JButton("REPLAY RECORDING...");
+        replayRecordingButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        replayRecordingButton.setForeground(UIManager.getColor("Button.foreground"));
+        replayRecordingButton.setBackground(UIManager.getColor("Button.background"));
+        replayRecordingButton.setFocusPainted(false);
+        replayRecordingButton.setPreferredSize(new Dimension(200, 32));
+        replayRecordingButton.addActionListener(e -> replayRecording());
+        controlPanel.add(replayRecordingButton);
+
         // Remove the redundant STOP RECORDING button - the checkbox handles start/stop
         
         // Status
@@ -396,11 +515,22 @@ public class QuestSelectionGUI extends JFrame {
         stopQuestButton.setPreferredSize(new Dimension(120, 35));
         stopQuestButton.setEnabled(false);
         
+        runQueueButton = new JButton("RUN ALL F2P");
+        runQueueButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        runQueueButton.setForeground(UIManager.getColor("Button.foreground"));
+        runQueueButton.setBackground(UIManager.getColor("Button.background"));
+        runQueueButton.setFocusPainted(false);
+        runQueueButton.setBorder(BorderFactory.createRaisedBevelBorder());
+        runQueueButton.setPreferredSize(new Dimension(120, 35));
+        runQueueButton.setToolTipText("Run every Free to Play quest back-to-back, skipping failed quests");
+        
         startQuestButton.addActionListener(e -> startSelectedQuest());
         stopQuestButton.addActionListener(e -> stopSelectedQuest());
+        runQueueButton.addActionListener(e -> startF2PQueue());
         
         buttonPanel.add(startQuestButton);
         buttonPanel.add(stopQuestButton);
+        buttonPanel.add(runQueueButton);
         
         // Progress
         JPanel progressPanel = new JPanel(new BorderLayout(5, 5));
@@ -421,14 +551,21 @@ public class QuestSelectionGUI extends JFrame {
         progressPanel.add(questStatusLabel, BorderLayout.SOUTH);
         
         // Log Area
-        questLogArea = new JTextArea(6, 40);
-        questLogArea.setFont(new Font("Consolas", Font.PLAIN, 10));
-        questLogArea.setBackground(UIManager.getColor("TextArea.background"));
-        questLogArea.setForeground(UIManager.getColor("TextArea.foreground"));
-        questLogArea.setEditable(false);
-        questLogArea.setBorder(new EmptyBorder(5, 5, 5, 5));
-        
-        JScrollPane scrollPane = new JScrollPane(questLogArea);
+        // Log List - only the visible rows are rendered, so a full buffer costs the same as an empty one
+        questLogList = new JList<>(logModel);
+        questLogList.setFont(new Font("Consolas", Font.PLAIN, 10));
+        questLogList.setBackground(UIManager.getColor("TextArea.background"));
+        questLogList.setForeground(UIManager.getColor("TextArea.foreground"));
+        // Fixed cell sizes so the list never measures every row
+        FontMetrics logFont = questLogList.getFontMetrics(questLogList.getFont());
+        questLogList.setFixedCellHeight(logFont.getHeight() + 1);
+        questLogList.setFixedCellWidth(logFont.charWidth('m') * 160);
+        questLogList.setVisibleRowCount(6);
+        questLogList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        questLogList.setBorder(new EmptyBorder(5, 5, 5, 5));
+        
+        JScrollPane scrollPane = new JScrollPane(questLogList);
+        questLogScroll = scrollPane;
         scrollPane.setBorder(new TitledBorder(
             BorderFactory.createLineBorder(new Color(100, 150, 255), 1),
             "Quest Log",
@@ -447,6 +584,7 @@ public class QuestSelectionGUI extends JFrame {
         bottomPanel.setBackground(new Color(35, 35, 35));
         bottomPanel.add(progressPanel, BorderLayout.NORTH);
         bottomPanel.add(scrollPane, BorderLayout.CENTER);
+        bottomPanel.add(createLogFilterPanel(), BorderLayout.SOUTH);
         
         panel.remove(progressPanel);
         panel.add(bottomPanel, BorderLayout.SOUTH);
@@ -527,6 +665,7 @@ public class QuestSelectionGUI extends JFrame {
             questRunning = true;
             startQuestButton.setEnabled(false);
             stopQuestButton.setEnabled(true);
+            runQueueButton.setEnabled(false);
             f2pQuestDropdown.setEnabled(false);
             membersQuestDropdown.setEnabled(false);
             miniQuestDropdown.setEnabled(false);
@@ -537,24 +676,26 @@ public class QuestSelectionGUI extends JFrame {
             
             updateQuestLog("Starting quest: " + selectedQuest);
             
-            // Use QuestExecutor to start the actual quest script
+            // The script thread starts the quest; preparation and game calls stay off the EDT
             if (questExecutor != null) {
                 String questId = findQuestIdByDisplayName(selectedQuest);
                 if (questId != null) {
-                    boolean success = questExecutor.startQuest(questId);
-                    if (success) {
-                        updateQuestLog("Quest started successfully!");
-                        questStatusLabel.setText("RUNNING: " + selectedQuest);
-                        questProgressBar.setString("Quest Active");
-                        
-                        // Also notify the listener if needed for additional logging
-                        if (questStartListener != null) {
-                            questStartListener.onQuestStart(selectedQuest);
+                    String questName = selectedQuest;
+                    questExecutor.submit(ExecutorCommand.start(questId).onDone(success -> SwingUtilities.invokeLater(() -> {
+                        if (success) {
+                            updateQuestLog("Quest started successfully!");
+                            questStatusLabel.setText("RUNNING: " + questName);
+                            questProgressBar.setString("Quest Active");
+                            
+                            // Also notify the listener if needed for additional logging
+                            if (questStartListener != null) {
+                                questStartListener.onQuestStart(questName);
+                            }
+                        } else {
+                            updateQuestLog("Failed to start quest");
+                            resetQuestUI();
                         }
-                    } else {
-                        updateQuestLog("Failed to start quest");
-                        resetQuestUI();
-                    }
+                    })));
                 } else {
                     updateQuestLog("Quest not found in database");
                     resetQuestUI();
@@ -566,10 +707,41 @@ public class QuestSelectionGUI extends JFrame {
         }
     }
     
+    /**
+     * Queue every F2P quest in the dropdown; the executor runs them back-to-back
+     */
+    private void startF2PQueue() {
+        if (questRunning || questExecutor == null) {
+            return;
+        }
+        
+        List<String> questIds = new ArrayList<>();
+        for (int i = 0; i < f2pQuestDropdown.getItemCount(); i++) {
+            String questId = findQuestIdByDisplayName(f2pQuestDropdown.getItemAt(i));
+            if (questId != null) {
+                questIds.add(questId);
+            }
+        }
+        
+        runQueueButton.setEnabled(false);
+        questExecutor.submit(ExecutorCommand.enqueue(questIds, false, QuestQueue.FailurePolicy.SKIP_QUEST)
+            .onDone(success -> SwingUtilities.invokeLater(() -> {
+                if (success) {
+                    setQuestRunning(true);
+                    questStatusLabel.setText("RUNNING QUEUE: " + questIds.size() + " quests");
+                    updateQuestLog("Queued " + questIds.size() + " F2P quests");
+                } else {
+                    runQueueButton.setEnabled(true);
+                    updateQuestLog("Failed to start quest queue");
+                }
+            })));
+    }
+    
     private void resetQuestUI() {
         questRunning = false;
         startQuestButton.setEnabled(true);
         stopQuestButton.setEnabled(false);
+        runQueueButton.setEnabled(true);
         f2pQuestDropdown.setEnabled(true);
         membersQuestDropdown.setEnabled(true);
         miniQuestDropdown.setEnabled(true);
@@ -583,8 +755,8 @@ public class QuestSelectionGUI extends JFrame {
             questRunning = false;
             updateQuestLog("Stopping quest...");
             
-            if (questExecutor != null && questExecutor.isActive()) {
-                questExecutor.stopQuest();
+            if (questExecutor != null) {
+                questExecutor.submit(ExecutorCommand.stop());
             }
             
             if (questStartListener != null) {
@@ -600,6 +772,7 @@ public class QuestSelectionGUI extends JFrame {
             questRunning = false;
             startQuestButton.setEnabled(true);
             stopQuestButton.setEnabled(false);
+            runQueueButton.setEnabled(true);
             f2pQuestDropdown.setEnabled(true);
             membersQuestDropdown.setEnabled(true);
             miniQuestDropdown.setEnabled(true);
@@ -609,13 +782,30 @@ public class QuestSelectionGUI extends JFrame {
         });
     }
     
+    /**
+     * Category checkboxes under the quest log
+     */
+    private JPanel createLogFilterPanel() {
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 0));
+        filterPanel.setOpaque(false);
+        for (GuiLogModel.Category category : GuiLogModel.Category.values()) {
+            JCheckBox box = new JCheckBox(category.toString(), logModel.isShown(category));
+            box.setFont(new Font("Segoe UI", Font.PLAIN, 10));
+            box.setOpaque(false);
+            box.addActionListener(e -> {
+                logModel.setShown(category, box.isSelected());
+                if (logModel.getSize() > 0) {
+                    questLogList.ensureIndexIsVisible(logModel.getSize() - 1);
+                }
+            });
+            filterPanel.add(box);
+        }
+        return filterPanel;
+    }
+    
+    // Safe from any thread - the line is rendered on the next logTimer tick
     private void updateQuestLog(String message) {
-        SwingUtilities.invokeLater(() -> {
-            String timestamp = java.time.LocalTime.now().format(
-                java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss"));
-            questLogArea.append("[" + timestamp + "] " + message + "\n");
-            questLogArea.setCaretPosition(questLogArea.getDocument().getLength());
-        });
+        logModel.add(GuiLogModel.Category.QUEST, message);
     }
     
     private void startQuest() {
@@ -639,14 +829,16 @@ public class QuestSelectionGUI extends JFrame {
                 String questId = findQuestIdByDisplayName(selectedQuest);
                 if (questId != null) {
                     addLogMessage("Starting quest execution: " + selectedQuest);
-                    boolean success = questExecutor.startQuest(questId);
-                    if (success) {
-                        setQuestRunning(true);
-                        addLogMessage("Quest started successfully: " + selectedQuest);
-                    } else {
-                        addLogMessage("Failed to start quest: " + selectedQuest);
-                        setQuestFailed(selectedQuest, "Initialization failed");
-                    }
+                    String questName = selectedQuest;
+                    questExecutor.submit(ExecutorCommand.start(questId).onDone(success -> {
+                        if (success) {
+                            setQuestRunning(true);
+                            addLogMessage("Quest started successfully: " + questName);
+                        } else {
+                            addLogMessage("Failed to start quest: " + questName);
+                            setQuestFailed(questName, "Initialization failed");
+                        }
+                    }));
                     return;
                 }
             }
@@ -657,18 +849,39 @@ public class QuestSelectionGUI extends JFrame {
     }
     
     private String findQuestIdByDisplayName(String displayName) {
-        for (QuestDatabase.QuestInfo quest : QuestDatabase.getAllQuests().values()) {
-            if (quest.getDisplayName().equals(displayName)) {
-                return quest.getQuestId();
-            }
+        return QuestDatabase.findQuestId(displayName);
+    }
+    
+    /**
+     * Pick a recorded log or journal and replay it (see ReplayTree)
+     */
+    private void replayRecording() {
+        if (questExecutor == null) {
+            addLogMessage("Replay needs the quest executor");
+            return;
+        }
+        JFileChooser chooser = new JFileChooser(QuestEventLogger.getLogDirectory());
+        chooser.setFileFilter(new FileNameExtensionFilter("Quest recordings (*.log, *.qrj)", "log", "qrj"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
-        return null;
+        File recording = chooser.getSelectedFile();
+        addLogMessage("Replaying recording: " + recording.getName());
+        questExecutor.submit(ExecutorCommand.replay(recording).onDone(success -> {
+            if (success) {
+                setQuestRunning(true);
+                addLogMessage("Replay started: " + recording.getName());
+            } else {
+                addLogMessage("Failed to start replay: " + recording.getName());
+                setQuestFailed(recording.getName(), "Recording could not be replayed");
+            }
+        }));
     }
     
     private void stopQuest() {
         if (questExecutor != null && questExecutor.isActive()) {
             addLogMessage("Stopping quest execution...");
-            questExecutor.stopQuest();
+            questExecutor.submit(ExecutorCommand.stop());
             setQuestRunning(false);
         }
         
@@ -699,6 +912,7 @@ public class QuestSelectionGUI extends JFrame {
             if (running) {
                 startQuestButton.setEnabled(false);
                 stopQuestButton.setEnabled(true);
+                runQueueButton.setEnabled(false);
                 f2pQuestDropdown.setEnabled(false);
                 membersQuestDropdown.setEnabled(false);
                 miniQuestDropdown.setEnabled(false);
@@ -721,6 +935,7 @@ public class QuestSelectionGUI extends JFrame {
             } else {
                 startQuestButton.setEnabled(true);
                 stopQuestButton.setEnabled(false);
+                runQueueButton.setEnabled(true);
                 f2pQuestDropdown.setEnabled(true);
                 membersQuestDropdown.setEnabled(true);
                 miniQuestDropdown.setEnabled(true);
@@ -735,6 +950,7 @@ public class QuestSelectionGUI extends JFrame {
             questRunning = false;
             startQuestButton.setEnabled(true);
             stopQuestButton.setEnabled(false);
+            runQueueButton.setEnabled(true);
             f2pQuestDropdown.setEnabled(true);
             membersQuestDropdown.setEnabled(true);
             miniQuestDropdown.setEnabled(true);
@@ -751,6 +967,7 @@ public class QuestSelectionGUI extends JFrame {
             questRunning = false;
             startQuestButton.setEnabled(true);
             stopQuestButton.setEnabled(false);
+            runQueueButton.setEnabled(true);
             f2pQuestDropdown.setEnabled(true);
             membersQuestDropdown.setEnabled(true);
             miniQuestDropdown.setEnabled(true);
@@ -790,7 +1007,7 @@ public class QuestSelectionGUI extends JFrame {
     }
     
     public void appendAutomationLog(String message) {
-        updateQuestLog("[AUTO] " + message);
+        logModel.add(GuiLogModel.Category.AUTOMATION, message);
     }
     
     public void appendLog(String message) {
@@ -798,11 +1015,25 @@ public class QuestSelectionGUI extends JFrame {
     }
     
     public void appendDiscoveryLog(String message) {
-        updateQuestLog("[DISC] " + message);
+        logModel.add(GuiLogModel.Category.DISCOVERY, message);
     }
     
     // Additional methods for main script integration
     public void setMainScript(Object script) {
         updateQuestLog("Main script connected");
     }
+    
+    @Override
+    public void dispose() {
+        if (statusTimer != null) {
+            statusTimer.stop();
+        }
+        if (logTimer != null) {
+            logTimer.stop();
+        }
+        if (dashboardPanel != null) {
+            dashboardPanel.stop();
+        }
+        super.dispose();
+    }
 }
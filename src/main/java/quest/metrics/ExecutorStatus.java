@@ -0,0 +1,39 @@
+package quest.metrics;
+
+/**
+ * Executor Status - immutable snapshot of what the executor is doing.
+ * Built on the script thread once per loop and swapped in atomically, so readers on
+ * other threads (GUI, HTTP endpoint) never touch the executor itself.
+ */
+public final class ExecutorStatus {
+
+    public static final ExecutorStatus IDLE = new ExecutorStatus("IDLE", null, null, null, 0, false, 0);
+
+    private final String state;
+    private final String questId;
+    private final String questName;
+    private final String step;
+    private final int progress;
+    private final boolean queueActive;
+    private final long publishedAt;
+
+    public ExecutorStatus(String state, String questId, String questName, String step, int progress,
+                          boolean queueActive, long publishedAt) {
+        this.state = state;
+        this.questId = questId;
+        this.questName = questName;
+        this.step = step;
+        this.progress = progress;
+        this.queueActive = queueActive;
+        this.publishedAt = publishedAt;
+    }
+
+    // Getters
+    public String getState() { return state; }
+    public String getQuestId() { return questId; }
+    public String getQuestName() { return questName; }
+    public String getStep() { return step; }
+    public int getProgress() { return progress; }
+    public boolean isQueueActive() { return queueActive; }
+    public long getPublishedAt() { return publishedAt; }
+}
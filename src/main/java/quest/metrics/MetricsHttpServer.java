@@ -0,0 +1,271 @@
+package quest.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.dreambot.api.utilities.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import quest.utils.QuestSettings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Metrics HTTP Server - optional localhost endpoint so a local scraper can watch every client on the host.
+ *   GET /metrics       Prometheus text format
+ *   GET /metrics.json  the same data as JSON
+ * Enabled with "metrics.http.enabled=true"; "metrics.http.port" is the first port tried - when several
+ * clients share a host each takes the next free port (up to PORT_ATTEMPTS), and the bound port is logged.
+ * Requests are served on one daemon thread and only read volatile snapshots and atomic counters,
+ * so the script thread never waits on a scrape.
+ */
+public class MetricsHttpServer {
+
+    private static MetricsHttpServer instance;
+
+    private static final int DEFAULT_PORT = 9464;
+    private static final int PORT_ATTEMPTS = 32;
+    private static final int TOP_NODES = 50;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private String instanceName;
+
+    private MetricsHttpServer() {
+    }
+
+    public static synchronized MetricsHttpServer getInstance() {
+        if (instance == null) {
+            instance = new MetricsHttpServer();
+        }
+        return instance;
+    }
+
+    /**
+     * Start the endpoint if the settings ask for it
+     */
+    public synchronized void startIfEnabled() {
+        if (server != null || !QuestSettings.getBoolean("metrics.http.enabled", false)) {
+            return;
+        }
+        instanceName = QuestSettings.getInstanceName();
+        int firstPort = QuestSettings.getInt("metrics.http.port", DEFAULT_PORT);
+
+        for (int port = firstPort; port < firstPort + PORT_ATTEMPTS; port++) {
+            try {
+                server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+                break;
+            } catch (BindException e) {
+                // Taken by another client on this host - try the next one
+            } catch (IOException e) {
+                Logger.log("[Metrics] Could not start HTTP endpoint: " + e.getMessage());
+                return;
+            }
+        }
+        if (server == null) {
+            Logger.log("[Metrics] No free port in " + firstPort + "-" + (firstPort + PORT_ATTEMPTS - 1));
+            return;
+        }
+
+        server.createContext("/metrics", exchange -> serve(exchange, "text/plain; version=0.0.4", this::formatPrometheus));
+        server.createContext("/metrics.json", exchange -> serve(exchange, "application/json", () -> formatJson().toString(2)));
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "quest-metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        Logger.log("[Metrics] Serving http://127.0.0.1:" + server.getAddress().getPort() + "/metrics (instance " + instanceName + ")");
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+        }
+    }
+
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    /**
+     * Answer with the formatted body, or a 500 if formatting throws - the endpoint keeps serving either way
+     */
+    private static void serve(HttpExchange exchange, String contentType, Supplier<String> body) throws IOException {
+        try {
+            String text;
+            try {
+                text = body.get();
+            } catch (RuntimeException e) {
+                Logger.log("[Metrics] Could not format " + exchange.getRequestURI() + ": " + e);
+                respond(exchange, 500, "text/plain", "metrics formatting failed: " + e + "\n");
+                return;
+            }
+            respond(exchange, 200, contentType, text);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int code, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // ---- JSON ----
+
+    JSONObject formatJson() {
+        QuestMetrics metrics = QuestMetrics.getInstance();
+        ExecutorStatus status = metrics.getStatus();
+
+        JSONObject json = new JSONObject();
+        json.put("instance", instanceName);
+        json.put("uptimeMs", metrics.getUptimeMillis());
+
+        JSONObject executor = new JSONObject();
+        executor.put("state", status.getState());
+        executor.put("questId", status.getQuestId() != null ? status.getQuestId() : JSONObject.NULL);
+        executor.put("questName", status.getQuestName() != null ? status.getQuestName() : JSONObject.NULL);
+        executor.put("step", status.getStep() != null ? status.getStep() : JSONObject.NULL);
+        executor.put("node", metrics.getCurrentNodeId() != null ? metrics.getCurrentNodeId() : JSONObject.NULL);
+        executor.put("progress", status.getProgress());
+        executor.put("queueActive", status.isQueueActive());
+        executor.put("statusAgeMs", status.getPublishedAt() > 0 ? System.currentTimeMillis() - status.getPublishedAt() : -1);
+        json.put("executor", executor);
+
+        json.put("loopMs", histogramJson(metrics.getLoopTimes()));
+
+        JSONObject phases = new JSONObject();
+        for (QuestMetrics.Phase phase : QuestMetrics.Phase.values()) {
+            phases.put(phase.name().toLowerCase(), metrics.getPhaseMillis(phase));
+        }
+        json.put("phaseMs", phases);
+        json.put("counters", new JSONObject(metrics.getCounters()));
+        json.put("gauges", new JSONObject(metrics.getGauges()));
+
+        JSONObject trees = new JSONObject();
+        for (Map.Entry<String, LatencyHistogram> tree : metrics.getTreeHistograms().entrySet()) {
+            trees.put(tree.getKey(), histogramJson(tree.getValue()));
+        }
+        json.put("treeStepMs", trees);
+
+        JSONArray nodes = new JSONArray();
+        List<QuestMetrics.NodeStats> stats = metrics.getNodeStats();
+        for (int i = 0; i < Math.min(TOP_NODES, stats.size()); i++) {
+            QuestMetrics.NodeStats node = stats.get(i);
+            JSONObject entry = histogramJson(node.getLatency());
+            entry.put("key", node.getKey());
+            entry.put("successes", node.getSuccesses());
+            entry.put("retries", node.getRetries());
+            entry.put("failures", node.getFailures());
+            nodes.put(entry);
+        }
+        json.put("nodeLatencyMs", nodes);
+        return json;
+    }
+
+    private static JSONObject histogramJson(LatencyHistogram histogram) {
+        JSONObject json = new JSONObject();
+        json.put("count", histogram.getCount());
+        json.put("sum", histogram.getSum());
+        json.put("p50", histogram.getPercentile(50));
+        json.put("p90", histogram.getPercentile(90));
+        json.put("p99", histogram.getPercentile(99));
+        json.put("max", histogram.getMax());
+        return json;
+    }
+
+    // ---- Prometheus ----
+
+    String formatPrometheus() {
+        QuestMetrics metrics = QuestMetrics.getInstance();
+        ExecutorStatus status = metrics.getStatus();
+        StringBuilder sb = new StringBuilder(4096);
+
+        sb.append("# TYPE quest_info gauge\n");
+        sb.append("quest_info{instance=\"").append(escape(instanceName))
+            .append("\",state=\"").append(escape(status.getState()))
+            .append("\",quest=\"").append(escape(status.getQuestId()))
+            .append("\",node=\"").append(escape(metrics.getCurrentNodeId())).append("\"} 1\n");
+        sb.append("# TYPE quest_progress_percent gauge\n");
+        sb.append("quest_progress_percent ").append(status.getProgress()).append('\n');
+        sb.append("# TYPE quest_uptime_seconds gauge\n");
+        sb.append("quest_uptime_seconds ").append(metrics.getUptimeMillis() / 1000.0).append('\n');
+
+        sb.append("# TYPE quest_loop_seconds summary\n");
+        appendSummary(sb, "quest_loop_seconds", "", metrics.getLoopTimes());
+
+        sb.append("# TYPE quest_phase_seconds_total counter\n");
+        for (QuestMetrics.Phase phase : QuestMetrics.Phase.values()) {
+            sb.append("quest_phase_seconds_total{phase=\"").append(phase.name().toLowerCase()).append("\"} ")
+                .append(metrics.getPhaseMillis(phase) / 1000.0).append('\n');
+        }
+
+        sb.append("# TYPE quest_events_total counter\n");
+        for (Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+            sb.append("quest_events_total{name=\"").append(escape(counter.getKey())).append("\"} ")
+                .append(counter.getValue()).append('\n');
+        }
+
+        sb.append("# TYPE quest_gauge gauge\n");
+        for (Map.Entry<String, Integer> gauge : metrics.getGauges().entrySet()) {
+            sb.append("quest_gauge{name=\"").append(escape(gauge.getKey())).append("\"} ")
+                .append(gauge.getValue()).append('\n');
+        }
+
+        sb.append("# TYPE quest_tree_step_seconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> tree : metrics.getTreeHistograms().entrySet()) {
+            appendSummary(sb, "quest_tree_step_seconds", "tree=\"" + escape(tree.getKey()) + "\"", tree.getValue());
+        }
+
+        List<QuestMetrics.NodeStats> stats = metrics.getNodeStats();
+        int shown = Math.min(TOP_NODES, stats.size());
+        sb.append("# TYPE quest_node_seconds summary\n");
+        for (int i = 0; i < shown; i++) {
+            appendSummary(sb, "quest_node_seconds", "node=\"" + escape(stats.get(i).getKey()) + "\"", stats.get(i).getLatency());
+        }
+        sb.append("# TYPE quest_node_outcomes_total counter\n");
+        for (int i = 0; i < shown; i++) {
+            QuestMetrics.NodeStats node = stats.get(i);
+            String label = "node=\"" + escape(node.getKey()) + "\"";
+            sb.append("quest_node_outcomes_total{").append(label).append(",outcome=\"success\"} ").append(node.getSuccesses()).append('\n');
+            sb.append("quest_node_outcomes_total{").append(label).append(",outcome=\"retry\"} ").append(node.getRetries()).append('\n');
+            sb.append("quest_node_outcomes_total{").append(label).append(",outcome=\"failure\"} ").append(node.getFailures()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void appendSummary(StringBuilder sb, String name, String labels, LatencyHistogram histogram) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (double quantile : QUANTILES) {
+            sb.append(name).append("{").append(prefix).append("quantile=\"").append(quantile).append("\"} ")
+                .append(histogram.getPercentile(quantile * 100) / 1000.0).append('\n');
+        }
+        String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        sb.append(name).append("_sum").append(braces).append(' ').append(histogram.getSum() / 1000.0).append('\n');
+        sb.append(name).append("_count").append(braces).append(' ').append(histogram.getCount()).append('\n');
+    }
+
+    private static String escape(String value) {
+        if (value == null) return "";
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
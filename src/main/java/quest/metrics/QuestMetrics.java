@@ -0,0 +1,382 @@
+package quest.metrics;
+
+import quest.core.QuestNode;
+import quest.core.QuestEngine;
+import quest.metrics.jfr.QuestJfr;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Quest Metrics - where a quest run actually spends its time.
+ * Records a latency histogram per node (keyed by tree and node id) and per tree step, retry and
+ * failure counts per node, a distribution of how many retries a node needed before it succeeded,
+ * exclusive time per phase (walking, dialogue, teleporting, banking, Grand Exchange, executor sleep)
+ * and free-form counters such as API calls. Everything is fixed-size per key and lock-free on the recording path.
+ */
+public class QuestMetrics {
+
+    public enum Phase {
+        WALKING,
+        TELEPORT,
+        DIALOGUE,
+        BANKING,
+        GRAND_EXCHANGE,
+        SLEEP
+    }
+
+    // Counter names used across the framework
+    public static final String API_WALK = "api.walk";
+    public static final String API_INTERACT = "api.interact";
+    public static final String API_DIALOGUE = "api.dialogue";
+    public static final String GE_OFFERS = "ge.offers";
+    public static final String GE_OFFERS_FILLED = "ge.offers_filled";
+    public static final String BANK_SESSIONS = "bank.sessions";
+    public static final String DIALOGUE_LEARNED = "dialogue.learned_answers";
+
+    // Gauge names
+    public static final String GAUGE_GUI_LOG_BACKLOG = "log.gui_pending";
+    public static final String GAUGE_GUI_LOG_DROPPED = "log.gui_dropped";
+    public static final String GAUGE_EXECUTOR_LOG_LINES = "log.executor_lines";
+
+    private final Map<String, NodeStats> nodes = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> trees = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final EnumMap<Phase, LongAdder> phaseNanos = new EnumMap<>(Phase.class);
+    private final LatencyHistogram loopTimes = new LatencyHistogram();
+    private final Map<String, IntSupplier> gauges = new ConcurrentHashMap<>();
+
+    // Nodes currently being timed on this thread - a node nested in another is recorded separately,
+    // the same node timed twice (tree + its own execute) only once
+    private final ThreadLocal<ArrayDeque<QuestNode>> nodeStack = ThreadLocal.withInitial(ArrayDeque::new);
+    // Open phases on this thread; a phase's time excludes the phases nested inside it
+    private final ThreadLocal<ArrayDeque<long[]>> phaseStack = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private volatile String currentTree = "none";
+    // Innermost node being executed on the script thread - readable from any thread
+    private volatile String currentNodeId = null;
+    private volatile long currentNodeSince = 0;
+    // Last executor status published by the script thread
+    private volatile ExecutorStatus status = ExecutorStatus.IDLE;
+    private volatile long startedAt = System.currentTimeMillis();
+
+    public QuestMetrics() {
+        for (Phase phase : Phase.values()) {
+            phaseNanos.put(phase, new LongAdder());
+        }
+    }
+
+    /**
+     * Instance for the current engine (see QuestEngine.current())
+     */
+    public static QuestMetrics getInstance() {
+        return QuestEngine.current().getMetrics();
+    }
+
+    // ---- Nodes and trees ----
+
+    /**
+     * Start timing a node
+     * @return a token for exitNode(), or -1 if this node is already being timed further up
+     */
+    public long enterNode(QuestNode node) {
+        ArrayDeque<QuestNode> stack = nodeStack.get();
+        if (stack.peek() == node) {
+            return -1;
+        }
+        stack.push(node);
+        currentNodeId = node.getNodeId();
+        currentNodeSince = System.currentTimeMillis();
+        QuestJfr.nodeBegin();
+        return System.nanoTime();
+    }
+
+    public void exitNode(QuestNode node, long token, QuestNode.ExecutionResult result) {
+        if (token < 0) return;
+        long elapsedMs = (System.nanoTime() - token) / 1_000_000;
+        ArrayDeque<QuestNode> stack = nodeStack.get();
+        if (stack.peek() == node) {
+            stack.pop();
+        }
+        QuestNode outer = stack.peek();
+        currentNodeId = outer != null ? outer.getNodeId() : null;
+        // Back in the outer node: time since it resumed
+        currentNodeSince = System.currentTimeMillis();
+        QuestJfr.nodeEnd(currentTree, node, result);
+        NodeStats stats = nodes.computeIfAbsent(currentTree + "/" + node.getNodeId(), NodeStats::new);
+        stats.latency.record(elapsedMs);
+        stats.record(result);
+    }
+
+    /**
+     * Time one QuestTree.execute() iteration
+     */
+    public void recordTreeStep(String treeName, long elapsedMs) {
+        trees.computeIfAbsent(treeName, k -> new LatencyHistogram()).record(elapsedMs);
+    }
+
+    public void setCurrentTree(String treeName) {
+        currentTree = treeName != null ? treeName : "none";
+    }
+
+    // ---- Phases ----
+
+    /**
+     * Open a phase; pair with endPhase() in a finally block
+     */
+    public void beginPhase(Phase phase) {
+        phaseStack.get().push(new long[] {phase.ordinal(), System.nanoTime(), 0});
+    }
+
+    public void endPhase() {
+        ArrayDeque<long[]> stack = phaseStack.get();
+        long[] frame = stack.poll();
+        if (frame == null) return;
+        long elapsed = System.nanoTime() - frame[1];
+        phaseNanos.get(Phase.values()[(int) frame[0]]).add(elapsed - frame[2]);
+        long[] parent = stack.peek();
+        if (parent != null) {
+            parent[2] += elapsed;
+        }
+    }
+
+    /**
+     * Time spent outside any phase frame (e.g. the loop delay returned to the client)
+     */
+    public void addPhaseTime(Phase phase, long millis) {
+        if (millis > 0) {
+            phaseNanos.get(phase).add(millis * 1_000_000);
+        }
+    }
+
+    // ---- Script loop and status ----
+
+    /**
+     * Time spent inside one onLoop() call (excluding the delay it returns)
+     */
+    public void recordLoop(long elapsedMs) {
+        loopTimes.record(elapsedMs);
+    }
+
+    /**
+     * Publish the executor's state; called from the script thread, read by the GUI and the HTTP endpoint
+     */
+    public void publishStatus(ExecutorStatus status) {
+        this.status = status;
+    }
+
+    public ExecutorStatus getStatus() {
+        return status;
+    }
+
+    public String getCurrentNodeId() {
+        return currentNodeId;
+    }
+
+    /**
+     * When the script thread entered (or returned to) the current node, in epoch millis
+     */
+    public long getCurrentNodeSince() {
+        return currentNodeSince;
+    }
+
+    public LatencyHistogram getLoopTimes() {
+        return loopTimes;
+    }
+
+    // ---- Gauges ----
+
+    /**
+     * Register a value sampled on demand (must be safe to read from any thread)
+     */
+    public void registerGauge(String name, IntSupplier source) {
+        gauges.put(name, source);
+    }
+
+    public int getGauge(String name) {
+        IntSupplier source = gauges.get(name);
+        return source != null ? source.getAsInt() : 0;
+    }
+
+    public Map<String, Integer> getGauges() {
+        Map<String, Integer> snapshot = new TreeMap<>();
+        gauges.forEach((name, source) -> snapshot.put(name, source.getAsInt()));
+        return snapshot;
+    }
+
+    // ---- Counters ----
+
+    public void increment(String counter) {
+        counters.computeIfAbsent(counter, k -> new LongAdder()).increment();
+    }
+
+    public long getCounter(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    // ---- Reading ----
+
+    public long getPhaseMillis(Phase phase) {
+        return phaseNanos.get(phase).sum() / 1_000_000;
+    }
+
+    public long getUptimeMillis() {
+        return System.currentTimeMillis() - startedAt;
+    }
+
+    /**
+     * Node stats sorted by total time spent, most expensive first
+     */
+    public List<NodeStats> getNodeStats() {
+        List<NodeStats> list = new ArrayList<>(nodes.values());
+        list.sort((a, b) -> Long.compare(b.latency.getSum(), a.latency.getSum()));
+        return list;
+    }
+
+    public Map<String, LatencyHistogram> getTreeHistograms() {
+        return Collections.unmodifiableMap(trees);
+    }
+
+    public Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, adder) -> snapshot.put(name, adder.sum()));
+        return snapshot;
+    }
+
+    /**
+     * Flat snapshot for QuestExecutor.getExecutionStats()
+     */
+    public Map<String, Object> getSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long retries = 0;
+        long failures = 0;
+        for (NodeStats stats : nodes.values()) {
+            retries += stats.retries.sum();
+            failures += stats.failures.sum();
+        }
+        snapshot.put("metricsUptimeMs", getUptimeMillis());
+        snapshot.put("nodeRetries", retries);
+        snapshot.put("nodeFailures", failures);
+        for (Phase phase : Phase.values()) {
+            snapshot.put("phase." + phase.name().toLowerCase() + "Ms", getPhaseMillis(phase));
+        }
+        snapshot.putAll(getCounters());
+        return snapshot;
+    }
+
+    /**
+     * Human-readable report: phase breakdown, trees, then the most expensive nodes
+     */
+    public String formatReport(int topNodes) {
+        StringBuilder sb = new StringBuilder();
+        long uptime = Math.max(1, getUptimeMillis());
+        sb.append(String.format("Uptime %ds%n", uptime / 1000));
+
+        sb.append("Time by phase:\n");
+        long accounted = 0;
+        for (Phase phase : Phase.values()) {
+            long ms = getPhaseMillis(phase);
+            accounted += ms;
+            sb.append(String.format("  %-14s %7ds  %5.1f%%%n", phase.name().toLowerCase(), ms / 1000, ms * 100.0 / uptime));
+        }
+        long other = Math.max(0, uptime - accounted);
+        sb.append(String.format("  %-14s %7ds  %5.1f%%%n", "other", other / 1000, other * 100.0 / uptime));
+
+        if (!trees.isEmpty()) {
+            sb.append("Tree steps (ms):\n");
+            for (Map.Entry<String, LatencyHistogram> tree : new TreeMap<>(trees).entrySet()) {
+                sb.append("  ").append(tree.getKey()).append(": ").append(tree.getValue().summary()).append('\n');
+            }
+        }
+
+        List<NodeStats> stats = getNodeStats();
+        if (!stats.isEmpty()) {
+            sb.append("Slowest nodes by total time (ms):\n");
+            for (int i = 0; i < Math.min(topNodes, stats.size()); i++) {
+                sb.append("  ").append(stats.get(i)).append('\n');
+            }
+        }
+
+        Map<String, Long> counterSnapshot = getCounters();
+        if (!counterSnapshot.isEmpty()) {
+            sb.append("Counters: ").append(counterSnapshot).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public void reset() {
+        nodes.clear();
+        trees.clear();
+        counters.clear();
+        loopTimes.reset();
+        for (LongAdder adder : phaseNanos.values()) {
+            adder.reset();
+        }
+        startedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Per-node timing and outcome counts
+     */
+    public static class NodeStats {
+        private final String key;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        // How many retries a node needed before it finally succeeded
+        private final LatencyHistogram retriesBeforeSuccess = new LatencyHistogram();
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder inProgress = new LongAdder();
+        private final AtomicInteger retryStreak = new AtomicInteger();
+
+        NodeStats(String key) {
+            this.key = key;
+        }
+
+        // Lock-free: called from the script thread on every node exit
+        void record(QuestNode.ExecutionResult result) {
+            if (result == null) {
+                failures.increment(); // threw
+                retryStreak.set(0);
+                return;
+            }
+            switch (result.getStatus()) {
+                case SUCCESS:
+                    successes.increment();
+                    retriesBeforeSuccess.record(retryStreak.getAndSet(0));
+                    break;
+                case RETRY:
+                    retries.increment();
+                    retryStreak.incrementAndGet();
+                    break;
+                case FAILED:
+                    failures.increment();
+                    retryStreak.set(0);
+                    break;
+                case IN_PROGRESS:
+                    inProgress.increment();
+                    break;
+            }
+        }
+
+        // Getters
+        public String getKey() { return key; }
+        public LatencyHistogram getLatency() { return latency; }
+        public LatencyHistogram getRetriesBeforeSuccess() { return retriesBeforeSuccess; }
+        public long getSuccesses() { return successes.sum(); }
+        public long getRetries() { return retries.sum(); }
+        public long getFailures() { return failures.sum(); }
+        public long getInProgress() { return inProgress.sum(); }
+
+        @Override
+        public String toString() {
+            return String.format("%s total=%ds %s ok=%d retry=%d fail=%d retries-before-ok p90=%d",
+                key, latency.getSum() / 1000, latency.summary(), getSuccesses(), getRetries(), getFailures(),
+                retriesBeforeSuccess.getPercentile(90));
+        }
+    }
+}
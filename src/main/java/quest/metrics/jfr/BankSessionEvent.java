@@ -0,0 +1,26 @@
+package quest.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A bank visit, from asking to open the bank until it was closed again
+ */
+@Name("quest.BankSession")
+@Label("Bank Session")
+@Category({"Quest Framework", "Supplies"})
+@Description("Bank opened, used and closed")
+public class BankSessionEvent extends Event {
+
+    @Label("Reason")
+    public String reason;
+
+    @Label("Opened")
+    public boolean opened;
+
+    @Label("Items Withdrawn")
+    public int itemsWithdrawn;
+}
@@ -0,0 +1,29 @@
+package quest.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A node handed control to another node (the outcome of a decision)
+ */
+@Name("quest.Decision")
+@Label("Quest Decision")
+@Category({"Quest Framework", "Nodes"})
+@Description("Next node chosen after a node completed")
+public class DecisionEvent extends Event {
+
+    @Label("Quest")
+    public String quest;
+
+    @Label("Node Id")
+    public String nodeId;
+
+    @Label("Next Node Id")
+    public String nextNodeId;
+
+    @Label("Reason")
+    public String reason;
+}
@@ -0,0 +1,32 @@
+package quest.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Grand Exchange buy offer, from placing it until it filled or was given up on
+ */
+@Name("quest.GrandExchangeOffer")
+@Label("Grand Exchange Offer")
+@Category({"Quest Framework", "Supplies"})
+@Description("Grand Exchange buy offer")
+public class GrandExchangeOfferEvent extends Event {
+
+    @Label("Item")
+    public String item;
+
+    @Label("Quantity")
+    public int quantity;
+
+    @Label("Price Each")
+    public int price;
+
+    @Label("Strategy")
+    public String strategy;
+
+    @Label("Completed")
+    public boolean completed;
+}
@@ -0,0 +1,25 @@
+package quest.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * Periodic sample of log messages waiting to be rendered or kept in memory
+ */
+@Name("quest.LogBacklog")
+@Label("Log Backlog")
+@Category({"Quest Framework", "Logging"})
+@Description("Pending GUI log updates and in-memory executor log size")
+@Period("1 s")
+public class LogBacklogEvent extends Event {
+
+    @Label("Pending GUI Updates")
+    public int pendingGuiUpdates;
+
+    @Label("Executor Log Lines")
+    public int executorLogLines;
+}
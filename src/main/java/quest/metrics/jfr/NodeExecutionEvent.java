@@ -0,0 +1,32 @@
+package quest.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One execute() of a quest node - begins when the node starts, commits when it returns
+ */
+@Name("quest.NodeExecution")
+@Label("Quest Node Execution")
+@Category({"Quest Framework", "Nodes"})
+@Description("Execution of a single quest tree node")
+public class NodeExecutionEvent extends Event {
+
+    @Label("Quest")
+    public String quest;
+
+    @Label("Node Id")
+    public String nodeId;
+
+    @Label("Node Type")
+    public String nodeType;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Message")
+    public String message;
+}
@@ -0,0 +1,145 @@
+package quest.metrics.jfr;
+
+import jdk.jfr.FlightRecorder;
+import org.dreambot.api.utilities.Logger;
+import quest.core.QuestNode;
+import quest.metrics.QuestMetrics;
+import quest.utils.QuestSettings;
+
+import java.util.ArrayDeque;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Quest JFR - domain events for JDK Flight Recorder, so JMC recordings line up with quest steps.
+ * Off by default; enable with "jfr.enabled=true" in quest_data/settings.properties or
+ * -Dquest.jfr.enabled=true. When disabled every hook is a single static boolean check: no
+ * events are allocated and Flight Recorder is never touched, so JVMs without jdk.jfr are fine.
+ * Handles passed between begin/end calls are typed Object for the same reason.
+ */
+public final class QuestJfr {
+
+    private static final boolean ENABLED = detect();
+
+    // Node events currently open on this thread, innermost first
+    private static final ThreadLocal<ArrayDeque<Object>> openNodes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private QuestJfr() {
+    }
+
+    private static boolean detect() {
+        if (!QuestSettings.getBoolean("jfr.enabled", false)) {
+            return false;
+        }
+        try {
+            FlightRecorder.addPeriodicEvent(LogBacklogEvent.class, () -> {
+                LogBacklogEvent event = new LogBacklogEvent();
+                QuestMetrics metrics = QuestMetrics.getInstance();
+                event.pendingGuiUpdates = metrics.getGauge(QuestMetrics.GAUGE_GUI_LOG_BACKLOG);
+                event.executorLogLines = metrics.getGauge(QuestMetrics.GAUGE_EXECUTOR_LOG_LINES);
+                event.commit();
+            });
+            Logger.log("[JFR] Quest events enabled");
+            return true;
+        } catch (Throwable t) {
+            Logger.log("[JFR] Flight Recorder not available in this JVM: " + t);
+            return false;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // ---- Nodes ----
+
+    public static void nodeBegin() {
+        if (!ENABLED) return;
+        NodeExecutionEvent event = new NodeExecutionEvent();
+        event.begin();
+        openNodes.get().push(event);
+    }
+
+    public static void nodeEnd(String quest, QuestNode node, QuestNode.ExecutionResult result) {
+        if (!ENABLED) return;
+        NodeExecutionEvent event = (NodeExecutionEvent) openNodes.get().poll();
+        if (event == null) return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.quest = quest;
+            event.nodeId = node.getNodeId();
+            event.nodeType = node.getClass().getSimpleName();
+            event.status = result != null ? result.getStatus().name() : "EXCEPTION";
+            event.message = result != null ? result.getStatusMessage() : null;
+            event.commit();
+        }
+    }
+
+    public static void decision(String quest, String nodeId, String nextNodeId, String reason) {
+        if (!ENABLED) return;
+        DecisionEvent event = new DecisionEvent();
+        if (event.shouldCommit()) {
+            event.quest = quest;
+            event.nodeId = nodeId;
+            event.nextNodeId = nextNodeId;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+
+    // ---- Waits ----
+
+    /**
+     * Time a conditional wait; the event duration is the actual time waited
+     * @param wait performs the wait and reports whether the condition came true
+     */
+    public static boolean timedWait(String condition, long requestedMs, BooleanSupplier wait) {
+        if (!ENABLED) return wait.getAsBoolean();
+        WaitEvent event = new WaitEvent();
+        event.begin();
+        boolean satisfied = wait.getAsBoolean();
+        event.end();
+        if (event.shouldCommit()) {
+            event.condition = condition;
+            event.requestedMs = requestedMs;
+            event.satisfied = satisfied;
+            event.commit();
+        }
+        return satisfied;
+    }
+
+    // ---- Supplies ----
+
+    public static Object geOfferBegin(String item, int quantity, int price, String strategy) {
+        if (!ENABLED) return null;
+        GrandExchangeOfferEvent event = new GrandExchangeOfferEvent();
+        event.begin();
+        event.item = item;
+        event.quantity = quantity;
+        event.price = price;
+        event.strategy = strategy;
+        return event;
+    }
+
+    public static void geOfferEnd(Object handle, boolean completed) {
+        if (handle == null) return;
+        GrandExchangeOfferEvent event = (GrandExchangeOfferEvent) handle;
+        event.completed = completed;
+        event.commit();
+    }
+
+    public static Object bankSessionBegin(String reason) {
+        if (!ENABLED) return null;
+        BankSessionEvent event = new BankSessionEvent();
+        event.begin();
+        event.reason = reason;
+        return event;
+    }
+
+    public static void bankSessionEnd(Object handle, boolean opened, int itemsWithdrawn) {
+        if (handle == null) return;
+        BankSessionEvent event = (BankSessionEvent) handle;
+        event.opened = opened;
+        event.itemsWithdrawn = itemsWithdrawn;
+        event.commit();
+    }
+}
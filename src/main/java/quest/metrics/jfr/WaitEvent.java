@@ -0,0 +1,28 @@
+package quest.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A conditional wait - what we waited for, how long we allowed and whether it came true
+ */
+@Name("quest.Wait")
+@Label("Quest Wait")
+@Category({"Quest Framework", "Waits"})
+@Description("Sleep until a game condition holds")
+public class WaitEvent extends Event {
+
+    @Label("Condition")
+    public String condition;
+
+    @Label("Requested")
+    @Timespan(Timespan.MILLISECONDS)
+    public long requestedMs;
+
+    @Label("Satisfied")
+    public boolean satisfied;
+}
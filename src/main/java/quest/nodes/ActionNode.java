@@ -1,6 +1,11 @@
 package quest.nodes;
 
+import quest.core.GameDriver;
+import quest.core.QuestEngine;
 import quest.core.QuestNode;
+import quest.definition.QuestDefinition;
+import quest.metrics.QuestMetrics;
+import org.dreambot.api.methods.map.Tile;
 
 /**
  * Base class for action nodes - nodes that perform specific actions
@@ -29,17 +34,32 @@ public abstract class ActionNode extends QuestNode {
     
     @Override
     public ExecutionResult execute() {
+        QuestMetrics metrics = QuestMetrics.getInstance();
+        long token = metrics.enterNode(this);
+        ExecutionResult result = null;
+        try {
+            result = executeAction();
+            return result;
+        } finally {
+            metrics.exitNode(this, token, result);
+        }
+    }
+    
+    private ExecutionResult executeAction() {
         try {
             log("Executing action: " + description);
             
+            // Offline (replay harness) the engine's driver stands in for the client
+            GameDriver driver = QuestEngine.current().getGameDriver();
+            
             // Check if we should skip this action
-            if (shouldSkip()) {
+            if (driver != null ? driver.skips(this) : shouldSkip()) {
                 log("Skipping action (conditions not met)");
                 return ExecutionResult.success(null, "Action skipped");
             }
             
             // Perform the actual action
-            boolean actionSuccess = performAction();
+            boolean actionSuccess = driver != null ? driver.perform(this) : performAction();
             
             if (actionSuccess) {
                 log("Action completed successfully");
@@ -69,6 +89,18 @@ public abstract class ActionNode extends QuestNode {
      */
     protected abstract boolean performAction();
     
+    /**
+     * What this node does as a quest definition step, so it can run without the client (GameDriver).
+     * Null for custom actions that only make sense against the live game.
+     */
+    public QuestDefinition.Step toStep() {
+        return null;
+    }
+    
+    protected static int[] tileOf(Tile tile) {
+        return tile != null ? new int[] {tile.getX(), tile.getY(), tile.getZ()} : null;
+    }
+    
     /**
      * Set the next node to execute after this action completes
      */
@@ -1,6 +1,7 @@
 package quest.nodes;
 
 import quest.core.QuestNode;
+import quest.metrics.QuestMetrics;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -21,6 +22,18 @@ public abstract class DecisionNode extends QuestNode {
     
     @Override
     public ExecutionResult execute() {
+        QuestMetrics metrics = QuestMetrics.getInstance();
+        long token = metrics.enterNode(this);
+        ExecutionResult result = null;
+        try {
+            result = evaluateDecision();
+            return result;
+        } finally {
+            metrics.exitNode(this, token, result);
+        }
+    }
+    
+    private ExecutionResult evaluateDecision() {
         try {
             log("Evaluating decision: " + description);
             
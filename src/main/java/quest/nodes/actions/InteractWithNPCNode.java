@@ -0,0 +1,66 @@
+package quest.nodes.actions;
+
+import quest.nodes.ActionNode;
+import quest.definition.QuestDefinition;
+import quest.metrics.QuestMetrics;
+import quest.travel.TravelPlanner;
+import org.dreambot.api.methods.interactive.NPCs;
+import org.dreambot.api.methods.interactive.Players;
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.wrappers.interactive.NPC;
+import org.dreambot.api.utilities.Sleep;
+
+/**
+ * Action node for a non-talk NPC interaction ("Attack", "Trade", "Pickpocket", ...)
+ * Walks to the NPC's usual location first if it is not in view
+ */
+public class InteractWithNPCNode extends ActionNode {
+    private final String npcName;
+    private final String action;
+    private final Tile npcLocation;
+
+    private static final long COMBAT_TIMEOUT_MS = 60000;
+
+    public InteractWithNPCNode(String nodeId, String npcName, String action, Tile npcLocation) {
+        super(nodeId, action + " " + npcName + (npcLocation != null ? " at " + npcLocation : ""));
+        this.npcName = npcName;
+        this.action = action;
+        this.npcLocation = npcLocation;
+    }
+
+    @Override
+    protected boolean performAction() {
+        NPC npc = NPCs.closest(n -> n != null && npcName.equals(n.getName()) && n.hasAction(action));
+        if (npc == null && npcLocation != null) {
+            log("No " + npcName + " in view, walking to " + npcLocation);
+            if (!TravelPlanner.getInstance().route(Players.getLocal().getTile(), npcLocation).walk(8)) {
+                log("Failed to reach " + npcLocation);
+                return false;
+            }
+            npc = NPCs.closest(n -> n != null && npcName.equals(n.getName()) && n.hasAction(action));
+        }
+        if (npc == null) {
+            log("Cannot find " + npcName);
+            return false;
+        }
+
+        QuestMetrics.getInstance().increment(QuestMetrics.API_INTERACT);
+        if (!npc.interact(action)) {
+            log("Failed to " + action + " " + npcName);
+            return false;
+        }
+        if ("Attack".equalsIgnoreCase(action)) {
+            NPC target = npc;
+            Sleep.sleepUntil(() -> Players.getLocal().isInCombat(), 5000);
+            return Sleep.sleepUntil(() -> !target.exists() || target.getHealthPercent() == 0
+                || !Players.getLocal().isInCombat(), COMBAT_TIMEOUT_MS);
+        }
+        Sleep.sleep(600, 1200);
+        return true;
+    }
+    
+    @Override
+    public QuestDefinition.Step toStep() {
+        return QuestDefinition.Step.of(QuestDefinition.StepType.NPC, npcName, action, null, null, tileOf(npcLocation));
+    }
+}
@@ -1,9 +1,11 @@
 package quest.nodes.actions;
 
 import quest.nodes.ActionNode;
+import quest.definition.QuestDefinition;
+import quest.metrics.QuestMetrics;
 import quest.core.QuestNode;
+import quest.travel.TravelPlanner;
 import org.dreambot.api.methods.interactive.GameObjects;
-import org.dreambot.api.methods.walking.impl.Walking;
 import org.dreambot.api.methods.interactive.Players;
 import org.dreambot.api.methods.map.Tile;
 import org.dreambot.api.wrappers.interactive.GameObject;
@@ -49,25 +51,10 @@ public class InteractWithObjectNode extends ActionNode {
             if (targetObject == null) {
                 log("Object not found, walking to expected location: " + objectLocation);
                 
-                // NO TIMEOUT WALKING - Keep trying until we arrive
-                int failedAttempts = 0;
-                while (Players.getLocal().getTile().distance(objectLocation) > 8) {
-                    double currentDistance = Players.getLocal().getTile().distance(objectLocation);
-                    log("Current distance to object location: " + String.format("%.1f", currentDistance) + " tiles");
-                    
-                    if (!Walking.walk(objectLocation)) {
-                        failedAttempts++;
-                        log("Walking.walk() failed (attempt " + failedAttempts + ")");
-                        if (failedAttempts > 15) {
-                            log("Failed to walk to object location after 15 failed attempts");
-                            return false;
-                        }
-                    } else {
-                        failedAttempts = 0;
-                        log("Walk initiated successfully, waiting for movement...");
-                    }
-                    
-                    Sleep.sleep(1500, 2500);
+                // Route over known stairs/ladders; retries resume from the leg already reached
+                if (!TravelPlanner.getInstance().route(Players.getLocal().getTile(), objectLocation).walk(8)) {
+                    log("Failed to reach object location " + objectLocation);
+                    return false;
                 }
                 
                 log("Successfully arrived near object location");
@@ -86,22 +73,9 @@ public class InteractWithObjectNode extends ActionNode {
             // Walk closer if needed
             if (targetObject.distance() > 5) {
                 log("Object is " + String.format("%.1f", targetObject.distance()) + " tiles away, walking closer");
-                final GameObject finalObject = targetObject;
-                
-                // NO TIMEOUT WALKING for getting close to object
-                int objectFailedAttempts = 0;
-                while (finalObject.distance() > 5) {
-                    if (!Walking.walk(targetObject.getTile())) {
-                        objectFailedAttempts++;
-                        log("Failed to walk to object (attempt " + objectFailedAttempts + ")");
-                        if (objectFailedAttempts > 10) {
-                            log("Failed to walk close to object after 10 attempts");
-                            return false;
-                        }
-                    } else {
-                        objectFailedAttempts = 0;
-                    }
-                    Sleep.sleep(1200, 1800);
+                if (!TravelPlanner.getInstance().route(Players.getLocal().getTile(), targetObject.getTile()).walk(5)) {
+                    log("Failed to walk close to object");
+                    return false;
                 }
                 log("Successfully walked close to object");
             }
@@ -113,6 +87,7 @@ public class InteractWithObjectNode extends ActionNode {
             
             // Interact with the object
             log("Attempting to " + action + " " + objectName);
+            QuestMetrics.getInstance().increment(QuestMetrics.API_INTERACT);
             if (!targetObject.interact(action)) {
                 log("Failed to interact with object");
                 return false;
@@ -230,4 +205,9 @@ public class InteractWithObjectNode extends ActionNode {
         // Object interactions are generally quick
         return 5;
     }
+    
+    @Override
+    public QuestDefinition.Step toStep() {
+        return QuestDefinition.Step.of(QuestDefinition.StepType.OBJECT, objectName, action, null, null, tileOf(objectLocation));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package quest.nodes.actions;
+
+import quest.nodes.ActionNode;
+import quest.definition.QuestDefinition;
+import org.dreambot.api.methods.container.impl.Inventory;
+import org.dreambot.api.utilities.Sleep;
+
+/**
+ * Action node for an inventory item's own action ("Read", "Dig", "Eat", "Wield", ...)
+ */
+public class ItemActionNode extends ActionNode {
+    private final String itemName;
+    private final String action;
+
+    public ItemActionNode(String nodeId, String itemName, String action) {
+        super(nodeId, action + " " + itemName);
+        this.itemName = itemName;
+        this.action = action;
+    }
+
+    @Override
+    protected boolean performAction() {
+        if (!Inventory.contains(itemName)) return false;
+
+        if (Inventory.interact(itemName, action)) {
+            Sleep.sleep(600, 1200);
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public QuestDefinition.Step toStep() {
+        return QuestDefinition.Step.of(QuestDefinition.StepType.ITEM, itemName, action, null, null, null);
+    }
+}
@@ -1,40 +1,42 @@
 package quest.nodes.actions;
 
 import quest.nodes.ActionNode;
+import quest.definition.QuestDefinition;
+import quest.dialogue.DialogueEngine;
+import quest.dialogue.DialogueScript;
+import quest.metrics.jfr.QuestJfr;
 import org.dreambot.api.methods.dialogues.Dialogues;
 import org.dreambot.api.utilities.Sleep;
 
 public class SelectDialogueOptionNode extends ActionNode {
     private final String containsText;
+    // Pick the option, finish out the dialogue, stop at the next option screen for the decision loop
+    private final DialogueScript script;
 
     public SelectDialogueOptionNode(String nodeId, String containsText) {
         super(nodeId, "Select dialogue: " + containsText);
         this.containsText = containsText;
+        this.script = DialogueScript.builder("select " + containsText).contains(containsText).maxChoices(1).build();
+    }
+
+    /**
+     * Pick options with a ready-made script (e.g. several choices in a row from a quest definition)
+     */
+    public SelectDialogueOptionNode(String nodeId, String description, DialogueScript script) {
+        super(nodeId, "Select dialogue: " + description);
+        this.containsText = description;
+        this.script = script;
     }
 
     @Override
     protected boolean performAction() {
-        boolean opts = Sleep.sleepUntil(Dialogues::areOptionsAvailable, 8000);
-        if (!opts) return false;
-        String[] options = Dialogues.getOptions();
-        if (options == null) return false;
-        for (int i = 0; i < options.length; i++) {
-            if (options[i] != null && options[i].contains(containsText)) {
-                if (Dialogues.chooseOption(i + 1)) {
-                    // finish out the dialogue
-                    Sleep.sleep(300, 600);
-                    while (Dialogues.inDialogue()) {
-                        if (Dialogues.canContinue()) {
-                            if (!Dialogues.spaceToContinue()) Dialogues.continueDialogue();
-                        } else if (Dialogues.areOptionsAvailable()) {
-                            break; // let decision loop pick next
-                        }
-                        Sleep.sleep(250, 450);
-                    }
-                    return true;
-                }
-            }
-        }
-        return false;
+        boolean inDialogue = QuestJfr.timedWait("dialogue open", 8000, () -> Sleep.sleepUntil(Dialogues::inDialogue, 8000));
+        if (!inDialogue) return false;
+        return DialogueEngine.getInstance().run("select", script, 30000).getChoices() > 0;
+    }
+    
+    @Override
+    public QuestDefinition.Step toStep() {
+        return QuestDefinition.Step.of(QuestDefinition.StepType.DIALOGUE, null, null, null, null, null);
     }
 }
@@ -1,6 +1,7 @@
 package quest.nodes.actions;
 
 import quest.nodes.ActionNode;
+import quest.definition.QuestDefinition;
 import quest.core.QuestNode;
 import org.dreambot.api.methods.item.GroundItems;
 import org.dreambot.api.methods.interactive.Players;
@@ -91,4 +92,9 @@ public class TakeGroundItemNode extends ActionNode {
             return false;
         }
     }
+    
+    @Override
+    public QuestDefinition.Step toStep() {
+        return QuestDefinition.Step.of(QuestDefinition.StepType.TAKE, itemName, "Take", null, null, tileOf(expectedLocation));
+    }
 }
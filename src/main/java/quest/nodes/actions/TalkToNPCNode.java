@@ -1,10 +1,17 @@
 package quest.nodes.actions;
 
 import quest.nodes.ActionNode;
+import quest.definition.QuestDefinition;
 import quest.core.QuestNode;
+import quest.dialogue.DialogueEngine;
+import quest.dialogue.DialogueScript;
+import quest.fleet.FleetClient;
+import quest.metrics.QuestMetrics;
+import quest.metrics.jfr.QuestJfr;
+import quest.travel.NpcSightings;
+import quest.travel.TravelPlanner;
 import org.dreambot.api.methods.interactive.NPCs;
 import org.dreambot.api.methods.dialogues.Dialogues;
-import org.dreambot.api.methods.walking.impl.Walking;
 import org.dreambot.api.methods.map.Tile;
 import org.dreambot.api.wrappers.interactive.NPC;
 import org.dreambot.api.utilities.Sleep;
@@ -22,6 +29,11 @@ public class TalkToNPCNode extends ActionNode {
     private final Tile npcLocation;
     private final String[] expectedDialogueOptions;
     private final String selectedOption;
+    private final DialogueScript dialogueScript;
+    
+    private static final int QUEST_CONFIG = 144;
+    private static final long DIALOGUE_TIMEOUT_MS = 60000;
+    private static final long CONFIG_WAIT_MS = 5000;
     
     public TalkToNPCNode(String nodeId, String npcName, Tile npcLocation) {
         this(nodeId, npcName, npcLocation, null, null, null);
@@ -33,11 +45,29 @@ public class TalkToNPCNode extends ActionNode {
     
     public TalkToNPCNode(String nodeId, String npcName, Tile npcLocation, 
                         String[] expectedDialogueOptions, String selectedOption, QuestNode nextNode) {
+        this(nodeId, npcName, npcLocation, expectedDialogueOptions, selectedOption,
+            // Compiled once per node; anything unscripted falls back to the first option as before
+            expectedDialogueOptions != null && selectedOption != null
+                ? DialogueScript.builder("talk to " + npcName).option(selectedOption).fallbackToFirst().build()
+                : DialogueScript.CONTINUE,
+            nextNode);
+    }
+    
+    /**
+     * Talk and run a ready-made dialogue script (e.g. one compiled from a quest definition)
+     */
+    public TalkToNPCNode(String nodeId, String npcName, Tile npcLocation, DialogueScript dialogueScript) {
+        this(nodeId, npcName, npcLocation, null, null, dialogueScript, null);
+    }
+    
+    private TalkToNPCNode(String nodeId, String npcName, Tile npcLocation, String[] expectedDialogueOptions,
+                          String selectedOption, DialogueScript dialogueScript, QuestNode nextNode) {
         super(nodeId, "Talk to " + npcName + " at " + npcLocation, nextNode);
         this.npcName = npcName;
         this.npcLocation = npcLocation;
         this.expectedDialogueOptions = expectedDialogueOptions;
         this.selectedOption = selectedOption;
+        this.dialogueScript = dialogueScript;
     }
     
     @Override
@@ -45,83 +75,74 @@ public class TalkToNPCNode extends ActionNode {
         try {
             log("Walking to expected location: " + npcLocation);
             
-            // NO TIMEOUT WALKING - Keep trying until we arrive
-            int failedAttempts = 0;
-            while (Players.getLocal().getTile().distance(npcLocation) > 8) {
-                double currentDistance = Players.getLocal().getTile().distance(npcLocation);
-                log("Current distance to target: " + String.format("%.1f", currentDistance) + " tiles");
-                
-                if (!Walking.walk(npcLocation)) {
-                    failedAttempts++;
-                    log("Walking.walk() failed (attempt " + failedAttempts + ")");
-                    if (failedAttempts > 15) {
-                        log("Failed to walk to NPC location after 15 failed attempts - pathfinder may be stuck");
-                        return false;
-                    }
-                } else {
-                    failedAttempts = 0; // Reset on successful walk initiation
-                    log("Walk initiated successfully, waiting for movement...");
-                }
-                
-                // Wait a bit before trying again
-                Sleep.sleep(1500, 2500);
+            // Route over known stairs/ladders; retries resume from the leg already reached
+            if (!TravelPlanner.getInstance().route(Players.getLocal().getTile(), npcLocation).walk(8)) {
+                log("Failed to reach NPC location " + npcLocation);
+                return false;
             }
             
             log("Successfully arrived near NPC location: " + Players.getLocal().getTile());
             
             // Now look for the NPC
             NPC targetNPC = NPCs.closest(npcName);
+            if (targetNPC == null) {
+                // It may have wandered - try where it was last seen (by us or another bot in the fleet)
+                Tile lastSeen = NpcSightings.getInstance().find(npcName, npcLocation);
+                if (lastSeen != null && lastSeen.distance(Players.getLocal().getTile()) > 8) {
+                    log("Not here - checking last sighting at " + lastSeen);
+                    if (TravelPlanner.getInstance().route(Players.getLocal().getTile(), lastSeen).walk(5)) {
+                        targetNPC = NPCs.closest(npcName);
+                    }
+                }
+            }
             if (targetNPC == null) {
                 log("Still cannot find NPC after walking to location");
                 return false;
             }
             log("Found NPC: " + npcName + " at " + targetNPC.getTile());
+            if (NpcSightings.getInstance().record(npcName, targetNPC.getTile())) {
+                FleetClient.getInstance().shareNpcSighting(npcName, targetNPC.getTile());
+            }
             
             // Walk closer if needed
             if (targetNPC.distance() > 5) {
                 log("NPC is " + String.format("%.1f", targetNPC.distance()) + " tiles away, walking closer");
-                final NPC finalNPC = targetNPC;
-                
-                // NO TIMEOUT WALKING for getting close to NPC
-                int npcFailedAttempts = 0;
-                while (finalNPC.distance() > 5) {
-                    if (!Walking.walk(targetNPC.getTile())) {
-                        npcFailedAttempts++;
-                        log("Failed to walk to NPC (attempt " + npcFailedAttempts + ")");
-                        if (npcFailedAttempts > 10) {
-                            log("Failed to walk close to NPC after 10 attempts");
-                            return false;
-                        }
-                    } else {
-                        npcFailedAttempts = 0;
-                    }
-                    Sleep.sleep(1200, 1800);
+                if (!TravelPlanner.getInstance().route(Players.getLocal().getTile(), targetNPC.getTile()).walk(5)) {
+                    log("Failed to walk close to NPC");
+                    return false;
                 }
                 log("Successfully walked close to NPC");
             }
             
             // Interact with the NPC
             log("Attempting to talk to " + npcName);
+            QuestMetrics.getInstance().increment(QuestMetrics.API_INTERACT);
             if (!targetNPC.interact("Talk-to")) {
                 log("Failed to interact with NPC");
                 return false;
             }
             
-            // Wait for dialogue to open
-            boolean dialogueOpened = Sleep.sleepUntil(() -> Dialogues.inDialogue(), 7000);
-            if (!dialogueOpened) {
-                log("Dialogue did not open after talking to NPC");
-                return false;
-            }
-            log("Successfully initiated dialogue with " + npcName);
-            
-            // Handle dialogue options if specified
-            if (expectedDialogueOptions != null && selectedOption != null) {
-                return handleDialogueOptions();
+            QuestMetrics.getInstance().beginPhase(QuestMetrics.Phase.DIALOGUE);
+            try {
+                // Wait for dialogue to open
+                boolean dialogueOpened = QuestJfr.timedWait("dialogue with " + npcName, 7000,
+                    () -> Sleep.sleepUntil(() -> Dialogues.inDialogue(), 7000));
+                if (!dialogueOpened) {
+                    log("Dialogue did not open after talking to NPC");
+                    return false;
+                }
+                log("Successfully initiated dialogue with " + npcName);
+                
+                // Handle dialogue options if specified
+                if (expectedDialogueOptions != null && selectedOption != null) {
+                    return handleDialogueOptions();
+                }
+                
+                // If no specific dialogue handling, just continue through dialogue
+                return continueDialogue();
+            } finally {
+                QuestMetrics.getInstance().endPhase();
             }
-            
-            // If no specific dialogue handling, just continue through dialogue
-            return continueDialogue();
         } catch (Exception e) {
             log("Exception in TalkToNPCNode: " + e.getMessage());
             e.printStackTrace();
@@ -133,136 +154,43 @@ public class TalkToNPCNode extends ActionNode {
      * Handle specific dialogue options
      */
     private boolean handleDialogueOptions() {
-        try {
-            log("Waiting for dialogue options...");
-            
-            // Wait for options to be available
-            boolean optionsAvailable = Sleep.sleepUntil(() -> 
-                Dialogues.areOptionsAvailable(), 10000);
-            
-            if (!optionsAvailable) {
-                log("No dialogue options became available");
-                return continueDialogue(); // Fall back to continuing dialogue
-            }
-            
-            String[] options = Dialogues.getOptions();
-            if (options == null || options.length == 0) {
-                log("No dialogue options found");
-                return continueDialogue();
-            }
-            
-            log("Available dialogue options: " + java.util.Arrays.toString(options));
-            
-            // Find the option that contains our selected text
-            for (int i = 0; i < options.length; i++) {
-                if (options[i].contains(selectedOption)) {
-                    log("Selecting dialogue option " + (i + 1) + ": " + options[i]);
-                    
-                    // MEXXXY'S SOLUTION: Log the selected option by index
-                    log("DIALOGUE OPTION SELECTED: " + options[i] + " (index: " + i + ")");
-                    
-                    if (Dialogues.chooseOption(i + 1)) {
-                        log("Successfully selected dialogue option");
-                        return waitForDialogueComplete();
-                    } else {
-                        log("Failed to select dialogue option");
-                        return false;
-                    }
-                }
-            }
-            
+        int initialConfig = PlayerSettings.getConfig(QUEST_CONFIG);
+        DialogueEngine.Result result = DialogueEngine.getInstance().run(npcName, dialogueScript, DIALOGUE_TIMEOUT_MS);
+        boolean chose = result.chose(selectedOption);
+        if (!chose) {
             log("Could not find matching dialogue option for: " + selectedOption);
-            return continueDialogue(); // Fall back to continuing dialogue
-            
-        } catch (Exception e) {
-            log("Exception handling dialogue options: " + e.getMessage());
-            return continueDialogue();
         }
+        if (!result.isCompleted()) {
+            log("Dialogue with " + npcName + " ended " + result);
+            return false;
+        }
+        if (chose) {
+            waitForQuestConfig(initialConfig);
+        }
+        return true;
     }
     
     /**
-     * Continue through dialogue by clicking continue or using spacebar
+     * Continue through dialogue with the node's script (taking the first option at any option
+     * screen when unscripted)
      */
     private boolean continueDialogue() {
-        try {
-            log("Continuing through dialogue...");
-            
-            while (Dialogues.inDialogue()) {
-                if (Dialogues.canContinue()) {
-                    // Try spacebar first (more natural), then fallback to click
-                    if (!Dialogues.spaceToContinue()) {
-                        Dialogues.continueDialogue();
-                    }
-                    Sleep.sleep(1000, 2000);
-                } else if (Dialogues.areOptionsAvailable()) {
-                    // If options are available but we don't have specific handling,
-                    // just select the first option
-                    log("Selecting first available dialogue option");
-                    Dialogues.chooseOption(1);
-                    Sleep.sleep(1000, 2000);
-                } else {
-                    log("Dialogue state unclear, waiting...");
-                    Sleep.sleep(1000);
-                }
-            }
-            
-            log("Dialogue completed");
-            return true;
-            
-        } catch (Exception e) {
-            log("Exception continuing dialogue: " + e.getMessage());
-            return false;
-        }
+        DialogueEngine.Result result = DialogueEngine.getInstance().run(npcName, dialogueScript, DIALOGUE_TIMEOUT_MS);
+        log("Dialogue with " + npcName + ": " + result);
+        return result.isCompleted();
     }
     
     /**
-     * Wait for dialogue to complete after selecting an option
+     * After a scripted choice the quest config usually moves within a tick or two - wait for it
+     * (returns as soon as it changes) so the tree's next decision sees the new stage
      */
-    private boolean waitForDialogueComplete() {
-        try {
-            // Get initial quest config to detect changes
-            int initialConfig = org.dreambot.api.methods.settings.PlayerSettings.getConfig(144);
-            log("Initial quest config (144): " + initialConfig);
-            
-            // Continue through any remaining dialogue
-            boolean dialogueComplete = continueDialogue();
-            
-            if (dialogueComplete) {
-                // For quest dialogues, wait for config changes to register
-                log("Dialogue completed, waiting for quest state to update...");
-                
-                // Wait up to 15 seconds for config to change (increased from 10)
-                boolean configChanged = Sleep.sleepUntil(() -> {
-                    int currentConfig = org.dreambot.api.methods.settings.PlayerSettings.getConfig(144);
-                    if (currentConfig != initialConfig) {
-                        log("Quest config changed from " + initialConfig + " to " + currentConfig);
-                        return true;
-                    }
-                    return false;
-                }, 15000);
-                
-                if (!configChanged) {
-                    log("Warning: Quest config did not change after dialogue - this may cause loops");
-                    // Still wait a bit in case it's a delayed update
-                    Sleep.sleep(4000, 6000);
-                    
-                    // Check one more time
-                    int finalConfig = org.dreambot.api.methods.settings.PlayerSettings.getConfig(144);
-                    if (finalConfig != initialConfig) {
-                        log("Quest config finally changed from " + initialConfig + " to " + finalConfig + " (delayed)");
-                    } else {
-                        log("Quest config still unchanged - continuing anyway to avoid infinite loops");
-                    }
-                } else {
-                    // Give a small buffer for any additional processing
-                    Sleep.sleep(1000, 1500);
-                }
-            }
-            
-            return dialogueComplete;
-        } catch (Exception e) {
-            log("Exception waiting for dialogue completion: " + e.getMessage());
-            return false;
+    private void waitForQuestConfig(int initialConfig) {
+        boolean configChanged = Sleep.sleepUntil(() -> PlayerSettings.getConfig(QUEST_CONFIG) != initialConfig,
+            CONFIG_WAIT_MS, 100);
+        if (configChanged) {
+            log("Quest config changed from " + initialConfig + " to " + PlayerSettings.getConfig(QUEST_CONFIG));
+        } else {
+            log("Quest config (" + QUEST_CONFIG + ") still " + initialConfig + " after dialogue - continuing");
         }
     }
     
@@ -272,4 +200,9 @@ public class TalkToNPCNode extends ActionNode {
         // For now, always execute
         return false;
     }
+    
+    @Override
+    public QuestDefinition.Step toStep() {
+        return QuestDefinition.Step.of(QuestDefinition.StepType.TALK, npcName, "Talk-to", null, null, tileOf(npcLocation));
+    }
 }
\ No newline at end of file
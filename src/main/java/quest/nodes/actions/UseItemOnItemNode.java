@@ -0,0 +1,37 @@
+package quest.nodes.actions;
+
+import quest.nodes.ActionNode;
+import quest.definition.QuestDefinition;
+import org.dreambot.api.methods.container.impl.Inventory;
+import org.dreambot.api.utilities.Sleep;
+
+public class UseItemOnItemNode extends ActionNode {
+    private final String itemName;
+    private final String targetName;
+
+    public UseItemOnItemNode(String nodeId, String itemName, String targetName) {
+        super(nodeId, "Use " + itemName + " on " + targetName);
+        this.itemName = itemName;
+        this.targetName = targetName;
+    }
+
+    @Override
+    protected boolean performAction() {
+        if (!Inventory.contains(itemName) || !Inventory.contains(targetName)) return false;
+
+        int before = Inventory.count(targetName);
+        if (Inventory.interact(itemName, "Use")) {
+            Sleep.sleep(150, 300);
+            if (Inventory.interact(targetName, "Use")) {
+                Sleep.sleepUntil(() -> Inventory.count(targetName) != before, 3000);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public QuestDefinition.Step toStep() {
+        return QuestDefinition.Step.of(QuestDefinition.StepType.USE, itemName, "Use", targetName, QuestDefinition.UseTarget.ITEM, null);
+    }
+}
@@ -1,6 +1,7 @@
 package quest.nodes.actions;
 
 import quest.nodes.ActionNode;
+import quest.definition.QuestDefinition;
 import org.dreambot.api.methods.container.impl.Inventory;
 import org.dreambot.api.methods.interactive.NPCs;
 import org.dreambot.api.wrappers.interactive.NPC;
@@ -31,4 +32,9 @@ public class UseItemOnNPCNode extends ActionNode {
         }
         return false;
     }
+    
+    @Override
+    public QuestDefinition.Step toStep() {
+        return QuestDefinition.Step.of(QuestDefinition.StepType.USE, itemName, "Use", npcName, QuestDefinition.UseTarget.NPC, null);
+    }
 }
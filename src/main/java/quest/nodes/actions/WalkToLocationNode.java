@@ -1,21 +1,25 @@
 package quest.nodes.actions;
 
 import quest.nodes.ActionNode;
+import quest.definition.QuestDefinition;
 import quest.core.QuestNode;
-import org.dreambot.api.methods.walking.impl.Walking;
+import quest.travel.TravelGraph;
+import quest.travel.TravelPlan;
+import quest.travel.TravelPlanner;
+import quest.travel.TravelRoute;
 import org.dreambot.api.methods.interactive.Players;
 import org.dreambot.api.methods.map.Tile;
-import org.dreambot.api.utilities.Sleep;
 
 /**
  * Action node for walking to specific locations
- * Handles pathfinding and arrival confirmation
+ * Handles pathfinding (including known stairs, ladders and boats) and arrival confirmation
  */
 public class WalkToLocationNode extends ActionNode {
     
     private final Tile targetLocation;
     private final int acceptableDistance;
     private final String locationDescription;
+    private TravelRoute activeRoute;
     
     public WalkToLocationNode(String nodeId, Tile targetLocation) {
         this(nodeId, targetLocation, 3, targetLocation.toString());
@@ -47,85 +51,26 @@ public class WalkToLocationNode extends ActionNode {
             log("Target location: " + targetLocation + " (" + locationDescription + ")");
             log("Distance: " + String.format("%.1f", currentDistance) + " tiles");
             
-            // Check if we're already close enough
-            if (currentDistance <= acceptableDistance) {
+            // Check if we're already close enough (on the same floor - stairs are close in 2D)
+            if (currentDistance <= acceptableDistance && TravelGraph.sameLayer(currentLocation, targetLocation)) {
                 log("Already at target location (within " + acceptableDistance + " tiles)");
                 return true;
             }
             
-            // ROBUST WALKING LOOP - like GrandExchangeUtil pattern
-            log("Walking to " + locationDescription + "...");
-            
-            int walkAttempts = 0;
-            long startTime = System.currentTimeMillis();
-            long timeoutMs = 60000; // 60 seconds total timeout
-            
-            while (Players.getLocal().getTile().distance(targetLocation) > acceptableDistance) {
-                // Check overall timeout
-                if (System.currentTimeMillis() - startTime > timeoutMs) {
-                    log("Failed to reach " + locationDescription + " within 60 seconds");
-                    return false;
-                }
-                
-                walkAttempts++;
-                currentLocation = Players.getLocal().getTile();
-                currentDistance = currentLocation.distance(targetLocation);
-                
-                log("Walk attempt " + walkAttempts + " - Distance: " + String.format("%.1f", currentDistance) + " tiles");
-                
-                // Initiate walking
-                if (!Walking.walk(targetLocation)) {
-                    log("Walking.walk() failed on attempt " + walkAttempts);
-                    Sleep.sleep(1000, 1500); // Brief pause before retry
-                    continue;
-                }
-                
-                // Wait for movement to start or arrival
-                boolean movementStarted = Sleep.sleepUntil(() -> {
-                    return Players.getLocal().isMoving() || 
-                           Players.getLocal().getTile().distance(targetLocation) <= acceptableDistance;
-                }, 5000);
-                
-                if (!movementStarted) {
-                    log("No movement detected after walk command, retrying...");
-                    continue;
-                }
-                
-                // Wait for either arrival OR movement to stop (need to re-walk)
-                Sleep.sleepUntil(() -> {
-                    boolean arrived = Players.getLocal().getTile().distance(targetLocation) <= acceptableDistance;
-                    boolean stoppedMoving = !Players.getLocal().isMoving() && Walking.getDestination() == null;
-                    
-                    if (arrived) {
-                        log("Arrived at destination!");
-                        return true;
-                    }
-                    
-                    if (stoppedMoving) {
-                        log("Stopped moving before reaching destination, will re-walk...");
-                        return true;
-                    }
-                    
-                    return false; // Keep waiting
-                }, 15000); // 15 second timeout per walk segment
-                
-                // Check if we arrived
-                if (Players.getLocal().getTile().distance(targetLocation) <= acceptableDistance) {
-                    log("Successfully reached " + locationDescription + ": " + Players.getLocal().getTile());
-                    return true;
-                }
-                
-                // Brief pause before next attempt
-                Sleep.sleep(500, 1000);
+            // Plan over known stairs/ladders/boats, resuming the route if this node is retried
+            if (activeRoute == null || !activeRoute.getPlan().getGoal().equals(targetLocation)) {
+                activeRoute = TravelPlanner.getInstance().route(currentLocation, targetLocation);
             }
+            log("Walking to " + locationDescription + " via " + activeRoute.getPlan());
             
-            // Final check
-            if (Players.getLocal().getTile().distance(targetLocation) <= acceptableDistance) {
+            if (activeRoute.walk(acceptableDistance)) {
                 log("Successfully reached " + locationDescription + ": " + Players.getLocal().getTile());
+                activeRoute = null;
                 return true;
             }
             
-            log("Failed to reach " + locationDescription + " after " + walkAttempts + " attempts");
+            log("Failed to reach " + locationDescription + " (stopped at leg " + (activeRoute.getLegIndex() + 1)
+                + "/" + activeRoute.getPlan().getLegs().size() + ")");
             return false;
             
         } catch (Exception e) {
@@ -135,15 +80,17 @@ public class WalkToLocationNode extends ActionNode {
         }
     }
     
-
-    
     @Override
     public int getEstimatedDurationSeconds() {
         if (Players.getLocal() != null) {
-            double distance = Players.getLocal().getTile().distance(targetLocation);
-            // Rough estimate: 1 second per 3 tiles
-            return Math.max(5, (int)(distance / 3));
+            TravelPlan plan = TravelPlanner.getInstance().plan(Players.getLocal().getTile(), targetLocation);
+            return Math.max(5, (int) plan.getEstimatedSeconds());
         }
         return 30; // Default estimate
     }
+    
+    @Override
+    public QuestDefinition.Step toStep() {
+        return QuestDefinition.Step.of(QuestDefinition.StepType.WALK, null, null, null, null, tileOf(targetLocation));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package quest.recording;
+
+/**
+ * Recording Event - one timestamped line of a recorded quest log, as kept in the RecordingIndex.
+ * The type is the line's category ("ACTION", "DIALOGUE_OPTIONS", "QUEST_STEP", "POSITION", ...);
+ * the first tile on the line and any varbit/config transition are pulled out for querying.
+ * An indented "SCRIPT:" line below an entry becomes its detail.
+ */
+public final class RecordingEvent {
+
+    public static final String VARBIT = "varbit";
+    public static final String CONFIG = "config";
+
+    private final RecordingIndex.FileEntry file;
+    private final int line;
+    private final int time;
+    String type;
+    private final String quest;
+    private final String text;
+    String detail;
+
+    private final boolean hasTile;
+    private final int x;
+    private final int y;
+    private final int z;
+
+    private final String varKind;
+    private final int varId;
+    private final int varFrom;
+    private final int varTo;
+
+    RecordingEvent(RecordingIndex.FileEntry file, int line, int time, String type, String quest, String text,
+                   String detail, boolean hasTile, int x, int y, int z,
+                   String varKind, int varId, int varFrom, int varTo) {
+        this.file = file;
+        this.line = line;
+        this.time = time;
+        this.type = type;
+        this.quest = quest;
+        this.text = text;
+        this.detail = detail;
+        this.hasTile = hasTile;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.varKind = varKind;
+        this.varId = varId;
+        this.varFrom = varFrom;
+        this.varTo = varTo;
+    }
+
+    /**
+     * "varbit 6071" / "config 101", or null if the line is not a var transition
+     */
+    public String getVarKey() {
+        return varKind != null ? varKind + " " + varId : null;
+    }
+
+    public boolean hasVar() {
+        return varKind != null;
+    }
+
+    /**
+     * Time of day as HH:mm:ss (the recordings only have the time; see getTime() for ordering)
+     */
+    public String getClock() {
+        int seconds = time % 86400;
+        return String.format("%02d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+
+    // Getters
+    public RecordingIndex.FileEntry getFile() { return file; }
+    public int getLine() { return line; }
+    public int getTime() { return time; }
+    public String getType() { return type; }
+    public String getQuest() { return quest; }
+    public String getText() { return text; }
+    public String getDetail() { return detail; }
+    public boolean hasTile() { return hasTile; }
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public int getZ() { return z; }
+    public String getVarKind() { return varKind; }
+    public int getVarId() { return varId; }
+    public int getVarFrom() { return varFrom; }
+    public int getVarTo() { return varTo; }
+
+    @Override
+    public String toString() {
+        return file.getName() + ":" + line + "  " + getClock() + "  " + type
+            + (quest != null ? "  [" + quest + "]" : "") + "  " + text + (detail != null ? " | " + detail : "");
+    }
+}
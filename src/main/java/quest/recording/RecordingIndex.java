@@ -0,0 +1,610 @@
+package quest.recording;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Recording Index - every recorded quest log in one queryable, compact on-disk index.
+ * Events are looked up by type, quest, varbit/config transition, map region and text, instead of
+ * grepping the logs by hand.
+ *
+ * update() only parses what changed: new logs, and the appended tail of logs that grew since the
+ * last pass (a log that shrank, or changed without growing, was rewritten and is parsed again from
+ * the start). Files are parsed
+ * in parallel on the fork/join pool. The index is stored gzipped with a shared string table, so
+ * hundreds of recordings load in well under a second.
+ *
+ * Kept free of DreamBot classes so RecordingQuery can run it from the command line.
+ */
+public class RecordingIndex {
+
+    public static final String DEFAULT_LOG_DIR = "quest_logs";
+    public static final String DEFAULT_INDEX = "quest_data/recordings.idx";
+
+    private static final int MAGIC = 0x51494458; // "QIDX"
+    private static final int VERSION = 1;
+    // Files parsed by one fork/join task before it stops splitting
+    private static final int FILES_PER_TASK = 2;
+    // OSRS map regions are 64x64 tiles
+    private static final int REGION_SHIFT = 6;
+
+    private static final Comparator<RecordingEvent> IN_FILE_ORDER =
+        Comparator.comparing((RecordingEvent e) -> e.getFile().getName()).thenComparingInt(RecordingEvent::getLine);
+
+    private final File logDirectory;
+    private final File indexFile;
+    private final Map<String, FileEntry> files = new TreeMap<>();
+
+    // Postings, rebuilt after every load/update
+    private final Map<String, List<RecordingEvent>> byType = new HashMap<>();
+    private final Map<String, List<RecordingEvent>> byQuest = new HashMap<>();
+    private final Map<String, List<RecordingEvent>> byVar = new HashMap<>();
+    private final Map<String, List<RecordingEvent>> byRegion = new HashMap<>();
+    private int eventCount = 0;
+
+    public RecordingIndex(File logDirectory, File indexFile) {
+        this.logDirectory = logDirectory;
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * Load the stored index, bring it up to date with the logs and store it again if anything changed
+     */
+    public static RecordingIndex open(File logDirectory, File indexFile) throws IOException {
+        RecordingIndex index = new RecordingIndex(logDirectory, indexFile);
+        if (indexFile.isFile()) {
+            try {
+                index.load();
+            } catch (IOException e) {
+                index.files.clear(); // Unreadable or older format - rebuild from the logs
+            }
+        }
+        UpdateStats stats = index.update();
+        if (stats.isChanged() || !indexFile.isFile()) {
+            index.save();
+        }
+        return index;
+    }
+
+    /**
+     * Parse one recording on its own, outside any index - a .log, or a RecordingJournal (.qrj)
+     */
+    public static FileEntry readFile(File file) throws IOException {
+        FileEntry entry = new FileEntry(file);
+        if (file.getName().endsWith(RecordingJournal.EXTENSION)) {
+            RecordingParser.parseJournal(entry);
+        } else {
+            RecordingParser.parse(entry);
+        }
+        entry.length = file.length();
+        entry.modified = file.lastModified();
+        return entry;
+    }
+
+    // ---- Updating ----
+
+    /**
+     * Parse new and appended logs, drop deleted ones
+     */
+    public synchronized UpdateStats update() {
+        long start = System.currentTimeMillis();
+        Set<String> present = new HashSet<>();
+        List<FileEntry> toParse = new ArrayList<>();
+        int appended = 0;
+        int reparsed = 0;
+
+        for (File file : RecordingParser.listLogs(logDirectory)) {
+            present.add(file.getName());
+            FileEntry entry = files.get(file.getName());
+            if (entry == null) {
+                entry = new FileEntry(file);
+                files.put(file.getName(), entry);
+            } else {
+                entry.file = file;
+                if (file.length() == entry.length && file.lastModified() == entry.modified) {
+                    continue; // unchanged
+                }
+                if (file.length() > entry.length && file.length() >= entry.parsedTo) {
+                    appended++;
+                } else {
+                    // Same length or shorter with a new time - rewritten in place, not appended to
+                    entry.reset();
+                    reparsed++;
+                }
+            }
+            entry.length = file.length();
+            entry.modified = file.lastModified();
+            toParse.add(entry);
+        }
+        int removed = 0;
+        for (Iterator<String> it = files.keySet().iterator(); it.hasNext(); ) {
+            if (!present.contains(it.next())) {
+                it.remove();
+                removed++;
+            }
+        }
+
+        int before = eventCount;
+        if (!toParse.isEmpty()) {
+            ForkJoinPool.commonPool().invoke(new ParseTask(toParse, 0, toParse.size()));
+        }
+        if (!toParse.isEmpty() || removed > 0) {
+            rebuildPostings();
+        }
+        return new UpdateStats(toParse.size() - appended - reparsed, appended, reparsed, removed,
+            eventCount - before, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Splits the file list in halves until each task has a couple of files to parse
+     */
+    private static final class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<FileEntry> entries;
+        private final int from;
+        private final int to;
+
+        ParseTask(List<FileEntry> entries, int from, int to) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= FILES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    FileEntry entry = entries.get(i);
+                    try {
+                        RecordingParser.parse(entry);
+                        entry.error = null;
+                    } catch (IOException e) {
+                        entry.error = e.getMessage();
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ParseTask(entries, from, mid), new ParseTask(entries, mid, to));
+        }
+    }
+
+    private void rebuildPostings() {
+        byType.clear();
+        byQuest.clear();
+        byVar.clear();
+        byRegion.clear();
+        eventCount = 0;
+        for (FileEntry entry : files.values()) {
+            for (RecordingEvent event : entry.events) {
+                eventCount++;
+                post(byType, event.getType(), event);
+                if (event.getQuest() != null) {
+                    post(byQuest, RecordingParser.questKey(event.getQuest()), event);
+                }
+                if (event.hasVar()) {
+                    post(byVar, event.getVarKey(), event);
+                }
+                if (event.hasTile()) {
+                    post(byRegion, regionKey(event.getX(), event.getY(), event.getZ()), event);
+                }
+            }
+        }
+    }
+
+    private static void post(Map<String, List<RecordingEvent>> postings, String key, RecordingEvent event) {
+        postings.computeIfAbsent(key, k -> new ArrayList<>()).add(event);
+    }
+
+    private static String regionKey(int x, int y, int z) {
+        return (x >> REGION_SHIFT) + "," + (y >> REGION_SHIFT) + "," + z;
+    }
+
+    // ---- Querying ----
+
+    /**
+     * Events matching every filter of the query, in file and line order
+     */
+    public synchronized List<RecordingEvent> query(Query query) {
+        List<RecordingEvent> results = new ArrayList<>();
+        for (RecordingEvent event : candidates(query)) {
+            if (query.matches(event)) {
+                results.add(event);
+                if (results.size() >= query.limit) break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Smallest posting list that can hold every match
+     */
+    private Collection<RecordingEvent> candidates(Query query) {
+        List<List<RecordingEvent>> lists = new ArrayList<>();
+        if (!query.types.isEmpty()) {
+            List<RecordingEvent> ofTypes = new ArrayList<>();
+            for (String type : query.types) {
+                ofTypes.addAll(byType.getOrDefault(type, Collections.emptyList()));
+            }
+            if (query.types.size() > 1) {
+                ofTypes.sort(IN_FILE_ORDER);
+            }
+            lists.add(ofTypes);
+        }
+        if (query.quest != null) lists.add(byQuest.getOrDefault(query.quest, Collections.emptyList()));
+        if (query.varKey != null) lists.add(byVar.getOrDefault(query.varKey, Collections.emptyList()));
+        if (query.radius >= 0) {
+            // Every region the radius touches
+            List<RecordingEvent> nearby = new ArrayList<>();
+            for (int rx = (query.x - query.radius) >> REGION_SHIFT; rx <= (query.x + query.radius) >> REGION_SHIFT; rx++) {
+                for (int ry = (query.y - query.radius) >> REGION_SHIFT; ry <= (query.y + query.radius) >> REGION_SHIFT; ry++) {
+                    nearby.addAll(byRegion.getOrDefault(rx + "," + ry + "," + query.z, Collections.emptyList()));
+                }
+            }
+            nearby.sort(IN_FILE_ORDER);
+            lists.add(nearby);
+        }
+        if (lists.isEmpty()) {
+            List<RecordingEvent> all = new ArrayList<>(eventCount);
+            for (FileEntry entry : files.values()) {
+                all.addAll(entry.events);
+            }
+            return all;
+        }
+        lists.sort(Comparator.comparingInt(List::size));
+        return lists.get(0);
+    }
+
+    public synchronized Map<String, Integer> countByType() {
+        return counts(byType);
+    }
+
+    public synchronized Map<String, Integer> countByQuest() {
+        return counts(byQuest);
+    }
+
+    public synchronized Map<String, Integer> countByVar() {
+        return counts(byVar);
+    }
+
+    private static Map<String, Integer> counts(Map<String, List<RecordingEvent>> postings) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Map.Entry<String, List<RecordingEvent>> entry : postings.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().size());
+        }
+        return counts;
+    }
+
+    public synchronized List<FileEntry> getFiles() {
+        return new ArrayList<>(files.values());
+    }
+
+    public synchronized int getEventCount() {
+        return eventCount;
+    }
+
+    // ---- Storage ----
+
+    public synchronized void save() throws IOException {
+        File parent = indexFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("cannot create " + parent);
+        }
+        // Shared string table: types, quests and repeated texts are stored once
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (FileEntry entry : files.values()) {
+            intern(strings, entry.headerQuest);
+            intern(strings, entry.quest);
+            intern(strings, entry.started);
+            for (RecordingEvent event : entry.events) {
+                intern(strings, event.getType());
+                intern(strings, event.getQuest());
+                intern(strings, event.getText());
+                intern(strings, event.getDetail());
+                intern(strings, event.getVarKind());
+            }
+        }
+
+        File temp = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(temp))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(strings.size());
+            for (String string : strings.keySet()) {
+                out.writeUTF(string);
+            }
+            out.writeInt(files.size());
+            for (FileEntry entry : files.values()) {
+                out.writeUTF(entry.file.getName());
+                out.writeLong(entry.length);
+                out.writeLong(entry.modified);
+                out.writeLong(entry.parsedTo);
+                out.writeInt(entry.lineCount);
+                out.writeInt(entry.lastSecond);
+                out.writeInt(entry.dayOffset);
+                out.writeInt(id(strings, entry.headerQuest));
+                out.writeInt(id(strings, entry.quest));
+                out.writeInt(id(strings, entry.started));
+                out.writeInt(entry.events.size());
+                for (RecordingEvent event : entry.events) {
+                    out.writeInt(event.getLine());
+                    out.writeInt(event.getTime());
+                    out.writeInt(id(strings, event.getType()));
+                    out.writeInt(id(strings, event.getQuest()));
+                    out.writeInt(id(strings, event.getText()));
+                    out.writeInt(id(strings, event.getDetail()));
+                    out.writeBoolean(event.hasTile());
+                    if (event.hasTile()) {
+                        out.writeShort(event.getX());
+                        out.writeShort(event.getY());
+                        out.writeByte(event.getZ());
+                    }
+                    out.writeInt(id(strings, event.getVarKind()));
+                    if (event.hasVar()) {
+                        out.writeInt(event.getVarId());
+                        out.writeInt(event.getVarFrom());
+                        out.writeInt(event.getVarTo());
+                    }
+                }
+            }
+        }
+        if (indexFile.exists() && !indexFile.delete() || !temp.renameTo(indexFile)) {
+            throw new IOException("cannot replace " + indexFile);
+        }
+    }
+
+    private synchronized void load() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(indexFile))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("not a recording index (or an older version)");
+            }
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+            int fileCount = in.readInt();
+            for (int f = 0; f < fileCount; f++) {
+                FileEntry entry = new FileEntry(new File(logDirectory, in.readUTF()));
+                entry.length = in.readLong();
+                entry.modified = in.readLong();
+                entry.parsedTo = in.readLong();
+                entry.lineCount = in.readInt();
+                entry.lastSecond = in.readInt();
+                entry.dayOffset = in.readInt();
+                entry.headerQuest = string(strings, in.readInt());
+                entry.quest = string(strings, in.readInt());
+                entry.started = string(strings, in.readInt());
+                int events = in.readInt();
+                for (int e = 0; e < events; e++) {
+                    int line = in.readInt();
+                    int time = in.readInt();
+                    String type = string(strings, in.readInt());
+                    String quest = string(strings, in.readInt());
+                    String text = string(strings, in.readInt());
+                    String detail = string(strings, in.readInt());
+                    boolean hasTile = in.readBoolean();
+                    int x = 0, y = 0, z = 0;
+                    if (hasTile) {
+                        x = in.readUnsignedShort();
+                        y = in.readUnsignedShort();
+                        z = in.readByte();
+                    }
+                    String varKind = string(strings, in.readInt());
+                    int varId = 0, varFrom = 0, varTo = 0;
+                    if (varKind != null) {
+                        varId = in.readInt();
+                        varFrom = in.readInt();
+                        varTo = in.readInt();
+                    }
+                    entry.events.add(new RecordingEvent(entry, line, time, type, quest, text, detail,
+                        hasTile, x, y, z, varKind, varId, varFrom, varTo));
+                }
+                files.put(entry.file.getName(), entry);
+            }
+        }
+        rebuildPostings();
+    }
+
+    private static void intern(Map<String, Integer> strings, String value) {
+        if (value != null) {
+            strings.putIfAbsent(value, strings.size());
+        }
+    }
+
+    private static int id(Map<String, Integer> strings, String value) {
+        return value != null ? strings.get(value) : -1;
+    }
+
+    private static String string(String[] strings, int id) {
+        return id >= 0 ? strings[id] : null;
+    }
+
+    /**
+     * One recorded log and how far it has been parsed
+     */
+    public static final class FileEntry {
+        File file;
+        long length;
+        long modified;
+        long parsedTo;
+        int lineCount;
+        int lastSecond = -1;
+        int dayOffset;
+        String headerQuest;
+        String quest;
+        String started;
+        String error;
+        final List<RecordingEvent> events = new ArrayList<>();
+
+        FileEntry(File file) {
+            this.file = file;
+        }
+
+        void reset() {
+            parsedTo = 0;
+            lineCount = 0;
+            lastSecond = -1;
+            dayOffset = 0;
+            headerQuest = null;
+            quest = null;
+            started = null;
+            events.clear();
+        }
+
+        // Getters
+        public String getName() { return file.getName(); }
+        public File getFile() { return file; }
+        public String getHeaderQuest() { return headerQuest; }
+        public String getStarted() { return started; }
+        public int getLineCount() { return lineCount; }
+        public int getEventCount() { return events.size(); }
+        public String getError() { return error; }
+        public List<RecordingEvent> getEvents() { return Collections.unmodifiableList(events); }
+    }
+
+    /**
+     * Filters for query(); unset filters match everything
+     */
+    public static final class Query {
+        private final Set<String> types = new HashSet<>();
+        private String quest;
+        private String varKey;
+        private String text;
+        private String fileName;
+        private int x, y, z;
+        private int radius = -1;
+        private int limit = Integer.MAX_VALUE;
+
+        /**
+         * Any of these types ("ACTION", "dialogue options", ...); can be called more than once
+         */
+        public Query type(String... types) {
+            for (String type : types) {
+                this.types.add(RecordingParser.typeOf(type));
+            }
+            return this;
+        }
+
+        /**
+         * Events of this quest, however its name is written (see RecordingParser.questKey)
+         */
+        public Query quest(String quest) {
+            this.quest = RecordingParser.questKey(quest);
+            return this;
+        }
+
+        /**
+         * A varbit or config transition, e.g. var(RecordingEvent.VARBIT, 6071)
+         */
+        public Query var(String kind, int id) {
+            this.varKey = kind + " " + id;
+            return this;
+        }
+
+        /**
+         * Case-insensitive substring of the line or its SCRIPT detail
+         */
+        public Query text(String text) {
+            this.text = text.toLowerCase();
+            return this;
+        }
+
+        public Query file(String fileName) {
+            this.fileName = fileName;
+            return this;
+        }
+
+        public Query near(int x, int y, int z, int radius) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.radius = radius;
+            return this;
+        }
+
+        public Query limit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * Whether a log passes the quest and file filters - its header quest or any of its events' quests
+         */
+        boolean matches(FileEntry entry) {
+            if (fileName != null && !entry.getName().contains(fileName)) return false;
+            if (quest == null) return true;
+            if (entry.headerQuest != null && quest.equals(RecordingParser.questKey(entry.headerQuest))) return true;
+            for (RecordingEvent event : entry.events) {
+                if (event.getQuest() != null && quest.equals(RecordingParser.questKey(event.getQuest()))) return true;
+            }
+            return false;
+        }
+
+        boolean matches(RecordingEvent event) {
+            if (!types.isEmpty() && !types.contains(event.getType())) return false;
+            if (quest != null && (event.getQuest() == null || !quest.equals(RecordingParser.questKey(event.getQuest())))) return false;
+            if (varKey != null && !varKey.equals(event.getVarKey())) return false;
+            if (fileName != null && !event.getFile().getName().contains(fileName)) return false;
+            if (radius >= 0 && (!event.hasTile() || event.getZ() != z
+                    || Math.max(Math.abs(event.getX() - x), Math.abs(event.getY() - y)) > radius)) {
+                return false;
+            }
+            if (text != null && !event.getText().toLowerCase().contains(text)
+                    && (event.getDetail() == null || !event.getDetail().toLowerCase().contains(text))) {
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * What one update() did
+     */
+    public static final class UpdateStats {
+        private final int added;
+        private final int appended;
+        private final int reparsed;
+        private final int removed;
+        private final int newEvents;
+        private final long elapsedMs;
+
+        UpdateStats(int added, int appended, int reparsed, int removed, int newEvents, long elapsedMs) {
+            this.added = added;
+            this.appended = appended;
+            this.reparsed = reparsed;
+            this.removed = removed;
+            this.newEvents = newEvents;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public boolean isChanged() {
+            return added + appended + reparsed + removed > 0;
+        }
+
+        // Getters
+        public int getAdded() { return added; }
+        public int getAppended() { return appended; }
+        public int getReparsed() { return reparsed; }
+        public int getRemoved() { return removed; }
+        public int getNewEvents() { return newEvents; }
+        public long getElapsedMs() { return elapsedMs; }
+
+        @Override
+        public String toString() {
+            return added + " new, " + appended + " appended, " + reparsed + " reparsed, " + removed + " removed logs; "
+                + newEvents + " events in " + elapsedMs + "ms";
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package quest.recording;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording Journal - append-only binary file a recording session is written to.
+ *
+ *   header   (HEADER_SIZE bytes)  magic "QRJ1", version, header size, start time, quest, player
+ *   record   int length | long timestamp ms | byte kind | payload
+ *
+ * Payload strings are varint-length UTF-8 and detail categories ("DIALOGUE_OPTIONS", "Position", ...)
+ * are sent once as a DEFINE record and then referred to by number. Records collect in a direct
+ * buffer and go to the FileChannel when it fills or FLUSH_INTERVAL_MS has passed, instead of a
+ * flush per line; a shared daemon thread also flushes a journal that has gone quiet, so a crash
+ * loses at most about that last second. RecordingJournalReader maps the file for replay and
+ * analysis.
+ *
+ * The same records can also be rendered into the familiar .log text next to the journal (batched
+ * the same way), so the text-based miners and RecordingIndex keep working.
+ */
+public class RecordingJournal implements Closeable {
+
+    public static final String EXTENSION = ".qrj";
+    public static final String TEXT_EXTENSION = ".log";
+
+    static final int MAGIC = 0x51524A31; // "QRJ1"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 256;
+    // Longest quest / player name (UTF-8 bytes) kept in the fixed header
+    private static final int MAX_HEADER_STRING = 110;
+
+    // Record kinds
+    static final byte DEFINE = 0;        // varint id, string - names a detail category
+    static final byte HEADER_FIELD = 1;  // string key, string value
+    static final byte STEP = 2;          // varint step number, string description, string script
+    static final byte ACTION = 3;        // string description, string script
+    static final byte DETAIL = 4;        // varint category id, string details
+    static final byte CONSOLE = 5;       // string message
+    static final byte END = 6;
+
+    static final int RECORD_OVERHEAD = 4 + 8 + 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    private static final DateTimeFormatter CLOCK = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter STARTED = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String TITLE = "    QUEST SCRIPT RECREATION LOG     ";
+    static final String RULE = "=====================================";
+
+    // Journal and text files still being written, so miners can leave them alone
+    private static final Set<File> OPEN_FILES = ConcurrentHashMap.newKeySet();
+    // Flushes journals whose tail would otherwise wait for the next record
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "RecordingJournal-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File file;
+    private final File textFile;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    private final Writer text;
+    private boolean textHeaderOpen;
+
+    private final Map<String, Integer> categories = new HashMap<>();
+    private long lastFlush = System.currentTimeMillis();
+    private boolean unflushed = false;
+    private final ScheduledFuture<?> flushTask;
+    private long records = 0;
+    private long bytes = HEADER_SIZE;
+    private boolean closed = false;
+
+    private RecordingJournal(File file, File textFile, String quest, String player, long startedMs) throws IOException {
+        this.file = file;
+        this.textFile = textFile;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        this.text = textFile != null
+            ? new BufferedWriter(new OutputStreamWriter(new FileOutputStream(textFile, true), StandardCharsets.UTF_8), BUFFER_SIZE)
+            : null;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) HEADER_SIZE).putLong(startedMs);
+        putString(header, clip(quest));
+        putString(header, clip(player));
+        header.position(HEADER_SIZE).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+
+        if (text != null) {
+            StringBuilder sb = new StringBuilder();
+            renderBanner(sb, quest, startedMs, player);
+            text.write(sb.toString());
+            textHeaderOpen = true;
+        }
+        OPEN_FILES.add(file.getAbsoluteFile());
+        if (textFile != null) {
+            OPEN_FILES.add(textFile.getAbsoluteFile());
+        }
+        this.flushTask = FLUSHER.scheduleWithFixedDelay(this::flushIfQuiet,
+            FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Start a journal in the directory
+     * @param baseName file name without extension (a "_2", "_3", ... suffix is added if it is taken)
+     * @param withText also render the .log text next to it
+     */
+    public static RecordingJournal create(File directory, String baseName, String quest, String player,
+                                          boolean withText) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+        String name = baseName;
+        for (int n = 2; new File(directory, name + EXTENSION).exists(); n++) {
+            name = baseName + "_" + n;
+        }
+        return new RecordingJournal(new File(directory, name + EXTENSION),
+            withText ? new File(directory, name + TEXT_EXTENSION) : null,
+            quest != null ? quest : "", player != null ? player : "", System.currentTimeMillis());
+    }
+
+    // ---- Records ----
+
+    /**
+     * Extra header line ("Starting Location", "Starting Inventory", ...); write these before any event
+     */
+    public synchronized void headerField(String key, String value) throws IOException {
+        scratch.clear();
+        putString(key);
+        putString(value);
+        append(HEADER_FIELD, System.currentTimeMillis(), key, 0, value, null);
+    }
+
+    public synchronized void step(int number, String description, String script) throws IOException {
+        scratch.clear();
+        putVarint(number);
+        putString(description);
+        putString(script != null ? script : "");
+        append(STEP, System.currentTimeMillis(), null, number, description, script);
+    }
+
+    public synchronized void action(String description, String script) throws IOException {
+        scratch.clear();
+        putString(description);
+        putString(script != null ? script : "");
+        append(ACTION, System.currentTimeMillis(), null, 0, description, script);
+    }
+
+    public synchronized void detail(String category, String details) throws IOException {
+        Integer id = categories.get(category);
+        if (id == null) {
+            id = categories.size();
+            categories.put(category, id);
+            scratch.clear();
+            putVarint(id);
+            putString(category);
+            append(DEFINE, System.currentTimeMillis(), null, 0, null, null);
+        }
+        scratch.clear();
+        putVarint(id);
+        putString(details);
+        append(DETAIL, System.currentTimeMillis(), category, 0, details, null);
+    }
+
+    public synchronized void console(String message) throws IOException {
+        scratch.clear();
+        putString(message);
+        append(CONSOLE, System.currentTimeMillis(), null, 0, message, null);
+    }
+
+    /**
+     * Frame the payload in scratch as one record, and render it as text
+     */
+    private void append(byte kind, long timestampMs, String category, int number,
+                        String message, String script) throws IOException {
+        if (closed) throw new IOException("journal closed");
+        scratch.flip();
+        int length = 8 + 1 + scratch.remaining();
+        if (buffer.remaining() < 4 + length) {
+            flushBuffer();
+        }
+        if (buffer.remaining() < 4 + length) {
+            // Larger than the whole buffer - write it straight through
+            ByteBuffer record = ByteBuffer.allocate(4 + length);
+            record.putInt(length).putLong(timestampMs).put(kind).put(scratch).flip();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } else {
+            buffer.putInt(length).putLong(timestampMs).put(kind).put(scratch);
+        }
+        records++;
+        bytes += 4 + length;
+        unflushed = true;
+
+        if (text != null && kind != DEFINE) {
+            StringBuilder sb = new StringBuilder(128);
+            if (kind != HEADER_FIELD && textHeaderOpen) {
+                sb.append(RULE).append("\n\n");
+                textHeaderOpen = false;
+            }
+            render(sb, kind, timestampMs, category, number, message, script);
+            text.write(sb.toString());
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastFlush >= FLUSH_INTERVAL_MS) {
+            flush();
+        }
+    }
+
+    /**
+     * The text log's opening lines; header fields follow, then a RULE before the first event
+     */
+    static void renderBanner(StringBuilder sb, String quest, long startedMs, String player) {
+        sb.append(RULE).append('\n').append(TITLE).append('\n').append(RULE).append('\n');
+        sb.append("Quest: ").append(quest).append('\n');
+        sb.append("Started: ").append(time(startedMs).format(STARTED)).append('\n');
+        sb.append("Player: ").append(player).append('\n');
+    }
+
+    /**
+     * The text form of one record, as QuestEventLogger used to write it
+     */
+    static void render(StringBuilder sb, byte kind, long timestampMs, String category, int number,
+                       String message, String script) {
+        if (kind == HEADER_FIELD) {
+            sb.append(category).append(": ").append(message).append('\n');
+            return;
+        }
+        sb.append('[').append(time(timestampMs).format(CLOCK)).append("] ");
+        switch (kind) {
+            case STEP:
+                sb.append("QUEST STEP ").append(number).append(": ").append(message).append('\n');
+                appendScript(sb, script);
+                break;
+            case ACTION:
+                sb.append("ACTION: ").append(message).append('\n');
+                appendScript(sb, script);
+                break;
+            case DETAIL:
+                sb.append(category).append(": ").append(message).append('\n');
+                break;
+            case CONSOLE:
+                sb.append("DREAMBOT_CONSOLE: ").append(message).append('\n');
+                break;
+            default:
+                sb.setLength(0);
+        }
+    }
+
+    private static void appendScript(StringBuilder sb, String script) {
+        if (script != null && !script.isEmpty()) {
+            sb.append("    SCRIPT: ").append(script).append('\n');
+        }
+        sb.append('\n');
+    }
+
+    // ---- Flushing ----
+
+    public synchronized void flush() throws IOException {
+        flushBuffer();
+        if (text != null) {
+            text.flush();
+        }
+        lastFlush = System.currentTimeMillis();
+        unflushed = false;
+    }
+
+    /**
+     * From the flusher thread: write out records that have waited FLUSH_INTERVAL_MS with nothing after them
+     */
+    private synchronized void flushIfQuiet() {
+        if (closed || !unflushed || System.currentTimeMillis() - lastFlush < FLUSH_INTERVAL_MS) return;
+        try {
+            flush();
+        } catch (IOException e) {
+            // The next record hits the same error and reports it to the logger
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        scratch.clear();
+        append(END, System.currentTimeMillis(), null, 0, null, null);
+        closed = true;
+        try {
+            flush();
+        } finally {
+            flushTask.cancel(false);
+            OPEN_FILES.remove(file.getAbsoluteFile());
+            if (textFile != null) {
+                OPEN_FILES.remove(textFile.getAbsoluteFile());
+            }
+            channel.close();
+            if (text != null) {
+                text.close();
+            }
+        }
+    }
+
+    /**
+     * Whether a journal in this process is still writing the file (.qrj or its .log text)
+     */
+    public static boolean isBeingWritten(File file) {
+        return OPEN_FILES.contains(file.getAbsoluteFile());
+    }
+
+    // ---- Encoding ----
+
+    private void putString(String value) {
+        byte[] encoded = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        ensureScratch(5 + encoded.length);
+        putVarint(scratch, encoded.length);
+        scratch.put(encoded);
+    }
+
+    private void putVarint(int value) {
+        ensureScratch(5);
+        putVarint(scratch, value);
+    }
+
+    private void ensureScratch(int extra) {
+        if (scratch.remaining() < extra) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(scratch.capacity() * 2, scratch.position() + extra));
+            scratch.flip();
+            bigger.put(scratch);
+            scratch = bigger;
+        }
+    }
+
+    private static void putString(ByteBuffer target, String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(target, encoded.length);
+        target.put(encoded);
+    }
+
+    static void putVarint(ByteBuffer target, int value) {
+        while ((value & ~0x7F) != 0) {
+            target.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+
+    private static String clip(String value) {
+        String clipped = value != null ? value : "";
+        while (clipped.getBytes(StandardCharsets.UTF_8).length > MAX_HEADER_STRING) {
+            clipped = clipped.substring(0, clipped.length() - 1);
+        }
+        return clipped;
+    }
+
+    static LocalDateTime time(long timestampMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMs), ZoneId.systemDefault());
+    }
+
+    // Getters
+    public File getFile() { return file; }
+    public File getTextFile() { return textFile; }
+    public synchronized long getRecordCount() { return records; }
+    public synchronized long getBytesWritten() { return bytes; }
+}
@@ -0,0 +1,284 @@
+package quest.recording;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recording Journal Reader - maps a RecordingJournal file read-only and walks its records.
+ * Nothing is copied until it is asked for: the cursor only reads record headers, and strings are
+ * decoded from the mapping on access. A journal whose last record was cut off (crash mid-write)
+ * reads up to the last complete record.
+ *
+ * Usage: java quest.recording.RecordingJournalReader FILE.qrj [--text OUT.log]
+ */
+public class RecordingJournalReader implements Closeable {
+
+    private final File file;
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final long startedMs;
+    private final String quest;
+    private final String player;
+    private final List<String> categories = new ArrayList<>();
+
+    public RecordingJournalReader(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < RecordingJournal.HEADER_SIZE) {
+                throw new IOException("not a recording journal (too short): " + file);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("recording journal too large to map: " + file);
+            }
+            this.map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt(0) != RecordingJournal.MAGIC) {
+                throw new IOException("not a recording journal: " + file);
+            }
+            if (map.getShort(4) != RecordingJournal.VERSION) {
+                throw new IOException("unsupported journal version " + map.getShort(4) + ": " + file);
+            }
+            ByteBuffer header = map.duplicate();
+            header.position(16);
+            this.startedMs = map.getLong(8);
+            this.quest = readString(header);
+            this.player = readString(header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Write the journal back out in the .log text format
+     */
+    public void renderText(Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(256);
+        RecordingJournal.renderBanner(sb, quest, startedMs, player);
+        boolean headerOpen = true;
+
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            byte kind = cursor.getKind();
+            if (kind == RecordingJournal.DEFINE || kind == RecordingJournal.END) continue;
+            if (kind != RecordingJournal.HEADER_FIELD && headerOpen) {
+                sb.append(RecordingJournal.RULE).append("\n\n");
+                headerOpen = false;
+            }
+            RecordingJournal.render(sb, kind, cursor.getTimestamp(), cursor.getCategory(), cursor.getNumber(),
+                cursor.getMessage(), cursor.getScript());
+            out.write(sb.toString());
+            sb.setLength(0);
+        }
+        out.write(sb.toString());
+        out.flush();
+    }
+
+    /**
+     * Forward-only walk over the records. Each next() decodes only the record header and
+     * remembers where the payload fields start.
+     */
+    public final class Cursor {
+
+        private final ByteBuffer view = map.duplicate();
+        private int recordEnd = RecordingJournal.HEADER_SIZE;
+        private long timestamp;
+        private byte kind = -1;
+        private int number;
+        private int categoryId = -1;
+        private int messageAt = -1;
+        private int scriptAt = -1;
+        private int keyAt = -1;
+        private boolean ended;
+
+        private Cursor() {
+            view.position(RecordingJournal.HEADER_SIZE);
+        }
+
+        /**
+         * @return false at the end of the journal (or at a truncated last record)
+         */
+        public boolean next() {
+            if (ended || map.limit() - recordEnd < RecordingJournal.RECORD_OVERHEAD) return false;
+            int length = map.getInt(recordEnd);
+            if (length < RecordingJournal.RECORD_OVERHEAD - 4 || length > map.limit() - recordEnd - 4) {
+                ended = true;
+                return false;
+            }
+            int start = recordEnd;
+            recordEnd = start + 4 + length;
+            timestamp = map.getLong(start + 4);
+            kind = map.get(start + 12);
+            number = 0;
+            categoryId = -1;
+            messageAt = -1;
+            scriptAt = -1;
+            keyAt = -1;
+
+            view.limit(recordEnd).position(start + RecordingJournal.RECORD_OVERHEAD);
+            switch (kind) {
+                case RecordingJournal.DEFINE: {
+                    int id = readVarint(view);
+                    String name = readString(view);
+                    while (categories.size() <= id) categories.add(null);
+                    categories.set(id, name);
+                    break;
+                }
+                case RecordingJournal.HEADER_FIELD:
+                    keyAt = view.position();
+                    skipString(view);
+                    messageAt = view.position();
+                    break;
+                case RecordingJournal.STEP:
+                    number = readVarint(view);
+                    messageAt = view.position();
+                    skipString(view);
+                    scriptAt = view.position();
+                    break;
+                case RecordingJournal.ACTION:
+                    messageAt = view.position();
+                    skipString(view);
+                    scriptAt = view.position();
+                    break;
+                case RecordingJournal.DETAIL:
+                    categoryId = readVarint(view);
+                    messageAt = view.position();
+                    break;
+                case RecordingJournal.CONSOLE:
+                    messageAt = view.position();
+                    break;
+                case RecordingJournal.END:
+                    ended = true;
+                    break;
+                default:
+                    // Unknown kind from a newer writer - skip it
+                    break;
+            }
+            return true;
+        }
+
+        /**
+         * Detail category, or the key of a header field
+         */
+        public String getCategory() {
+            if (keyAt >= 0) return stringAt(keyAt);
+            return categoryId >= 0 && categoryId < categories.size() ? categories.get(categoryId) : null;
+        }
+
+        public String getMessage() {
+            return messageAt >= 0 ? stringAt(messageAt) : null;
+        }
+
+        /**
+         * SCRIPT line of a step or action, or null
+         */
+        public String getScript() {
+            if (kind != RecordingJournal.STEP && kind != RecordingJournal.ACTION) return null;
+            String script = stringAt(scriptAt);
+            return script.isEmpty() ? null : script;
+        }
+
+        private String stringAt(int position) {
+            ByteBuffer at = map.duplicate();
+            at.limit(recordEnd).position(position);
+            return readString(at);
+        }
+
+        // Getters
+        public long getTimestamp() { return timestamp; }
+        public byte getKind() { return kind; }
+        public int getNumber() { return number; }
+        public int getOffset() { return recordEnd; }
+    }
+
+    // ---- Decoding ----
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalStateException("malformed varint");
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarint(in);
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            in.duplicate().get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void skipString(ByteBuffer in) {
+        int length = readVarint(in);
+        in.position(in.position() + length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Getters
+    public File getFile() { return file; }
+    public long getStartedMs() { return startedMs; }
+    public String getQuest() { return quest; }
+    public String getPlayer() { return player; }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && !(args.length == 3 && "--text".equals(args[1]))) {
+            System.err.println("Usage: java quest.recording.RecordingJournalReader FILE.qrj [--text OUT.log]");
+            return;
+        }
+        try (RecordingJournalReader reader = new RecordingJournalReader(new File(args[0]))) {
+            if (args.length == 3) {
+                try (Writer out = new OutputStreamWriter(new FileOutputStream(args[2]), StandardCharsets.UTF_8)) {
+                    reader.renderText(out);
+                }
+                System.out.println("Wrote " + args[2]);
+                return;
+            }
+            int[] counts = new int[8];
+            int total = 0;
+            long last = reader.getStartedMs();
+            Cursor cursor = reader.cursor();
+            while (cursor.next()) {
+                total++;
+                last = cursor.getTimestamp();
+                if (cursor.getKind() >= 0 && cursor.getKind() < counts.length) counts[cursor.getKind()]++;
+            }
+            System.out.println("Journal: " + reader.getFile().getName());
+            System.out.println("Quest:   " + reader.getQuest());
+            System.out.println("Player:  " + reader.getPlayer());
+            System.out.println("Started: " + RecordingJournal.time(reader.getStartedMs()));
+            System.out.println("Length:  " + ((last - reader.getStartedMs()) / 1000) + "s, " + total + " records"
+                + (counts[RecordingJournal.END] == 0 ? " (not closed cleanly)" : ""));
+            System.out.println("Steps " + counts[RecordingJournal.STEP] + ", actions " + counts[RecordingJournal.ACTION]
+                + ", details " + counts[RecordingJournal.DETAIL] + ", console " + counts[RecordingJournal.CONSOLE]);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package quest.recording;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recording Parser - streams a recorded quest log into RecordingEvents.
+ * Reads the QuestEventLogger and QuestLogger formats line by line:
+ *
+ *   Quest: Free_Discovery                                   (header)
+ *   Started: 2025-08-24 22:16:57                            (header)
+ *   [22:17:06] ACTION: Selected 'Talk-to' on Redbeard Frank
+ *       SCRIPT: NPCs.closest("Redbeard Frank").interact("Talk-to");
+ *   [00:13:14] QUEST STEP 5: VARBIT DISCOVERED: Unknown Quest varbit 6071 changed from 15 to 20
+ *
+ * Parsing resumes at the file entry's byte offset, so a log that is still being written is only
+ * read from where the last pass stopped; a trailing line without its newline is left for the next one.
+ */
+final class RecordingParser {
+
+    private static final Pattern LINE = Pattern.compile("^\\[(\\d{2}):(\\d{2}):(\\d{2})\\] ([^:\\[\\]]{1,60}): ?(.*)$");
+    private static final Pattern SCRIPT = Pattern.compile("^\\s+SCRIPT: (.*)$");
+    private static final Pattern QUEST = Pattern.compile("^Quest: (.+)$");
+    private static final Pattern STARTED = Pattern.compile("^Started: (\\d{4}-\\d{2}-\\d{2}) ");
+    private static final Pattern TILE = Pattern.compile("\\((\\d+), (\\d+), (\\d+)\\)");
+    private static final Pattern VAR_CHANGE = Pattern.compile("(varbit|config) (\\d+) changed from (-?\\d+) to (-?\\d+)");
+
+    // Recordings started without a quest are named like this; their quest comes from the detection lines
+    private static final String DISCOVERY_QUEST = "Free_Discovery";
+    private static final String ACTIVE_QUEST = "ACTIVE_QUEST_DETECTED";
+    private static final String DIALOGUE_SELECTION = "DIALOGUE_SELECTION";
+    // The clock going back by more than this means the recording ran past midnight
+    private static final int MIDNIGHT_SLACK_SECONDS = 3600;
+    // Longest text kept per line (the index stores strings with writeUTF)
+    private static final int MAX_TEXT = 4000;
+
+    private RecordingParser() {
+        // Static utility
+    }
+
+    /**
+     * Parse the part of the file after entry.parsedTo and append its events to the entry
+     * @return number of new events
+     */
+    static int parse(RecordingIndex.FileEntry entry) throws IOException {
+        int before = entry.events.size();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(entry.file), 1 << 16)) {
+            skipFully(in, entry.parsedTo);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long offset = entry.parsedTo;
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                offset += line.size() + 1;
+                String text = new String(line.toByteArray(), StandardCharsets.UTF_8);
+                line.reset();
+                handleLine(entry, text.endsWith("\r") ? text.substring(0, text.length() - 1) : text);
+            }
+            entry.parsedTo = offset;
+        }
+        return entry.events.size() - before;
+    }
+
+    /**
+     * Parse a whole RecordingJournal (.qrj) into the entry by rendering each record as its text line
+     * @return number of events
+     */
+    static int parseJournal(RecordingIndex.FileEntry entry) throws IOException {
+        int before = entry.events.size();
+        try (RecordingJournalReader reader = new RecordingJournalReader(entry.file)) {
+            StringBuilder sb = new StringBuilder(256);
+            RecordingJournal.renderBanner(sb, reader.getQuest(), reader.getStartedMs(), reader.getPlayer());
+            handleLines(entry, sb);
+            RecordingJournalReader.Cursor cursor = reader.cursor();
+            while (cursor.next()) {
+                byte kind = cursor.getKind();
+                if (kind == RecordingJournal.DEFINE || kind == RecordingJournal.END) continue;
+                RecordingJournal.render(sb, kind, cursor.getTimestamp(), cursor.getCategory(), cursor.getNumber(),
+                    cursor.getMessage(), cursor.getScript());
+                handleLines(entry, sb);
+            }
+        }
+        entry.parsedTo = entry.file.length();
+        return entry.events.size() - before;
+    }
+
+    private static void handleLines(RecordingIndex.FileEntry entry, StringBuilder text) {
+        int start = 0;
+        for (int end = text.indexOf("\n"); end >= 0; end = text.indexOf("\n", start)) {
+            handleLine(entry, text.substring(start, end));
+            start = end + 1;
+        }
+        text.setLength(0);
+    }
+
+    private static void handleLine(RecordingIndex.FileEntry entry, String line) {
+        entry.lineCount++;
+        if (line.isEmpty()) return;
+
+        Matcher matcher = LINE.matcher(line);
+        if (!matcher.matches()) {
+            handleOtherLine(entry, line);
+            return;
+        }
+
+        int secondOfDay = Integer.parseInt(matcher.group(1)) * 3600 + Integer.parseInt(matcher.group(2)) * 60
+            + Integer.parseInt(matcher.group(3));
+        if (entry.lastSecond >= 0 && secondOfDay < entry.lastSecond - MIDNIGHT_SLACK_SECONDS) {
+            entry.dayOffset++;
+        }
+        entry.lastSecond = secondOfDay;
+
+        String type = typeOf(matcher.group(4));
+        String text = clip(matcher.group(5));
+        if (ACTIVE_QUEST.equals(type)) {
+            int space = text.indexOf(' ');
+            entry.quest = space > 0 ? text.substring(0, space) : text;
+        }
+
+        boolean hasTile = false;
+        int x = 0, y = 0, z = 0;
+        Matcher tile = TILE.matcher(text);
+        if (tile.find()) {
+            hasTile = true;
+            x = Integer.parseInt(tile.group(1));
+            y = Integer.parseInt(tile.group(2));
+            z = Integer.parseInt(tile.group(3));
+        }
+
+        String varKind = null;
+        int varId = 0, varFrom = 0, varTo = 0;
+        Matcher change = VAR_CHANGE.matcher(text);
+        if (change.find()) {
+            varKind = RecordingEvent.VARBIT.equals(change.group(1)) ? RecordingEvent.VARBIT : RecordingEvent.CONFIG;
+            varId = Integer.parseInt(change.group(2));
+            varFrom = Integer.parseInt(change.group(3));
+            varTo = Integer.parseInt(change.group(4));
+        }
+
+        RecordingEvent event = new RecordingEvent(entry, entry.lineCount, secondOfDay + entry.dayOffset * 86400,
+            type, entry.quest, text, null, hasTile, x, y, z, varKind, varId, varFrom, varTo);
+        entry.events.add(event);
+    }
+
+    /**
+     * Header and SCRIPT continuation lines
+     */
+    private static void handleOtherLine(RecordingIndex.FileEntry entry, String line) {
+        Matcher script = SCRIPT.matcher(line);
+        if (script.matches()) {
+            RecordingEvent last = entry.events.isEmpty() ? null : entry.events.get(entry.events.size() - 1);
+            if (last != null && last.detail == null) {
+                last.detail = clip(script.group(1));
+                // "ACTION: DIALOGUE_SELECTION" + "SCRIPT: <option>" is one dialogue choice
+                if (DIALOGUE_SELECTION.equals(last.getText())) {
+                    last.type = DIALOGUE_SELECTION;
+                }
+            }
+            return;
+        }
+        if (entry.headerQuest == null) {
+            Matcher quest = QUEST.matcher(line);
+            if (quest.find()) {
+                entry.headerQuest = quest.group(1).trim();
+                if (!DISCOVERY_QUEST.equals(entry.headerQuest)) {
+                    entry.quest = entry.headerQuest;
+                }
+                return;
+            }
+        }
+        if (entry.started == null) {
+            Matcher started = STARTED.matcher(line);
+            if (started.find()) {
+                entry.started = started.group(1);
+            }
+        }
+    }
+
+    /**
+     * "ACTION" -> ACTION, "QUEST STEP 5" -> QUEST_STEP, "Position" -> POSITION
+     */
+    static String typeOf(String category) {
+        String type = category.trim().toUpperCase().replace(' ', '_');
+        if (type.startsWith("QUEST_STEP")) return "QUEST_STEP";
+        return type;
+    }
+
+    /**
+     * Key a quest is indexed and looked up by: "Below Ice Mountain", "below_ice_mountain" and
+     * "BELOW_ICE_MOUNTAIN" are one quest, as are "Pirate's Treasure" and "PIRATES_TREASURE"
+     */
+    static String questKey(String quest) {
+        return quest.trim().toLowerCase().replace("'", "").replaceAll("[^a-z0-9]+", "_").replaceAll("^_+|_+$", "");
+    }
+
+    private static String clip(String text) {
+        return text.length() > MAX_TEXT ? text.substring(0, MAX_TEXT) : text;
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() == -1) throw new EOFException("file shorter than indexed offset");
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    static File[] listLogs(File directory) {
+        File[] files = directory.listFiles((d, name) -> name.endsWith(".log"));
+        return files != null ? files : new File[0];
+    }
+}
@@ -0,0 +1,128 @@
+package quest.recording;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recording Query - command line front end for the RecordingIndex.
+ * Opens (and incrementally updates) the index, then prints what was asked for.
+ *
+ * Usage: java quest.recording.RecordingQuery [--logs DIR] [--index FILE] [--rebuild] COMMAND [filters]
+ *
+ *   stats                 files, events, and counts by type and quest
+ *   files                 indexed logs with their quest and event count (--quest and --file apply)
+ *   events                matching events
+ *   dialogue              option screens and the choices made
+ *   vars                  varbit/config transitions
+ *
+ * Filters: --type T  --quest Q  --var varbit:6071|config:101  --near x,y,z[,radius]  --text S  --file NAME  --limit N
+ */
+public class RecordingQuery {
+
+    private static final int DEFAULT_NEAR_RADIUS = 10;
+
+    public static void main(String[] args) throws IOException {
+        String logs = RecordingIndex.DEFAULT_LOG_DIR;
+        String indexPath = RecordingIndex.DEFAULT_INDEX;
+        boolean rebuild = false;
+        String command = null;
+        RecordingIndex.Query query = new RecordingIndex.Query();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--logs": logs = args[++i]; break;
+                case "--index": indexPath = args[++i]; break;
+                case "--rebuild": rebuild = true; break;
+                case "--type": query.type(args[++i]); break;
+                case "--quest": query.quest(args[++i]); break;
+                case "--text": query.text(args[++i]); break;
+                case "--file": query.file(args[++i]); break;
+                case "--limit": query.limit(Integer.parseInt(args[++i])); break;
+                case "--var": {
+                    String[] parts = args[++i].split(":");
+                    query.var(parts[0].toLowerCase(), Integer.parseInt(parts[1]));
+                    break;
+                }
+                case "--near": {
+                    String[] parts = args[++i].split(",");
+                    query.near(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                        Integer.parseInt(parts[2].trim()),
+                        parts.length > 3 ? Integer.parseInt(parts[3].trim()) : DEFAULT_NEAR_RADIUS);
+                    break;
+                }
+                default:
+                    if (command == null && !args[i].startsWith("--")) {
+                        command = args[i];
+                    } else {
+                        System.err.println("Unknown argument: " + args[i]);
+                        return;
+                    }
+            }
+        }
+        if (command == null) {
+            System.err.println("Usage: java quest.recording.RecordingQuery [--logs DIR] [--index FILE] [--rebuild]"
+                + " stats|files|events|dialogue|vars [--type T] [--quest Q] [--var varbit:ID] [--near x,y,z[,r]]"
+                + " [--text S] [--file NAME] [--limit N]");
+            return;
+        }
+
+        File indexFile = new File(indexPath);
+        if (rebuild && indexFile.exists() && !indexFile.delete()) {
+            System.err.println("Could not delete " + indexFile);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        RecordingIndex index = RecordingIndex.open(new File(logs), indexFile);
+        System.out.println("Index: " + index.getFiles().size() + " logs, " + index.getEventCount() + " events ("
+            + (System.currentTimeMillis() - start) + "ms)");
+
+        switch (command) {
+            case "stats":
+                printCounts("By type", index.countByType());
+                printCounts("By quest", index.countByQuest());
+                printCounts("By var", index.countByVar());
+                break;
+            case "files":
+                for (RecordingIndex.FileEntry entry : index.getFiles()) {
+                    if (!query.matches(entry)) continue;
+                    System.out.println(String.format("%-60s %-28s %6d lines %6d events%s", entry.getName(),
+                        entry.getHeaderQuest() != null ? entry.getHeaderQuest() : "-", entry.getLineCount(),
+                        entry.getEventCount(), entry.getError() != null ? "  (" + entry.getError() + ")" : ""));
+                }
+                break;
+            case "events":
+                print(index.query(query));
+                break;
+            case "dialogue":
+                print(index.query(query.type("DIALOGUE_OPTIONS", "DIALOGUE_SELECTION")));
+                break;
+            case "vars":
+                for (RecordingEvent event : index.query(query)) {
+                    if (event.hasVar()) {
+                        System.out.println(event.getFile().getName() + ":" + event.getLine() + "  " + event.getClock()
+                            + "  " + event.getVarKey() + ": " + event.getVarFrom() + " -> " + event.getVarTo()
+                            + (event.getQuest() != null ? "  [" + event.getQuest() + "]" : ""));
+                    }
+                }
+                break;
+            default:
+                System.err.println("Unknown command: " + command);
+        }
+    }
+
+    private static void print(List<RecordingEvent> events) {
+        for (RecordingEvent event : events) {
+            System.out.println(event);
+        }
+        System.out.println("(" + events.size() + " events)");
+    }
+
+    private static void printCounts(String title, Map<String, Integer> counts) {
+        System.out.println(title + ":");
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            System.out.println(String.format("  %-40s %7d", entry.getKey(), entry.getValue()));
+        }
+    }
+}
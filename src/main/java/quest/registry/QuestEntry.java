@@ -0,0 +1,44 @@
+package quest.registry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Registers a QuestTree subclass as a runnable quest. QuestRegistryProcessor collects these at
+ * compile time into the generated quest table, so adding a quest is just annotating its tree.
+ *
+ *   @QuestEntry(id = "COOKS_ASSISTANT", name = "Cook's Assistant", minutes = 5,
+ *               items = {"Egg", "Bucket of milk", "Pot of flour"})
+ *   public class CooksAssistantTree extends QuestTree { ... }
+ *
+ * A tree with debug entry points repeats the annotation with a variant, which is passed to its
+ * (String) constructor; without one the no-argument constructor is used.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+@Repeatable(QuestEntries.class)
+public @interface QuestEntry {
+
+    /** Quest id used by the executor, queue and database, e.g. "COOKS_ASSISTANT" */
+    String id();
+
+    /** Name shown in the GUI */
+    String name();
+
+    QuestType type() default QuestType.F2P;
+
+    int difficulty() default 1;
+
+    /** Estimated duration in minutes */
+    int minutes() default 10;
+
+    String[] skills() default {};
+
+    String[] items() default {};
+
+    /** Argument for the tree's (String) constructor, for debug entry points */
+    String variant() default "";
+}
@@ -0,0 +1,95 @@
+package quest.registry;
+
+import quest.core.QuestTree;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Quest Registry - every quest with a QuestTree, as declared by the @QuestEntry annotations on the
+ * trees and collected at compile time into GeneratedQuestRegistry. Lookups by id or display name
+ * are single map reads; trees are only constructed by Entry.createTree().
+ */
+public final class QuestRegistry {
+
+    private static final Map<String, Entry> BY_ID = new HashMap<>();
+    private static final Map<String, Entry> BY_NAME = new HashMap<>();
+    private static final List<Entry> ENTRIES;
+
+    static {
+        List<Entry> entries = new ArrayList<>();
+        for (Entry entry : GeneratedQuestRegistry.entries()) {
+            BY_ID.put(entry.id, entry);
+            BY_NAME.put(entry.displayName, entry);
+            entries.add(entry);
+        }
+        ENTRIES = Collections.unmodifiableList(entries);
+    }
+
+    private QuestRegistry() {
+        // Static utility
+    }
+
+    public static Entry get(String questId) {
+        return questId != null ? BY_ID.get(questId) : null;
+    }
+
+    public static Entry byDisplayName(String displayName) {
+        return displayName != null ? BY_NAME.get(displayName) : null;
+    }
+
+    public static boolean contains(String questId) {
+        return get(questId) != null;
+    }
+
+    /**
+     * All entries, in id order
+     */
+    public static List<Entry> all() {
+        return ENTRIES;
+    }
+
+    public static final class Entry {
+        private final String id;
+        private final String displayName;
+        private final QuestType type;
+        private final int difficulty;
+        private final int estimatedMinutes;
+        private final List<String> skills;
+        private final List<String> items;
+        private final Supplier<QuestTree> factory;
+
+        Entry(String id, String displayName, QuestType type, int difficulty, int estimatedMinutes,
+              String[] skills, String[] items, Supplier<QuestTree> factory) {
+            this.id = id;
+            this.displayName = displayName;
+            this.type = type;
+            this.difficulty = difficulty;
+            this.estimatedMinutes = estimatedMinutes;
+            this.skills = Collections.unmodifiableList(Arrays.asList(skills));
+            this.items = Collections.unmodifiableList(Arrays.asList(items));
+            this.factory = factory;
+        }
+
+        /**
+         * A new tree for this quest (trees hold run state, so every start gets its own)
+         */
+        public QuestTree createTree() {
+            return factory.get();
+        }
+
+        // Getters
+        public String getId() { return id; }
+        public String getDisplayName() { return displayName; }
+        public QuestType getType() { return type; }
+        public int getDifficulty() { return difficulty; }
+        public int getEstimatedMinutes() { return estimatedMinutes; }
+        public List<String> getSkills() { return skills; }
+        public List<String> getItems() { return items; }
+
+        @Override
+        public String toString() {
+            return id + " (" + displayName + ")";
+        }
+    }
+}
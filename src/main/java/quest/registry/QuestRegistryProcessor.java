@@ -0,0 +1,198 @@
+package quest.registry;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Quest Registry Processor - turns the QuestEntry annotations on QuestTree subclasses into
+ * GeneratedQuestRegistry, the table QuestRegistry serves lookups from. Runs at compile time
+ * (see the compile-quests execution in pom.xml), so nothing is scanned or reflected at startup
+ * and a tree is only constructed when its quest is started.
+ *
+ * Checks each entry while it is at it: the class must be a concrete QuestTree with the public
+ * constructor the entry needs, and ids and names must be unique. Problems fail the build.
+ */
+@SupportedAnnotationTypes({"quest.registry.QuestEntry", "quest.registry.QuestEntries"})
+public class QuestRegistryProcessor extends AbstractProcessor {
+
+    static final String PACKAGE = "quest.registry";
+    static final String GENERATED = "GeneratedQuestRegistry";
+    private static final String QUEST_TREE = "quest.core.QuestTree";
+
+    private final List<Found> found = new ArrayList<>();
+    private boolean generated = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        Set<Element> annotated = new LinkedHashSet<>(round.getElementsAnnotatedWith(QuestEntry.class));
+        annotated.addAll(round.getElementsAnnotatedWith(QuestEntries.class));
+        for (Element element : annotated) {
+            if (element instanceof TypeElement && isValidTree((TypeElement) element)) {
+                for (QuestEntry entry : element.getAnnotationsByType(QuestEntry.class)) {
+                    found.add(new Found((TypeElement) element, entry));
+                }
+            }
+        }
+        // Everything is in the first round (no other processor generates trees); writing it there
+        // keeps the generated class part of the same compilation as QuestRegistry
+        if (!generated && !round.processingOver()) {
+            generated = true;
+            if (checkUnique()) {
+                write();
+            }
+        }
+        return true;
+    }
+
+    private boolean isValidTree(TypeElement type) {
+        Messager messager = processingEnv.getMessager();
+        TypeElement questTree = processingEnv.getElementUtils().getTypeElement(QUEST_TREE);
+        if (questTree == null) {
+            messager.printMessage(Diagnostic.Kind.ERROR, QUEST_TREE + " not found", type);
+            return false;
+        }
+        if (!processingEnv.getTypeUtils().isSubtype(type.asType(), questTree.asType())) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@QuestEntry is only for QuestTree subclasses", type);
+            return false;
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT) || !type.getModifiers().contains(Modifier.PUBLIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@QuestEntry tree must be a public, non-abstract class", type);
+            return false;
+        }
+        boolean ok = true;
+        for (QuestEntry entry : type.getAnnotationsByType(QuestEntry.class)) {
+            boolean withVariant = !entry.variant().isEmpty();
+            if (!hasConstructor(type, withVariant)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, entry.id() + " needs a public "
+                    + (withVariant ? "(String variant)" : "no-argument") + " constructor in " + type.getSimpleName(), type);
+                ok = false;
+            }
+            if (!entry.id().matches("[A-Z0-9_]+")) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Quest id must be UPPER_SNAKE_CASE: " + entry.id(), type);
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    private boolean hasConstructor(TypeElement type, boolean withVariant) {
+        TypeMirror string = processingEnv.getElementUtils().getTypeElement("java.lang.String").asType();
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (!constructor.getModifiers().contains(Modifier.PUBLIC)) continue;
+            int parameters = constructor.getParameters().size();
+            if (!withVariant && parameters == 0) return true;
+            if (withVariant && parameters == 1
+                    && processingEnv.getTypeUtils().isSameType(constructor.getParameters().get(0).asType(), string)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean checkUnique() {
+        Map<String, Found> ids = new HashMap<>();
+        Map<String, Found> names = new HashMap<>();
+        boolean ok = true;
+        for (Found entry : found) {
+            Found other = ids.putIfAbsent(entry.entry.id(), entry);
+            if (other != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Quest id " + entry.entry.id()
+                    + " is already registered by " + other.type.getSimpleName(), entry.type);
+                ok = false;
+            }
+            other = names.putIfAbsent(entry.entry.name(), entry);
+            if (other != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Quest name \"" + entry.entry.name()
+                    + "\" is already registered by " + other.type.getSimpleName(), entry.type);
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    private void write() {
+        found.sort(Comparator.comparing(f -> f.entry.id()));
+        Filer filer = processingEnv.getFiler();
+        Element[] origins = found.stream().map(f -> f.type).distinct().toArray(Element[]::new);
+        try {
+            JavaFileObject file = filer.createSourceFile(PACKAGE + "." + GENERATED, origins);
+            try (Writer out = file.openWriter()) {
+                out.write("package " + PACKAGE + ";\n\n");
+                out.write("/**\n * Generated by QuestRegistryProcessor from the @QuestEntry annotations - do not edit\n */\n");
+                out.write("final class " + GENERATED + " {\n\n");
+                out.write("    private " + GENERATED + "() {\n    }\n\n");
+                out.write("    static QuestRegistry.Entry[] entries() {\n");
+                out.write("        return new QuestRegistry.Entry[] {\n");
+                for (int i = 0; i < found.size(); i++) {
+                    Found f = found.get(i);
+                    QuestEntry entry = f.entry;
+                    String tree = f.type.getQualifiedName().toString();
+                    String factory = entry.variant().isEmpty()
+                        ? tree + "::new"
+                        : "() -> new " + tree + "(" + literal(entry.variant()) + ")";
+                    out.write("            new QuestRegistry.Entry(" + literal(entry.id()) + ", " + literal(entry.name())
+                        + ", QuestType." + entry.type().name() + ", " + entry.difficulty() + ", " + entry.minutes() + ",\n");
+                    out.write("                " + array(entry.skills()) + ", " + array(entry.items()) + ",\n");
+                    out.write("                " + factory + ")" + (i + 1 < found.size() ? "," : "") + "\n");
+                }
+                out.write("        };\n    }\n}\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + GENERATED + ": " + e.getMessage());
+        }
+    }
+
+    private static String array(String[] values) {
+        if (values.length == 0) return "new String[0]";
+        StringBuilder sb = new StringBuilder("new String[] {");
+        for (int i = 0; i < values.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(literal(values[i]));
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                default:
+                    if (c < 0x20 || c > 0x7E) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static final class Found {
+        final TypeElement type;
+        final QuestEntry entry;
+
+        Found(TypeElement type, QuestEntry entry) {
+            this.type = type;
+            this.entry = entry;
+        }
+    }
+}
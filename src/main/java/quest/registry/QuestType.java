@@ -0,0 +1,10 @@
+package quest.registry;
+
+/**
+ * Which list a quest is offered in
+ */
+public enum QuestType {
+    F2P,
+    MEMBERS,
+    MINIQUEST
+}
@@ -0,0 +1,92 @@
+package quest.replay;
+
+import org.dreambot.api.methods.map.Tile;
+import quest.core.GameDriver;
+import quest.core.QuestNode;
+import quest.definition.QuestDefinition;
+import quest.nodes.ActionNode;
+
+/**
+ * Offline Driver - the GameDriver ReplayHarness gives a QuestTree's engine, so the tree's reads and
+ * action nodes go to an OfflineGame built from the recording instead of the client. Each node runs as
+ * the definition step it describes (ActionNode.toStep); a custom node that describes nothing can only
+ * run in the game, so the driver notes it and the harness stops there. Conversations choose what the
+ * recording chose - the option menus a tree's dialogue code reads are not in the recordings.
+ */
+final class OfflineDriver implements GameDriver {
+
+    private final OfflineGame game;
+    private final boolean varbit;
+    private final int varId;
+    private QuestNode unsupported;
+
+    OfflineDriver(OfflineGame game, ReplayScript script) {
+        this.game = game;
+        this.varbit = script.isVarbit();
+        this.varId = script.getVarId();
+    }
+
+    @Override
+    public int getConfig(int id) {
+        return !varbit && id == varId ? game.getValue() : 0;
+    }
+
+    @Override
+    public int getBitValue(int id) {
+        return varbit && id == varId ? game.getValue() : 0;
+    }
+
+    @Override
+    public Tile getPlayerTile() {
+        // Null only if the recording has no tiles at all
+        int[] at = game.getPosition();
+        return at != null ? new Tile(at[0], at[1], at[2]) : new Tile(0, 0, 0);
+    }
+
+    @Override
+    public boolean inventoryContains(String item) {
+        return game.holds(item);
+    }
+
+    @Override
+    public boolean equipmentContains(String item) {
+        return game.wears(item);
+    }
+
+    @Override
+    public boolean npcNearby(String name) {
+        return game.sees(name);
+    }
+
+    @Override
+    public boolean objectHasAction(String name, Tile tile, String action) {
+        return game.offers(name, new int[] {tile.getX(), tile.getY(), tile.getZ()}, action);
+    }
+
+    @Override
+    public boolean skips(QuestNode node) {
+        QuestDefinition.Step step = stepOf(node);
+        return step != null && step.getType() == QuestDefinition.StepType.TAKE && game.holds(step.getSubject());
+    }
+
+    @Override
+    public boolean perform(QuestNode node) {
+        QuestDefinition.Step step = stepOf(node);
+        if (step == null) {
+            unsupported = node;
+            return false;
+        }
+        return game.perform(step, game.getPosition(), true);
+    }
+
+    private static QuestDefinition.Step stepOf(QuestNode node) {
+        return node instanceof ActionNode ? ((ActionNode) node).toStep() : null;
+    }
+
+    /**
+     * The first node the driver could not run, or null
+     */
+    QuestNode getUnsupported() {
+        return unsupported;
+    }
+}
@@ -0,0 +1,331 @@
+package quest.replay;
+
+import quest.definition.QuestDefinition;
+
+import java.util.*;
+
+/**
+ * Offline Game - a recorded session standing in for the client while ReplayHarness runs a quest
+ * definition. It knows what the recording knows: the quest variable, which click moved it each
+ * time (and the dialogue chosen after it), how long the game took to move it after that click, and
+ * where every NPC, object and ground item was clicked. A click the recording never moved the
+ * variable on does nothing; a variable change that no click led to happens by itself. Doors, gates,
+ * stairs and ladders are only taken for what moved the variable when nothing else was clicked since
+ * the last change. Stairs and ladders put the player where the recording came out.
+ *
+ * Time is simulated so the same seed always gives the same run: walking costs WALK_MS a tile (up to
+ * MAX_WALK_TILES a leg), every interaction ACTION_MS plus up to JITTER_MS from the seeded Random,
+ * and every dialogue prompt PROMPT_MS.
+ */
+final class OfflineGame {
+
+    static final long WALK_MS = 600;
+    static final long ACTION_MS = 1200;
+    static final int JITTER_MS = 600;
+    static final long PROMPT_MS = 1200;
+    // Longest a recorded delay between a click and the variable moving is kept (the rest is AFK)
+    static final long MAX_DELAY_MS = 30000;
+    // The loaded scene around the player, which is where the nodes' closest() lookups can find anything
+    static final int SCENE_RADIUS = 52;
+    // Longer legs than this are stairs, ladders or teleports rather than walking
+    static final int MAX_WALK_TILES = 100;
+    // Somewhere unknown - neither the step nor the recording says where, so nothing is walked
+    private static final int[] ANYWHERE = new int[0];
+
+    private final List<ReplayScript.Step> checkpoints;
+    // The click that moved the variable at each checkpoint, or null if nothing led to it
+    private final List<ReplayScript.Step> triggers = new ArrayList<>();
+    // Lower-case name -> every tile it was clicked at, or failing that where the player stood to click it
+    private final Map<String, List<int[]>> seen = new HashMap<>();
+    // "name|action|x,y,z" -> where that stairs or ladder click led
+    private final Map<String, int[]> landings = new HashMap<>();
+    // Object clicks the recording made ("name|action|x,y,z"), and those this run has made
+    private final Set<String> clicked = new HashSet<>();
+    private final Set<String> done = new HashSet<>();
+    private final Set<String> inventory = new HashSet<>();
+    private final Set<String> equipped = new HashSet<>();
+    private final List<String> transitions = new ArrayList<>();
+    private final Random random;
+
+    private int next = 0;
+    private int value;
+    private int[] position;
+    private int[] lookedAt;
+    private long clock = 0;
+    private int actions = 0;
+
+    OfflineGame(ReplayScript script, long seed) {
+        this.random = new Random(seed);
+        this.checkpoints = script.getCheckpoints();
+        ReplayScript.Step last = null, lastPassage = null;
+        for (ReplayScript.Step step : script.getSteps()) {
+            if (step.getKind() == ReplayScript.Kind.CHECKPOINT) {
+                triggers.add(last != null ? last : lastPassage);
+                last = null;
+                lastPassage = null;
+                continue;
+            }
+            if (isPassage(step)) {
+                lastPassage = step;
+            } else {
+                last = step;
+            }
+            if (step.getKind() == ReplayScript.Kind.OBJECT && step.hasTile()) {
+                int[] tile = {step.getX(), step.getY(), step.getZ()};
+                clicked.add(key(step.getSubject(), step.getAction(), tile));
+                if (step.getLanding() != null) landings.put(key(step.getSubject(), step.getAction(), tile), step.getLanding());
+            }
+            if (position == null && step.hasTile()) {
+                position = new int[] {step.getX(), step.getY(), step.getZ()};
+            }
+            if (step.hasTile()) {
+                String name = step.getKind() == ReplayScript.Kind.USE ? step.getTarget() : step.getSubject();
+                seen.computeIfAbsent(name.toLowerCase(), k -> new ArrayList<>())
+                    .add(new int[] {step.getX(), step.getY(), step.getZ()});
+            }
+        }
+        this.value = checkpoints.isEmpty() ? 0 : checkpoints.get(0).getFrom();
+        settle();
+    }
+
+    /**
+     * Run one step the way its node would
+     * @param near where the step looks when it has no tile of its own (the last tile before it)
+     * @return false if the node would fail - what it acts on is nowhere near where it looks
+     */
+    boolean perform(QuestDefinition.Step step, int[] near) {
+        return perform(step, near, false);
+    }
+
+    /**
+     * @param recordedChoices the step's conversation chooses what the recording chose (a QuestTree's
+     *                        dialogue code, which only the live menus can drive)
+     */
+    boolean perform(QuestDefinition.Step step, int[] near, boolean recordedChoices) {
+        actions++;
+        int[] tile = step.hasTile() ? new int[] {step.getX(), step.getY(), step.getZ()} : near;
+        long spent = ACTION_MS + random.nextInt(JITTER_MS);
+        switch (step.getType()) {
+            case WALK:
+                spent += walkTo(tile);
+                break;
+            case TALK:
+            case NPC:
+            case OBJECT:
+            case TAKE: {
+                // A take without a tile looks around the player, the rest go to the last tile first
+                lookedAt = step.getType() == QuestDefinition.StepType.TAKE && !step.hasTile() ? position : tile;
+                int[] at = locate(step.getSubject(), lookedAt);
+                if (at == null) {
+                    clock += spent;
+                    return false;
+                }
+                spent += walkTo(at);
+                if (step.getType() == QuestDefinition.StepType.TAKE) inventory.add(step.getSubject().toLowerCase());
+                if (step.getType() == QuestDefinition.StepType.OBJECT && at != ANYWHERE) {
+                    String key = key(step.getSubject(), step.getAction(), at);
+                    done.add(key);
+                    if (landings.containsKey(key)) position = landings.get(key);
+                }
+                break;
+            }
+            case USE:
+                if (step.getOn() != QuestDefinition.UseTarget.ITEM) {
+                    lookedAt = position;
+                    int[] at = locate(step.getTarget(), lookedAt);
+                    if (at == null) {
+                        clock += spent;
+                        return false;
+                    }
+                    spent += walkTo(at);
+                }
+                break;
+            case ITEM:
+                if ("wear".equalsIgnoreCase(step.getAction()) || "wield".equalsIgnoreCase(step.getAction())) {
+                    equipped.add(step.getSubject().toLowerCase());
+                }
+                break;
+            default:
+                break;
+        }
+        if (step.getType() == QuestDefinition.StepType.TALK || step.getType() == QuestDefinition.StepType.DIALOGUE) {
+            spent += PROMPT_MS * (step.getOptions().size() + 1);
+        }
+        clock += spent;
+
+        ReplayScript.Step trigger = getTrigger();
+        if (trigger != null && matches(step, trigger, recordedChoices)) {
+            advance();
+            settle();
+        }
+        return true;
+    }
+
+    /**
+     * A stage with nothing to run waits for the variable; anything that moves it by itself already has
+     */
+    void waitForChange(long timeoutMs) {
+        actions++;
+        clock += timeoutMs;
+    }
+
+    /**
+     * True if a take step's node would skip (TakeGroundItemNode.shouldSkip)
+     */
+    boolean holds(String item) {
+        return inventory.contains(item.toLowerCase());
+    }
+
+    boolean wears(String item) {
+        return equipped.contains(item.toLowerCase());
+    }
+
+    /**
+     * True if the recording has the named NPC or object somewhere in the scene around the player
+     */
+    boolean sees(String name) {
+        List<int[]> tiles = seen.get(name.toLowerCase());
+        if (tiles == null || position == null) return false;
+        for (int[] tile : tiles) {
+            if (tile[2] == position[2] && distance(tile, position) <= SCENE_RADIUS) return true;
+        }
+        return false;
+    }
+
+    /**
+     * True if the object on the tile still offers the action: the recording clicked it and this run has not
+     */
+    boolean offers(String name, int[] tile, String action) {
+        String key = key(name, action, tile);
+        return clicked.contains(key) && !done.contains(key);
+    }
+
+    boolean isFinished() {
+        return next >= checkpoints.size();
+    }
+
+    /**
+     * The recorded transition the game is waiting for, or null once all have happened
+     */
+    ReplayScript.Step getPending() {
+        return isFinished() ? null : checkpoints.get(next);
+    }
+
+    ReplayScript.Step getTrigger() {
+        return next < triggers.size() ? triggers.get(next) : null;
+    }
+
+    // Changes nothing leads to - back to back with the last one, or at the very start of the recording
+    private void settle() {
+        while (next < checkpoints.size() && triggers.get(next) == null) {
+            advance();
+        }
+    }
+
+    private void advance() {
+        ReplayScript.Step checkpoint = checkpoints.get(next++);
+        clock += Math.min(checkpoint.getGapSeconds() * 1000L, MAX_DELAY_MS);
+        value = checkpoint.getTo();
+        transitions.add(checkpoint.getFrom() + "->" + checkpoint.getTo());
+    }
+
+    /**
+     * Where the named entity is when looked for near a tile: the closest place the recording has it,
+     * or the tile itself if the recording never clicked it. Null if it was only ever somewhere else.
+     */
+    private int[] locate(String name, int[] near) {
+        List<int[]> tiles = seen.get(name.toLowerCase());
+        if (near == null) return tiles != null ? tiles.get(0) : ANYWHERE;
+        if (tiles == null) return near;
+        int[] best = null;
+        for (int[] tile : tiles) {
+            if (tile[2] == near[2] && distance(tile, near) <= SCENE_RADIUS
+                && (best == null || distance(tile, near) < distance(best, near))) {
+                best = tile;
+            }
+        }
+        return best;
+    }
+
+    private long walkTo(int[] tile) {
+        if (tile == null || tile == ANYWHERE) return 0;
+        long ms = position != null ? Math.min(distance(position, tile), MAX_WALK_TILES) * WALK_MS : 0;
+        position = tile;
+        return ms;
+    }
+
+    private static String key(String name, String action, int[] tile) {
+        return name.toLowerCase() + "|" + String.valueOf(action).toLowerCase() + "|" + tile[0] + "," + tile[1] + "," + tile[2];
+    }
+
+    /**
+     * Doors, gates, stairs and ladders - on the way to what moved the variable rather than what moved it
+     */
+    private static boolean isPassage(ReplayScript.Step step) {
+        if (step.getKind() != ReplayScript.Kind.OBJECT) return false;
+        String subject = step.getSubject().toLowerCase();
+        return ReplayScript.isTravel(step.getAction())
+            || (subject.contains("door") || subject.contains("gate"))
+            && ("open".equalsIgnoreCase(step.getAction()) || "close".equalsIgnoreCase(step.getAction()));
+    }
+
+    private static int distance(int[] a, int[] b) {
+        return Math.max(Math.abs(a[0] - b[0]), Math.abs(a[1] - b[1]));
+    }
+
+    /**
+     * Whether running a step makes the click the recording moved the variable on
+     */
+    static boolean matches(QuestDefinition.Step step, ReplayScript.Step click, boolean recordedChoices) {
+        if (!recordedChoices && !choosesAll(step, click)) return false;
+        switch (step.getType()) {
+            case TALK:
+                return click.getKind() == ReplayScript.Kind.DIALOGUE && !click.getOptions().isEmpty()
+                    || click.getKind() == ReplayScript.Kind.NPC && same(step.getSubject(), click.getSubject())
+                    && same("Talk-to", click.getAction());
+            case NPC:
+                return click.getKind() == ReplayScript.Kind.NPC && same(step.getSubject(), click.getSubject())
+                    && same(step.getAction(), click.getAction());
+            case OBJECT:
+                return click.getKind() == ReplayScript.Kind.OBJECT && same(step.getSubject(), click.getSubject())
+                    && same(step.getAction(), click.getAction());
+            case TAKE:
+                return click.getKind() == ReplayScript.Kind.TAKE && same(step.getSubject(), click.getSubject());
+            case USE:
+                return click.getKind() == ReplayScript.Kind.USE && same(step.getSubject(), click.getSubject())
+                    && same(step.getTarget(), click.getTarget());
+            case ITEM:
+                return click.getKind() == ReplayScript.Kind.ITEM && same(step.getSubject(), click.getSubject())
+                    && same(step.getAction(), click.getAction());
+            case DIALOGUE:
+                return !click.getOptions().isEmpty();
+            default:
+                return false;
+        }
+    }
+
+    // Every option chosen after the click has to be one the step would choose
+    private static boolean choosesAll(QuestDefinition.Step step, ReplayScript.Step click) {
+        for (String chosen : click.getOptions()) {
+            boolean found = false;
+            for (String option : step.getOptions()) {
+                String a = option.toLowerCase(), b = chosen.toLowerCase();
+                found |= a.contains(b) || b.contains(a);
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    private static boolean same(String a, String b) {
+        return a != null && a.equalsIgnoreCase(b);
+    }
+
+    // Getters
+    int getValue() { return value; }
+    int[] getLookedAt() { return lookedAt; }
+    int[] getPosition() { return position; }
+    long getClock() { return clock; }
+    int getActions() { return actions; }
+    List<String> getTransitions() { return transitions; }
+}
@@ -0,0 +1,558 @@
+package quest.replay;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import quest.definition.QuestDefinition;
+import quest.definition.QuestDefinitionException;
+import quest.definition.RecordingCompiler;
+import quest.definition.StageRouter;
+import quest.recording.RecordingIndex;
+import quest.recording.RecordingJournal;
+import quest.registry.QuestRegistry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Replay Harness - regression check for quest definitions and QuestTrees against recordings, without
+ * the client. Each definition is paired with the recordings it lists as sources or that were made of
+ * the same quest, and runs through StageRouter (the routing DefinitionTree uses); each tree listed in
+ * the pairs file (QUEST_ID=recording[,recording...]) runs through TreeReplay, its reads and action
+ * nodes going to the OfflineGame instead of the client. Either way the game is built from the
+ * recording and has a seeded clock. A run passes when it moves the quest variable through exactly the
+ * recorded transitions, and when its simulated time and action count are no worse than the baseline
+ * file (beyond --tolerance for time).
+ *
+ * Trees need the client jar on the classpath (though not a running client), and only run as far as
+ * their first custom action node; see RestlessGhostTree for one that runs throughout. A tree that
+ * stops at such a node, and every registered tree the pairs file does not list, is reported as a GAP:
+ * it is not covered. All pairs run in parallel; the exit status is 1 if any failed, if nothing ran at
+ * all, or with --strict if there are gaps.
+ *
+ * Usage: java quest.replay.ReplayHarness [--logs DIR] [--quests DIR] [--pairs FILE] [--baseline FILE]
+ *        [--update] [--seed N] [--tolerance 0.10] [--strict]
+ */
+public final class ReplayHarness {
+
+    public static final String DEFAULT_BASELINE = "quest_data/replay_baselines.properties";
+    public static final String DEFAULT_PAIRS = "quest_data/replay_pairs.properties";
+
+    // ActionNode's default maxRetries
+    private static final int NODE_ATTEMPTS = 3;
+    // Routing decisions before a run is given up as looping
+    private static final int MAX_TICKS = 10000;
+
+    private final long seed;
+
+    public ReplayHarness(long seed) {
+        this.seed = seed;
+    }
+
+    // ---- Pairing ----
+
+    /**
+     * A definition with the recording to run it against
+     */
+    public static final class Pair {
+        private final QuestDefinition definition;
+        private final RecordingIndex.FileEntry recording;
+
+        Pair(QuestDefinition definition, RecordingIndex.FileEntry recording) {
+            this.definition = definition;
+            this.recording = recording;
+        }
+
+        public String key() {
+            return definition.getId() + "@" + recording.getName();
+        }
+
+        // Getters
+        public QuestDefinition getDefinition() { return definition; }
+        public RecordingIndex.FileEntry getRecording() { return recording; }
+    }
+
+    /**
+     * Pair every definition with its recordings; recordings of no definition go to unpaired
+     * @param sources definition id -> recording file names it was compiled from
+     */
+    public static List<Pair> pair(List<QuestDefinition> definitions, Map<String, Set<String>> sources,
+                                  List<RecordingIndex.FileEntry> recordings, List<RecordingIndex.FileEntry> unpaired) {
+        List<Pair> pairs = new ArrayList<>();
+        Set<String> used = new HashSet<>();
+        for (QuestDefinition definition : definitions) {
+            Set<String> listed = sources.getOrDefault(definition.getId(), Collections.emptySet());
+            for (RecordingIndex.FileEntry recording : recordings) {
+                if (listed.contains(recording.getName()) || sameQuest(definition, recording)) {
+                    pairs.add(new Pair(definition, recording));
+                    used.add(recording.getName());
+                }
+            }
+        }
+        for (RecordingIndex.FileEntry recording : recordings) {
+            if (!used.contains(recording.getName())) unpaired.add(recording);
+        }
+        return pairs;
+    }
+
+    private static boolean sameQuest(QuestDefinition definition, RecordingIndex.FileEntry recording) {
+        RecordingCompiler compiler = new RecordingCompiler(definition.getVarKey());
+        compiler.add(recording);
+        String id = compiler.getQuestId();
+        return id.equals(definition.getId()) || id.equals(toId(definition.getName()));
+    }
+
+    private static String toId(String name) {
+        return name.toUpperCase().replaceAll("[^A-Z0-9]+", "_").replaceAll("^_|_$", "");
+    }
+
+    // ---- Running ----
+
+    /**
+     * Run every pair, in parallel; results come back in the order of the pairs
+     */
+    public List<Result> runAll(List<Pair> pairs) {
+        return runAll(pairs, Collections.emptyMap());
+    }
+
+    /**
+     * Run every definition pair and every tree against its recordings, all in parallel; results come
+     * back definitions first, in order
+     * @param trees quest id -> recordings to replay that QuestTree against
+     */
+    public List<Result> runAll(List<Pair> pairs, Map<String, List<RecordingIndex.FileEntry>> trees) {
+        List<Supplier<Result>> runs = new ArrayList<>();
+        for (Pair pair : pairs) {
+            runs.add(() -> run(pair));
+        }
+        for (Map.Entry<String, List<RecordingIndex.FileEntry>> tree : trees.entrySet()) {
+            for (RecordingIndex.FileEntry recording : tree.getValue()) {
+                runs.add(() -> runTree(tree.getKey(), recording));
+            }
+        }
+        return runs.parallelStream().map(Supplier::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Run a registered QuestTree against one recording (TreeReplay)
+     */
+    public Result runTree(String questId, RecordingIndex.FileEntry recording) {
+        try {
+            return TreeReplay.run(questId, recording, seed);
+        } catch (NoClassDefFoundError e) {
+            Result result = new Result(treeKey(questId, recording));
+            result.skip("QuestTrees need the client jar on the classpath (" + e + ")");
+            return result;
+        }
+    }
+
+    /**
+     * Registered trees the pairs file does not list - nothing checks them
+     */
+    static List<String> unlistedTrees(Set<String> listed) {
+        List<String> ids = new ArrayList<>();
+        for (QuestRegistry.Entry entry : QuestRegistry.all()) {
+            if (!listed.contains(entry.getId())) ids.add(entry.getId());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Result key of a tree run, kept apart from the definition of the same quest on the same recording
+     */
+    static String treeKey(String questId, RecordingIndex.FileEntry recording) {
+        return "tree:" + questId + "@" + recording.getName();
+    }
+
+    /**
+     * Run a definition against one recording, the way DefinitionTree would run it in the game
+     */
+    public Result run(Pair pair) {
+        QuestDefinition definition = pair.definition;
+        ReplayScript script = ReplayScript.fromRecording(pair.recording, definition.getVarKey());
+        Result result = new Result(pair.key());
+        if (!result.expect(script)) {
+            return result;
+        }
+
+        OfflineGame game = new OfflineGame(script, seed);
+        StageRouter router = new StageRouter(definition);
+        int[][][] near = lookTiles(definition);
+        for (int tick = 0; tick < MAX_TICKS && !result.isOver(); tick++) {
+            StageRouter.Outcome outcome = router.route(game.getValue());
+            if (outcome == StageRouter.Outcome.COMPLETE) {
+                result.end("complete");
+            } else if (outcome == StageRouter.Outcome.NO_STAGE) {
+                result.fail("no stage covers " + definition.getVarKey() + " = " + game.getValue());
+            } else if (outcome == StageRouter.Outcome.STUCK) {
+                result.fail(router.getStage() + " ran " + router.getRounds() + " times without "
+                    + definition.getVarKey() + " moving from " + game.getValue() + waitingFor(game));
+            } else if (game.isFinished()) {
+                result.end("recording ends at " + definition.getVarKey() + " = " + game.getValue());
+            } else {
+                int index = router.stepOf(router.getNode());
+                if (index < 0) {
+                    game.waitForChange(StageRouter.STAGE_WAIT_MS);
+                    continue;
+                }
+                QuestDefinition.Step step = router.getStage().getSteps().get(index);
+                if (step.getType() == QuestDefinition.StepType.TAKE && game.holds(step.getSubject())) {
+                    continue;
+                }
+                int[] tile = near[router.getStageIndex()][index];
+                boolean done = false;
+                for (int attempt = 0; attempt < NODE_ATTEMPTS && !done; attempt++) {
+                    done = game.perform(step, tile);
+                }
+                if (!done) {
+                    int[] at = game.getLookedAt();
+                    result.fail(step + " failed " + NODE_ATTEMPTS + " times - the recording never has it in sight of "
+                        + (at != null ? "(" + at[0] + ", " + at[1] + ", " + at[2] + ")" : "the player"));
+                }
+            }
+        }
+        if (!result.isOver()) {
+            result.fail("still running after " + MAX_TICKS + " steps");
+        }
+        result.finish(game);
+        return result;
+    }
+
+    static String waitingFor(OfflineGame game) {
+        ReplayScript.Step trigger = game.getTrigger();
+        return trigger != null ? " (recorded: " + trigger + " -> " + game.getPending() + ")" : "";
+    }
+
+    /**
+     * Where each step looks when it has no tile of its own - the last tile before it, as DefinitionTree
+     * compiles it
+     */
+    private static int[][][] lookTiles(QuestDefinition definition) {
+        int[] last = null;
+        for (QuestDefinition.Stage stage : definition.getStages()) {
+            for (QuestDefinition.Step step : stage.getSteps()) {
+                if (last == null && step.hasTile()) last = new int[] {step.getX(), step.getY(), step.getZ()};
+            }
+        }
+        int[][][] tiles = new int[definition.getStages().size()][][];
+        for (QuestDefinition.Stage stage : definition.getStages()) {
+            List<QuestDefinition.Step> steps = stage.getSteps();
+            tiles[stage.getIndex()] = new int[steps.size()][];
+            for (int i = 0; i < steps.size(); i++) {
+                QuestDefinition.Step step = steps.get(i);
+                if (step.hasTile()) last = new int[] {step.getX(), step.getY(), step.getZ()};
+                tiles[stage.getIndex()][i] = last;
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * One definition run against one recording
+     */
+    public static final class Result {
+        private final String key;
+        private final List<String> expected = new ArrayList<>();
+        private final List<String> transitions = new ArrayList<>();
+        private final List<String> problems = new ArrayList<>();
+        private String outcome;
+        private String skipped;
+        private String gap;
+        private boolean failed;
+        private long simulatedMs;
+        private int actions;
+
+        Result(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Take the recording's transitions as the ones to replay; false (and skipped) if it has none
+         */
+        boolean expect(ReplayScript script) {
+            for (ReplayScript.Step checkpoint : script.getCheckpoints()) {
+                expected.add(checkpoint.getFrom() + "->" + checkpoint.getTo());
+            }
+            if (expected.isEmpty()) {
+                skip("no " + (script.getVarKey() != null ? script.getVarKey() : "quest variable")
+                    + " transitions in the recording");
+            }
+            return !expected.isEmpty();
+        }
+
+        void fail(String problem) {
+            failed = true;
+            if (outcome == null) outcome = "failed";
+            problems.add(problem);
+        }
+
+        void skip(String reason) {
+            skipped = reason;
+        }
+
+        /**
+         * The run could not go on offline - part of the quest is not covered
+         */
+        void gap(String reason) {
+            gap = reason;
+        }
+
+        void end(String outcome) {
+            if (this.outcome == null) this.outcome = outcome;
+        }
+
+        boolean isOver() {
+            return outcome != null || skipped != null || gap != null;
+        }
+
+        /**
+         * Take what the run did from the game, and fail it if that is not what the recording did
+         */
+        void finish(OfflineGame game) {
+            transitions.addAll(game.getTransitions());
+            simulatedMs = game.getClock();
+            actions = game.getActions();
+            if (!failed && skipped == null && gap == null && !transitions.equals(expected)) {
+                fail("transitions differ from the recording");
+            }
+        }
+
+        /**
+         * Hold the run to a baseline "simulatedMs,actions"
+         */
+        void compare(String baseline, double tolerance) {
+            if (baseline == null || failed || skipped != null || gap != null) return;
+            String[] parts = baseline.split(",");
+            long ms = Long.parseLong(parts[0].trim());
+            int baseActions = Integer.parseInt(parts[1].trim());
+            if (simulatedMs > ms * (1 + tolerance)) {
+                fail(String.format("slower: %.1fs simulated, baseline %.1fs", simulatedMs / 1000.0, ms / 1000.0));
+            }
+            if (actions > baseActions) {
+                fail("more actions: " + actions + ", baseline " + baseActions);
+            }
+        }
+
+        String baseline() {
+            return simulatedMs + "," + actions;
+        }
+
+        // Getters
+        public String getKey() { return key; }
+        public List<String> getExpected() { return expected; }
+        public List<String> getTransitions() { return transitions; }
+        public List<String> getProblems() { return problems; }
+        public String getOutcome() { return outcome; }
+        public String getSkipped() { return skipped; }
+        public String getGap() { return gap; }
+        public boolean isFailed() { return failed; }
+        public long getSimulatedMs() { return simulatedMs; }
+        public int getActions() { return actions; }
+
+        @Override
+        public String toString() {
+            if (skipped != null) return "SKIP  " + key + " - " + skipped;
+            if (gap != null) return "GAP   " + key + " - " + gap;
+            return String.format("%s  %s - %s, %d/%d transitions, %.1fs simulated, %d actions", failed ? "FAIL" : "PASS",
+                key, outcome, transitions.size(), expected.size(), simulatedMs / 1000.0, actions);
+        }
+    }
+
+    // ---- Files ----
+
+    private static Map<String, String> readBaselines(File file) throws IOException {
+        Map<String, String> baselines = new TreeMap<>();
+        if (!file.isFile()) return baselines;
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            int equals = line.indexOf('=');
+            if (line.isEmpty() || line.startsWith("#") || equals < 0) continue;
+            baselines.put(line.substring(0, equals).trim(), line.substring(equals + 1).trim());
+        }
+        return baselines;
+    }
+
+    private static void writeBaselines(File file, Map<String, String> baselines) throws IOException {
+        if (file.getParentFile() != null && !file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Could not create " + file.getParentFile());
+        }
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write("# ReplayHarness baselines: DEFINITION@recording=simulatedMs,actions (rewrite with --update)\n");
+            for (Map.Entry<String, String> entry : baselines.entrySet()) {
+                out.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        }
+    }
+
+    /**
+     * Trees to replay: QUEST_ID=recording[,recording...]
+     */
+    private static Map<String, List<String>> readPairs(File file) throws IOException {
+        Map<String, List<String>> pairs = new TreeMap<>();
+        for (Map.Entry<String, String> entry : readBaselines(file).entrySet()) {
+            List<String> names = new ArrayList<>();
+            for (String name : entry.getValue().split(",")) {
+                if (!name.trim().isEmpty()) names.add(name.trim());
+            }
+            pairs.put(entry.getKey(), names);
+        }
+        return pairs;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.exit(execute(args));
+    }
+
+    /**
+     * Run the harness from the command line
+     * @return the exit status
+     */
+    public static int execute(String[] args) throws IOException {
+        String logs = RecordingIndex.DEFAULT_LOG_DIR;
+        String quests = RecordingCompiler.DEFAULT_OUT_DIR;
+        String pairsPath = DEFAULT_PAIRS;
+        String baselinePath = DEFAULT_BASELINE;
+        boolean update = false;
+        boolean strict = false;
+        long seed = 1;
+        double tolerance = 0.10;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--logs": logs = args[++i]; break;
+                case "--quests": quests = args[++i]; break;
+                case "--pairs": pairsPath = args[++i]; break;
+                case "--baseline": baselinePath = args[++i]; break;
+                case "--update": update = true; break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--tolerance": tolerance = Double.parseDouble(args[++i]); break;
+                case "--strict": strict = true; break;
+                default:
+                    System.err.println("Usage: java quest.replay.ReplayHarness [--logs DIR] [--quests DIR] [--pairs FILE]"
+                        + " [--baseline FILE] [--update] [--seed N] [--tolerance 0.10] [--strict]");
+                    return 2;
+            }
+        }
+
+        int problems = 0;
+        List<QuestDefinition> definitions = new ArrayList<>();
+        Map<String, Set<String>> sources = new HashMap<>();
+        File[] jsonFiles = new File(quests).listFiles((dir, name) -> name.endsWith(".json"));
+        Arrays.sort(jsonFiles != null ? jsonFiles : new File[0]);
+        for (File file : jsonFiles != null ? jsonFiles : new File[0]) {
+            String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            try {
+                QuestDefinition definition = QuestDefinition.parse(json, file.getName(), null);
+                definitions.add(definition);
+                JSONArray listed = new JSONObject(json).optJSONArray("sources");
+                Set<String> names = new HashSet<>();
+                for (int i = 0; listed != null && i < listed.length(); i++) {
+                    names.add(listed.optString(i));
+                }
+                sources.put(definition.getId(), names);
+            } catch (QuestDefinitionException | JSONException e) {
+                System.out.println("ERROR " + file.getName() + " - " + e.getMessage());
+                problems++;
+            }
+        }
+
+        List<RecordingIndex.FileEntry> recordings = new ArrayList<>();
+        File[] logFiles = new File(logs).listFiles((dir, name) -> name.endsWith(".log")
+            || name.endsWith(RecordingJournal.EXTENSION));
+        Arrays.sort(logFiles != null ? logFiles : new File[0]);
+        for (File file : logFiles != null ? logFiles : new File[0]) {
+            RecordingIndex.FileEntry entry = RecordingIndex.readFile(file);
+            if (entry.getError() != null) {
+                System.out.println("SKIP  " + file.getName() + " - unreadable: " + entry.getError());
+            } else {
+                recordings.add(entry);
+            }
+        }
+
+        List<RecordingIndex.FileEntry> unpaired = new ArrayList<>();
+        List<Pair> pairs = pair(definitions, sources, recordings, unpaired);
+
+        Map<String, RecordingIndex.FileEntry> byName = new HashMap<>();
+        for (RecordingIndex.FileEntry recording : recordings) {
+            byName.put(recording.getName(), recording);
+        }
+        Map<String, List<RecordingIndex.FileEntry>> trees = new TreeMap<>();
+        for (Map.Entry<String, List<String>> listed : readPairs(new File(pairsPath)).entrySet()) {
+            List<RecordingIndex.FileEntry> runs = new ArrayList<>();
+            for (String name : listed.getValue()) {
+                RecordingIndex.FileEntry recording = byName.get(name);
+                if (recording == null) {
+                    System.out.println("ERROR " + pairsPath + " - " + listed.getKey() + ": no recording " + name + " in " + logs);
+                    problems++;
+                } else {
+                    runs.add(recording);
+                    unpaired.remove(recording);
+                }
+            }
+            trees.put(listed.getKey(), runs);
+        }
+
+        long started = System.currentTimeMillis();
+        List<Result> results = new ReplayHarness(seed).runAll(pairs, trees);
+        long took = System.currentTimeMillis() - started;
+
+        File baselineFile = new File(baselinePath);
+        Map<String, String> baselines = readBaselines(baselineFile);
+        int passed = 0, failed = 0, skipped = unpaired.size(), gaps = 0;
+        for (Result result : results) {
+            if (!update) result.compare(baselines.get(result.getKey()), tolerance);
+            System.out.println(result);
+            for (String problem : result.getProblems()) {
+                System.out.println("      " + problem);
+            }
+            if (result.isFailed() && !result.getTransitions().equals(result.getExpected())) {
+                System.out.println("      recorded " + result.getExpected());
+                System.out.println("      replayed " + result.getTransitions());
+            }
+            if (result.getSkipped() != null) skipped++;
+            else if (result.getGap() != null) gaps++;
+            else if (result.isFailed()) failed++;
+            else passed++;
+            if (update && !result.isFailed() && result.getSkipped() == null && result.getGap() == null) {
+                baselines.put(result.getKey(), result.baseline());
+            }
+        }
+        for (RecordingIndex.FileEntry recording : unpaired) {
+            System.out.println("SKIP  " + recording.getName() + " - no quest definition, and no tree listed for it in "
+                + pairsPath);
+        }
+        try {
+            for (String questId : unlistedTrees(trees.keySet())) {
+                System.out.println("GAP   tree:" + questId + " - not replayed: no recording listed in " + pairsPath
+                    + " (list it once its decision nodes read the game through GameState)");
+                gaps++;
+            }
+        } catch (NoClassDefFoundError e) {
+            System.out.println("SKIP  registered trees - the registry needs the client jar on the classpath (" + e + ")");
+        }
+        if (update) {
+            writeBaselines(baselineFile, baselines);
+            System.out.println("Baselines written to " + baselineFile);
+        }
+        System.out.println(passed + " passed, " + failed + " failed, " + skipped + " skipped, " + gaps + " gaps ("
+            + results.size() + " runs in " + took + "ms, seed " + seed + ")");
+        if (passed + failed == 0) {
+            System.out.println("Nothing was replayed - check --quests, --logs and --pairs");
+            return 1;
+        }
+        if (gaps > 0 && strict) {
+            System.out.println(gaps + " gaps - failing because of --strict");
+            return 1;
+        }
+        return failed > 0 || problems > 0 ? 1 : 0;
+    }
+}
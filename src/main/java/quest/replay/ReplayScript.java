@@ -0,0 +1,432 @@
+package quest.replay;
+
+import quest.definition.RecordingCompiler;
+import quest.recording.RecordingEvent;
+import quest.recording.RecordingIndex;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replay Script - one recorded quest log (or RecordingJournal) as the list of clicks to make again,
+ * in the recorded order: each NPC, object, ground item and inventory action with the tile it was
+ * made at (and where stairs and ladders led) and the dialogue choices that followed it, cut by
+ * checkpoints where the quest variable changed (the var that moves most often, or --var).
+ *
+ * Unlike RecordingCompiler nothing is generalised - doors, stairs and ladders are clicked again
+ * rather than routed over. The time between steps is kept only as an upper bound for ReplayTree's
+ * waits; the replay itself moves on as soon as the game state does. A second identical click
+ * within DOUBLE_CLICK_SECONDS of the first is dropped.
+ *
+ * Kept free of DreamBot classes so it can be checked from the command line.
+ *
+ * Usage: java quest.replay.ReplayScript RECORDING [--var varbit:6071]
+ */
+public final class ReplayScript {
+
+    public enum Kind {
+        NPC,        // subject, action, tile
+        OBJECT,     // subject, action, tile
+        TAKE,       // subject (item), tile
+        USE,        // subject (item), target, on (npc | object | item), tile of the target if recorded
+        ITEM,       // subject (item), action
+        DIALOGUE,   // options chosen on a conversation no step above opened
+        CHECKPOINT  // quest variable moved from -> to
+    }
+
+    private static final int DOUBLE_CLICK_SECONDS = 2;
+
+    private static final Pattern SELECTED = Pattern.compile("^Selected '([^']+)' on (.+)$");
+    private static final Pattern TILE = Pattern.compile("\\((\\d+), (\\d+), (\\d+)\\)");
+    private static final String UNKNOWN_CHOICE = "DIALOGUE_OPTION_SELECTED";
+
+    private static final Set<String> IGNORED_ACTIONS = new HashSet<>(Arrays.asList(
+        "drink", "eat", "drop", "examine", "walk here", "cancel", "follow", "check", "toggle run",
+        // Bank, equipment and GE interface clicks - not replayable without the interface they were made in
+        "select", "release", "view tab", "remove", "value", "buy", "sell", "offer", "placeholder", "collect", "exchange"
+    ));
+    // Clicks that move the player to another floor or area, so the last known position no longer holds
+    private static final Set<String> TRAVEL_ACTIONS = new HashSet<>(Arrays.asList(
+        "climb-up", "climb-down", "climb", "walk-down", "walk-up", "go-down", "go-up", "enter", "exit", "cross"
+    ));
+    // As TravelGraph.UNDERGROUND_Y - kept here so this class needs no DreamBot classes
+    private static final int UNDERGROUND_Y = 6400;
+    private static final Set<String> ITEM_ACTIONS = new HashSet<>(Arrays.asList(
+        "dig", "read", "rub", "bury", "break", "wield", "wear", "inspect", "look-at", "combine"
+    ));
+
+    private final String source;
+    private final String quest;
+    private final String varKey;
+    private final List<Step> steps = new ArrayList<>();
+    private int recordedSeconds;
+    private int dropped;
+
+    private ReplayScript(String source, String quest, String varKey) {
+        this.source = source;
+        this.quest = quest;
+        this.varKey = varKey;
+    }
+
+    /**
+     * Read a .log or .qrj recording
+     * @param varKey quest variable ("varbit 6071"), or null to use the one that moves most often
+     */
+    public static ReplayScript load(File recording, String varKey) throws IOException {
+        RecordingIndex.FileEntry file = RecordingIndex.readFile(recording);
+        if (file.getError() != null) {
+            throw new IOException(file.getError());
+        }
+        return fromRecording(file, varKey != null ? varKey : RecordingCompiler.detectVar(Collections.singletonList(file)));
+    }
+
+    public static ReplayScript fromRecording(RecordingIndex.FileEntry file, String varKey) {
+        String quest = file.getHeaderQuest() != null && !"Free_Discovery".equals(file.getHeaderQuest())
+            ? file.getHeaderQuest() : null;
+        ReplayScript script = new ReplayScript(file.getName(), quest, varKey);
+        script.read(file.getEvents());
+        return script;
+    }
+
+    // ---- Reading ----
+
+    private void read(List<RecordingEvent> events) {
+        // NPC names first, so "Use X -> Y" can tell an NPC target from an object
+        Set<String> npcs = new HashSet<>();
+        for (RecordingEvent event : events) {
+            Matcher selected = SELECTED.matcher(event.getText());
+            if ("ACTION".equals(event.getType()) && selected.matches() && event.getDetail() != null
+                && event.getDetail().startsWith("NPCs.")) {
+                npcs.add(selected.group(2).trim());
+            }
+        }
+        Set<String> inventory = new HashSet<>();
+        int[] position = null;
+        int lastTime = events.isEmpty() ? 0 : events.get(0).getTime();
+        int lastFrom = Integer.MIN_VALUE, lastTo = Integer.MIN_VALUE;
+        // The step whose conversation later dialogue choices belong to
+        Step conversation = null;
+        // The stairs or ladder click whose landing tile is not recorded yet
+        Step travelling = null;
+
+        for (int i = 0; i < events.size(); i++) {
+            RecordingEvent event = events.get(i);
+            String type = event.getType();
+
+            if (event.hasVar()) {
+                if (!event.getVarKey().equals(varKey) || event.getVarFrom() == event.getVarTo()) continue;
+                if (event.getVarFrom() == lastFrom && event.getVarTo() == lastTo) continue;
+                lastFrom = event.getVarFrom();
+                lastTo = event.getVarTo();
+                Step checkpoint = new Step(Kind.CHECKPOINT, event, event.getTime() - lastTime);
+                checkpoint.from = lastFrom;
+                checkpoint.to = lastTo;
+                steps.add(checkpoint);
+                lastTime = event.getTime();
+                conversation = null;
+                continue;
+            }
+            if (travelling != null && ("POSITION".equals(type) || "JOURNEY".equals(type) || "MOVEMENT".equals(type))) {
+                // The first tile off the clicked floor is where the stairs or ladder led
+                int[] tile = firstTile(event.getText());
+                if (tile != null && !sameLayer(tile, travelling.tile)) {
+                    travelling.landing = tile;
+                    travelling = null;
+                }
+            }
+            if ("POSITION".equals(type) || "JOURNEY".equals(type)) {
+                int[] tile = lastTile(event.getText());
+                if (tile != null) position = tile;
+                continue;
+            }
+            if ("DIALOGUE_SELECTION".equals(type) && event.getDetail() != null) {
+                conversation = dialogue(conversation, event, lastTime);
+                conversation.options.add(event.getDetail().trim());
+                continue;
+            }
+            if (!"ACTION".equals(type)) continue;
+            if (UNKNOWN_CHOICE.equals(event.getText())) {
+                conversation = dialogue(conversation, event, lastTime);
+                conversation.unknownChoices++;
+                continue;
+            }
+
+            Matcher selected = SELECTED.matcher(event.getText());
+            if (!selected.matches()) continue;
+            // The USER_ACTION line right after says what was clicked and where
+            RecordingEvent user = i + 1 < events.size() && "USER_ACTION".equals(events.get(i + 1).getType())
+                ? events.get(i + 1) : null;
+            Step step = action(selected.group(1).trim(), selected.group(2).trim(), event, user,
+                npcs, inventory, position, event.getTime() - lastTime);
+            if (step == null) continue;
+
+            Step last = steps.isEmpty() ? null : steps.get(steps.size() - 1);
+            if (last != null && last.sameClick(step) && step.gapSeconds <= DOUBLE_CLICK_SECONDS) {
+                dropped++;
+                continue;
+            }
+            steps.add(step);
+            lastTime = event.getTime();
+            conversation = step;
+            travelling = null;
+            // The player ends up next to whatever was clicked - or somewhere else entirely after stairs
+            if (isTravel(step.action)) {
+                position = null;
+                if (step.tile != null) travelling = step;
+            } else if (step.exact) {
+                position = step.tile;
+            }
+        }
+        if (!events.isEmpty()) {
+            recordedSeconds = events.get(events.size() - 1).getTime() - events.get(0).getTime();
+        }
+    }
+
+    private Step dialogue(Step conversation, RecordingEvent event, int lastTime) {
+        if (conversation != null) return conversation;
+        Step step = new Step(Kind.DIALOGUE, event, event.getTime() - lastTime);
+        steps.add(step);
+        return step;
+    }
+
+    private Step action(String action, String target, RecordingEvent event, RecordingEvent user, Set<String> npcs,
+                        Set<String> inventory, int[] position, int gap) {
+        String lower = action.toLowerCase();
+        if (IGNORED_ACTIONS.contains(lower) || lower.startsWith("withdraw") || lower.startsWith("deposit")
+            || lower.startsWith("buy ") || lower.startsWith("sell ")) {
+            return null;
+        }
+        String script = event.getDetail();
+        boolean npcTile = user != null && user.getText().contains("NPC_Tile");
+        boolean objectTile = user != null && user.getText().contains("Object_Tile");
+        int[] tile = user != null && user.hasTile() ? new int[] {user.getX(), user.getY(), user.getZ()} : null;
+
+        if ("use".equals(lower)) {
+            int arrow = target.indexOf("->");
+            if (arrow < 0) {
+                // First half of a use - the item being used
+                inventory.add(target);
+                return null;
+            }
+            String on = target.substring(arrow + 2).trim();
+            String kind = npcs.contains(on) ? "npc" : inventory.contains(on) ? "item" : "object";
+            Step step = new Step(Kind.USE, event, gap).subject(target.substring(0, arrow).trim()).action("Use")
+                .tile(tile, "item".equals(kind) ? null : position);
+            step.target = on;
+            step.on = kind;
+            return step;
+        }
+        if ("take".equals(lower)) {
+            inventory.add(target);
+            return new Step(Kind.TAKE, event, gap).subject(target).action(action).tile(tile, position);
+        }
+        if (npcTile || (script != null && script.startsWith("NPCs.")) || (!objectTile && npcs.contains(target))) {
+            return new Step(Kind.NPC, event, gap).subject(target).action(action).tile(tile, position);
+        }
+        if (ITEM_ACTIONS.contains(lower) || (script != null && script.startsWith("Inventory."))
+            || (!objectTile && inventory.contains(target))) {
+            inventory.add(target);
+            return new Step(Kind.ITEM, event, gap).subject(target).action(action);
+        }
+        return new Step(Kind.OBJECT, event, gap).subject(target).action(action).tile(tile, position);
+    }
+
+    /**
+     * True for clicks that take the player to another floor or area (stairs, ladders, entrances)
+     */
+    static boolean isTravel(String action) {
+        return action != null && TRAVEL_ACTIONS.contains(action.toLowerCase());
+    }
+
+    private static boolean sameLayer(int[] a, int[] b) {
+        return a[2] == b[2] && (a[1] >= UNDERGROUND_Y) == (b[1] >= UNDERGROUND_Y);
+    }
+
+    private static int[] firstTile(String text) {
+        Matcher tile = TILE.matcher(text);
+        return tile.find()
+            ? new int[] {Integer.parseInt(tile.group(1)), Integer.parseInt(tile.group(2)), Integer.parseInt(tile.group(3))}
+            : null;
+    }
+
+    private static int[] lastTile(String text) {
+        Matcher tile = TILE.matcher(text);
+        int[] last = null;
+        while (tile.find()) {
+            last = new int[] {Integer.parseInt(tile.group(1)), Integer.parseInt(tile.group(2)), Integer.parseInt(tile.group(3))};
+        }
+        return last;
+    }
+
+    // ---- Model ----
+
+    /**
+     * Checkpoints in recorded order
+     */
+    public List<Step> getCheckpoints() {
+        List<Step> checkpoints = new ArrayList<>();
+        for (Step step : steps) {
+            if (step.kind == Kind.CHECKPOINT) checkpoints.add(step);
+        }
+        return checkpoints;
+    }
+
+    public String getName() {
+        return quest != null ? quest : source;
+    }
+
+    public boolean isVarbit() {
+        return varKey != null && varKey.startsWith(RecordingEvent.VARBIT);
+    }
+
+    public int getVarId() {
+        return varKey != null ? Integer.parseInt(varKey.substring(varKey.indexOf(' ') + 1)) : -1;
+    }
+
+    // Getters
+    public String getSource() { return source; }
+    public String getQuest() { return quest; }
+    public String getVarKey() { return varKey; }
+    public List<Step> getSteps() { return Collections.unmodifiableList(steps); }
+    public int getRecordedSeconds() { return recordedSeconds; }
+    public int getDroppedClicks() { return dropped; }
+
+    @Override
+    public String toString() {
+        return "ReplayScript[" + source + ", " + steps.size() + " steps, " + getCheckpoints().size() + " checkpoints on "
+            + (varKey != null ? varKey : "no quest variable") + "]";
+    }
+
+    /**
+     * One recorded click (or checkpoint)
+     */
+    public static final class Step {
+        private final Kind kind;
+        private final int line;
+        private final int gapSeconds;
+        private String subject;
+        private String action;
+        private String target;
+        private String on;
+        private int[] tile;
+        // Tile of the entity itself, rather than where the player was standing
+        private boolean exact;
+        // Where a stairs or ladder click led, if the recording saw the player arrive
+        private int[] landing;
+        private final List<String> options = new ArrayList<>();
+        private int unknownChoices;
+        private int from;
+        private int to;
+
+        private Step(Kind kind, RecordingEvent event, int gapSeconds) {
+            this.kind = kind;
+            this.line = event.getLine();
+            this.gapSeconds = Math.max(0, gapSeconds);
+        }
+
+        private Step subject(String subject) {
+            this.subject = subject;
+            return this;
+        }
+
+        private Step action(String action) {
+            this.action = action;
+            return this;
+        }
+
+        /**
+         * The clicked entity's tile, or failing that where the player stood
+         */
+        private Step tile(int[] entity, int[] player) {
+            this.tile = entity != null ? entity : player;
+            this.exact = entity != null;
+            return this;
+        }
+
+        private boolean sameClick(Step other) {
+            return kind == other.kind && kind != Kind.CHECKPOINT && kind != Kind.DIALOGUE
+                && Objects.equals(subject, other.subject) && Objects.equals(action, other.action)
+                && Objects.equals(target, other.target) && Arrays.equals(tile, other.tile)
+                && options.isEmpty() && unknownChoices == 0;
+        }
+
+        /**
+         * Dialogue choices made after this step, recorded or not
+         */
+        public int getChoices() {
+            return options.size() + unknownChoices;
+        }
+
+        public boolean hasTile() {
+            return tile != null;
+        }
+
+        /**
+         * True if the tile is the entity's own; false if it is only where the player was at the time
+         */
+        public boolean isExactTile() {
+            return exact;
+        }
+
+        // Getters
+        public Kind getKind() { return kind; }
+        public int getLine() { return line; }
+        public int getGapSeconds() { return gapSeconds; }
+        public String getSubject() { return subject; }
+        public String getAction() { return action; }
+        public String getTarget() { return target; }
+        public String getOn() { return on; }
+        public int getX() { return tile[0]; }
+        public int getY() { return tile[1]; }
+        public int getZ() { return tile[2]; }
+        public int[] getLanding() { return landing; }
+        public List<String> getOptions() { return Collections.unmodifiableList(options); }
+        public int getUnknownChoices() { return unknownChoices; }
+        public int getFrom() { return from; }
+        public int getTo() { return to; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            switch (kind) {
+                case CHECKPOINT:
+                    return "checkpoint " + from + " -> " + to;
+                case DIALOGUE:
+                    sb.append("dialogue");
+                    break;
+                case USE:
+                    sb.append("use ").append(subject).append(" on ").append(on).append(' ').append(target);
+                    break;
+                default:
+                    sb.append(kind.name().toLowerCase()).append(' ').append(action).append(' ').append(subject);
+            }
+            if (tile != null) {
+                sb.append(exact ? " at (" : " near (").append(tile[0]).append(", ").append(tile[1]).append(", ")
+                    .append(tile[2]).append(')');
+            }
+            if (getChoices() > 0) {
+                sb.append(" then ").append(options);
+                if (unknownChoices > 0) sb.append(" + ").append(unknownChoices).append(" unrecorded");
+            }
+            return sb.toString();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && !(args.length == 3 && "--var".equals(args[1]))) {
+            System.err.println("Usage: java quest.replay.ReplayScript RECORDING [--var varbit:ID]");
+            return;
+        }
+        String var = args.length == 3 ? args[2].replace(':', ' ').toLowerCase() : null;
+        ReplayScript script = load(new File(args[0]), var);
+        System.out.println(script);
+        for (Step step : script.getSteps()) {
+            System.out.println(String.format("  %5d  +%4ds  %s", step.getLine(), step.getGapSeconds(), step));
+        }
+        System.out.println("Recorded " + script.getRecordedSeconds() + "s"
+            + (script.getDroppedClicks() > 0 ? ", " + script.getDroppedClicks() + " repeated clicks dropped" : ""));
+    }
+}
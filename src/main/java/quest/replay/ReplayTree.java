@@ -0,0 +1,379 @@
+package quest.replay;
+
+import quest.core.QuestNode;
+import quest.core.QuestTree;
+import quest.dialogue.DialogueEngine;
+import quest.dialogue.DialogueScript;
+import quest.nodes.ActionNode;
+import quest.travel.TravelPlanner;
+import org.dreambot.api.methods.container.impl.Inventory;
+import org.dreambot.api.methods.dialogues.Dialogues;
+import org.dreambot.api.methods.interactive.GameObjects;
+import org.dreambot.api.methods.interactive.NPCs;
+import org.dreambot.api.methods.interactive.Players;
+import org.dreambot.api.methods.item.GroundItems;
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.methods.settings.PlayerSettings;
+import org.dreambot.api.utilities.Sleep;
+import org.dreambot.api.wrappers.interactive.GameObject;
+import org.dreambot.api.wrappers.interactive.NPC;
+import org.dreambot.api.wrappers.items.GroundItem;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Replay Tree - runs a ReplayScript as a macro. Each recorded click is made again on the entity of
+ * that name nearest the recorded tile (walking there first if it is out of view), and the tree moves
+ * on as soon as the player has settled rather than after the recorded pause, so idle time between
+ * clicks drops out.
+ *
+ * Checkpoints are where the recording saw the quest variable change. The replay waits there for
+ * the same transition (bounded by twice the time it took when recorded), and before every step
+ * checks the variable still holds the recorded value; anything else is a divergence and stops the
+ * replay. Started part way through, the replay resumes at the segment recorded at the current value.
+ */
+public class ReplayTree extends QuestTree {
+
+    // How far from the recorded tile an entity may be and still be taken for the one that was clicked
+    private static final int EXACT_RADIUS = 3;
+    private static final int NPC_RADIUS = 12;
+    // ...when the tile is only where the player stood at the time
+    private static final int NEAR_RADIUS = 15;
+    private static final long MIN_TRANSITION_WAIT_MS = 10000;
+    private static final long MAX_TRANSITION_WAIT_MS = 120000;
+    private static final long SETTLE_TIMEOUT_MS = 15000;
+    private static final long DIALOGUE_TIMEOUT_MS = 30000;
+
+    private final ReplayScript script;
+    private final List<ReplayScript.Step> steps;
+    private final QuestNode[] nodes;
+
+    // Next step to hand out; -1 until the starting point is chosen
+    private int cursor = -1;
+    // Quest variable value the next step was recorded at
+    private int expected;
+    private long startedAt;
+
+    public ReplayTree(ReplayScript script) {
+        super("Replay: " + script.getName());
+        this.script = script;
+        this.steps = script.getSteps();
+        this.nodes = new QuestNode[steps.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = steps.get(i).getKind() == ReplayScript.Kind.CHECKPOINT ? new CheckpointNode(i) : new StepNode(i);
+        }
+    }
+
+    @Override
+    protected void buildTree() {
+        // Called from QuestTree's constructor, before the nodes exist - the router reads them lazily
+        rootNode = new QuestNode("replay_router", "Recording replay") {
+            @Override
+            public ExecutionResult execute() {
+                return route();
+            }
+        };
+    }
+
+    private QuestNode.ExecutionResult route() {
+        if (cursor < 0) {
+            String problem = chooseStart();
+            if (problem != null) {
+                return QuestNode.ExecutionResult.failure(problem);
+            }
+        }
+        if (isVerified()) {
+            int value = readVar();
+            if (value != expected) {
+                int checkpoint = nextCheckpoint(cursor);
+                if (checkpoint < 0 || value != steps.get(checkpoint).getTo()) {
+                    return QuestNode.ExecutionResult.failure(diverged(cursor, value));
+                }
+                // The transition came before the steps that led to it when recorded - they are not needed
+                log("-> " + script.getVarKey() + " reached " + value + " early, skipping to step " + (checkpoint + 2));
+                cursor = checkpoint + 1;
+                expected = value;
+            }
+        }
+        if (cursor >= steps.size()) {
+            log("-> Replay finished: " + steps.size() + " steps in " + (System.currentTimeMillis() - startedAt) / 1000
+                + "s (recorded " + script.getRecordedSeconds() + "s)");
+            setQuestComplete();
+            return QuestNode.ExecutionResult.questComplete();
+        }
+        int index = cursor++;
+        return QuestNode.ExecutionResult.success(nodes[index], "Step " + (index + 1) + "/" + steps.size());
+    }
+
+    /**
+     * @return why the replay cannot start, or null
+     */
+    private String chooseStart() {
+        startedAt = System.currentTimeMillis();
+        cursor = 0;
+        if (!isVerified()) {
+            log("-> No quest variable changes in " + script.getSource() + " - replaying without checkpoints");
+            return null;
+        }
+        int value = readVar();
+        int last = -1;
+        for (int i = 0; i < steps.size(); i++) {
+            ReplayScript.Step step = steps.get(i);
+            if (step.getKind() != ReplayScript.Kind.CHECKPOINT) continue;
+            if (step.getFrom() == value) {
+                cursor = last + 1;
+                expected = value;
+                log("-> " + (cursor == 0 ? "Starting" : "Resuming at step " + (cursor + 1)) + " with "
+                    + script.getVarKey() + " = " + value);
+                return null;
+            }
+            last = i;
+        }
+        if (last >= 0 && steps.get(last).getTo() == value) {
+            cursor = last + 1;
+            expected = value;
+            log("-> Already past the last checkpoint (" + script.getVarKey() + " = " + value + ")");
+            return null;
+        }
+        return "Cannot start " + script.getSource() + ": " + script.getVarKey() + " = " + value
+            + " is not a value the recording passed through";
+    }
+
+    private int nextCheckpoint(int from) {
+        for (int i = from; i < steps.size(); i++) {
+            if (steps.get(i).getKind() == ReplayScript.Kind.CHECKPOINT) return i;
+        }
+        return -1;
+    }
+
+    private String diverged(int index, int value) {
+        int line = index < steps.size() ? steps.get(index).getLine() : steps.get(steps.size() - 1).getLine();
+        return "Diverged from " + script.getSource() + " before step " + (index + 1) + " (line " + line + "): "
+            + script.getVarKey() + " = " + value + ", recorded " + expected;
+    }
+
+    private boolean isVerified() {
+        return script.getVarKey() != null && !script.getCheckpoints().isEmpty();
+    }
+
+    private int readVar() {
+        return script.isVarbit()
+            ? PlayerSettings.getBitValue(script.getVarId())
+            : PlayerSettings.getConfig(script.getVarId());
+    }
+
+    /**
+     * Waits for a recorded transition of the quest variable
+     */
+    private final class CheckpointNode extends QuestNode {
+        private final ReplayScript.Step step;
+        private long deadline = 0;
+
+        CheckpointNode(int index) {
+            super("replay_" + index + "_checkpoint", "Wait for " + script.getVarKey() + " "
+                + steps.get(index).getFrom() + " -> " + steps.get(index).getTo());
+            this.step = steps.get(index);
+        }
+
+        @Override
+        public ExecutionResult execute() {
+            long now = System.currentTimeMillis();
+            if (deadline == 0) {
+                deadline = now + Math.max(MIN_TRANSITION_WAIT_MS, Math.min(MAX_TRANSITION_WAIT_MS, step.getGapSeconds() * 2000L));
+            }
+            int value = readVar();
+            if (value == step.getTo()) {
+                deadline = 0;
+                expected = value;
+                log("-> Checkpoint " + script.getVarKey() + " " + step.getFrom() + " -> " + step.getTo() + " reached");
+                return ExecutionResult.success(null);
+            }
+            if (value != step.getFrom()) {
+                deadline = 0;
+                return ExecutionResult.failure("Diverged from " + script.getSource() + " at line " + step.getLine() + ": "
+                    + script.getVarKey() + " went " + step.getFrom() + " -> " + value + ", recorded -> " + step.getTo());
+            }
+            if (now > deadline) {
+                deadline = 0;
+                return ExecutionResult.failure("Diverged from " + script.getSource() + " at line " + step.getLine() + ": "
+                    + script.getVarKey() + " stayed " + value + " (recorded -> " + step.getTo() + " after "
+                    + step.getGapSeconds() + "s)");
+            }
+            return ExecutionResult.inProgress("Waiting for " + script.getVarKey() + " -> " + step.getTo());
+        }
+    }
+
+    /**
+     * One recorded click, then whatever conversation it opened
+     */
+    private final class StepNode extends ActionNode {
+        private final ReplayScript.Step step;
+
+        StepNode(int index) {
+            super("replay_" + index + "_" + steps.get(index).getKind().name().toLowerCase(), steps.get(index).toString());
+            this.step = steps.get(index);
+        }
+
+        @Override
+        protected boolean performAction() {
+            if (step.getKind() != ReplayScript.Kind.DIALOGUE && Dialogues.inDialogue()) {
+                // Left over from the step before (a message box, the end of a chat)
+                DialogueEngine.getInstance().run("replay", DialogueScript.CONTINUE_ONLY, DIALOGUE_TIMEOUT_MS);
+            }
+            boolean clicked;
+            switch (step.getKind()) {
+                case NPC: clicked = clickNpc(); break;
+                case OBJECT: clicked = clickObject(); break;
+                case TAKE: clicked = take(); break;
+                case USE: clicked = use(); break;
+                case ITEM: clicked = Inventory.interact(step.getSubject(), step.getAction()); break;
+                default: clicked = Sleep.sleepUntil(Dialogues::inDialogue, 5000);
+            }
+            if (!clicked) return false;
+
+            Sleep.sleepUntil(() -> Players.getLocal().isMoving() || Players.getLocal().isAnimating()
+                || Dialogues.inDialogue(), 1200);
+            Sleep.sleepUntil(() -> !Players.getLocal().isMoving() && !Players.getLocal().isAnimating()
+                || Dialogues.inDialogue(), SETTLE_TIMEOUT_MS);
+            if (step.getChoices() > 0) {
+                Sleep.sleepUntil(Dialogues::inDialogue, 3000);
+            }
+            if (Dialogues.inDialogue()) {
+                DialogueEngine.Result result = DialogueEngine.getInstance().run(
+                    step.getSubject() != null ? step.getSubject() : "replay", dialogueScript(), DIALOGUE_TIMEOUT_MS);
+                log("Dialogue: " + result);
+            }
+            return true;
+        }
+
+        private boolean clickNpc() {
+            NPC npc = findNpc();
+            if (npc == null && walkToStep()) {
+                npc = findNpc();
+            }
+            if (npc == null) {
+                log("Cannot find " + step.getSubject() + " near the recorded tile");
+                return false;
+            }
+            return npc.interact(step.getAction());
+        }
+
+        private boolean clickObject() {
+            GameObject object = findObject(step.getSubject(), step.getAction());
+            if (object == null && walkToStep()) {
+                object = findObject(step.getSubject(), step.getAction());
+            }
+            if (object == null) {
+                if (findObject(step.getSubject(), null) != null) {
+                    // Already in the state the click put it in (a door left open, a lever already pulled)
+                    log(step.getSubject() + " no longer offers " + step.getAction() + " - already done");
+                    return true;
+                }
+                log("Cannot find " + step.getSubject() + " near the recorded tile");
+                return false;
+            }
+            return object.interact(step.getAction());
+        }
+
+        private boolean take() {
+            GroundItem item = findGroundItem();
+            if (item == null && walkToStep()) {
+                item = findGroundItem();
+            }
+            if (item == null) {
+                log("Cannot find " + step.getSubject() + " on the ground near the recorded tile");
+                return false;
+            }
+            int before = Inventory.count(step.getSubject());
+            return item.interact("Take") && Sleep.sleepUntil(() -> Inventory.count(step.getSubject()) > before, 6000);
+        }
+
+        private boolean use() {
+            if (!Inventory.contains(step.getSubject())) {
+                log("No " + step.getSubject() + " to use");
+                return false;
+            }
+            if ("item".equals(step.getOn())) {
+                return Inventory.interact(step.getSubject(), "Use") && Inventory.interact(step.getTarget(), "Use");
+            }
+            if ("npc".equals(step.getOn())) {
+                NPC npc = findNpcNamed(step.getTarget());
+                if (npc == null && walkToStep()) npc = findNpcNamed(step.getTarget());
+                return npc != null && Inventory.interact(step.getSubject(), "Use") && npc.interact("Use");
+            }
+            GameObject object = findObject(step.getTarget(), null);
+            if (object == null && walkToStep()) object = findObject(step.getTarget(), null);
+            return object != null && Inventory.interact(step.getSubject(), "Use") && object.interact("Use");
+        }
+
+        private NPC findNpc() {
+            NPC npc = findNpcNamed(step.getSubject());
+            return npc != null && npc.hasAction(step.getAction()) ? npc : null;
+        }
+
+        private NPC findNpcNamed(String name) {
+            Tile tile = recordedTile();
+            int radius = step.isExactTile() ? NPC_RADIUS : NEAR_RADIUS;
+            return NPCs.closest(n -> n != null && name.equals(n.getName()) && near(n.getTile(), tile, radius));
+        }
+
+        private GameObject findObject(String name, String action) {
+            Tile tile = recordedTile();
+            int radius = step.isExactTile() ? EXACT_RADIUS : NEAR_RADIUS;
+            return GameObjects.closest(o -> o != null && name.equals(o.getName())
+                && (action == null || o.hasAction(action)) && near(o.getTile(), tile, radius));
+        }
+
+        private GroundItem findGroundItem() {
+            Tile tile = recordedTile();
+            int radius = step.isExactTile() ? EXACT_RADIUS : NEAR_RADIUS;
+            return GroundItems.closest(g -> g != null && step.getSubject().equals(g.getName()) && near(g.getTile(), tile, radius));
+        }
+
+        /**
+         * Walk towards the recorded tile if it is out of reach
+         * @return true if the player is near it now
+         */
+        private boolean walkToStep() {
+            Tile tile = recordedTile();
+            if (tile == null) return false;
+            Tile here = Players.getLocal().getTile();
+            if (here.getZ() == tile.getZ() && here.distance(tile) <= EXACT_RADIUS) return false;
+            log("Walking to " + tile + " for " + step);
+            return TravelPlanner.getInstance().route(here, tile).walk(EXACT_RADIUS);
+        }
+
+        private Tile recordedTile() {
+            return step.hasTile() ? new Tile(step.getX(), step.getY(), step.getZ()) : null;
+        }
+
+        private DialogueScript dialogueScript() {
+            if (step.getChoices() == 0) {
+                return DialogueScript.CONTINUE_ONLY;
+            }
+            DialogueScript.Builder builder = DialogueScript.builder(step.toString());
+            for (String option : new LinkedHashSet<>(step.getOptions())) {
+                builder.option(option);
+            }
+            if (step.getUnknownChoices() > 0) {
+                // The recording saw a choice but not which one - learned answers, then option 1
+                builder.fallbackToFirst();
+            }
+            return builder.maxChoices(step.getChoices()).build();
+        }
+    }
+
+    private static boolean near(Tile tile, Tile recorded, int radius) {
+        return recorded == null || tile != null && tile.getZ() == recorded.getZ() && tile.distance(recorded) <= radius;
+    }
+
+    @Override
+    public int getQuestProgress() {
+        if (questComplete) return 100;
+        return cursor <= 0 || steps.isEmpty() ? 0 : cursor * 100 / steps.size();
+    }
+
+    // Getters
+    public ReplayScript getScript() { return script; }
+}
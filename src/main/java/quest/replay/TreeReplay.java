@@ -0,0 +1,95 @@
+package quest.replay;
+
+import quest.core.QuestEngine;
+import quest.core.QuestTree;
+import quest.definition.RecordingCompiler;
+import quest.recording.RecordingIndex;
+import quest.registry.QuestRegistry;
+
+import java.util.Collections;
+import java.util.Properties;
+
+/**
+ * Tree Replay - ReplayHarness's run of a registered QuestTree against a recording. The tree runs on an
+ * engine of its own whose GameDriver is an OfflineDriver, ticking exactly as QuestExecutor ticks it,
+ * until the recording's last transition has happened, the tree finishes or fails, or it goes
+ * MAX_TICKS_PER_VALUE ticks without moving the quest variable.
+ *
+ * Kept apart from ReplayHarness because trees need the client classes on the classpath (not a running
+ * client); definitions can be replayed without them.
+ */
+final class TreeReplay {
+
+    private static final int MAX_TICKS = 10000;
+    // Ticks without the variable moving before the tree is taken to be going round in circles
+    private static final int MAX_TICKS_PER_VALUE = 200;
+
+    private TreeReplay() {
+    }
+
+    static ReplayHarness.Result run(String questId, RecordingIndex.FileEntry recording, long seed) {
+        ReplayHarness.Result result = new ReplayHarness.Result(ReplayHarness.treeKey(questId, recording));
+        QuestRegistry.Entry entry = QuestRegistry.get(questId);
+        if (entry == null) {
+            result.fail("no QuestTree is registered as " + questId);
+            return result;
+        }
+        String var = RecordingCompiler.detectVar(Collections.singletonList(recording));
+        ReplayScript script = ReplayScript.fromRecording(recording, var);
+        if (!result.expect(script)) {
+            return result;
+        }
+
+        OfflineGame game = new OfflineGame(script, seed);
+        OfflineDriver driver = new OfflineDriver(game, script);
+        QuestEngine engine = new QuestEngine("replay " + result.getKey(), new Properties());
+        engine.setGameDriver(driver);
+        try {
+            engine.call(() -> {
+                drive(entry.createTree(), game, driver, result, var);
+                return null;
+            });
+        } catch (Exception e) {
+            result.fail("threw " + e);
+        }
+        result.finish(game);
+        return result;
+    }
+
+    private static void drive(QuestTree tree, OfflineGame game, OfflineDriver driver, ReplayHarness.Result result,
+                              String var) {
+        int moves = 0;
+        int still = 0;
+        for (int tick = 0; tick < MAX_TICKS && !result.isOver(); tick++) {
+            if (game.isFinished()) {
+                result.end("recording ends at " + var + " = " + game.getValue());
+                return;
+            }
+            boolean going = tree.execute();
+            if (driver.getUnsupported() != null) {
+                result.gap(driver.getUnsupported().getNodeId() + " is a custom action only the client can run ("
+                    + game.getTransitions().size() + " transitions replayed before it)");
+                return;
+            }
+            if (!going) {
+                if (tree.isQuestComplete()) {
+                    result.end("complete");
+                } else {
+                    result.fail("tree failed: " + tree.getFailureReason() + ReplayHarness.waitingFor(game));
+                }
+                return;
+            }
+            if (game.getTransitions().size() != moves) {
+                moves = game.getTransitions().size();
+                still = 0;
+            } else if (++still >= MAX_TICKS_PER_VALUE) {
+                result.fail(still + " ticks without " + var + " moving from " + game.getValue()
+                    + ReplayHarness.waitingFor(game));
+                return;
+            }
+        }
+        if (!result.isOver()) {
+            result.fail("still running after " + MAX_TICKS + " ticks");
+        }
+    }
+}
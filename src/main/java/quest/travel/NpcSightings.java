@@ -0,0 +1,59 @@
+package quest.travel;
+
+import org.dreambot.api.methods.map.Tile;
+import quest.core.QuestEngine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * NPC Sightings - where each NPC was last found, by this bot or (via the fleet) by another.
+ * Trees give every NPC an expected tile; when the NPC has wandered off or the tile was slightly
+ * wrong, the last sighting is the next best place to look.
+ */
+public class NpcSightings {
+
+    // A sighting this close to the known one is the same spot - not worth sharing again
+    private static final int MOVED_DISTANCE = 10;
+    // Sightings further than this from where the tree expects the NPC are a different NPC with the same name
+    private static final int MAX_DISTANCE_FROM_EXPECTED = 60;
+
+    private final Map<String, Tile> sightings = new ConcurrentHashMap<>();
+
+    public NpcSightings() {
+    }
+
+    /**
+     * Instance for the current engine (see QuestEngine.current())
+     */
+    public static NpcSightings getInstance() {
+        return QuestEngine.current().getNpcSightings();
+    }
+
+    /**
+     * Remember where an NPC was seen
+     * @return true if this is new information (first sighting, or it moved noticeably)
+     */
+    public boolean record(String npcName, Tile tile) {
+        Tile previous = sightings.put(npcName, tile);
+        return previous == null || !TravelGraph.sameLayer(previous, tile) || previous.distance(tile) > MOVED_DISTANCE;
+    }
+
+    /**
+     * Last sighting of this NPC that plausibly belongs to the expected location
+     * @return the tile, or null if none is known
+     */
+    public Tile find(String npcName, Tile expected) {
+        Tile sighting = sightings.get(npcName);
+        if (sighting == null) return null;
+        if (expected != null && (!TravelGraph.sameLayer(sighting, expected)
+                || sighting.distance(expected) > MAX_DISTANCE_FROM_EXPECTED)) {
+            return null;
+        }
+        return sighting;
+    }
+
+    public int size() {
+        return sightings.size();
+    }
+}
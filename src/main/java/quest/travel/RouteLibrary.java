@@ -0,0 +1,246 @@
+package quest.travel;
+
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.utilities.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Route Library - walking routes learned from recorded journeys.
+ * QuestEventLogger records each walking journey with breadcrumb checkpoints; the library clusters
+ * them by origin and destination map region and keeps the fastest few per cluster, so the walker
+ * can replay a proven path before falling back to the generic pathfinder.
+ */
+public class RouteLibrary {
+
+    // Minimum spacing between recorded checkpoints
+    public static final int CHECKPOINT_SPACING = 10;
+
+    // OSRS map regions are 64x64 tiles
+    private static final int REGION_SHIFT = 6;
+    private static final int MAX_ROUTES_PER_CLUSTER = 3;
+    // How far the player / goal may be from a route's ends for it to still be useful
+    private static final int ENDPOINT_RADIUS = 15;
+    // Failed replays before a route is dropped (the map may have changed, or it was a fluke)
+    private static final int MAX_FAILURES = 2;
+    private static final double MAX_DETOUR_RATIO = 1.5;
+
+    // "Journey: Walked 55 tiles in 24s | (3242, 3208, 0) → (3211, 3162, 0)"
+    private static final Pattern JOURNEY = Pattern.compile("Journey: Walked \\d+ tiles in (\\d+)s \\| \\((\\d+), (\\d+), (\\d+)\\)");
+    // "Route: (3242, 3208, 0) (3234, 3199, 0) ..."
+    private static final Pattern ROUTE = Pattern.compile("Route: (.+)$");
+    private static final Pattern TILE = Pattern.compile("\\((\\d+), (\\d+), (\\d+)\\)");
+
+    private final Map<String, List<KnownRoute>> clusters = new HashMap<>();
+    private volatile int version = 0;
+
+    /**
+     * Add an observed journey; kept if it is among the fastest for its origin/destination regions
+     * @param checkpoints tiles from start to end, at least one in between
+     * @return true if the route was kept
+     */
+    public synchronized boolean record(List<Tile> checkpoints, long durationMs, String source) {
+        if (checkpoints.size() < 3 || durationMs <= 0) return false;
+        Tile start = checkpoints.get(0);
+        Tile end = checkpoints.get(checkpoints.size() - 1);
+        if (!TravelGraph.isWalkable(start, end)) return false; // Climbs and boats belong to the travel graph
+
+        String key = clusterKey(start, end);
+        List<KnownRoute> routes = clusters.computeIfAbsent(key, k -> new ArrayList<>());
+        KnownRoute route = new KnownRoute(checkpoints, durationMs, source);
+        routes.add(route);
+        routes.sort(Comparator.comparingLong(KnownRoute::getDurationMs));
+        while (routes.size() > MAX_ROUTES_PER_CLUSTER) {
+            routes.remove(routes.size() - 1);
+        }
+        boolean kept = routes.contains(route);
+        if (kept) version++;
+        return kept;
+    }
+
+    /**
+     * Fastest known route for this trip (replayed backwards if it was recorded the other way round)
+     * @return the route, or null if nothing recorded fits
+     */
+    public synchronized KnownRoute find(Tile from, Tile to) {
+        KnownRoute best = null;
+        double bestSeconds = Double.MAX_VALUE;
+        // The library is small (a few routes per region pair), so a scan beats a spatial index
+        for (List<KnownRoute> routes : clusters.values()) {
+            for (KnownRoute route : routes) {
+                KnownRoute candidate = fits(route, from, to) ? route
+                    : fits(route, to, from) ? route.reversed() : null;
+                if (candidate == null) continue;
+                double seconds = candidate.getDurationMs() / 1000.0
+                    + TravelGraph.walkSeconds(from, candidate.getStart())
+                    + TravelGraph.walkSeconds(candidate.getEnd(), to);
+                if (seconds < bestSeconds) {
+                    bestSeconds = seconds;
+                    best = candidate;
+                }
+            }
+        }
+        // Skip routes that are clearly slower than a straight walk (e.g. a recorded detour to a bank)
+        return best != null && bestSeconds <= TravelGraph.walkSeconds(from, to) * MAX_DETOUR_RATIO ? best : null;
+    }
+
+    private static boolean fits(KnownRoute route, Tile from, Tile to) {
+        return TravelGraph.sameLayer(route.getStart(), from) && route.getStart().distance(from) <= ENDPOINT_RADIUS
+            && TravelGraph.sameLayer(route.getEnd(), to) && route.getEnd().distance(to) <= ENDPOINT_RADIUS;
+    }
+
+    /**
+     * A replay did not get through - drop the route once it has failed too often
+     */
+    public synchronized void reportFailure(KnownRoute route) {
+        for (List<KnownRoute> routes : clusters.values()) {
+            for (Iterator<KnownRoute> it = routes.iterator(); it.hasNext(); ) {
+                KnownRoute known = it.next();
+                if (known.getId() == route.getId() && ++known.failures >= MAX_FAILURES) {
+                    it.remove();
+                    version++;
+                    Logger.log("[Travel] Dropped learned route " + known);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ingest every recorded log in a directory
+     * @return number of routes kept
+     */
+    public int ingestDirectory(String directory) {
+        File[] files = new File(directory).listFiles((d, name) -> name.endsWith(".log"));
+        if (files == null) return 0;
+        int kept = 0;
+        for (File file : files) {
+            try {
+                kept += ingestFile(file);
+            } catch (IOException e) {
+                Logger.log("[Travel] Could not read " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Ingest the Journey/Route line pairs of a single recorded log
+     */
+    public int ingestFile(File file) throws IOException {
+        int kept = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            long pendingDurationMs = -1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher journey = JOURNEY.matcher(line);
+                if (journey.find()) {
+                    pendingDurationMs = Long.parseLong(journey.group(1)) * 1000;
+                    continue;
+                }
+                Matcher route = ROUTE.matcher(line);
+                if (route.find() && pendingDurationMs > 0) {
+                    if (record(parseTiles(route.group(1)), pendingDurationMs, file.getName())) {
+                        kept++;
+                    }
+                }
+                pendingDurationMs = -1;
+            }
+        }
+        return kept;
+    }
+
+    private static List<Tile> parseTiles(String text) {
+        List<Tile> tiles = new ArrayList<>();
+        Matcher matcher = TILE.matcher(text);
+        while (matcher.find()) {
+            tiles.add(new Tile(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                Integer.parseInt(matcher.group(3))));
+        }
+        return tiles;
+    }
+
+    /**
+     * Format checkpoints the way ingestFile() reads them back
+     */
+    public static String formatRoute(List<Tile> checkpoints) {
+        StringBuilder sb = new StringBuilder();
+        for (Tile tile : checkpoints) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append('(').append(tile.getX()).append(", ").append(tile.getY()).append(", ").append(tile.getZ()).append(')');
+        }
+        return sb.toString();
+    }
+
+    private static String clusterKey(Tile start, Tile end) {
+        return (start.getX() >> REGION_SHIFT) + "," + (start.getY() >> REGION_SHIFT) + "," + start.getZ()
+            + ">" + (end.getX() >> REGION_SHIFT) + "," + (end.getY() >> REGION_SHIFT) + "," + end.getZ();
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public synchronized int size() {
+        int count = 0;
+        for (List<KnownRoute> routes : clusters.values()) {
+            count += routes.size();
+        }
+        return count;
+    }
+
+    /**
+     * A recorded walking route: checkpoints from start to end and how long it took
+     */
+    public static class KnownRoute {
+        private static int nextId = 0;
+
+        private final int id;
+        private final List<Tile> checkpoints;
+        private final long durationMs;
+        private final String source;
+        private int failures = 0;
+
+        KnownRoute(List<Tile> checkpoints, long durationMs, String source) {
+            this(nextId(), checkpoints, durationMs, source);
+        }
+
+        private KnownRoute(int id, List<Tile> checkpoints, long durationMs, String source) {
+            this.id = id;
+            this.checkpoints = Collections.unmodifiableList(new ArrayList<>(checkpoints));
+            this.durationMs = durationMs;
+            this.source = source;
+        }
+
+        private static synchronized int nextId() {
+            return nextId++;
+        }
+
+        KnownRoute reversed() {
+            List<Tile> tiles = new ArrayList<>(checkpoints);
+            Collections.reverse(tiles);
+            return new KnownRoute(id, tiles, durationMs, source);
+        }
+
+        // Getters
+        public int getId() { return id; }
+        public List<Tile> getCheckpoints() { return checkpoints; }
+        public Tile getStart() { return checkpoints.get(0); }
+        public Tile getEnd() { return checkpoints.get(checkpoints.size() - 1); }
+        public long getDurationMs() { return durationMs; }
+        public String getSource() { return source; }
+
+        @Override
+        public String toString() {
+            return getStart() + " -> " + getEnd() + " (" + checkpoints.size() + " checkpoints, "
+                + (durationMs / 1000) + "s, " + source + ")";
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package quest.travel;
+
+import org.dreambot.api.methods.container.impl.bank.Bank;
+import org.dreambot.api.methods.dialogues.Dialogues;
+import org.dreambot.api.methods.grandexchange.GrandExchange;
+import org.dreambot.api.methods.interactive.Players;
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.methods.skills.Skill;
+import org.dreambot.api.methods.skills.Skills;
+import org.dreambot.api.methods.walking.impl.Walking;
+import org.dreambot.api.utilities.Logger;
+import quest.core.QuestEngine;
+import quest.utils.RunEnergyUtil;
+
+/**
+ * Run Energy Planner - spends run energy against the walk that's actually coming up.
+ * TravelRoute announces each route's goal and length; every tick the planner compares the energy
+ * the rest of that walk needs with what we have, and only drinks when the shortfall is big enough
+ * to pay for the drink (picking the dose that covers it without overflowing). Idle time and waits
+ * (dialogue, bank, Grand Exchange) never trigger a drink - energy regenerates there for free.
+ * Drain per tile is learned from what running actually costs, so inventory weight and agility
+ * are accounted for without needing to read them directly.
+ */
+public class RunEnergyPlanner {
+
+    // One decision per game tick is enough however many callers ask
+    private static final long EVALUATION_INTERVAL_MS = 600;
+    // Enable run whenever we're idle above this (the old fixed behaviour)
+    private static final int IDLE_RUN_ON_THRESHOLD = 30;
+    // Don't toggle run for less than this much running
+    private static final int MIN_RUN_ENERGY = 3;
+    // Only drink if the extra running saves at least this long (drinking takes ~2 ticks)
+    private static final double MIN_DRINK_SAVING_SECONDS = 6;
+    // Route hints older than this are forgotten (node gave up, script paused, ...)
+    private static final long ROUTE_HINT_TTL_MS = 180000;
+    private static final int ARRIVAL_RADIUS = 5;
+    // Assumed carried weight until running has been observed
+    private static final double DEFAULT_WEIGHT_KG = 10;
+    private static final double LEARNING_RATE = 0.3;
+
+    private long lastEvaluation = 0;
+
+    private Tile routeGoal;
+    private long routeHintTime = 0;
+
+    private Double learnedDrainPerTile;
+    private Tile lastSampleTile;
+    private double lastSampleEnergy = -1;
+
+    private long drinks = 0;
+
+    public RunEnergyPlanner() {
+    }
+
+    /**
+     * Instance for the current engine (see QuestEngine.current())
+     */
+    public static RunEnergyPlanner getInstance() {
+        return QuestEngine.current().getRunEnergyPlanner();
+    }
+
+    /**
+     * Tell the planner where the current walk is heading
+     */
+    public synchronized void planRoute(Tile goal) {
+        routeGoal = goal;
+        routeHintTime = System.currentTimeMillis();
+    }
+
+    public synchronized void clearRoute() {
+        routeGoal = null;
+    }
+
+    /**
+     * Decide run toggle and potion use for this tick (cheap no-op if already decided this tick)
+     */
+    public synchronized void tick() {
+        long now = System.currentTimeMillis();
+        if (now - lastEvaluation < EVALUATION_INTERVAL_MS) {
+            return;
+        }
+        lastEvaluation = now;
+
+        Tile player = Players.getLocal().getTile();
+        double energy = Walking.getRunEnergy();
+        learnDrain(player, energy);
+
+        double remainingTiles = getRemainingTiles(player, now);
+        if (remainingTiles <= 0) {
+            if (energy > IDLE_RUN_ON_THRESHOLD && !Walking.isRunEnabled()) {
+                RunEnergyUtil.enableRun();
+            }
+            return;
+        }
+
+        double drainPerTile = getDrainPerTile();
+        double needed = remainingTiles * drainPerTile;
+
+        if (energy < needed && !isWaiting()) {
+            double shortfallTiles = Math.min(needed - energy, 100 - energy) / drainPerTile;
+            double saving = shortfallTiles * (TravelTimeEstimator.WALK_SECONDS_PER_TILE - TravelTimeEstimator.RUN_SECONDS_PER_TILE);
+            if (saving >= MIN_DRINK_SAVING_SECONDS) {
+                String potion = RunEnergyUtil.choosePotion(needed - energy, 100 - energy);
+                if (potion != null && RunEnergyUtil.drink(potion)) {
+                    drinks++;
+                    Logger.log(String.format("[Energy] Drank %s: %.0f tiles to go need ~%.0f%%, had %.0f%%",
+                        potion, remainingTiles, needed, energy));
+                    energy = Walking.getRunEnergy();
+                    lastSampleEnergy = energy;
+                }
+            }
+        }
+
+        // Any running is faster than none - the only reason to hold back is a toggle for a couple of tiles
+        if (!Walking.isRunEnabled() && energy >= Math.min(IDLE_RUN_ON_THRESHOLD, Math.max(MIN_RUN_ENERGY, needed))) {
+            RunEnergyUtil.enableRun();
+        }
+    }
+
+    private double getRemainingTiles(Tile player, long now) {
+        if (routeGoal == null) return 0;
+        if (now - routeHintTime > ROUTE_HINT_TTL_MS
+            || (TravelGraph.sameLayer(player, routeGoal) && player.distance(routeGoal) <= ARRIVAL_RADIUS)) {
+            routeGoal = null;
+            return 0;
+        }
+        // Crossing layers costs at least the straight-line walk; the exact transition path doesn't matter here
+        return Math.hypot(player.getX() - routeGoal.getX(),
+            (player.getY() % TravelGraph.UNDERGROUND_Y) - (routeGoal.getY() % TravelGraph.UNDERGROUND_Y))
+            * TravelGraph.PATH_DETOUR_FACTOR;
+    }
+
+    /**
+     * Unavoidable waits regenerate energy for free - never drink during them
+     */
+    private static boolean isWaiting() {
+        return Dialogues.inDialogue() || Bank.isOpen() || GrandExchange.isOpen();
+    }
+
+    /**
+     * Compare energy spent with tiles covered while running, and fold that into the drain estimate
+     */
+    private void learnDrain(Tile player, double energy) {
+        if (lastSampleTile != null && lastSampleEnergy >= 0 && Walking.isRunEnabled()
+            && TravelGraph.sameLayer(player, lastSampleTile)) {
+            double tiles = player.distance(lastSampleTile);
+            double spent = lastSampleEnergy - energy;
+            // Ignore teleports, drinks and standing still
+            if (tiles >= 4 && tiles <= 20 && spent > 0) {
+                double observed = spent / tiles;
+                learnedDrainPerTile = learnedDrainPerTile == null ? observed
+                    : learnedDrainPerTile + LEARNING_RATE * (observed - learnedDrainPerTile);
+            }
+        }
+        lastSampleTile = player;
+        lastSampleEnergy = energy;
+    }
+
+    /**
+     * Energy % per tile run: learned if we have seen ourselves run, otherwise from agility and an assumed weight.
+     * Running drains (60 + 67 * weight / 64) / 100 % per tick (2 tiles), reduced by agility / 300.
+     */
+    public double getDrainPerTile() {
+        if (learnedDrainPerTile != null) {
+            return learnedDrainPerTile;
+        }
+        int agility = 1;
+        try {
+            agility = Skills.getRealLevel(Skill.AGILITY);
+        } catch (Throwable t) {
+            // Not logged in - level 1 is the pessimistic choice
+        }
+        double perTick = (60 + 67 * Math.min(DEFAULT_WEIGHT_KG, 64) / 64) / 100.0 * (1 - agility / 300.0);
+        return perTick / 2;
+    }
+
+    public synchronized String getStats() {
+        return String.format("%.3f%%/tile drain (%s), %d potions drunk",
+            getDrainPerTile(), learnedDrainPerTile != null ? "learned" : "estimated", drinks);
+    }
+}
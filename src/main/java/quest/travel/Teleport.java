@@ -0,0 +1,108 @@
+package quest.travel;
+
+import org.dreambot.api.methods.magic.Normal;
+import org.dreambot.api.methods.map.Tile;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Teleport - one way of jumping across the map, with where it lands and what it costs.
+ * The catalog only lists free-to-play teleports the framework's quests can actually use.
+ */
+public class Teleport {
+
+    public enum Kind {
+        HOME,       // Lumbridge Home Teleport - free, long cast, 30 minute cooldown
+        SPELL,      // Standard spellbook teleport - needs runes and a magic level
+        TABLET,     // "Break" a teleport tablet
+        JEWELLERY   // Charged jewellery, "Rub" then pick a destination
+    }
+
+    public static final long HOME_TELEPORT_COOLDOWN_MS = 30 * 60 * 1000L;
+
+    private final String name;
+    private final Kind kind;
+    private final Tile destination;
+    private final double castSeconds;
+    private final Normal spell;
+    private final int magicLevel;
+    private final Map<String, Integer> runes;
+    private final String itemName;
+    private final String option;
+
+    private Teleport(String name, Kind kind, Tile destination, double castSeconds, Normal spell, int magicLevel,
+                     Map<String, Integer> runes, String itemName, String option) {
+        this.name = name;
+        this.kind = kind;
+        this.destination = destination;
+        this.castSeconds = castSeconds;
+        this.spell = spell;
+        this.magicLevel = magicLevel;
+        this.runes = runes;
+        this.itemName = itemName;
+        this.option = option;
+    }
+
+    private static Teleport spell(String name, Tile destination, Normal spell, int magicLevel, Object... runeCounts) {
+        Map<String, Integer> runes = new LinkedHashMap<>();
+        for (int i = 0; i < runeCounts.length; i += 2) {
+            runes.put((String) runeCounts[i], (Integer) runeCounts[i + 1]);
+        }
+        return new Teleport(name, Kind.SPELL, destination, 3, spell, magicLevel, Collections.unmodifiableMap(runes), null, null);
+    }
+
+    private static Teleport tablet(String itemName, Tile destination) {
+        return new Teleport(itemName, Kind.TABLET, destination, 3, null, 0, Collections.emptyMap(), itemName, "Break");
+    }
+
+    /**
+     * @param itemPrefix charged item names start with this, e.g. "Amulet of glory(" for "Amulet of glory(4)"
+     */
+    private static Teleport jewellery(String itemPrefix, String option, Tile destination) {
+        return new Teleport(itemPrefix + " - " + option, Kind.JEWELLERY, destination, 4, null, 0,
+            Collections.emptyMap(), itemPrefix, option);
+    }
+
+    public static final Tile LUMBRIDGE = new Tile(3222, 3218, 0);
+    public static final Tile VARROCK = new Tile(3213, 3424, 0);
+    public static final Tile FALADOR = new Tile(2965, 3379, 0);
+    public static final Tile EDGEVILLE = new Tile(3087, 3496, 0);
+    public static final Tile KARAMJA = new Tile(2918, 3176, 0);
+    public static final Tile DRAYNOR_VILLAGE = new Tile(3105, 3251, 0);
+    public static final Tile AL_KHARID = new Tile(3293, 3163, 0);
+
+    public static final List<Teleport> CATALOG = Collections.unmodifiableList(Arrays.asList(
+        new Teleport("Lumbridge Home Teleport", Kind.HOME, LUMBRIDGE, 12, Normal.HOME_TELEPORT, 0,
+            Collections.emptyMap(), null, null),
+        spell("Varrock Teleport", VARROCK, Normal.VARROCK_TELEPORT, 25, "Law rune", 1, "Air rune", 3, "Fire rune", 1),
+        spell("Lumbridge Teleport", LUMBRIDGE, Normal.LUMBRIDGE_TELEPORT, 31, "Law rune", 1, "Air rune", 3, "Earth rune", 1),
+        spell("Falador Teleport", FALADOR, Normal.FALADOR_TELEPORT, 37, "Law rune", 1, "Air rune", 3, "Water rune", 1),
+        tablet("Varrock teleport", VARROCK),
+        tablet("Lumbridge teleport", LUMBRIDGE),
+        tablet("Falador teleport", FALADOR),
+        jewellery("Amulet of glory(", "Edgeville", EDGEVILLE),
+        jewellery("Amulet of glory(", "Karamja", KARAMJA),
+        jewellery("Amulet of glory(", "Draynor Village", DRAYNOR_VILLAGE),
+        jewellery("Amulet of glory(", "Al Kharid", AL_KHARID)
+    ));
+
+    // Getters
+    public String getName() { return name; }
+    public Kind getKind() { return kind; }
+    public Tile getDestination() { return destination; }
+    public double getCastSeconds() { return castSeconds; }
+    public Normal getSpell() { return spell; }
+    public int getMagicLevel() { return magicLevel; }
+    public Map<String, Integer> getRunes() { return runes; }
+    public String getItemName() { return itemName; }
+    public String getOption() { return option; }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,267 @@
+package quest.travel;
+
+import org.dreambot.api.methods.container.impl.Inventory;
+import org.dreambot.api.methods.container.impl.bank.Bank;
+import org.dreambot.api.methods.container.impl.equipment.Equipment;
+import org.dreambot.api.methods.container.impl.equipment.EquipmentSlot;
+import org.dreambot.api.methods.dialogues.Dialogues;
+import org.dreambot.api.methods.interactive.Players;
+import org.dreambot.api.methods.magic.Magic;
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.methods.skills.Skill;
+import org.dreambot.api.methods.skills.Skills;
+import org.dreambot.api.utilities.Logger;
+import org.dreambot.api.utilities.Sleep;
+import org.dreambot.api.wrappers.items.Item;
+import quest.core.QuestEngine;
+import quest.metrics.QuestMetrics;
+import quest.metrics.jfr.QuestJfr;
+import quest.utils.BankMirror;
+
+import java.util.Map;
+
+/**
+ * Teleport Planner - decides whether a teleport beats walking a planned route, and performs it.
+ * Candidates come from the spellbook (home teleport cooldown is tracked here), runes, tablets and
+ * charged jewellery in the inventory or equipment, and - when we're standing at the bank we last
+ * saw - items in the bank mirror. Each candidate is costed as preparation + cast + the walk from
+ * where it lands; the walk itself is costed from path length and current run energy.
+ */
+public class TeleportPlanner {
+
+    // Short trips aren't worth the cast animation, let alone a bank visit
+    private static final double MIN_WALK_SECONDS = 30;
+    // A teleport has to win by a clear margin - the estimates aren't that precise
+    private static final double MIN_SAVING_SECONDS = 20;
+    // Banked items only count if we're still standing at the bank we last saw
+    private static final int BANK_REACH = 10;
+    private static final double BANK_PREP_SECONDS = 8;
+    private static final int ARRIVAL_RADIUS = 15;
+
+    public enum Source { SPELLBOOK, INVENTORY, EQUIPPED, BANK }
+
+    private long lastHomeTeleportTime = 0;
+
+    public TeleportPlanner() {
+    }
+
+    /**
+     * Instance for the current engine (see QuestEngine.current())
+     */
+    public static TeleportPlanner getInstance() {
+        return QuestEngine.current().getTeleportPlanner();
+    }
+
+    /**
+     * Pick the fastest way to the goal given the walking plan
+     * @return the teleport to use, or null to walk
+     */
+    public Option decide(Tile from, TravelPlan walkPlan) {
+        double walkSeconds = TravelTimeEstimator.estimatePlanSeconds(walkPlan);
+        if (walkSeconds < MIN_WALK_SECONDS) {
+            return null;
+        }
+
+        Tile goal = walkPlan.getGoal();
+        Option best = null;
+        for (Teleport teleport : Teleport.CATALOG) {
+            Source source = findSource(teleport, from);
+            if (source == null) continue;
+
+            TravelPlan after = TravelPlanner.getInstance().plan(teleport.getDestination(), goal);
+            double seconds = (source == Source.BANK ? BANK_PREP_SECONDS : 0) + teleport.getCastSeconds()
+                + TravelTimeEstimator.estimatePlanSeconds(after);
+            if (best == null || seconds < best.seconds) {
+                best = new Option(teleport, source, seconds);
+            }
+        }
+
+        if (best == null) {
+            return null;
+        }
+        if (best.seconds + MIN_SAVING_SECONDS <= walkSeconds) {
+            Logger.log(String.format("[Travel] Teleport decision: %s (%s) ~%.0fs vs walking ~%.0fs to %s",
+                best.teleport, best.source.name().toLowerCase(), best.seconds, walkSeconds, goal));
+            return best;
+        }
+        Logger.log(String.format("[Travel] Teleport decision: walking ~%.0fs to %s (best teleport %s ~%.0fs)",
+            walkSeconds, goal, best.teleport, best.seconds));
+        return null;
+    }
+
+    /**
+     * Where we could get this teleport from right now (null if unavailable)
+     */
+    private Source findSource(Teleport teleport, Tile from) {
+        switch (teleport.getKind()) {
+            case HOME:
+                return isHomeTeleportReady() && Magic.canCast(teleport.getSpell()) ? Source.SPELLBOOK : null;
+            case SPELL:
+                if (Magic.canCast(teleport.getSpell())) return Source.INVENTORY;
+                return isAtMirroredBank(from) && Skills.getRealLevel(Skill.MAGIC) >= teleport.getMagicLevel()
+                    && hasRunesWithBank(teleport.getRunes()) ? Source.BANK : null;
+            case TABLET:
+                if (Inventory.contains(teleport.getItemName())) return Source.INVENTORY;
+                return isAtMirroredBank(from) && BankMirror.getInstance().contains(teleport.getItemName()) ? Source.BANK : null;
+            case JEWELLERY:
+                if (Equipment.contains(i -> isCharged(i, teleport))) return Source.EQUIPPED;
+                if (Inventory.contains(i -> isCharged(i, teleport))) return Source.INVENTORY;
+                return isAtMirroredBank(from) && BankMirror.getInstance().findStartingWith(teleport.getItemName()) != null
+                    ? Source.BANK : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isCharged(Item item, Teleport teleport) {
+        return item != null && item.getName() != null && item.getName().startsWith(teleport.getItemName());
+    }
+
+    private static boolean hasRunesWithBank(Map<String, Integer> runes) {
+        for (Map.Entry<String, Integer> rune : runes.entrySet()) {
+            if (Inventory.count(rune.getKey()) + BankMirror.getInstance().count(rune.getKey()) < rune.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAtMirroredBank(Tile from) {
+        Tile bankTile = BankMirror.getInstance().getLastSeenAt();
+        return bankTile != null && TravelGraph.sameLayer(bankTile, from) && bankTile.distance(from) <= BANK_REACH;
+    }
+
+    public boolean isHomeTeleportReady() {
+        return lastHomeTeleportTime == 0
+            || System.currentTimeMillis() - lastHomeTeleportTime >= Teleport.HOME_TELEPORT_COOLDOWN_MS;
+    }
+
+    /**
+     * Fetch whatever the teleport needs, cast it and wait until we land
+     * @return true if we ended up at the destination
+     */
+    public boolean execute(Option option) {
+        QuestMetrics.getInstance().beginPhase(QuestMetrics.Phase.TELEPORT);
+        try {
+            return teleport(option);
+        } finally {
+            QuestMetrics.getInstance().endPhase();
+        }
+    }
+
+    private boolean teleport(Option option) {
+        Teleport teleport = option.teleport;
+        if (option.source == Source.BANK && !withdraw(teleport)) {
+            Logger.log("[Travel] Could not take " + teleport + " out of the bank, walking instead");
+            return false;
+        }
+
+        boolean started;
+        switch (teleport.getKind()) {
+            case HOME:
+            case SPELL:
+                started = Magic.castSpell(teleport.getSpell());
+                if (teleport.getKind() == Teleport.Kind.HOME) {
+                    // Either it's on its way or it's on cooldown - both mean don't try again for a while
+                    lastHomeTeleportTime = System.currentTimeMillis();
+                }
+                break;
+            case TABLET:
+                started = Inventory.interact(teleport.getItemName(), teleport.getOption());
+                break;
+            case JEWELLERY:
+                started = rubJewellery(teleport);
+                break;
+            default:
+                started = false;
+        }
+
+        if (!started) {
+            Logger.log("[Travel] Could not use " + teleport + ", walking instead");
+            return false;
+        }
+        long timeoutMs = (long) (teleport.getCastSeconds() * 1000) + 6000;
+        boolean arrived = QuestJfr.timedWait("teleport landed: " + teleport, timeoutMs, () -> Sleep.sleepUntil(
+            () -> Players.getLocal().getTile().distance(teleport.getDestination()) <= ARRIVAL_RADIUS, timeoutMs));
+        Logger.log("[Travel] " + teleport + (arrived ? " landed at " + Players.getLocal().getTile() : " did not land, walking instead"));
+        return arrived;
+    }
+
+    private boolean rubJewellery(Teleport teleport) {
+        if (Equipment.contains(i -> isCharged(i, teleport))) {
+            return Equipment.interact(EquipmentSlot.AMULET, teleport.getOption());
+        }
+        Item item = Inventory.get(i -> isCharged(i, teleport));
+        if (item == null || !item.interact("Rub")) {
+            return false;
+        }
+        return Sleep.sleepUntil(Dialogues::areOptionsAvailable, 3000)
+            && Dialogues.chooseFirstOptionContaining(teleport.getOption());
+    }
+
+    private boolean withdraw(Teleport teleport) {
+        QuestMetrics.getInstance().increment(QuestMetrics.BANK_SESSIONS);
+        QuestMetrics.getInstance().beginPhase(QuestMetrics.Phase.BANKING);
+        try {
+            return withdrawFromBank(teleport);
+        } finally {
+            QuestMetrics.getInstance().endPhase();
+        }
+    }
+
+    private boolean withdrawFromBank(Teleport teleport) {
+        Object bankEvent = QuestJfr.bankSessionBegin("teleport " + teleport);
+        if (!Bank.isOpen() && !Bank.open()) {
+            QuestJfr.bankSessionEnd(bankEvent, false, 0);
+            return false;
+        }
+        Sleep.sleepUntil(Bank::isOpen, 5000);
+        boolean ok = true;
+        switch (teleport.getKind()) {
+            case SPELL:
+                for (Map.Entry<String, Integer> rune : teleport.getRunes().entrySet()) {
+                    int missing = rune.getValue() - Inventory.count(rune.getKey());
+                    if (missing > 0) {
+                        ok &= Bank.withdraw(rune.getKey(), missing)
+                            && Sleep.sleepUntil(() -> Inventory.count(rune.getKey()) >= rune.getValue(), 3000);
+                    }
+                }
+                break;
+            case TABLET:
+                ok = Bank.withdraw(teleport.getItemName(), 1)
+                    && Sleep.sleepUntil(() -> Inventory.contains(teleport.getItemName()), 3000);
+                break;
+            case JEWELLERY:
+                String name = BankMirror.getInstance().findStartingWith(teleport.getItemName());
+                ok = name != null && Bank.withdraw(name, 1) && Sleep.sleepUntil(() -> Inventory.contains(name), 3000);
+                break;
+            default:
+                break;
+        }
+        BankMirror.getInstance().refreshIfOpen();
+        Bank.close();
+        Sleep.sleepUntil(() -> !Bank.isOpen(), 3000);
+        QuestJfr.bankSessionEnd(bankEvent, true, ok ? 1 : 0);
+        return ok;
+    }
+
+    /**
+     * A chosen teleport, where it comes from and the estimated door-to-door time
+     */
+    public static class Option {
+        private final Teleport teleport;
+        private final Source source;
+        private final double seconds;
+
+        Option(Teleport teleport, Source source, double seconds) {
+            this.teleport = teleport;
+            this.source = source;
+            this.seconds = seconds;
+        }
+
+        // Getters
+        public Teleport getTeleport() { return teleport; }
+        public Source getSource() { return source; }
+        public double getSeconds() { return seconds; }
+    }
+}
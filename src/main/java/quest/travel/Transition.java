@@ -0,0 +1,96 @@
+package quest.travel;
+
+import org.dreambot.api.methods.map.Tile;
+
+/**
+ * A known way between two places that plain walking can't cover on its own:
+ * stairs, ladders, trapdoors, doors that must be opened, and boats.
+ */
+public class Transition {
+
+    public enum Type {
+        STAIRS,
+        LADDER,
+        TRAPDOOR,
+        DOOR,
+        BOAT
+    }
+
+    private final Type type;
+    private final String entityName;
+    private final String action;
+    private final Tile from;
+    private final Tile to;
+    private final double costSeconds;
+    private final boolean npc;
+    private final String source;
+
+    public Transition(Type type, String entityName, String action, Tile from, Tile to,
+                      double costSeconds, boolean npc, String source) {
+        this.type = type;
+        this.entityName = entityName;
+        this.action = action;
+        this.from = from;
+        this.to = to;
+        this.costSeconds = costSeconds;
+        this.npc = npc;
+        this.source = source;
+    }
+
+    /**
+     * Object transition with the default cost for its type
+     */
+    public static Transition object(Type type, String objectName, String action, Tile from, Tile to, String source) {
+        return new Transition(type, objectName, action, from, to, defaultCost(type), false, source);
+    }
+
+    /**
+     * NPC transition (boats) with the default cost for its type
+     */
+    public static Transition npc(Type type, String npcName, String action, Tile from, Tile to, String source) {
+        return new Transition(type, npcName, action, from, to, defaultCost(type), true, source);
+    }
+
+    /**
+     * Guess the transition type from the object name and menu action, e.g. when mined from recordings
+     */
+    public static Type guessType(String objectName, String action) {
+        String name = objectName.toLowerCase();
+        if (name.contains("trapdoor") || name.contains("manhole")) return Type.TRAPDOOR;
+        if (name.contains("ladder")) return Type.LADDER;
+        if (name.contains("stair")) return Type.STAIRS;
+        if (name.contains("door") || name.contains("gate")) return Type.DOOR;
+        if (name.contains("gangplank") || action.toLowerCase().contains("fare")) return Type.BOAT;
+        return Type.STAIRS;
+    }
+
+    private static double defaultCost(Type type) {
+        switch (type) {
+            case DOOR: return 2.0;
+            case BOAT: return 30.0;
+            default: return 4.0;
+        }
+    }
+
+    /**
+     * Whether this transition moves between levels or landmasses rather than through a wall
+     */
+    public boolean changesLayer() {
+        return !TravelGraph.sameLayer(from, to) || !TravelGraph.sameLandmass(from, to);
+    }
+
+    // Getters
+    public Type getType() { return type; }
+    public String getEntityName() { return entityName; }
+    public String getAction() { return action; }
+    public Tile getFrom() { return from; }
+    public Tile getTo() { return to; }
+    public double getCostSeconds() { return costSeconds; }
+    public boolean isNpc() { return npc; }
+    public String getSource() { return source; }
+
+    @Override
+    public String toString() {
+        return action + " " + entityName + " " + from + " -> " + to;
+    }
+}
@@ -0,0 +1,120 @@
+package quest.travel;
+
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.utilities.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Transition Miner - learns climbs and boats from recorded quest logs.
+ * Looks for an object interaction followed by a position on a different layer, e.g.
+ *
+ *   [01:44:12] ACTION: Selected 'Climb-down' on Ladder
+ *   [01:44:12] USER_ACTION: Climb-down | Object_Tile: (3104, 3162, 0)
+ *   [01:44:22] Position: Arrived at (3109, 9570, 0)
+ */
+public class TransitionMiner {
+
+    public static final String DEFAULT_LOG_DIR = "quest_logs";
+
+    // Position lines after an interaction that still belong to it
+    private static final int LOOKAHEAD_LINES = 8;
+
+    private static final Pattern SELECTED = Pattern.compile("ACTION: Selected '([^']+)' on (.+)$");
+    private static final Pattern OBJECT_TILE = Pattern.compile("USER_ACTION: ([^|]+?) \\| Object_Tile: \\((\\d+), (\\d+), (\\d+)\\)");
+    private static final Pattern POSITION = Pattern.compile("(?:Arrived at|journey from) \\((\\d+), (\\d+), (\\d+)\\)");
+
+    private static final Set<String> TRAVEL_ACTIONS = new HashSet<>(Arrays.asList(
+        "climb-up", "climb-down", "climb", "walk-down", "walk-up", "go-down", "go-up", "enter", "exit", "cross"
+    ));
+
+    private TransitionMiner() {
+        // Static utility
+    }
+
+    /**
+     * Mine every .log file in a directory into the graph
+     * @return number of new transitions added
+     */
+    public static int mineDirectory(TravelGraph graph, String directory) {
+        File dir = new File(directory);
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".log"));
+        if (files == null) return 0;
+
+        int added = 0;
+        for (File file : files) {
+            try {
+                added += mineFile(graph, file);
+            } catch (IOException e) {
+                Logger.log("[Travel] Could not read " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Mine a single recorded log into the graph
+     * @return number of new transitions added
+     */
+    public static int mineFile(TravelGraph graph, File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+
+        int added = 0;
+        String lastEntity = null;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+
+            Matcher selected = SELECTED.matcher(line);
+            if (selected.find()) {
+                lastEntity = selected.group(2).trim();
+                continue;
+            }
+
+            Matcher objectTile = OBJECT_TILE.matcher(line);
+            if (!objectTile.find() || lastEntity == null) continue;
+
+            String action = objectTile.group(1).trim();
+            if (!TRAVEL_ACTIONS.contains(action.toLowerCase())) continue;
+            Tile from = new Tile(Integer.parseInt(objectTile.group(2)), Integer.parseInt(objectTile.group(3)),
+                Integer.parseInt(objectTile.group(4)));
+
+            Tile to = findArrival(lines, i + 1, from);
+            if (to != null && graph.add(Transition.object(Transition.guessType(lastEntity, action),
+                    lastEntity, action, from, to, file.getName()))) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * First recorded position after the interaction that is on another layer or landmass
+     */
+    private static Tile findArrival(List<String> lines, int startIndex, Tile from) {
+        int end = Math.min(lines.size(), startIndex + LOOKAHEAD_LINES);
+        for (int i = startIndex; i < end; i++) {
+            String line = lines.get(i);
+            if (SELECTED.matcher(line).find()) break; // Next interaction - this one did not move us
+            Matcher position = POSITION.matcher(line);
+            if (!position.find()) continue;
+            Tile tile = new Tile(Integer.parseInt(position.group(1)), Integer.parseInt(position.group(2)),
+                Integer.parseInt(position.group(3)));
+            if (!TravelGraph.sameLayer(from, tile) || !TravelGraph.sameLandmass(from, tile)) {
+                return tile;
+            }
+        }
+        return null;
+    }
+}
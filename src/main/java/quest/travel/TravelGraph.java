@@ -0,0 +1,164 @@
+package quest.travel;
+
+import org.dreambot.api.methods.map.Tile;
+import quest.travel.Transition.Type;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Travel Graph - the known transitions plus the rules for where plain walking works.
+ * Seeded with the climbs, doors and boats our quest trees already hand-code, and extended
+ * with transitions mined from recorded quest logs (see TransitionMiner).
+ */
+public class TravelGraph {
+
+    // OSRS underground areas sit 6400 tiles north of the surface area above them
+    public static final int UNDERGROUND_Y = 6400;
+
+    // Average of walking (0.6s/tile) and running (0.3s/tile), plus detours around walls and fences
+    public static final double SECONDS_PER_TILE = 0.45;
+    public static final double PATH_DETOUR_FACTOR = 1.25;
+
+    // Upper floors and dungeons are small - walking further than this on them means another building
+    private static final int LOCAL_WALK_RADIUS = 64;
+
+    // Transitions closer than this to an existing one with the same action are duplicates
+    private static final int DUPLICATE_RADIUS = 3;
+
+    private final List<Transition> transitions = new CopyOnWriteArrayList<>();
+    private volatile int version = 0;
+
+    public TravelGraph() {
+        addKnownTransitions();
+    }
+
+    private void addKnownTransitions() {
+        // Wizards' Tower (Imp Catcher, Rune Mysteries, Restless Ghost, Demon Slayer)
+        add(Transition.object(Type.LADDER, "Ladder", "Climb-down", new Tile(3104, 3162, 0), new Tile(3104, 9576, 0), "RestlessGhostTree"));
+        add(Transition.object(Type.LADDER, "Ladder", "Climb-up", new Tile(3103, 9576, 0), new Tile(3105, 3162, 0), "RestlessGhostTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-up", new Tile(3103, 3159, 0), new Tile(3103, 3159, 1), "DemonSlayerTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-down", new Tile(3103, 3159, 1), new Tile(3103, 3159, 0), "DemonSlayerTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-up", new Tile(3104, 3162, 1), new Tile(3104, 3162, 2), "ImpCatcherTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-down", new Tile(3104, 3162, 2), new Tile(3104, 3162, 1), "ImpCatcherTree"));
+
+        // Lumbridge Castle (Rune Mysteries - Duke Horacio)
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-up", new Tile(3205, 3208, 0), new Tile(3205, 3209, 1), "RuneMysteriesTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-down", new Tile(3205, 3208, 1), new Tile(3205, 3209, 0), "RuneMysteriesTree"));
+
+        // Varrock Castle (Demon Slayer - Captain Rovin)
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-up", new Tile(3202, 3497, 0), new Tile(3202, 3497, 1), "DemonSlayerTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-up", new Tile(3202, 3497, 1), new Tile(3202, 3497, 2), "DemonSlayerTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-down", new Tile(3202, 3497, 2), new Tile(3202, 3497, 1), "DemonSlayerTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-down", new Tile(3202, 3497, 1), new Tile(3202, 3497, 0), "DemonSlayerTree"));
+
+        // Varrock sewers (Demon Slayer)
+        add(Transition.object(Type.TRAPDOOR, "Manhole", "Climb-down", new Tile(3237, 3458, 0), new Tile(3237, 9858, 0), "DemonSlayerTree"));
+        add(Transition.object(Type.LADDER, "Ladder", "Climb-up", new Tile(3237, 9858, 0), new Tile(3237, 3459, 0), "DemonSlayerTree"));
+
+        // Blue Moon Inn, Varrock (Pirate's Treasure) - tiles from recorded logs
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-up", new Tile(3227, 3393, 0), new Tile(3230, 3394, 1), "PiratesTreasureTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-down", new Tile(3228, 3393, 1), new Tile(3226, 3394, 0), "PiratesTreasureTree"));
+
+        // Draynor Manor (Ernest the Chicken, Vampyre Slayer)
+        add(Transition.object(Type.DOOR, "Large door", "Open", new Tile(3109, 3353, 0), new Tile(3109, 3354, 0), "ErnestTheChickenTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-up", new Tile(3108, 3362, 0), new Tile(3108, 3364, 1), "ErnestTheChickenTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-up", new Tile(3108, 3364, 1), new Tile(3108, 3364, 2), "ErnestTheChickenTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-down", new Tile(3108, 3364, 2), new Tile(3108, 3364, 1), "ErnestTheChickenTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-down", new Tile(3108, 3364, 1), new Tile(3108, 3362, 0), "ErnestTheChickenTree"));
+        add(Transition.object(Type.STAIRS, "Stairs", "Walk-Down", new Tile(3107, 3367, 0), new Tile(3077, 9771, 0), "VampyreSlayerTree"));
+
+        // Asgarnian Ice Dungeon (Knight's Sword)
+        add(Transition.object(Type.TRAPDOOR, "Trapdoor", "Climb-down", new Tile(3008, 3150, 0), new Tile(3008, 9550, 0), "KnightsSwordTree"));
+        add(Transition.object(Type.LADDER, "Ladder", "Climb-up", new Tile(3008, 9550, 0), new Tile(3009, 3150, 0), "KnightsSwordTree"));
+
+        // Falador Castle (Knight's Sword - Vyvin's cupboard)
+        add(Transition.object(Type.LADDER, "Ladder", "Climb-up", new Tile(2983, 3351, 0), new Tile(2983, 3351, 1), "KnightsSwordTree"));
+        add(Transition.object(Type.STAIRS, "Staircase", "Climb-up", new Tile(2984, 3337, 1), new Tile(2984, 3337, 2), "KnightsSwordTree"));
+
+        // Dwarven Mine (Dragon Slayer - Thalzar's chest)
+        add(Transition.object(Type.TRAPDOOR, "Trapdoor", "Climb-down", new Tile(3019, 3450, 0), new Tile(3019, 9850, 0), "DragonSlayerTree"));
+        add(Transition.object(Type.LADDER, "Ladder", "Climb-up", new Tile(3019, 9850, 0), new Tile(3019, 3450, 0), "DragonSlayerTree"));
+
+        // Melzar's Maze (Dragon Slayer)
+        add(Transition.object(Type.LADDER, "Ladder", "Climb-up", new Tile(2924, 3250, 0), new Tile(2924, 3250, 1), "DragonSlayerTree"));
+        add(Transition.object(Type.LADDER, "Ladder", "Climb-up", new Tile(2934, 3254, 1), new Tile(2934, 3254, 2), "DragonSlayerTree"));
+
+        // Port Sarim <-> Karamja (Pirate's Treasure) - 30 coins each way
+        add(Transition.npc(Type.BOAT, "Seaman Lorris", "Pay-fare", new Tile(3027, 3218, 0), new Tile(2956, 3146, 0), "PiratesTreasureTree"));
+        add(Transition.npc(Type.BOAT, "Customs officer", "Pay-Fare", new Tile(2954, 3149, 0), new Tile(3029, 3217, 0), "PiratesTreasureTree"));
+    }
+
+    /**
+     * Add a transition unless an equivalent one is already known
+     * @return true if the graph changed
+     */
+    public boolean add(Transition transition) {
+        for (Transition existing : transitions) {
+            if (existing.getAction().equalsIgnoreCase(transition.getAction())
+                && existing.getEntityName().equalsIgnoreCase(transition.getEntityName())
+                && existing.getFrom().getZ() == transition.getFrom().getZ()
+                && existing.getFrom().distance(transition.getFrom()) <= DUPLICATE_RADIUS) {
+                return false;
+            }
+        }
+        transitions.add(transition);
+        version++;
+        return true;
+    }
+
+    public List<Transition> getTransitions() {
+        return Collections.unmodifiableList(transitions);
+    }
+
+    /**
+     * Bumped on every change so cached plans can be invalidated
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    // --- Walking rules -----------------------------------------------------------------------
+
+    public static boolean isUnderground(Tile tile) {
+        return tile.getY() >= UNDERGROUND_Y;
+    }
+
+    /**
+     * Same plane and same side of the surface/underground split
+     */
+    public static boolean sameLayer(Tile a, Tile b) {
+        return a.getZ() == b.getZ() && isUnderground(a) == isUnderground(b);
+    }
+
+    /**
+     * Coarse landmass lookup - moving between these needs a boat
+     */
+    public static String landmassOf(Tile tile) {
+        int x = tile.getX();
+        int y = isUnderground(tile) ? tile.getY() - UNDERGROUND_Y : tile.getY();
+        if (x < 2640 && y < 2900) return "Corsair Cove";
+        if (x >= 2740 && x < 2990 && y >= 2880 && y < 3185) return "Karamja";
+        return "Mainland";
+    }
+
+    public static boolean sameLandmass(Tile a, Tile b) {
+        return landmassOf(a).equals(landmassOf(b));
+    }
+
+    /**
+     * Whether the web walker can be expected to walk directly between two tiles
+     */
+    public static boolean isWalkable(Tile a, Tile b) {
+        if (!sameLayer(a, b) || !sameLandmass(a, b)) return false;
+        // The surface is one connected map; upper floors and dungeons are only walkable locally
+        return (a.getZ() == 0 && !isUnderground(a)) || a.distance(b) <= LOCAL_WALK_RADIUS;
+    }
+
+    /**
+     * Estimated time to walk between two tiles on the same layer
+     */
+    public static double walkSeconds(Tile a, Tile b) {
+        return Math.hypot(a.getX() - b.getX(), a.getY() - b.getY()) * PATH_DETOUR_FACTOR * SECONDS_PER_TILE;
+    }
+}
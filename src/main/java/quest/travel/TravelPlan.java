@@ -0,0 +1,137 @@
+package quest.travel;
+
+import org.dreambot.api.methods.map.Tile;
+import quest.travel.RouteLibrary.KnownRoute;
+
+import java.util.*;
+
+/**
+ * An immutable waypoint plan: walk legs joined by transitions.
+ * Plans are cached and shared; a TravelRoute walks one.
+ */
+public class TravelPlan {
+
+    private final Tile start;
+    private final Tile goal;
+    private final List<Leg> legs;
+    private final double estimatedSeconds;
+
+    public TravelPlan(Tile start, Tile goal, List<Leg> legs, double estimatedSeconds) {
+        this.start = start;
+        this.goal = goal;
+        this.legs = Collections.unmodifiableList(new ArrayList<>(legs));
+        this.estimatedSeconds = estimatedSeconds;
+    }
+
+    /**
+     * Plan used when the graph knows no better: one leg handed straight to the web walker
+     */
+    public static TravelPlan direct(Tile start, Tile goal) {
+        return new TravelPlan(start, goal, Collections.singletonList(Leg.walk(goal)),
+            TravelGraph.walkSeconds(start, goal));
+    }
+
+    /**
+     * Path length of the walk legs in tiles (straight lines plus the usual detour allowance)
+     */
+    public double getWalkTiles() {
+        double tiles = 0;
+        Tile current = start;
+        for (Leg leg : legs) {
+            if (!leg.isTransition()) {
+                if (TravelGraph.sameLayer(current, leg.getTarget())) {
+                    tiles += Math.hypot(current.getX() - leg.getTarget().getX(), current.getY() - leg.getTarget().getY())
+                        * TravelGraph.PATH_DETOUR_FACTOR;
+                }
+            }
+            current = leg.getTarget();
+        }
+        return tiles;
+    }
+
+    public double getTransitionSeconds() {
+        double seconds = 0;
+        for (Leg leg : legs) {
+            if (leg.isTransition()) seconds += leg.getTransition().getCostSeconds();
+        }
+        return seconds;
+    }
+
+    public int getCheckpointCount() {
+        int count = 0;
+        for (Leg leg : legs) {
+            if (leg.isCheckpoint()) count++;
+        }
+        return count;
+    }
+
+    public int getTransitionCount() {
+        int count = 0;
+        for (Leg leg : legs) {
+            if (leg.isTransition()) count++;
+        }
+        return count;
+    }
+
+    // Getters
+    public Tile getStart() { return start; }
+    public Tile getGoal() { return goal; }
+    public List<Leg> getLegs() { return legs; }
+    public double getEstimatedSeconds() { return estimatedSeconds; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Leg leg : legs) {
+            if (sb.length() > 0) sb.append(" -> ");
+            sb.append(leg);
+        }
+        return sb + String.format(" (~%.0fs)", estimatedSeconds);
+    }
+
+    /**
+     * One step of a plan: walk to a tile, walk to a checkpoint of a learned route, or use a transition
+     */
+    public static class Leg {
+        private final Tile target;
+        private final Transition transition;
+        private final KnownRoute route;
+
+        private Leg(Tile target, Transition transition, KnownRoute route) {
+            this.target = target;
+            this.transition = transition;
+            this.route = route;
+        }
+
+        public static Leg walk(Tile target) {
+            return new Leg(target, null, null);
+        }
+
+        public static Leg checkpoint(Tile target, KnownRoute route) {
+            return new Leg(target, null, route);
+        }
+
+        public static Leg use(Transition transition) {
+            return new Leg(transition.getTo(), transition, null);
+        }
+
+        public boolean isCheckpoint() {
+            return route != null;
+        }
+
+        public boolean isTransition() {
+            return transition != null;
+        }
+
+        // Getters
+        public Tile getTarget() { return target; }
+        public Transition getTransition() { return transition; }
+        public KnownRoute getRoute() { return route; }
+
+        @Override
+        public String toString() {
+            if (isTransition()) return transition.getAction() + " " + transition.getEntityName();
+            return (isCheckpoint() ? "checkpoint " : "walk ") + target;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package quest.travel;
+
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.utilities.Logger;
+import quest.core.QuestEngine;
+import quest.core.QuestEventLogger;
+
+import java.util.*;
+
+/**
+ * Travel Planner - A* search over the travel graph with an LRU cache of computed plans.
+ * Search nodes are the start, the goal and both ends of every known transition; edges are
+ * walks the web walker can do on its own plus the transitions themselves. Long walk legs
+ * replay a learned route from the RouteLibrary when one is known.
+ */
+public class TravelPlanner {
+
+    private static final int CACHE_SIZE = 64;
+    // Starts within the same 4x4 block share a plan - the first walk leg absorbs the difference
+    private static final int START_BUCKET_SIZE = 4;
+
+    // Walks shorter than a recorded journey are left to the web walker
+    private static final int MIN_LEARNED_ROUTE_DISTANCE = 25;
+
+    private final TravelGraph graph = new TravelGraph();
+    private final RouteLibrary routeLibrary = new RouteLibrary();
+    private final Map<String, TravelPlan> cache = new LinkedHashMap<String, TravelPlan>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TravelPlan> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private int cachedGraphVersion = -1;
+    private int cachedLibraryVersion = -1;
+    private boolean minedRecordings = false;
+    private long cacheHits = 0;
+    private long cacheMisses = 0;
+
+    public TravelPlanner() {
+    }
+
+    /**
+     * Instance for the current engine (see QuestEngine.current())
+     */
+    public static TravelPlanner getInstance() {
+        return QuestEngine.current().getTravelPlanner();
+    }
+
+    public TravelGraph getGraph() {
+        return graph;
+    }
+
+    public RouteLibrary getRouteLibrary() {
+        return routeLibrary;
+    }
+
+    /**
+     * Start a resumable route from the player's position to the goal
+     */
+    public TravelRoute route(Tile from, Tile goal) {
+        return new TravelRoute(plan(from, goal));
+    }
+
+    /**
+     * Get the waypoint plan between two tiles (cached)
+     */
+    public synchronized TravelPlan plan(Tile from, Tile goal) {
+        if (!minedRecordings) {
+            minedRecordings = true;
+            String logDir = QuestEventLogger.getLogDirectory().getPath();
+            int mined = TransitionMiner.mineDirectory(graph, logDir);
+            int routes = routeLibrary.ingestDirectory(logDir);
+            if (mined > 0 || routes > 0) {
+                Logger.log("[Travel] Learned " + mined + " transitions and " + routes + " routes from recorded quest logs");
+            }
+        }
+        if (graph.getVersion() != cachedGraphVersion || routeLibrary.getVersion() != cachedLibraryVersion) {
+            cache.clear();
+            cachedGraphVersion = graph.getVersion();
+            cachedLibraryVersion = routeLibrary.getVersion();
+        }
+
+        String key = cacheKey(from, goal);
+        TravelPlan cached = cache.get(key);
+        if (cached != null) {
+            cacheHits++;
+            return cached;
+        }
+        cacheMisses++;
+
+        TravelPlan plan = search(from, goal);
+        cache.put(key, plan);
+        if (plan.getTransitionCount() > 0 || plan.getCheckpointCount() > 0) {
+            Logger.log("[Travel] Planned " + from + " -> " + goal + ": " + plan);
+        }
+        return plan;
+    }
+
+    private static String cacheKey(Tile from, Tile goal) {
+        return (from.getX() / START_BUCKET_SIZE) + "," + (from.getY() / START_BUCKET_SIZE) + "," + from.getZ()
+            + "|" + goal.getX() + "," + goal.getY() + "," + goal.getZ();
+    }
+
+    /**
+     * A* over start, goal and transition endpoints.
+     * Falls back to a direct plan when the graph has no route, so the web walker still gets a try.
+     */
+    private TravelPlan search(Tile from, Tile goal) {
+        List<Transition> transitions = graph.getTransitions();
+
+        // Node 0 = start, 1 = goal, 2 + 2k = transition k entry, 3 + 2k = transition k exit
+        int nodeCount = 2 + transitions.size() * 2;
+        Tile[] tiles = new Tile[nodeCount];
+        tiles[0] = from;
+        tiles[1] = goal;
+        double maxShortcut = 0;
+        for (int k = 0; k < transitions.size(); k++) {
+            Transition t = transitions.get(k);
+            tiles[2 + 2 * k] = t.getFrom();
+            tiles[3 + 2 * k] = t.getTo();
+            maxShortcut = Math.max(maxShortcut, surfaceDistance(t.getFrom(), t.getTo()));
+        }
+
+        double[] gScore = new double[nodeCount];
+        int[] cameFrom = new int[nodeCount];
+        boolean[] closed = new boolean[nodeCount];
+        Arrays.fill(gScore, Double.MAX_VALUE);
+        Arrays.fill(cameFrom, -1);
+        gScore[0] = 0;
+
+        final double shortcut = maxShortcut;
+        PriorityQueue<double[]> open = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[1]));
+        open.add(new double[] {0, heuristic(from, goal, shortcut)});
+
+        while (!open.isEmpty()) {
+            int current = (int) open.poll()[0];
+            if (closed[current]) continue;
+            if (current == 1) break;
+            closed[current] = true;
+
+            for (int next = 1; next < nodeCount; next++) {
+                if (closed[next] || next == current) continue;
+
+                double edgeCost;
+                if (current >= 2 && current % 2 == 0 && next == current + 1) {
+                    edgeCost = transitions.get((current - 2) / 2).getCostSeconds();
+                } else if (TravelGraph.isWalkable(tiles[current], tiles[next])) {
+                    edgeCost = TravelGraph.walkSeconds(tiles[current], tiles[next]);
+                } else {
+                    continue;
+                }
+
+                double tentative = gScore[current] + edgeCost;
+                if (tentative < gScore[next]) {
+                    gScore[next] = tentative;
+                    cameFrom[next] = current;
+                    open.add(new double[] {next, tentative + heuristic(tiles[next], goal, shortcut)});
+                }
+            }
+        }
+
+        if (cameFrom[1] == -1) {
+            return TravelPlan.direct(from, goal);
+        }
+
+        LinkedList<Integer> path = new LinkedList<>();
+        for (int node = 1; node != -1; node = cameFrom[node]) {
+            path.addFirst(node);
+        }
+
+        List<TravelPlan.Leg> legs = new ArrayList<>();
+        for (int i = 1; i < path.size(); i++) {
+            int prev = path.get(i - 1);
+            int node = path.get(i);
+            if (prev >= 2 && prev % 2 == 0 && node == prev + 1) {
+                legs.add(TravelPlan.Leg.use(transitions.get((prev - 2) / 2)));
+            } else {
+                addWalkLegs(legs, tiles[prev], tiles[node]);
+            }
+        }
+        return new TravelPlan(from, goal, legs, gScore[1]);
+    }
+
+    /**
+     * A walk leg, expanded into the checkpoints of a learned route when one fits
+     */
+    private void addWalkLegs(List<TravelPlan.Leg> legs, Tile from, Tile to) {
+        if (from.distance(to) >= MIN_LEARNED_ROUTE_DISTANCE) {
+            RouteLibrary.KnownRoute route = routeLibrary.find(from, to);
+            if (route != null) {
+                // Join the route at the checkpoint nearest to us and leave it at the one nearest the target
+                List<Tile> checkpoints = route.getCheckpoints();
+                int first = nearestIndex(checkpoints, from);
+                int last = nearestIndex(checkpoints, to);
+                for (int i = first; i <= last; i++) {
+                    legs.add(TravelPlan.Leg.checkpoint(checkpoints.get(i), route));
+                }
+            }
+        }
+        legs.add(TravelPlan.Leg.walk(to));
+    }
+
+    private static int nearestIndex(List<Tile> tiles, Tile target) {
+        int best = 0;
+        for (int i = 1; i < tiles.size(); i++) {
+            if (tiles.get(i).distance(target) < tiles.get(best).distance(target)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Straight-line walking time, less the longest jump any single transition can make (keeps A* admissible)
+     */
+    private static double heuristic(Tile tile, Tile goal, double maxShortcut) {
+        double distance = surfaceDistance(tile, goal) - maxShortcut;
+        return distance > 0 ? distance * TravelGraph.SECONDS_PER_TILE : 0;
+    }
+
+    private static double surfaceDistance(Tile a, Tile b) {
+        int ay = TravelGraph.isUnderground(a) ? a.getY() - TravelGraph.UNDERGROUND_Y : a.getY();
+        int by = TravelGraph.isUnderground(b) ? b.getY() - TravelGraph.UNDERGROUND_Y : b.getY();
+        return Math.hypot(a.getX() - b.getX(), ay - by);
+    }
+
+    /**
+     * Drop all cached plans (e.g. after a transition turned out to be wrong)
+     */
+    public synchronized void clearCache() {
+        cache.clear();
+    }
+
+    public synchronized String getCacheStats() {
+        return String.format("%d cached plans, %d hits, %d misses, %d transitions, %d learned routes",
+            cache.size(), cacheHits, cacheMisses, graph.getTransitions().size(), routeLibrary.size());
+    }
+}
@@ -0,0 +1,286 @@
+package quest.travel;
+
+import org.dreambot.api.methods.dialogues.Dialogues;
+import org.dreambot.api.methods.interactive.GameObjects;
+import org.dreambot.api.methods.interactive.NPCs;
+import org.dreambot.api.methods.interactive.Players;
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.methods.walking.impl.Walking;
+import org.dreambot.api.utilities.Logger;
+import org.dreambot.api.utilities.Sleep;
+import org.dreambot.api.wrappers.interactive.GameObject;
+import org.dreambot.api.wrappers.interactive.NPC;
+import quest.metrics.QuestMetrics;
+import quest.metrics.jfr.QuestJfr;
+import quest.travel.TravelPlan.Leg;
+import quest.utils.RunEnergyUtil;
+
+import java.util.List;
+
+/**
+ * Travel Route - walks a TravelPlan leg by leg.
+ * The route is resumable: every call re-syncs against the player's position, so a node that
+ * is retried (or a fresh node with the same goal) continues from the leg it had reached.
+ * Checkpoints of a learned route are replayed in order; if one can't be reached the rest of
+ * that route is skipped and the following walk leg goes to the generic pathfinder.
+ * Before the first leg the TeleportPlanner gets one chance to replace the walk with a teleport.
+ */
+public class TravelRoute {
+
+    // Only issue a new walk command once the current destination is this close (or we stopped)
+    private static final int RE_WALK_DISTANCE = 5;
+    // Consecutive pathfinder failures before a leg is abandoned
+    private static final int MAX_PATHFINDER_FAILURES = 3;
+    // How long a walk command gets to start the player moving
+    private static final long MOVE_START_TIMEOUT_MS = 5000;
+    private static final int TRANSITION_SEARCH_RADIUS = 8;
+    private static final int TRANSITION_ARRIVAL_RADIUS = 15;
+    private static final int INTERMEDIATE_TOLERANCE = 4;
+    private static final long MIN_LEG_TIMEOUT_MS = 20000;
+
+    // Dialogue options that confirm a boat trip ("Yes please.", "Can I journey on this ship?", "Search away...")
+    private static final String[] BOAT_CONFIRMATIONS = {"Yes", "journey", "Search away", "Ok."};
+
+    private TravelPlan plan;
+    private int legIndex = 0;
+    private boolean teleportConsidered = false;
+
+    public TravelRoute(TravelPlan plan) {
+        this.plan = plan;
+    }
+
+    /**
+     * Walk the rest of the route
+     * @param acceptableDistance how close to the goal counts as arrived
+     * @return true once the player is within acceptableDistance of the goal
+     */
+    public boolean walk(int acceptableDistance) {
+        QuestMetrics.getInstance().beginPhase(QuestMetrics.Phase.WALKING);
+        try {
+            return walkLegs(acceptableDistance);
+        } finally {
+            QuestMetrics.getInstance().endPhase();
+        }
+    }
+
+    private boolean walkLegs(int acceptableDistance) {
+        resync(acceptableDistance);
+        if (!teleportConsidered) {
+            teleportConsidered = true;
+            if (legIndex == 0) {
+                considerTeleport(acceptableDistance);
+            }
+        }
+        List<Leg> legs = plan.getLegs();
+        RunEnergyPlanner.getInstance().planRoute(plan.getGoal());
+
+        while (legIndex < legs.size()) {
+            Leg leg = legs.get(legIndex);
+            boolean lastLeg = legIndex == legs.size() - 1;
+            boolean ok;
+            if (leg.isTransition()) {
+                ok = useTransition(leg.getTransition());
+            } else {
+                ok = walkTo(leg.getTarget(), lastLeg ? acceptableDistance : INTERMEDIATE_TOLERANCE);
+            }
+            if (!ok && leg.isCheckpoint()) {
+                // Learned route didn't get through - drop to generic pathing for the rest of this walk
+                Logger.log("[Travel] Learned route failed at " + leg.getTarget() + ", falling back to the web walker");
+                TravelPlanner.getInstance().getRouteLibrary().reportFailure(leg.getRoute());
+                while (legIndex < legs.size() && legs.get(legIndex).isCheckpoint()) {
+                    legIndex++;
+                }
+                continue;
+            }
+            if (!ok) {
+                Logger.log("[Travel] Leg " + (legIndex + 1) + "/" + legs.size() + " failed: " + leg);
+                return false;
+            }
+            legIndex++;
+        }
+        return hasArrived(acceptableDistance);
+    }
+
+    /**
+     * Once per route, before the first leg: teleport if that beats walking, then re-plan from where we landed
+     */
+    private void considerTeleport(int acceptableDistance) {
+        TeleportPlanner teleports = TeleportPlanner.getInstance();
+        TeleportPlanner.Option option = teleports.decide(Players.getLocal().getTile(), plan);
+        if (option != null && teleports.execute(option)) {
+            plan = TravelPlanner.getInstance().plan(Players.getLocal().getTile(), plan.getGoal());
+            resync(acceptableDistance);
+        }
+    }
+
+    /**
+     * Skip legs the player has already completed (e.g. a retry after we climbed the ladder)
+     */
+    public void resync(int acceptableDistance) {
+        Tile player = Players.getLocal().getTile();
+        List<Leg> legs = plan.getLegs();
+        for (int i = legs.size() - 1; i >= 0; i--) {
+            if (isLegComplete(legs.get(i), player, i == legs.size() - 1 ? acceptableDistance : INTERMEDIATE_TOLERANCE)) {
+                legIndex = i + 1;
+                return;
+            }
+        }
+        legIndex = 0;
+    }
+
+    private static boolean isLegComplete(Leg leg, Tile player, int tolerance) {
+        if (leg.isTransition()) {
+            Transition t = leg.getTransition();
+            // Doors can't be told apart from "just walked up to it", so they are re-checked (cheap when open)
+            return t.changesLayer() && isNear(player, t.getTo(), TRANSITION_ARRIVAL_RADIUS);
+        }
+        return isNear(player, leg.getTarget(), tolerance);
+    }
+
+    private static boolean isNear(Tile player, Tile target, int radius) {
+        return TravelGraph.sameLayer(player, target) && TravelGraph.sameLandmass(player, target)
+            && player.distance(target) <= radius;
+    }
+
+    public boolean hasArrived(int acceptableDistance) {
+        return isNear(Players.getLocal().getTile(), plan.getGoal(), acceptableDistance);
+    }
+
+    /**
+     * Walk one leg, only re-issuing walk commands when the previous one is nearly used up
+     */
+    private boolean walkTo(Tile target, int tolerance) {
+        long timeoutMs = Math.max(MIN_LEG_TIMEOUT_MS,
+            (long) (TravelGraph.walkSeconds(Players.getLocal().getTile(), target) * 3000));
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        int failures = 0;
+
+        while (!isNear(Players.getLocal().getTile(), target, tolerance)) {
+            if (System.currentTimeMillis() > deadline) {
+                Logger.log("[Travel] Timed out walking to " + target);
+                return false;
+            }
+
+            Tile destination = Walking.getDestination();
+            boolean needsCommand = !Players.getLocal().isMoving() || destination == null
+                || destination.distance(Players.getLocal().getTile()) <= RE_WALK_DISTANCE;
+
+            if (needsCommand) {
+                // Long walks block the main loop, so energy is managed from here while we travel
+                RunEnergyUtil.handleRunEnergy();
+                QuestMetrics.getInstance().increment(QuestMetrics.API_WALK);
+                if (!Walking.walk(target)) {
+                    failures++;
+                    if (failures >= MAX_PATHFINDER_FAILURES) {
+                        Logger.log("[Travel] Pathfinder failed " + failures + " times towards " + target);
+                        return false;
+                    }
+                    Sleep.sleep(600, 900);
+                    continue;
+                }
+                failures = 0;
+                // The click takes a tick to register - until then "not moving" doesn't mean we stopped
+                Sleep.sleepUntil(() -> Players.getLocal().isMoving()
+                    || isNear(Players.getLocal().getTile(), target, tolerance), MOVE_START_TIMEOUT_MS);
+            }
+
+            Sleep.sleepUntil(() -> {
+                Tile now = Players.getLocal().getTile();
+                Tile dest = Walking.getDestination();
+                return isNear(now, target, tolerance) || !Players.getLocal().isMoving()
+                    || (dest != null && dest.distance(now) <= RE_WALK_DISTANCE);
+            }, 3000);
+        }
+        return true;
+    }
+
+    /**
+     * Use a stair/ladder/trapdoor/door/boat and wait until it has moved us
+     */
+    private boolean useTransition(Transition t) {
+        Tile player = Players.getLocal().getTile();
+        if (t.getType() == Transition.Type.DOOR) {
+            GameObject door = findObject(t);
+            if (door == null || !door.hasAction(t.getAction())) {
+                return true; // Already open (or gone) - the next walk leg goes straight through
+            }
+            QuestMetrics.getInstance().increment(QuestMetrics.API_INTERACT);
+            boolean opened = door.interact(t.getAction()) && Sleep.sleepUntil(() -> {
+                GameObject d = findObject(t);
+                return d == null || !d.hasAction(t.getAction());
+            }, 3000);
+            if (!opened) {
+                Logger.log("[Travel] Could not " + t.getAction() + " " + t.getEntityName() + " near " + t.getFrom());
+            }
+            return opened;
+        }
+
+        boolean interacted;
+        if (t.isNpc()) {
+            NPC npc = NPCs.closest(n -> n != null && t.getEntityName().equals(n.getName())
+                && n.getTile().distance(t.getFrom()) <= TRANSITION_SEARCH_RADIUS);
+            interacted = npc != null && npc.interact(t.getAction());
+        } else {
+            GameObject object = findObject(t);
+            if (object != null && !object.hasAction(t.getAction()) && object.hasAction("Open")) {
+                // Closed trapdoors and manholes have to be opened first
+                object.interact("Open");
+                Sleep.sleepUntil(() -> {
+                    GameObject o = findObject(t);
+                    return o != null && o.hasAction(t.getAction());
+                }, 3000);
+                object = findObject(t);
+            }
+            interacted = object != null && object.interact(t.getAction());
+        }
+        QuestMetrics.getInstance().increment(QuestMetrics.API_INTERACT);
+
+        if (!interacted) {
+            Logger.log("[Travel] Could not " + t.getAction() + " " + t.getEntityName() + " near " + t.getFrom());
+            return false;
+        }
+
+        if (t.getType() == Transition.Type.BOAT) {
+            return finishBoatTrip(t);
+        }
+        return QuestJfr.timedWait(t.getAction() + " " + t.getEntityName(), 8000, () -> Sleep.sleepUntil(() -> {
+            Tile now = Players.getLocal().getTile();
+            return isNear(now, t.getTo(), TRANSITION_ARRIVAL_RADIUS) || !TravelGraph.sameLayer(now, player);
+        }, 8000));
+    }
+
+    private GameObject findObject(Transition t) {
+        return GameObjects.closest(o -> o != null && t.getEntityName().equals(o.getName())
+            && o.getTile().distance(t.getFrom()) <= TRANSITION_SEARCH_RADIUS);
+    }
+
+    /**
+     * Boats: confirm the fare dialogue, wait for the crossing, then leave the ship
+     */
+    private boolean finishBoatTrip(Transition t) {
+        Sleep.sleepUntil(Dialogues::inDialogue, 5000);
+        long deadline = System.currentTimeMillis() + 30000;
+        while (Dialogues.inDialogue() && System.currentTimeMillis() < deadline) {
+            if (Dialogues.areOptionsAvailable()) {
+                if (!Dialogues.chooseFirstOptionContaining(BOAT_CONFIRMATIONS)) {
+                    Dialogues.chooseOption(1);
+                }
+            } else if (Dialogues.canContinue()) {
+                Dialogues.continueDialogue();
+            }
+            Sleep.sleep(600, 1000);
+        }
+
+        Sleep.sleepUntil(() -> Players.getLocal().getTile().distance(t.getTo()) < 50, 20000);
+        GameObject gangplank = GameObjects.closest("Gangplank");
+        if (gangplank != null && gangplank.interact("Cross")) {
+            Sleep.sleepUntil(() -> isNear(Players.getLocal().getTile(), t.getTo(), TRANSITION_ARRIVAL_RADIUS), 8000);
+        }
+        return isNear(Players.getLocal().getTile(), t.getTo(), TRANSITION_ARRIVAL_RADIUS);
+    }
+
+    // Getters
+    public TravelPlan getPlan() { return plan; }
+    public int getLegIndex() { return legIndex; }
+    public boolean isFinished() { return legIndex >= plan.getLegs().size(); }
+}
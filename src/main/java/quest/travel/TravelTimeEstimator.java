@@ -0,0 +1,50 @@
+package quest.travel;
+
+import org.dreambot.api.methods.walking.impl.Walking;
+
+/**
+ * Travel Time Estimator - how long a walk really takes given the player's run energy.
+ * Running covers 2 tiles per game tick, walking 1; run energy limits how far we can run.
+ */
+public class TravelTimeEstimator {
+
+    public static final double TICK_SECONDS = 0.6;
+    public static final double RUN_SECONDS_PER_TILE = TICK_SECONDS / 2;
+    public static final double WALK_SECONDS_PER_TILE = TICK_SECONDS;
+
+    private TravelTimeEstimator() {
+        // Static utility
+    }
+
+    /**
+     * Walking time for a path of the given length using the player's current run energy
+     * and the drain rate RunEnergyPlanner has measured (weight and agility included)
+     */
+    public static double estimateWalkSeconds(double tiles) {
+        double energy = 0;
+        try {
+            energy = Walking.getRunEnergy();
+        } catch (Throwable t) {
+            // No live client - assume we walk the whole way
+        }
+        return estimateWalkSeconds(tiles, energy, RunEnergyPlanner.getInstance().getDrainPerTile());
+    }
+
+    /**
+     * Walking time for a path: run while energy lasts, walk the rest
+     * @param energyPercent run energy at the start (0-100)
+     * @param drainPercentPerTile energy spent per tile run
+     */
+    public static double estimateWalkSeconds(double tiles, double energyPercent, double drainPercentPerTile) {
+        double runnableTiles = drainPercentPerTile > 0 ? energyPercent / drainPercentPerTile : tiles;
+        double runTiles = Math.min(tiles, Math.max(0, runnableTiles));
+        return runTiles * RUN_SECONDS_PER_TILE + (tiles - runTiles) * WALK_SECONDS_PER_TILE;
+    }
+
+    /**
+     * Estimated time for a whole plan: walk legs at the current energy plus transition costs
+     */
+    public static double estimatePlanSeconds(TravelPlan plan) {
+        return estimateWalkSeconds(plan.getWalkTiles()) + plan.getTransitionSeconds();
+    }
+}
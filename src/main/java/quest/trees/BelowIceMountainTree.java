@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.DecisionNode;
@@ -29,6 +30,7 @@ import org.dreambot.api.methods.emotes.Emote;
  * Below Ice Mountain - Tree-based automation based on manual recording (bim.log)
  * Emphasizes strict state gating to avoid regression.
  */
+@QuestEntry(id = "BELOW_ICE_MOUNTAIN", name = "Below Ice Mountain", minutes = 20)
 public class BelowIceMountainTree extends QuestTree {
 
     // Optional config (not strictly needed due to Quests API)
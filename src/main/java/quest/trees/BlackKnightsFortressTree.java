@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.DecisionNode;
 import quest.nodes.actions.TalkToNPCNode;
@@ -24,6 +25,8 @@ import org.dreambot.api.wrappers.interactive.GameObject;
 import org.dreambot.api.methods.quest.Quests;
 import org.dreambot.api.methods.quest.book.FreeQuest;
 
+@QuestEntry(id = "BLACK_KNIGHTS_FORTRESS", name = "Black Knights' Fortress", difficulty = 2, minutes = 12,
+            skills = {"12 Quest Points"}, items = {"Iron chainbody", "Bronze med helm", "Cabbage"})
 public class BlackKnightsFortressTree extends QuestTree {
 
     public BlackKnightsFortressTree() { super("Black Knights' Fortress"); }
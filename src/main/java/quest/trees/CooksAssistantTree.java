@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
@@ -20,6 +21,8 @@ import org.dreambot.api.utilities.Sleep;
  * Automated quest using decision tree structure with Grand Exchange integration
  * Config 29 tracks quest progress: 0 (not started) -> 1+ (started/in progress) -> 2 (complete)
  */
+@QuestEntry(id = "COOKS_ASSISTANT", name = "Cook's Assistant", minutes = 5,
+            items = {"Egg", "Bucket of milk", "Pot of flour"})
 public class CooksAssistantTree extends QuestTree {
     
     // Quest progress config - Cook's Assistant uses config 29
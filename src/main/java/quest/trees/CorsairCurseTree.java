@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
@@ -32,6 +33,7 @@ import org.dreambot.api.wrappers.interactive.NPC;
  * - Uses DreamBot's Quests API for high-level status when available
  * - Implements proper resumability by detecting current quest progress
  */
+@QuestEntry(id = "THE_CORSAIR_CURSE", name = "The Corsair Curse", minutes = 12, items = {"Spade"})
 public class CorsairCurseTree extends QuestTree {
 
     // Quest configuration tracking - DISCOVERED from manual logs
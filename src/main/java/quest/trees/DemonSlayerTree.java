@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
@@ -31,6 +32,8 @@ import java.util.List;
  *  - 2: Spoke to Sir Prysin, tasked to gather 3 keys (Rovin, Traiborn, Sewer)
  *  - 3: Completed (Delrith banished)
  */
+@QuestEntry(id = "DEMON_SLAYER", name = "Demon Slayer", difficulty = 2, minutes = 20,
+            items = {"Bucket of water", "Bones x25"})
 public class DemonSlayerTree extends QuestTree {
 
     // Varbit for quest progress (from logs)
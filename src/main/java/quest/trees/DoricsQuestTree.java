@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 
@@ -33,6 +34,8 @@ import org.dreambot.api.utilities.Sleep;
  * 3. Select "I wanted to use your anvils."
  * 4. Quest config 101: 14 → 15 (completion)
  */
+@QuestEntry(id = "DORICS_QUEST", name = "Doric's Quest", minutes = 5,
+            items = {"Copper ore", "Clay", "Iron ore"})
 public class DoricsQuestTree extends QuestTree {
     
     // Quest constants from log data
@@ -16,6 +16,10 @@ import org.dreambot.api.wrappers.interactive.GameObject;
 
 import quest.core.QuestNode;
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
+import quest.registry.QuestType;
+import quest.dialogue.DialogueEngine;
+import quest.dialogue.DialogueScript;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
 import quest.nodes.actions.WalkToLocationNode;
@@ -36,6 +40,20 @@ import quest.utils.RunEnergyUtil;
  * 
  * Based on manual logs: quest_logs/QUEST_Free_Discovery_20250902_010659.log
  */
+@QuestEntry(id = "DRAGON_SLAYER", name = "Dragon Slayer", type = QuestType.MEMBERS, difficulty = 3, minutes = 20,
+            skills = {"32 Quest Points"}, items = {"Anti-dragon shield"})
+@QuestEntry(id = "DRAGON_SLAYER_STAGE_2_DEBUG", name = "Dragon Slayer - Stage 2 (debug)", variant = "stage2",
+            type = QuestType.MEMBERS, difficulty = 3, minutes = 15,
+            items = {"Silk", "Lobster pot", "Unfired bowl", "Wizard's mind bomb"})
+@QuestEntry(id = "DRAGON_SLAYER_MELZAR_DEBUG", name = "Dragon Slayer - Melzar's Map Piece (debug)", variant = "melzar",
+            type = QuestType.MEMBERS, difficulty = 4, minutes = 25,
+            items = {"Maze key", "Combat gear", "Food for Lesser Demon fight"})
+@QuestEntry(id = "DRAGON_SLAYER_LOZAR_DEBUG", name = "Dragon Slayer - Lozar's Map Piece (debug)", variant = "lozar",
+            type = QuestType.MEMBERS, difficulty = 3, minutes = 10,
+            items = {"10,000 coins (or combat gear for Wormbrain)"})
+@QuestEntry(id = "DRAGON_SLAYER_BOAT_DEBUG", name = "Dragon Slayer - Boat Obtaining (debug)", variant = "boat",
+            type = QuestType.MEMBERS, difficulty = 3, minutes = 15,
+            items = {"Hammer", "3 planks", "90 steel nails", "2,000 coins", "Crandor map", "Amulet of glory (recommended)"})
 public class DragonSlayerTree extends QuestTree {
 
     // Dragon Slayer Quest Config IDs (discovered from logs)
@@ -76,6 +94,26 @@ public class DragonSlayerTree extends QuestTree {
     
     // Port Sarim Jail coordinates (Stage 4 - Lozar's Map Piece)
     private static final Tile PORT_SARIM_JAIL = new Tile(3010, 3188, 0);
+
+    // Dialogue scripts, in order of preference (compiled once)
+    private static final DialogueScript ORACLE_DIALOGUE = DialogueScript.builder("Oracle - map piece")
+        .option("I seek a piece of the map to the island of Crandor.").build();
+    private static final DialogueScript WORMBRAIN_PAYMENT_DIALOGUE = DialogueScript.builder("Wormbrain - pay")
+        .once("I believe you've got a piece of map that I need.")
+        .once("I suppose I could pay you for the map piece...")
+        .once("Alright then, 10,000 it is.")
+        .fallbackToFirst().build();
+    // Ask every question once, then leave
+    private static final DialogueScript GUILDMASTER_INFO_DIALOGUE = DialogueScript.builder("Guildmaster - info")
+        .once("I talked to Oziach")
+        .once("How can I find the route to Crandor?")
+        .once("Where is Melzar's map piece?")
+        .once("Where is Thalzar's map piece?")
+        .once("Where is Lozar's map piece?")
+        .once("Where can I find the right ship?")
+        .once("How can I protect myself from the dragon's breath?")
+        .option("Okay, I'll get going!")
+        .build();
     
     // Boat Obtaining coordinates (Stage 5)
     private static final Tile PORT_SARIM_DOCKS = new Tile(3041, 3202, 0); // Southern docks near Void Outpost boat
@@ -116,10 +154,10 @@ public class DragonSlayerTree extends QuestTree {
         this.forceBoat = false;
     }
 
-    // Debug constructor for specific stages
+    // Debug constructor for specific stages ("stage2", "melzar", "lozar", "boat")
     public DragonSlayerTree(String debugStage) {
-        super("Dragon Slayer - " + debugStage + " (debug)");
-        this.forceStage2 = false;
+        super("stage2".equals(debugStage) ? "Dragon Slayer - Stage 2 (debug)" : "Dragon Slayer - " + debugStage + " (debug)");
+        this.forceStage2 = "stage2".equals(debugStage);
         this.forceLozar = "lozar".equals(debugStage);
         this.forceMelzar = "melzar".equals(debugStage);
         this.forceBoat = "boat".equals(debugStage);
@@ -254,27 +292,8 @@ public class DragonSlayerTree extends QuestTree {
                     if (oracle != null && oracle.distance() <= 5) {
                         log("Talking to Oracle about Crandor map piece");
                         if (oracle.interact("Talk-to") && Sleep.sleepUntil(Dialogues::inDialogue, 5000)) {
-                            int guard = 0;
-                            boolean foundOption = false;
-                            while (Dialogues.inDialogue() && guard++ < 25) {
-                                if (Dialogues.areOptionsAvailable()) {
-                                    String[] opts = Dialogues.getOptions();
-                                    int idx = indexOfOption(opts, "I seek a piece of the map to the island of Crandor.");
-                                    if (idx != -1) {
-                                        Dialogues.chooseOption(idx + 1);
-                                        foundOption = true;
-                                        log("Selected Oracle dialogue option about Crandor map");
-                                        Sleep.sleep(800, 1200);
-                                    } else {
-                                        log("Oracle dialogue options: " + String.join(", ", opts));
-                                        Sleep.sleep(600, 900);
-                                    }
-                                } else if (Dialogues.canContinue()) {
-                                    Dialogues.continueDialogue();
-                                    Sleep.sleep(600, 900);
-                                }
-                                Sleep.sleep(300, 600);
-                            }
+                            boolean foundOption = DialogueEngine.getInstance()
+                                .run("Oracle", ORACLE_DIALOGUE, 30000).chose("I seek a piece of the map");
                             if (foundOption) {
                                 oracleCompleted = true;
                                 log("Oracle dialogue completed successfully");
@@ -1238,62 +1257,10 @@ public class DragonSlayerTree extends QuestTree {
                     // Option 1: Pay Wormbrain 10,000 coins (peaceful method)
                     log("Attempting to pay Wormbrain 10,000 coins for map piece");
                     if (wormbrain.interact("Talk-to") && Sleep.sleepUntil(Dialogues::inDialogue, 5000)) {
-                        int guard = 0;
-                        boolean foundFirstOption = false;
-                        boolean foundPaymentOption = false;
-                        boolean foundConfirmation = false;
-                        
-                        while (Dialogues.inDialogue() && guard++ < 25) {
-                            if (Dialogues.areOptionsAvailable()) {
-                                String[] opts = Dialogues.getOptions();
-                                
-                                // Step 1: "I believe you've got a piece of map that I need."
-                                if (!foundFirstOption) {
-                                    int firstIdx = indexOfOption(opts, "I believe you've got a piece of map that I need.");
-                                    if (firstIdx != -1) {
-                                        Dialogues.chooseOption(firstIdx + 1);
-                                        log("Selected: I believe you've got a piece of map that I need.");
-                                        foundFirstOption = true;
-                                        Sleep.sleep(800, 1200);
-                                        continue;
-                                    }
-                                }
-                                
-                                // Step 2: "I suppose I could pay you for the map piece..."
-                                if (foundFirstOption && !foundPaymentOption) {
-                                int paymentIdx = indexOfOption(opts, "I suppose I could pay you for the map piece...");
-                                if (paymentIdx != -1) {
-                                    Dialogues.chooseOption(paymentIdx + 1);
-                                        log("Selected: I suppose I could pay you for the map piece...");
-                                        foundPaymentOption = true;
-                                    Sleep.sleep(800, 1200);
-                                    continue;
-                                    }
-                                }
-                                
-                                // Step 3: "Alright then, 10,000 it is."
-                                if (foundPaymentOption && !foundConfirmation) {
-                                int confirmIdx = indexOfOption(opts, "Alright then, 10,000 it is.");
-                                if (confirmIdx != -1) {
-                                    Dialogues.chooseOption(confirmIdx + 1);
-                                        log("Selected: Alright then, 10,000 it is.");
-                                        foundConfirmation = true;
-                                    Sleep.sleep(800, 1200);
-                                    continue;
-                                    }
-                                }
-                                
-                                // Default: continue dialogue if no specific option found
-                                if (opts.length > 0) {
-                                    Dialogues.chooseOption(1);
-                                    Sleep.sleep(600, 900);
-                                }
-                            } else if (Dialogues.canContinue()) {
-                                Dialogues.continueDialogue();
-                                Sleep.sleep(600, 900);
-                            }
-                            Sleep.sleep(300, 600);
-                        }
+                        DialogueEngine.Result result = DialogueEngine.getInstance().run("Wormbrain", WORMBRAIN_PAYMENT_DIALOGUE, 30000);
+                        boolean foundFirstOption = result.chose("I believe you've got a piece of map that I need");
+                        boolean foundPaymentOption = result.chose("I suppose I could pay you for the map piece");
+                        boolean foundConfirmation = result.chose("Alright then, 10,000 it is");
                         
                         // Check if we completed the payment sequence
                         if (foundFirstOption && foundPaymentOption && foundConfirmation) {
@@ -1880,85 +1847,8 @@ public class DragonSlayerTree extends QuestTree {
                 if (!guildmaster.interact("Talk-to")) return false;
                 if (!Sleep.sleepUntil(Dialogues::inDialogue, 7000)) return false;
                 
-                int guard = 0;
-                boolean talkedAboutOziach = false;
-                boolean askedAboutRoute = false;
-                boolean askedMelzar = false;
-                boolean askedThalzar = false;
-                boolean askedLozar = false;
-                boolean askedShip = false;
-                boolean askedProtection = false;
-                boolean finishedAllQuestions = false;
-                
-                while (Dialogues.inDialogue() && guard++ < 60) { // Increased timeout for long dialogue
-                    if (Dialogues.areOptionsAvailable()) {
-                        String[] opts = Dialogues.getOptions();
-                        int idx = -1;
-                        
-                        // Priority 1: Start with Oziach conversation (only once)
-                        if (!talkedAboutOziach && indexOfOption(opts, "I talked to Oziach") != -1) {
-                            idx = indexOfOption(opts, "I talked to Oziach");
-                            talkedAboutOziach = true;
-                        }
-                        // Priority 2: Ask about route to Crandor (only once)
-                        else if (!askedAboutRoute && indexOfOption(opts, "How can I find the route to Crandor?") != -1) {
-                            idx = indexOfOption(opts, "How can I find the route to Crandor?");
-                            askedAboutRoute = true;
-                        }
-                        // Priority 3: Ask about Melzar's map piece (only once)
-                        else if (!askedMelzar && indexOfOption(opts, "Where is Melzar's map piece?") != -1) {
-                            idx = indexOfOption(opts, "Where is Melzar's map piece?");
-                            askedMelzar = true;
-                        }
-                        // Priority 4: Ask about Thalzar's map piece (only once)
-                        else if (!askedThalzar && indexOfOption(opts, "Where is Thalzar's map piece?") != -1) {
-                            idx = indexOfOption(opts, "Where is Thalzar's map piece?");
-                            askedThalzar = true;
-                        }
-                        // Priority 5: Ask about Lozar's map piece (only once)
-                        else if (!askedLozar && indexOfOption(opts, "Where is Lozar's map piece?") != -1) {
-                            idx = indexOfOption(opts, "Where is Lozar's map piece?");
-                            askedLozar = true;
-                        }
-                        // Priority 6: Ask about ship (only once)
-                        else if (!askedShip && indexOfOption(opts, "Where can I find the right ship?") != -1) {
-                            idx = indexOfOption(opts, "Where can I find the right ship?");
-                            askedShip = true;
-                        }
-                        // Priority 7: Ask about dragon breath protection (only once)
-                        else if (!askedProtection && indexOfOption(opts, "How can I protect myself from the dragon's breath?") != -1) {
-                            idx = indexOfOption(opts, "How can I protect myself from the dragon's breath?");
-                            askedProtection = true;
-                        }
-                        // Priority 8: End conversation
-                        else if (indexOfOption(opts, "Okay, I'll get going!") != -1) {
-                            idx = indexOfOption(opts, "Okay, I'll get going!");
-                            finishedAllQuestions = true; // Mark as completed
-                        }
-                        
-                        if (idx != -1) {
-                            Dialogues.chooseOption(idx + 1);
-                            Sleep.sleep(1000, 1500); // Wait for dialogue to process
-                        }
-                        
-                        // Check if we've asked all questions and can finish
-                        if (talkedAboutOziach && askedAboutRoute && askedMelzar && 
-                            askedThalzar && askedLozar && askedShip && askedProtection) {
-                            // All questions asked, look for exit option
-                            if (indexOfOption(opts, "Okay, I'll get going!") != -1) {
-                                idx = indexOfOption(opts, "Okay, I'll get going!");
-                                finishedAllQuestions = true;
-                                if (idx != -1) {
-                                    Dialogues.chooseOption(idx + 1);
-                                    Sleep.sleep(1000, 1500);
-                                }
-                            }
-                        }
-                    } else if (Dialogues.canContinue()) {
-                        if (!Dialogues.spaceToContinue()) Dialogues.continueDialogue();
-                    }
-                    Sleep.sleep(600, 900);
-                }
+                DialogueEngine.Result result = DialogueEngine.getInstance().run("Guildmaster", GUILDMASTER_INFO_DIALOGUE, 60000);
+                boolean finishedAllQuestions = result.chose("Okay, I'll get going!");
                 Sleep.sleep(800, 1200);
                 
                 // Return true only if we actually completed all questions or dialogue config changed
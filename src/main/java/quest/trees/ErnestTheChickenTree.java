@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.DecisionNode;
@@ -26,6 +27,7 @@ import org.dreambot.api.methods.quest.book.FreeQuest;
  * Discovered config 32 progression: 0 -> 1 (started), 1 -> 2 (mid), 2 -> 3 (complete)
  * Implements minimal reliable flow based on recorded log.
  */
+@QuestEntry(id = "ERNEST_THE_CHICKEN", name = "Ernest the Chicken", minutes = 10, items = {"Spade"})
 public class ErnestTheChickenTree extends QuestTree {
 
     private static final int CONFIG_ID = 32;
@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
@@ -25,6 +26,8 @@ import quest.utils.RunEnergyUtil;
  * Requirements purchased from GE: Orange dye x1, Blue dye x1, Goblin mail x3
  * Progress varbit (from static map): 62
  */
+@QuestEntry(id = "GOBLIN_DIPLOMACY", name = "Goblin Diplomacy", minutes = 8,
+            items = {"Orange dye", "Blue dye", "Goblin mail x3"})
 public class GoblinDiplomacyTree extends QuestTree {
 
     // Varbit for Goblin Diplomacy progress
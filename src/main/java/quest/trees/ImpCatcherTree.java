@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
@@ -17,6 +18,8 @@ import org.dreambot.api.methods.interactive.GameObjects;
 import org.dreambot.api.wrappers.interactive.GameObject;
 import org.dreambot.api.methods.walking.impl.Walking;
 
+@QuestEntry(id = "IMP_CATCHER", name = "Imp Catcher", minutes = 10,
+            items = {"Red bead", "Yellow bead", "Black bead", "White bead"})
 public class ImpCatcherTree extends QuestTree {
     // Prefer DreamBot Quest API to detect completion; fallback to varbit 11
     private static final int VARBIT_IMP_CATCHER = 11;
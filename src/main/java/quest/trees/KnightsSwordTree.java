@@ -19,6 +19,7 @@ import org.dreambot.api.wrappers.items.Item;
 
 import quest.core.QuestNode;
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.InteractWithObjectNode;
 import quest.nodes.actions.TalkToNPCNode;
@@ -30,6 +31,8 @@ import quest.utils.RunEnergyUtil;
  * The Knight's Sword - Tree-based implementation
  * Uses Quest API completion and config 122 for stage branching (discovered in logs).
  */
+@QuestEntry(id = "THE_KNIGHTS_SWORD", name = "The Knight's Sword", difficulty = 2, minutes = 20,
+            items = {"Redberry pie", "Iron bar x2", "Any pickaxe"})
 public class KnightsSwordTree extends QuestTree {
 
     // Quest config discovered via logger (Quest API): 122, completion observed at 7
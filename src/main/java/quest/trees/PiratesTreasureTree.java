@@ -1,7 +1,10 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
+import quest.dialogue.DialogueEngine;
+import quest.dialogue.DialogueScript;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
 import quest.nodes.actions.WalkToLocationNode;
@@ -42,6 +45,8 @@ import quest.utils.RunEnergyUtil;
  * 7. Travel to Falador garden, dig for treasure → find casket
  * 8. Open casket → quest complete (Config 101: 15 → 17)
  */
+@QuestEntry(id = "PIRATES_TREASURE", name = "Pirate's Treasure", difficulty = 3, minutes = 20,
+            items = {"Karamjan rum", "White apron", "Spade", "30 gp"})
 public class PiratesTreasureTree extends QuestTree {
     
     // CORRECTED Quest constants from log data analysis
@@ -79,6 +84,25 @@ public class PiratesTreasureTree extends QuestTree {
     private static final int RUM_CRATE_ID = 2071;
     private static final int PIRATE_CHEST_ID = 2070;
     
+    // Dialogue scripts, in order of preference (compiled once)
+    private static final long DIALOGUE_TIMEOUT_MS = 60000;
+    private static final DialogueScript FRANK_START_DIALOGUE = DialogueScript.builder("Redbeard Frank - start")
+        .contains("treasure").contains("search").contains("Yes").build();
+    private static final DialogueScript LORRIS_FARE_DIALOGUE = DialogueScript.builder("Seaman Lorris - fare")
+        .contains("Yes").contains("please").build();
+    private static final DialogueScript LUTHAS_JOB_DIALOGUE = DialogueScript.builder("Luthas - job")
+        .contains("employment").contains("job").contains("work").build();
+    private static final DialogueScript LUTHAS_PAYMENT_DIALOGUE = DialogueScript.builder("Luthas - payment")
+        .contains("payment").contains("paid").contains("finished").contains("complete").build();
+    private static final DialogueScript CUSTOMS_DIALOGUE = DialogueScript.builder("Customs officer")
+        .contains("journey").contains("ship").contains("Search away").contains("nothing to hide").exact("Ok.")
+        .fallbackToFirst().build();
+    private static final DialogueScript WYDIN_JOB_DIALOGUE = DialogueScript.builder("Wydin - job")
+        .contains("job").contains("work").contains("employment").build();
+    private static final DialogueScript FRANK_RUM_DIALOGUE = DialogueScript.builder("Redbeard Frank - rum")
+        .contains("rum").contains("treasure").contains("give").contains("here").contains("yes").contains("okay")
+        .fallbackToFirst().build();
+    
     // Nodes
     private ActionNode startQuestNode;
     private ActionNode travelToKaramjaNode;
@@ -263,45 +287,7 @@ public class PiratesTreasureTree extends QuestTree {
                 
                 // Handle quest start dialogue
                 try {
-                    while (Dialogues.inDialogue()) {
-                        if (Dialogues.areOptionsAvailable()) {
-                            String[] options = Dialogues.getOptions();
-                            log("Frank dialogue options: " + java.util.Arrays.toString(options));
-                            
-                            // Look for "I'm in search of treasure" option
-                            boolean foundTreasureOption = false;
-                            for (int i = 0; i < options.length; i++) {
-                                if (options[i].contains("treasure") || options[i].contains("search")) {
-                                    log("Selecting treasure option: " + options[i]);
-                                    Dialogues.chooseOption(i + 1);
-                                    foundTreasureOption = true;
-                                    break;
-                                }
-                            }
-                            
-                            if (!foundTreasureOption) {
-                                // If no treasure option, look for "Yes" to start quest
-                                for (int i = 0; i < options.length; i++) {
-                                    if (options[i].contains("Yes")) {
-                                        log("Selecting Yes to start quest: " + options[i]);
-                                        Dialogues.chooseOption(i + 1);
-                                        break;
-                                    }
-                                }
-                            }
-                            
-                            Sleep.sleep(1000, 2000);
-                        } else if (Dialogues.canContinue()) {
-                            log("Continuing dialogue...");
-                            if (!Dialogues.spaceToContinue()) {
-                                Dialogues.continueDialogue();
-                            }
-                            Sleep.sleep(1000, 2000);
-                        } else {
-                            log("Dialogue state unclear, waiting...");
-                            Sleep.sleep(1000);
-                        }
-                    }
+                    DialogueEngine.getInstance().run("Redbeard Frank", FRANK_START_DIALOGUE, DIALOGUE_TIMEOUT_MS);
                     
                     log("✅ Dialogue with Redbeard Frank completed - quest should be started!");
                     log("Using dialogue completion as trigger to move to next step");
@@ -336,31 +322,7 @@ public class PiratesTreasureTree extends QuestTree {
                         Sleep.sleepUntil(() -> Dialogues.inDialogue(), 5000);
                         
                         // Handle dialogue to travel to Karamja
-                        while (Dialogues.inDialogue()) {
-                            if (Dialogues.areOptionsAvailable()) {
-                                String[] options = Dialogues.getOptions();
-                                log("Lorris dialogue options: " + java.util.Arrays.toString(options));
-                                
-                                // Look for "Yes please" option to confirm travel
-                                for (int i = 0; i < options.length; i++) {
-                                    if (options[i].contains("Yes") || options[i].contains("please")) {
-                                        log("Selecting yes to travel: " + options[i]);
-                                        Dialogues.chooseOption(i + 1);
-                                        break;
-                                    }
-                                }
-                                Sleep.sleep(1000, 2000);
-                            } else if (Dialogues.canContinue()) {
-                                log("Continuing dialogue...");
-                                if (!Dialogues.spaceToContinue()) {
-                                    Dialogues.continueDialogue();
-                                }
-                                Sleep.sleep(1000, 2000);
-                            } else {
-                                log("Dialogue state unclear, waiting...");
-                                Sleep.sleep(1000);
-                            }
-                        }
+                        DialogueEngine.getInstance().run("Seaman Lorris", LORRIS_FARE_DIALOGUE, DIALOGUE_TIMEOUT_MS);
                         
                         // CRITICAL: Wait for ship animation and arrival at Karamja
                         log("Waiting for ship travel to complete...");
@@ -542,31 +504,7 @@ public class PiratesTreasureTree extends QuestTree {
                             Sleep.sleepUntil(() -> Dialogues.inDialogue(), 5000);
                             
                             // Handle employment dialogue
-                            while (Dialogues.inDialogue()) {
-                                if (Dialogues.areOptionsAvailable()) {
-                                    String[] options = Dialogues.getOptions();
-                                    log("Luthas dialogue options: " + java.util.Arrays.toString(options));
-                                    
-                                    // Look for employment option
-                                    for (int i = 0; i < options.length; i++) {
-                                        if (options[i].contains("employment") || options[i].contains("job") || options[i].contains("work")) {
-                                            log("Selecting employment option: " + options[i]);
-                                            Dialogues.chooseOption(i + 1);
-                                            break;
-                                        }
-                                    }
-                                    Sleep.sleep(1000, 2000);
-                                } else if (Dialogues.canContinue()) {
-                                    log("Continuing dialogue...");
-                                    if (!Dialogues.spaceToContinue()) {
-                                        Dialogues.continueDialogue();
-                                    }
-                                    Sleep.sleep(1000, 2000);
-                                } else {
-                                    log("Dialogue state unclear, waiting...");
-                                    Sleep.sleep(1000);
-                                }
-                            }
+                            DialogueEngine.getInstance().run("Luthas", LUTHAS_JOB_DIALOGUE, DIALOGUE_TIMEOUT_MS);
                             
                             log("✅ Successfully talked to Luthas about employment!");
                         } else {
@@ -600,31 +538,7 @@ public class PiratesTreasureTree extends QuestTree {
                     if (luthas.interact("Talk-to")) {
                         if (Sleep.sleepUntil(() -> Dialogues.inDialogue(), 5000)) {
                             // Handle dialogue about employment
-                            while (Dialogues.inDialogue()) {
-                                if (Dialogues.areOptionsAvailable()) {
-                                    String[] options = Dialogues.getOptions();
-                                    log("Luthas dialogue options: " + java.util.Arrays.toString(options));
-                                    
-                                    // Look for employment option
-                                    for (int i = 0; i < options.length; i++) {
-                                        if (options[i].contains("employment") || options[i].contains("job") || options[i].contains("work")) {
-                                            log("Selecting employment option: " + options[i]);
-                                            Dialogues.chooseOption(i + 1);
-                                            break;
-                                        }
-                                    }
-                                    Sleep.sleep(1000, 2000);
-                                } else if (Dialogues.canContinue()) {
-                                    log("Continuing dialogue...");
-                                    if (!Dialogues.spaceToContinue()) {
-                                        Dialogues.continueDialogue();
-                                    }
-                                    Sleep.sleep(1000, 2000);
-                                } else {
-                                    log("Dialogue state unclear, waiting...");
-                                    Sleep.sleep(1000);
-                                }
-                            }
+                            DialogueEngine.getInstance().run("Luthas", LUTHAS_JOB_DIALOGUE, DIALOGUE_TIMEOUT_MS);
                             log("✅ Successfully completed employment dialogue with Luthas!");
                         }
                     }
@@ -700,31 +614,7 @@ public class PiratesTreasureTree extends QuestTree {
                                 if (luthas != null && luthas.interact("Talk-to")) {
                                     if (Sleep.sleepUntil(() -> Dialogues.inDialogue(), 5000)) {
                                         // Handle payment dialogue
-                                        while (Dialogues.inDialogue()) {
-                                            if (Dialogues.areOptionsAvailable()) {
-                                                String[] options = Dialogues.getOptions();
-                                                log("Luthas payment options: " + java.util.Arrays.toString(options));
-                                                
-                                                // Look for payment/complete job option
-                                                for (int i = 0; i < options.length; i++) {
-                                                    if (options[i].contains("payment") || options[i].contains("paid") || options[i].contains("finished") || options[i].contains("complete")) {
-                                                        log("Selecting payment option: " + options[i]);
-                                                        Dialogues.chooseOption(i + 1);
-                                                        break;
-                                                    }
-                                                }
-                                                Sleep.sleep(1000, 2000);
-                                            } else if (Dialogues.canContinue()) {
-                                                log("Continuing dialogue...");
-                                                if (!Dialogues.spaceToContinue()) {
-                                                    Dialogues.continueDialogue();
-                                                }
-                                                Sleep.sleep(1000, 2000);
-                                            } else {
-                                                log("Dialogue state unclear, waiting...");
-                                                Sleep.sleep(1000);
-                                            }
-                                        }
+                                        DialogueEngine.getInstance().run("Luthas", LUTHAS_PAYMENT_DIALOGUE, DIALOGUE_TIMEOUT_MS);
                                         log("✅ Successfully completed payment dialogue with Luthas!");
                                     }
                                 }
@@ -769,54 +659,7 @@ public class PiratesTreasureTree extends QuestTree {
                         Sleep.sleepUntil(() -> Dialogues.inDialogue(), 5000);
                         
                         // Handle the multi-step customs dialogue
-                        while (Dialogues.inDialogue()) {
-                            if (Dialogues.areOptionsAvailable()) {
-                                String[] options = Dialogues.getOptions();
-                                log("Customs dialogue options: " + java.util.Arrays.toString(options));
-                                
-                                // Handle different dialogue stages
-                                boolean foundOption = false;
-                                for (int i = 0; i < options.length; i++) {
-                                    String opt = options[i];
-                                    // Stage 1: "Can I journey on this ship?"
-                                    if (opt.contains("journey") || opt.contains("ship")) {
-                                        log("Selecting journey option: " + opt);
-                                        Dialogues.chooseOption(i + 1);
-                                        foundOption = true;
-                                        break;
-                                    }
-                                    // Stage 2: "Search away, I have nothing to hide."
-                                    else if (opt.contains("Search away") || opt.contains("nothing to hide")) {
-                                        log("Selecting search option: " + opt);
-                                        Dialogues.chooseOption(i + 1);
-                                        foundOption = true;
-                                        break;
-                                    }
-                                    // Stage 3: "Ok."
-                                    else if (opt.equals("Ok.")) {
-                                        log("Selecting Ok: " + opt);
-                                        Dialogues.chooseOption(i + 1);
-                                        foundOption = true;
-                                        break;
-                                    }
-                                }
-                                
-                                if (!foundOption) {
-                                    log("No specific option found, selecting first option");
-                                    Dialogues.chooseOption(1);
-                                }
-                                Sleep.sleep(1000, 2000);
-                            } else if (Dialogues.canContinue()) {
-                                log("Continuing dialogue...");
-                                if (!Dialogues.spaceToContinue()) {
-                                    Dialogues.continueDialogue();
-                                }
-                                Sleep.sleep(1000, 2000);
-                            } else {
-                                log("Dialogue state unclear, waiting...");
-                                Sleep.sleep(1000);
-                            }
-                        }
+                        DialogueEngine.getInstance().run("Customs officer", CUSTOMS_DIALOGUE, DIALOGUE_TIMEOUT_MS);
                         
                         log("✅ Customs dialogue completed, waiting for ship travel...");
                     }
@@ -899,31 +742,7 @@ public class PiratesTreasureTree extends QuestTree {
                     if (wydin.interact("Talk-to")) {
                         if (Sleep.sleepUntil(() -> Dialogues.inDialogue(), 5000)) {
                             // Handle job dialogue
-                            while (Dialogues.inDialogue()) {
-                                if (Dialogues.areOptionsAvailable()) {
-                                    String[] options = Dialogues.getOptions();
-                                    log("Wydin dialogue options: " + java.util.Arrays.toString(options));
-                                    
-                                    // Look for job/work option
-                                    for (int i = 0; i < options.length; i++) {
-                                        if (options[i].contains("job") || options[i].contains("work") || options[i].contains("employment")) {
-                                            log("Selecting job option: " + options[i]);
-                                            Dialogues.chooseOption(i + 1);
-                                            break;
-                                        }
-                                    }
-                                    Sleep.sleep(1000, 2000);
-                                } else if (Dialogues.canContinue()) {
-                                    log("Continuing dialogue...");
-                                    if (!Dialogues.spaceToContinue()) {
-                                        Dialogues.continueDialogue();
-                                    }
-                                    Sleep.sleep(1000, 2000);
-                                } else {
-                                    log("Dialogue state unclear, waiting...");
-                                    Sleep.sleep(1000);
-                                }
-                            }
+                            DialogueEngine.getInstance().run("Wydin", WYDIN_JOB_DIALOGUE, DIALOGUE_TIMEOUT_MS);
                             log("✅ Successfully completed job dialogue with Wydin!");
                         }
                     }
@@ -977,31 +796,7 @@ public class PiratesTreasureTree extends QuestTree {
                                     log("Dialogue opened with Wydin - completing job dialogue...");
                                     
                                     // Handle job dialogue
-                                    while (Dialogues.inDialogue()) {
-                                        if (Dialogues.areOptionsAvailable()) {
-                                            String[] options = Dialogues.getOptions();
-                                            log("Wydin dialogue options: " + java.util.Arrays.toString(options));
-                                            
-                                            // Look for job/work option
-                                            for (int i = 0; i < options.length; i++) {
-                                                if (options[i].contains("job") || options[i].contains("work") || options[i].contains("employment")) {
-                                                    log("Selecting job option: " + options[i]);
-                                                    Dialogues.chooseOption(i + 1);
-                                                    break;
-                                                }
-                                            }
-                                            Sleep.sleep(1000, 2000);
-                                        } else if (Dialogues.canContinue()) {
-                                            log("Continuing dialogue...");
-                                            if (!Dialogues.spaceToContinue()) {
-                                                Dialogues.continueDialogue();
-                                            }
-                                            Sleep.sleep(1000, 2000);
-                                        } else {
-                                            log("Dialogue state unclear, waiting...");
-                                            Sleep.sleep(1000);
-                                        }
-                                    }
+                                    DialogueEngine.getInstance().run("Wydin", WYDIN_JOB_DIALOGUE, DIALOGUE_TIMEOUT_MS);
                                     log("✅ Successfully completed job dialogue with Wydin!");
                                 }
                             }
@@ -1076,53 +871,8 @@ public class PiratesTreasureTree extends QuestTree {
                             log("✅ Dialogue opened with Redbeard Frank - handling rum exchange...");
                             
                             // Handle dialogue to exchange rum for key
-                            long startTime = System.currentTimeMillis();
-                            boolean dialogueHandled = false;
-                            
-                            while (Dialogues.inDialogue() && System.currentTimeMillis() - startTime < 15000) {
-                                if (Dialogues.areOptionsAvailable()) {
-                                    String[] options = Dialogues.getOptions();
-                                    log("Redbeard dialogue options: " + java.util.Arrays.toString(options));
-                                    
-                                    // Look for options related to rum, treasure, or giving items
-                                    boolean foundOption = false;
-                                    for (int i = 0; i < options.length; i++) {
-                                        String option = options[i].toLowerCase();
-                                        if (option.contains("rum") || option.contains("treasure") || 
-                                            option.contains("give") || option.contains("here") || 
-                                            option.contains("yes") || option.contains("okay")) {
-                                            log("Selecting option: " + options[i]);
-                                            Dialogues.chooseOption(i + 1);
-                                            foundOption = true;
-                                            Sleep.sleep(1000, 2000);
-                                            break;
-                                        }
-                                    }
-                                    
-                                    if (!foundOption) {
-                                        log("No specific option found, selecting first option");
-                                        Dialogues.chooseOption(1);
-                                        Sleep.sleep(1000, 2000);
-                                    }
-                                    
-                                } else if (Dialogues.canContinue()) {
-                                    log("Continuing dialogue...");
-                                    if (!Dialogues.spaceToContinue()) {
-                                        Dialogues.continueDialogue();
-                                    }
-                                    Sleep.sleep(1000, 2000);
-                                } else {
-                                    log("Dialogue state unclear, waiting...");
-                                    Sleep.sleep(1000);
-                                }
-                                
-                                // Check if we received the chest key
-                                if (Inventory.contains(CHEST_KEY)) {
-                                    log("✅ Successfully received chest key from Redbeard Frank!");
-                                    dialogueHandled = true;
-                                    break;
-                                }
-                            }
+                            DialogueEngine.getInstance().run("Redbeard Frank", FRANK_RUM_DIALOGUE, 15000);
+                            boolean dialogueHandled = Inventory.contains(CHEST_KEY);
                             
                             if (!dialogueHandled) {
                                 log("WARN: Dialogue timeout or incomplete - checking if we got the key anyway");
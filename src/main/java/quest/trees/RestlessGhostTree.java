@@ -1,9 +1,13 @@
 package quest.trees;
 
+import quest.core.GameState;
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
+import quest.nodes.actions.ItemActionNode;
 import quest.nodes.actions.TalkToNPCNode;
+import quest.nodes.actions.UseItemOnObjectNode;
 import quest.nodes.actions.WalkToLocationNode;
 import quest.nodes.actions.InteractWithObjectNode;
 
@@ -21,7 +25,10 @@ import org.dreambot.api.wrappers.interactive.GameObject;
 /**
  * The Restless Ghost Quest Tree
  * Config 107 tracks quest progress: 0 -> 1 -> 2 -> 3 -> 4 -> 5 (complete)
+ * The decision node reads through GameState and every action up to completion is one of the stock
+ * node types, so ReplayHarness can run this tree against restlesshost.log without the client.
  */
+@QuestEntry(id = "THE_RESTLESS_GHOST", name = "The Restless Ghost", minutes = 10)
 public class RestlessGhostTree extends QuestTree {
     
     // Quest progress config ID
@@ -275,7 +282,7 @@ public class RestlessGhostTree extends QuestTree {
         };
         
         // Step 3: Equip Ghostspeak amulet and talk to ghost (config 2 -> 3)
-        equipGhostspeakAmulet = new ActionNode("equip_ghostspeak", "Equip Ghostspeak amulet") {
+        equipGhostspeakAmulet = new ItemActionNode("equip_ghostspeak", "Ghostspeak amulet", "Wear") {
             @Override
             protected boolean performAction() {
                 if (Equipment.contains("Ghostspeak amulet")) {
@@ -296,7 +303,8 @@ public class RestlessGhostTree extends QuestTree {
         walkToGraveyard = new WalkToLocationNode("walk_to_graveyard", GRAVEYARD_COFFIN_LOCATION, "Graveyard coffin");
         
         // Custom coffin interaction that ONLY opens the coffin (no searching)
-        openCoffin = new ActionNode("open_coffin", "Open coffin to make ghost appear") {
+        openCoffin = new InteractWithObjectNode("open_coffin", "Coffin", "Open", GRAVEYARD_COFFIN_LOCATION,
+            "Graveyard coffin") {
             @Override
             protected boolean performAction() {
                 log("Opening coffin to make ghost appear...");
@@ -505,7 +513,7 @@ public class RestlessGhostTree extends QuestTree {
         
         // Step 5: Return to graveyard and complete quest (config 4 -> 5)
         returnToGraveyard = new WalkToLocationNode("return_to_graveyard", GRAVEYARD_COFFIN_LOCATION, "Return to graveyard");
-        useSkullOnCoffin = new ActionNode("use_skull_on_coffin", "Use Ghost's skull on coffin") {
+        useSkullOnCoffin = new UseItemOnObjectNode("use_skull_on_coffin", "Ghost's skull", "Coffin") {
             @Override
             protected boolean performAction() {
                 if (!Inventory.contains("Ghost's skull")) {
@@ -579,9 +587,9 @@ public class RestlessGhostTree extends QuestTree {
         smartDecisionNode = new QuestNode("smart_decision", "Smart Quest Decision") {
             @Override
             public ExecutionResult execute() {
-                int config = PlayerSettings.getConfig(QUEST_CONFIG);
-                Tile currentTile = Players.getLocal().getTile();
-                boolean hasSkull = Inventory.contains("Ghost's skull");
+                int config = GameState.getConfig(QUEST_CONFIG);
+                Tile currentTile = GameState.getPlayerTile();
+                boolean hasSkull = GameState.inventoryContains("Ghost's skull");
                 log("=== SMART DECISION DEBUG ===");
                 log("Config 107 = " + config + ", Location: " + currentTile);
                 log("Has Ghost's skull: " + hasSkull);
@@ -605,13 +613,7 @@ public class RestlessGhostTree extends QuestTree {
                         log("-> Walk to Father Urhney's house");
 	            } else if (currentTile.distance(FATHER_URHNEY_LOCATION) > 3) {
 	                // If the door can be opened, open it; otherwise walk inside to Father Urhney
-	                GameObject door = GameObjects.closest(obj ->
-	                    obj != null &&
-	                    "Door".equals(obj.getName()) &&
-	                    obj.getTile().equals(URHNEY_DOOR_LOCATION) &&
-	                    obj.hasAction("Open")
-	                );
-	                if (door != null) {
+	                if (GameState.objectHasAction("Door", URHNEY_DOOR_LOCATION, "Open")) {
 	                    nextStep = openUrhneysHouse;
 	                    log("-> Open door to Father Urhney's house");
 	                } else {
@@ -625,7 +627,7 @@ public class RestlessGhostTree extends QuestTree {
                     
                 } else if (config == 2) {
                     // Need to equip amulet and talk to ghost
-                    if (!Equipment.contains("Ghostspeak amulet")) {
+                    if (!GameState.equipmentContains("Ghostspeak amulet")) {
                         nextStep = equipGhostspeakAmulet;
                         log("-> Equip Ghostspeak amulet");
                     } else if (currentTile.distance(GRAVEYARD_COFFIN_LOCATION) > 5) {
@@ -633,8 +635,7 @@ public class RestlessGhostTree extends QuestTree {
                         log("-> Walk to graveyard");
                     } else {
                         // Check if the ghost is visible - if so, talk to it
-                        NPC ghost = NPCs.closest("Restless ghost");
-                        if (ghost != null && ghost.exists()) {
+                        if (GameState.npcNearby("Restless ghost")) {
                             nextStep = talkToRestlessGhost;
                             log("-> Talk to Restless ghost (ghost is visible)");
                         } else {
@@ -646,7 +647,7 @@ public class RestlessGhostTree extends QuestTree {
                     
                 } else if (config == 3) {
                     // After talking to the ghost, proceed to Wizard Tower to get the skull
-                    if (Inventory.contains("Ghost's skull")) {
+                    if (GameState.inventoryContains("Ghost's skull")) {
                         // Already have the skull, go back to graveyard
                         if (currentTile.getY() >= 9500) {
                             nextStep = climbUpLadder;
@@ -767,7 +768,7 @@ public class RestlessGhostTree extends QuestTree {
     
     @Override
     public int getQuestProgress() {
-        int configValue = PlayerSettings.getConfig(QUEST_CONFIG);
+        int configValue = GameState.getConfig(QUEST_CONFIG);
         
         // Convert config value to percentage
         switch (configValue) {
@@ -1,7 +1,10 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
+import quest.dialogue.DialogueEngine;
+import quest.dialogue.DialogueScript;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
 import quest.nodes.actions.WalkToLocationNode;
@@ -16,6 +19,7 @@ import org.dreambot.api.methods.interactive.Players;
  * SIMPLIFIED LOGIC: Use location + config to determine next step
  * Config 144 tracks quest progress: 0 -> 10 -> 20 -> 30 -> 40 -> 50 -> 60 (complete)
  */
+@QuestEntry(id = "ROMEO_AND_JULIET", name = "Romeo and Juliet", minutes = 12)
 public class RomeoAndJulietTree extends QuestTree {
     
     // Quest progress config ID
@@ -29,6 +33,11 @@ public class RomeoAndJulietTree extends QuestTree {
     private static final Tile FATHER_LAWRENCE_LOCATION = new Tile(3254, 3487, 0); // Father Lawrence
     private static final Tile CADAVA_BUSH_LOCATION = new Tile(3271, 3366, 0); // Cadava berries
     private static final Tile APOTHECARY_LOCATION = new Tile(3197, 3406, 0); // Apothecary
+
+    private static final DialogueScript APOTHECARY_DIALOGUE = DialogueScript.builder("Apothecary - potion")
+        .once("Talk about something else.")
+        .option("Talk about Romeo & Juliet.")
+        .fallbackToFirst().build();
     
     // Quest nodes
     private QuestNode smartDecisionNode;
@@ -159,134 +168,31 @@ public class RomeoAndJulietTree extends QuestTree {
             }
             
             private boolean handleApothecaryDialogue(int initialConfig) {
-                try {
-                    // Step 1: Wait for first set of options and select "Talk about something else."
-                    log("Waiting for first dialogue options...");
-                    boolean optionsAvailable = org.dreambot.api.utilities.Sleep.sleepUntil(() -> 
-                        org.dreambot.api.methods.dialogues.Dialogues.areOptionsAvailable(), 10000);
-                    
-                    if (!optionsAvailable) {
-                        log("No dialogue options available for first step");
-                        return false;
-                    }
-                    
-                    String[] options = org.dreambot.api.methods.dialogues.Dialogues.getOptions();
-                    log("First dialogue options: " + java.util.Arrays.toString(options));
-                    
-                    // Find and select "Talk about something else." (should be option 2)
-                    boolean foundOption = false;
-                    for (int i = 0; i < options.length; i++) {
-                        if (options[i].contains("Talk about something else") || 
-                            options[i].contains("something else")) {
-                            log("Selecting option " + (i + 1) + ": " + options[i]);
-                            if (org.dreambot.api.methods.dialogues.Dialogues.chooseOption(i + 1)) {
-                                foundOption = true;
-                                break;
-                            }
-                        }
-                    }
-                    
-                    if (!foundOption) {
-                        log("Could not find 'Talk about something else' option, selecting option 2 as fallback");
-                        org.dreambot.api.methods.dialogues.Dialogues.chooseOption(2);
-                    }
-                    
-                    org.dreambot.api.utilities.Sleep.sleep(1000, 2000);
-                    
-                    // Step 2: Wait for second set of options and select "Talk about Romeo & Juliet."
-                    log("Waiting for second dialogue options...");
-                    optionsAvailable = org.dreambot.api.utilities.Sleep.sleepUntil(() -> 
-                        org.dreambot.api.methods.dialogues.Dialogues.areOptionsAvailable(), 10000);
-                    
-                    if (!optionsAvailable) {
-                        log("No dialogue options available for second step");
-                        return continueRemainingDialogue();
-                    }
-                    
-                    options = org.dreambot.api.methods.dialogues.Dialogues.getOptions();
-                    log("Second dialogue options: " + java.util.Arrays.toString(options));
-                    
-                    // Find and select "Talk about Romeo & Juliet." (should be option 1)
-                    foundOption = false;
-                    for (int i = 0; i < options.length; i++) {
-                        if (options[i].contains("Romeo") && options[i].contains("Juliet")) {
-                            log("Selecting option " + (i + 1) + ": " + options[i]);
-                            if (org.dreambot.api.methods.dialogues.Dialogues.chooseOption(i + 1)) {
-                                foundOption = true;
-                                break;
-                            }
-                        }
-                    }
-                    
-                    if (!foundOption) {
-                        log("Could not find 'Romeo & Juliet' option, selecting option 1 as fallback");
-                        org.dreambot.api.methods.dialogues.Dialogues.chooseOption(1);
-                    }
-                    
-                    org.dreambot.api.utilities.Sleep.sleep(1000, 2000);
-                    
-                    // Step 3: Continue through remaining dialogue and handle cutscene
-                    return continueRemainingDialogue();
-                    
-                } catch (Exception e) {
-                    log("Exception in handleApothecaryDialogue: " + e.getMessage());
+                // "Talk about something else." then "Talk about Romeo & Juliet.", continuing to the end
+                DialogueEngine.Result result = DialogueEngine.getInstance().run("Apothecary", APOTHECARY_DIALOGUE, 60000);
+                log("Apothecary dialogue: " + result);
+                if (!result.chose("Romeo")) {
+                    log("Did not get to ask about Romeo & Juliet");
                     return false;
                 }
-            }
-            
-            private boolean continueRemainingDialogue() {
-                try {
-                    log("Continuing through remaining dialogue...");
-                    
-                    while (org.dreambot.api.methods.dialogues.Dialogues.inDialogue()) {
-                        if (org.dreambot.api.methods.dialogues.Dialogues.canContinue()) {
-                            org.dreambot.api.methods.dialogues.Dialogues.continueDialogue();
-                            org.dreambot.api.utilities.Sleep.sleep(1000, 2000);
-                        } else if (org.dreambot.api.methods.dialogues.Dialogues.areOptionsAvailable()) {
-                            // If more options appear, select the first one
-                            log("Additional dialogue options found, selecting first option");
-                            org.dreambot.api.methods.dialogues.Dialogues.chooseOption(1);
-                            org.dreambot.api.utilities.Sleep.sleep(1000, 2000);
-                        } else {
-                            log("Dialogue state unclear, waiting...");
-                            org.dreambot.api.utilities.Sleep.sleep(1000);
-                        }
-                    }
-                    
-                    log("Main dialogue completed, waiting for cutscene...");
-                    // Wait for cutscene to complete (mentioned there's a small cutscene)
-                    org.dreambot.api.utilities.Sleep.sleep(3000, 5000);
-                    
-                    // Continue any post-cutscene dialogue
-                    if (org.dreambot.api.methods.dialogues.Dialogues.inDialogue()) {
-                        log("Post-cutscene dialogue detected, continuing...");
-                        while (org.dreambot.api.methods.dialogues.Dialogues.inDialogue()) {
-                            if (org.dreambot.api.methods.dialogues.Dialogues.canContinue()) {
-                                org.dreambot.api.methods.dialogues.Dialogues.continueDialogue();
-                                org.dreambot.api.utilities.Sleep.sleep(1000, 2000);
-                            } else {
-                                org.dreambot.api.utilities.Sleep.sleep(1000);
-                            }
-                        }
-                    }
-                    
-                    log("All Apothecary dialogue completed");
-                    
-                    // Wait for quest config to update and verify we got the potion
-                    org.dreambot.api.utilities.Sleep.sleep(2000, 3000);
-                    
-                    if (org.dreambot.api.methods.container.impl.Inventory.contains("Cadava potion")) {
-                        log("Successfully obtained Cadava potion from Apothecary");
-                        return true;
-                    } else {
-                        log("Warning: Cadava potion not found in inventory after dialogue");
-                        return true; // Still return true as dialogue completed
-                    }
-                    
-                } catch (Exception e) {
-                    log("Exception in continueRemainingDialogue: " + e.getMessage());
-                    return false;
+
+                // A short cutscene can reopen the dialogue afterwards
+                org.dreambot.api.utilities.Sleep.sleepUntil(() ->
+                    org.dreambot.api.methods.dialogues.Dialogues.inDialogue()
+                        || org.dreambot.api.methods.container.impl.Inventory.contains("Cadava potion"), 5000);
+                if (org.dreambot.api.methods.dialogues.Dialogues.inDialogue()) {
+                    log("Post-cutscene dialogue detected, continuing...");
+                    DialogueEngine.getInstance().run("Apothecary", DialogueScript.CONTINUE, 30000);
+                }
+
+                log("All Apothecary dialogue completed");
+                if (org.dreambot.api.utilities.Sleep.sleepUntil(() ->
+                        org.dreambot.api.methods.container.impl.Inventory.contains("Cadava potion"), 3000)) {
+                    log("Successfully obtained Cadava potion from Apothecary");
+                } else {
+                    log("Warning: Cadava potion not found in inventory after dialogue");
                 }
+                return true; // Dialogue completed either way
             }
         };
         // Step 6: Return to Juliet with potion (config 50 -> 60)
@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
@@ -17,6 +18,7 @@ import org.dreambot.api.methods.container.impl.Inventory;
  * Automated quest using decision tree structure
  * Config 101 tracks quest progress: 0 (not started) -> 10 (started) -> 20 (got package) -> 30 (got notes) -> 40 (complete)
  */
+@QuestEntry(id = "RUNE_MYSTERIES", name = "Rune Mysteries", minutes = 8)
 public class RuneMysteriesTree extends QuestTree {
     
     // Quest progress config ID
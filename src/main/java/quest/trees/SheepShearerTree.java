@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.DecisionNode;
@@ -24,6 +25,7 @@ import org.dreambot.api.wrappers.widgets.WidgetChild;
  * Config 179 tracks quest progress: 0 (not started) -> 1 (started) -> 21 (complete)
  * Config 101 also involved in quest tracking (6 -> 7)
  */
+@QuestEntry(id = "SHEEP_SHEARER", name = "Sheep Shearer", minutes = 8)
 public class SheepShearerTree extends QuestTree {
     
     // Quest progress configs - Sheep Shearer uses config 179 and 101
@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
@@ -34,6 +35,8 @@ import quest.utils.GrandExchangeUtil.PriceStrategy;
  * 5. Fight Count Draynor
  * 6. Return to Morgan (complete quest)
  */
+@QuestEntry(id = "VAMPIRE_SLAYER", name = "Vampire Slayer", difficulty = 2, minutes = 15,
+            items = {"Hammer", "Garlic", "Stake"})
 public class VampyreSlayerTree extends QuestTree {
     
     // Quest configuration tracking (from quest log)
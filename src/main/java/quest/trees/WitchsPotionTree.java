@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
@@ -29,6 +30,8 @@ import org.dreambot.api.methods.quest.book.FreeQuest;
  * Quest involves making a potion with burnt meat, eye of newt, and onion
  * Config 101 tracks progress: 0 (not started) -> 21 (started) -> 22 (complete)
  */
+@QuestEntry(id = "WITCHS_POTION", name = "Witch's Potion", minutes = 15,
+            items = {"Raw beef", "Eye of newt", "Onion"})
 public class WitchsPotionTree extends QuestTree {
     
     // Quest progress config - Witch's Potion uses config 108 (from discovery logs)
@@ -1,6 +1,7 @@
 package quest.trees;
 
 import quest.core.QuestTree;
+import quest.registry.QuestEntry;
 import quest.core.QuestNode;
 import quest.nodes.ActionNode;
 import quest.nodes.actions.TalkToNPCNode;
@@ -19,6 +20,7 @@ import org.dreambot.api.methods.interactive.Players;
  * A treasure hunting quest that requires digging at 4 specific locations to find an Ancient casket
  * Config 101 tracks quest progress: 11 (not started) -> 12 (complete)
  */
+@QuestEntry(id = "X_MARKS_THE_SPOT", name = "X Marks the Spot", minutes = 8, items = {"Spade"})
 public class XMarksTheSpotTree extends QuestTree {
     
     // Quest progress config ID
@@ -0,0 +1,92 @@
+package quest.utils;
+
+import org.dreambot.api.methods.container.impl.bank.Bank;
+import org.dreambot.api.methods.interactive.Players;
+import org.dreambot.api.methods.map.Tile;
+import org.dreambot.api.wrappers.items.Item;
+import quest.core.QuestEngine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bank Mirror - remembers what the bank held the last time it was open.
+ * Lets planners (teleports, supplies) reason about banked items without opening the bank.
+ */
+public class BankMirror {
+
+    // Re-reading the whole bank every loop is wasteful - once a second while open is plenty
+    private static final long REFRESH_INTERVAL_MS = 1000;
+
+    private final Map<String, Integer> counts = new HashMap<>();
+    private Tile lastSeenAt;
+    private long lastRefreshTime = 0;
+
+    public BankMirror() {
+        // One per QuestEngine - each account has its own bank
+    }
+
+    /**
+     * Mirror of the current engine's bank (see QuestEngine.current())
+     */
+    public static BankMirror getInstance() {
+        return QuestEngine.current().getBankMirror();
+    }
+
+    /**
+     * Take a snapshot if the bank is open (cheap no-op otherwise). Call from the main loop.
+     */
+    public synchronized void refreshIfOpen() {
+        try {
+            if (!Bank.isOpen() || System.currentTimeMillis() - lastRefreshTime < REFRESH_INTERVAL_MS) {
+                return;
+            }
+            counts.clear();
+            for (Item item : Bank.all()) {
+                if (item != null && item.getName() != null) {
+                    counts.merge(item.getName(), item.getAmount(), Integer::sum);
+                }
+            }
+            lastSeenAt = Players.getLocal() != null ? Players.getLocal().getTile() : null;
+            lastRefreshTime = System.currentTimeMillis();
+        } catch (Throwable t) {
+            // Never let a snapshot break the loop
+        }
+    }
+
+    public synchronized int count(String itemName) {
+        return counts.getOrDefault(itemName, 0);
+    }
+
+    public synchronized boolean contains(String itemName) {
+        return count(itemName) > 0;
+    }
+
+    /**
+     * Name of the first banked item starting with the given prefix, e.g. "Amulet of glory("
+     */
+    public synchronized String findStartingWith(String prefix) {
+        for (String name : counts.keySet()) {
+            if (name.startsWith(prefix)) return name;
+        }
+        return null;
+    }
+
+    /**
+     * Whether we've ever seen the bank this session
+     */
+    public synchronized boolean isKnown() {
+        return lastRefreshTime > 0;
+    }
+
+    /**
+     * Where the player stood when the bank was last open (null if never)
+     */
+    public synchronized Tile getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    public synchronized long getAgeMs() {
+        return lastRefreshTime > 0 ? System.currentTimeMillis() - lastRefreshTime : Long.MAX_VALUE;
+    }
+}
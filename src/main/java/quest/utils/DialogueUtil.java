@@ -3,14 +3,22 @@ package quest.utils;
 import org.dreambot.api.methods.dialogues.Dialogues;
 import org.dreambot.api.utilities.Sleep;
 import org.dreambot.api.utilities.Logger;
-import java.util.*;
+import quest.dialogue.DialogueEngine;
+import quest.dialogue.DialogueScript;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Universal Dialogue Handler
- * Handles both simple continue dialogues and complex option selection
+ * Handles both simple continue dialogues and complex option selection.
+ * Conversations are driven by the DialogueEngine; this keeps the older step-based API.
  */
 public class DialogueUtil {
     
+    // Compiled scripts for selectDialogueOption, by option text
+    private static final Map<String, DialogueScript> selectScripts = new ConcurrentHashMap<>();
+    
     /**
      * Simple dialogue progression - just continues through NPC text
      */
@@ -22,22 +30,11 @@ public class DialogueUtil {
      * Continue dialogue with custom timeout
      */
     public static boolean continueDialogue(int timeoutMs) {
-        long startTime = System.currentTimeMillis();
-        
-        while (Dialogues.inDialogue() && (System.currentTimeMillis() - startTime) < timeoutMs) {
-            if (Dialogues.areOptionsAvailable()) {
-                Logger.log("WARNING: Dialogue options detected but continueDialogue() called. Use selectDialogueOption() instead.");
-                return false;
-            }
-            
-            if (Dialogues.continueDialogue()) {
-                Sleep.sleep(600, 1200);
-            } else {
-                Sleep.sleep(100, 300);
-            }
+        DialogueEngine.Result result = DialogueEngine.getInstance().run("continue", DialogueScript.CONTINUE_ONLY, timeoutMs);
+        if (result.getOutcome() == DialogueEngine.Outcome.OPTIONS_LEFT) {
+            Logger.log("WARNING: Dialogue options detected but continueDialogue() called. Use selectDialogueOption() instead.");
         }
-        
-        return !Dialogues.inDialogue();
+        return result.isCompleted();
     }
     
     /**
@@ -51,40 +48,18 @@ public class DialogueUtil {
      * Select dialogue option with timeout
      */
     public static boolean selectDialogueOption(String optionText, int timeoutMs) {
-        long startTime = System.currentTimeMillis();
-        
-        while (Dialogues.inDialogue() && (System.currentTimeMillis() - startTime) < timeoutMs) {
-            if (Dialogues.areOptionsAvailable()) {
-                String[] options = Dialogues.getOptions();
-                
-                for (int i = 0; i < options.length; i++) {
-                    if (options[i].toLowerCase().contains(optionText.toLowerCase())) {
-                        Logger.log("Selecting dialogue option: " + options[i]);
-                        
-                        // MEXXXY'S SOLUTION: Log the selected option by index
-                        Logger.log("DIALOGUE OPTION SELECTED: " + options[i] + " (index: " + i + ")");
-                        
-                        if (Dialogues.chooseOption(options[i])) {
-                            Sleep.sleep(1000, 2000);
-                            return true;
-                        }
-                    }
-                }
-                
-                Logger.log("WARNING: Could not find dialogue option containing: " + optionText);
-                Logger.log("Available options: " + Arrays.toString(options));
-                return false;
-            } else {
-                // Continue through NPC dialogue until we get options
-                if (Dialogues.continueDialogue()) {
-                    Sleep.sleep(600, 1200);
-                } else {
-                    Sleep.sleep(100, 300);
-                }
-            }
+        // Continue up to the options, pick one, then stop at the next option screen (the next step's job)
+        DialogueEngine.Result result = DialogueEngine.getInstance().run("select", selectScript(optionText), timeoutMs);
+        if (result.getChoices() == 0) {
+            Logger.log("WARNING: Could not find dialogue option containing: " + optionText);
+            return false;
         }
-        
-        return false;
+        return true;
+    }
+    
+    private static DialogueScript selectScript(String optionText) {
+        return selectScripts.computeIfAbsent(optionText,
+            text -> DialogueScript.builder("select " + text).option(text).maxChoices(1).build());
     }
     
     /**
@@ -120,16 +95,7 @@ public class DialogueUtil {
      * Wait for dialogue options to appear
      */
     public static boolean waitForDialogueOptions(int timeoutMs) {
-        long startTime = System.currentTimeMillis();
-        
-        while ((System.currentTimeMillis() - startTime) < timeoutMs) {
-            if (Dialogues.areOptionsAvailable()) {
-                return true;
-            }
-            Sleep.sleep(100, 300);
-        }
-        
-        return false;
+        return Sleep.sleepUntil(Dialogues::areOptionsAvailable, timeoutMs, 50);
     }
     
     /**
@@ -12,7 +12,12 @@ import org.dreambot.api.methods.map.Area;
 import org.dreambot.api.wrappers.interactive.GameObject;
 import org.dreambot.api.utilities.Sleep;
 import org.dreambot.api.utilities.Logger;
+import quest.fleet.FleetClient;
+import quest.metrics.QuestMetrics;
+import quest.metrics.jfr.QuestJfr;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Grand Exchange Utility for automated trading
@@ -25,6 +30,9 @@ public class GrandExchangeUtil {
     private static final Tile GE_CENTER = new Tile(3164, 3491, 0); // Central GE tile
     private static final Tile GE_FALLBACK = new Tile(3165, 3488, 0); // South entrance
     
+    // Prices offers actually filled at, here or on another bot in the fleet
+    private static final Map<String, Integer> knownFillPrices = new ConcurrentHashMap<>();
+    
     // Price increase strategies
     public enum PriceStrategy {
         CONSERVATIVE(5),     // 5% increases
@@ -70,6 +78,15 @@ public class GrandExchangeUtil {
         }
         Logger.log("Attempting to buy " + quantity + "x " + itemName + " using " + strategy + " strategy");
         
+        QuestMetrics.getInstance().beginPhase(QuestMetrics.Phase.GRAND_EXCHANGE);
+        try {
+            return buyAtGrandExchange(itemName, quantity, strategy, timeoutMs);
+        } finally {
+            QuestMetrics.getInstance().endPhase();
+        }
+    }
+    
+    private static boolean buyAtGrandExchange(String itemName, int quantity, PriceStrategy strategy, int timeoutMs) {
         if (!navigateToGrandExchange()) {
             Logger.log("Failed to navigate to Grand Exchange");
             return false;
@@ -321,6 +338,14 @@ public class GrandExchangeUtil {
             
             // Calculate offer price based on strategy and attempts
             int offerPrice = calculateOfferPrice(marketPrice, strategy, attempts);
+            
+            // Skip the price climb when we already know what fills - but never beyond what the last retry would offer
+            Integer knownFill = knownFillPrices.get(itemName);
+            if (knownFill != null && knownFill > offerPrice
+                    && knownFill <= calculateOfferPrice(marketPrice, strategy, maxAttempts)) {
+                Logger.log("Last known fill price for " + itemName + " is " + knownFill + " gp - offering that");
+                offerPrice = knownFill;
+            }
             Logger.log("Market price: " + marketPrice + ", Offering: " + offerPrice + " (" + 
                       ((offerPrice - marketPrice) * 100 / marketPrice) + "% increase)");
             
@@ -328,11 +353,18 @@ public class GrandExchangeUtil {
             Logger.log("Attempting to place buy order for " + quantity + "x " + itemName + " @ " + offerPrice + " gp");
             if (placeBuyOrder(itemName, quantity, offerPrice)) {
                 Logger.log("Buy order placed successfully, waiting for completion...");
+                QuestMetrics.getInstance().increment(QuestMetrics.GE_OFFERS);
+                Object offerEvent = QuestJfr.geOfferBegin(itemName, quantity, offerPrice, strategy.name());
                 // Wait for order completion
                 if (waitForOrderCompletion(itemName, quantity, 45000)) { // 45 seconds per attempt
+                    QuestJfr.geOfferEnd(offerEvent, true);
+                    QuestMetrics.getInstance().increment(QuestMetrics.GE_OFFERS_FILLED);
+                    rememberFillPrice(itemName, offerPrice);
+                    FleetClient.getInstance().sharePrice(itemName, offerPrice);
                     Logger.log("[SUCCESS] Successfully bought " + quantity + "x " + itemName);
                     return true;
                 } else {
+                    QuestJfr.geOfferEnd(offerEvent, false);
                     Logger.log("[WARNING] Order timed out, increasing price and retrying...");
                     cancelAllPendingOrders();
                 }
@@ -364,6 +396,15 @@ public class GrandExchangeUtil {
         return false;
     }
     
+    /**
+     * Remember the price an offer filled at, so the next buy of this item can start there
+     */
+    public static void rememberFillPrice(String itemName, int price) {
+        if (price > 0) {
+            knownFillPrices.put(itemName, price);
+        }
+    }
+    
     /**
      * Calculate offer price based on strategy and attempt number
      */
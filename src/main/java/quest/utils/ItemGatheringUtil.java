@@ -11,6 +11,8 @@ import org.dreambot.api.methods.map.Tile;
 import org.dreambot.api.utilities.Logger;
 import org.dreambot.api.utilities.Sleep;
 import org.dreambot.api.wrappers.interactive.GameObject;
+import quest.metrics.QuestMetrics;
+import quest.metrics.jfr.QuestJfr;
 import quest.utils.GrandExchangeUtil.ItemRequest;
 import quest.utils.GrandExchangeUtil.PriceStrategy;
 
@@ -189,7 +191,20 @@ public class ItemGatheringUtil {
      */
     private static int withdrawFromBank(String itemName, int quantity) {
         Logger.log("Withdrawing " + quantity + "x " + itemName + " from bank");
-        
+        QuestMetrics.getInstance().increment(QuestMetrics.BANK_SESSIONS);
+        Object bankEvent = QuestJfr.bankSessionBegin("withdraw " + itemName);
+        QuestMetrics.getInstance().beginPhase(QuestMetrics.Phase.BANKING);
+        int withdrawn = 0;
+        try {
+            withdrawn = withdrawFromOpenBank(itemName, quantity);
+            return withdrawn;
+        } finally {
+            QuestMetrics.getInstance().endPhase();
+            QuestJfr.bankSessionEnd(bankEvent, Bank.isOpen(), withdrawn);
+        }
+    }
+    
+    private static int withdrawFromOpenBank(String itemName, int quantity) {
         // Use Bank.open() which automatically navigates to the closest bank
         if (!Bank.open()) {
             Logger.log("Failed to open bank - Bank.open() handles navigation automatically");
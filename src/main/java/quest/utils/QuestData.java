@@ -4,21 +4,23 @@ import quest.utils.DialogueUtil.DialogueStep;
 import quest.utils.GrandExchangeUtil.ItemRequest;
 import quest.utils.GrandExchangeUtil.PriceStrategy;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Quest Data Storage System
  * Centralized storage for quest-specific dialogue sequences and item requirements
+ * Shared by every QuestEngine in the JVM, so the maps are concurrent
  */
 public class QuestData {
     
     // Storage for quest dialogue sequences
-    private static final Map<String, Map<String, List<DialogueStep>>> questDialogues = new HashMap<>();
+    private static final Map<String, Map<String, List<DialogueStep>>> questDialogues = new ConcurrentHashMap<>();
     
     // Storage for quest item requirements
-    private static final Map<String, List<ItemRequest>> questItems = new HashMap<>();
+    private static final Map<String, List<ItemRequest>> questItems = new ConcurrentHashMap<>();
     
     // Storage for quest NPCs and their locations
-    private static final Map<String, Map<String, NPCInfo>> questNPCs = new HashMap<>();
+    private static final Map<String, Map<String, NPCInfo>> questNPCs = new ConcurrentHashMap<>();
     
     static {
         initializeQuestData();
@@ -41,7 +43,7 @@ public class QuestData {
         String questName = "Cook's Assistant";
         
         // Dialogue sequences
-        Map<String, List<DialogueStep>> dialogues = new HashMap<>();
+        Map<String, List<DialogueStep>> dialogues = new ConcurrentHashMap<>();
         
         // Starting dialogue with Cook
         dialogues.put("start_quest", Arrays.asList(
@@ -69,7 +71,7 @@ public class QuestData {
         questItems.put(questName, items);
         
         // NPCs
-        Map<String, NPCInfo> npcs = new HashMap<>();
+        Map<String, NPCInfo> npcs = new ConcurrentHashMap<>();
         npcs.put("Cook", new NPCInfo("Cook", 3207, 3214, 0, "Lumbridge Castle kitchen"));
         questNPCs.put(questName, npcs);
     }
@@ -81,7 +83,7 @@ public class QuestData {
         String questName = "Imp Catcher";
         
         // Dialogue sequences
-        Map<String, List<DialogueStep>> dialogues = new HashMap<>();
+        Map<String, List<DialogueStep>> dialogues = new ConcurrentHashMap<>();
         
         // Starting dialogue with Wizard Mizgog
         dialogues.put("start_quest", Arrays.asList(
@@ -112,7 +114,7 @@ public class QuestData {
         questItems.put(questName, items);
         
         // NPCs
-        Map<String, NPCInfo> npcs = new HashMap<>();
+        Map<String, NPCInfo> npcs = new ConcurrentHashMap<>();
         npcs.put("Wizard Mizgog", new NPCInfo("Wizard Mizgog", 3104, 3164, 1, "Wizards' Tower"));
         questNPCs.put(questName, npcs);
     }
@@ -124,7 +126,7 @@ public class QuestData {
         String questName = "Vampire Slayer";
         
         // Dialogue sequences
-        Map<String, List<DialogueStep>> dialogues = new HashMap<>();
+        Map<String, List<DialogueStep>> dialogues = new ConcurrentHashMap<>();
         
         // Starting dialogue with Morgan
         dialogues.put("start_quest", Arrays.asList(
@@ -151,7 +153,7 @@ public class QuestData {
         questItems.put(questName, items);
         
         // NPCs
-        Map<String, NPCInfo> npcs = new HashMap<>();
+        Map<String, NPCInfo> npcs = new ConcurrentHashMap<>();
         npcs.put("Morgan", new NPCInfo("Morgan", 3097, 3266, 0, "Draynor Village"));
         npcs.put("Dr. Harlow", new NPCInfo("Dr. Harlow", 3225, 3245, 0, "Blue Moon Inn, Varrock"));
         questNPCs.put(questName, npcs);
@@ -208,7 +210,7 @@ public class QuestData {
      * Add new dialogue sequence for a quest
      */
     public static void addDialogueSequence(String questName, String scenario, List<DialogueStep> steps) {
-        questDialogues.computeIfAbsent(questName, k -> new HashMap<>()).put(scenario, steps);
+        questDialogues.computeIfAbsent(questName, k -> new ConcurrentHashMap<>()).put(scenario, steps);
     }
     
     /**
@@ -222,7 +224,7 @@ public class QuestData {
      * Add NPC information for a quest
      */
     public static void addQuestNPC(String questName, String npcName, NPCInfo npcInfo) {
-        questNPCs.computeIfAbsent(questName, k -> new HashMap<>()).put(npcName, npcInfo);
+        questNPCs.computeIfAbsent(questName, k -> new ConcurrentHashMap<>()).put(npcName, npcInfo);
     }
     
     /**
@@ -8,6 +8,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import quest.core.QuestEngine;
 
 // DreamBot imports for optional inventory snapshots
 import org.dreambot.api.methods.container.impl.Inventory;
@@ -19,20 +20,19 @@ import org.dreambot.api.wrappers.items.Item;
  */
 public class QuestLogger {
     
-    private static QuestLogger instance;
     private BufferedWriter currentLogWriter;
     private String currentLogFile;
     private String currentQuestName;
     
-    private QuestLogger() {
-        // Private constructor for singleton
+    public QuestLogger() {
+        // One per QuestEngine
     }
     
+    /**
+     * Instance for the current engine (see QuestEngine.current())
+     */
     public static QuestLogger getInstance() {
-        if (instance == null) {
-            instance = new QuestLogger();
-        }
-        return instance;
+        return QuestEngine.current().getLogger();
     }
     
     /**
@@ -0,0 +1,77 @@
+package quest.utils;
+
+import org.dreambot.api.utilities.Logger;
+import quest.core.QuestEngine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Quest Settings - framework switches read from quest_data/settings.properties.
+ * Any key can be overridden on the client's command line with -Dquest.<key>=value,
+ * e.g. -Dquest.jfr.enabled=true, and per engine by the settings a QuestEngine was created with.
+ * Values are read once, on first use.
+ */
+public class QuestSettings {
+
+    public static final String SETTINGS_FILE = "quest_data/settings.properties";
+    private static final String SYSTEM_PREFIX = "quest.";
+
+    private static Properties properties;
+
+    private QuestSettings() {
+        // Static utility
+    }
+
+    private static synchronized Properties load() {
+        if (properties == null) {
+            properties = new Properties();
+            File file = new File(SETTINGS_FILE);
+            if (file.isFile()) {
+                try (InputStream in = new FileInputStream(file)) {
+                    properties.load(in);
+                } catch (IOException e) {
+                    Logger.log("[Settings] Could not read " + SETTINGS_FILE + ": " + e.getMessage());
+                }
+            }
+        }
+        return properties;
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = QuestEngine.current().getSetting(key);
+        if (value == null) {
+            value = System.getProperty(SYSTEM_PREFIX + key);
+        }
+        if (value == null) {
+            value = load().getProperty(key);
+        }
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    /**
+     * Name this client reports to the metrics endpoint and the fleet coordinator ("instance.name", else the pid)
+     */
+    public static String getInstanceName() {
+        return getString("instance.name", String.valueOf(ProcessHandle.current().pid()));
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            Logger.log("[Settings] " + key + " is not a number: " + value);
+            return defaultValue;
+        }
+    }
+}
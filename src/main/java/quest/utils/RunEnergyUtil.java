@@ -5,35 +5,29 @@ import org.dreambot.api.methods.container.impl.bank.Bank;
 import org.dreambot.api.methods.walking.impl.Walking;
 import org.dreambot.api.utilities.Sleep;
 import org.dreambot.api.wrappers.items.Item;
+import quest.travel.RunEnergyPlanner;
+import quest.metrics.QuestMetrics;
+import quest.metrics.jfr.QuestJfr;
 
 /**
  * Utility class for managing run energy and energy potions.
+ * The decisions (when to run, when to drink) are made by RunEnergyPlanner; this class performs them.
  */
 public class RunEnergyUtil {
 
     private static final String ENERGY_POTION = "Energy potion";
+    private static final String SUPER_ENERGY = "Super energy";
     private static final String EMPTY_VIAL = "Empty vial";
-    private static final int DRINK_THRESHOLD = 20; // Drink when below 20%
-    private static final int RUN_ON_THRESHOLD = 30; // Enable run when above 30%
+    private static final int ENERGY_PER_DOSE = 10;
+    private static final int SUPER_ENERGY_PER_DOSE = 20;
 
     /**
-     * Manages run energy by drinking potions when low and enabling run when high.
-     * Call this at the very start of onLoop().
+     * Manages run energy against the upcoming walk (see RunEnergyPlanner).
+     * Safe to call from anywhere - it decides at most once per game tick.
      */
     public static void handleRunEnergy() {
         try {
-            int energy = (int) Walking.getRunEnergy();
-
-            if (energy < DRINK_THRESHOLD) {
-                // Drink highest-dose Energy potion available
-                if (hasEnergyPotions()) {
-                    drinkHighestDoseEnergyPotion();
-                }
-            } else if (energy > RUN_ON_THRESHOLD && !Walking.isRunEnabled()) {
-                // Enable run if we have enough energy
-                Walking.toggleRun();
-                Sleep.sleepUntil(Walking::isRunEnabled, 1200);
-            }
+            RunEnergyPlanner.getInstance().tick();
         } catch (Throwable t) {
             // Be silent in production; avoid breaking the main loop due to energy handling
         }
@@ -45,7 +39,7 @@ public class RunEnergyUtil {
      */
     public static boolean manageRunEnergy() {
         int before = (int) Walking.getRunEnergy();
-        boolean hadPotion = Inventory.contains(item -> item != null && item.getName() != null && item.getName().startsWith("Energy potion("));
+        boolean hadPotion = hasEnergyPotions();
         handleRunEnergy();
         // If we had a potion and energy increased or vial appeared, assume we drank
         boolean drank = hadPotion && ((int) Walking.getRunEnergy() > before);
@@ -56,40 +50,64 @@ public class RunEnergyUtil {
      * Convenience: do we have any energy potions right now?
      */
     public static boolean hasEnergyPotions() {
-        return Inventory.contains(item -> item != null && item.getName() != null && item.getName().startsWith("Energy potion("));
+        return Inventory.contains(item -> item != null && item.getName() != null
+            && (item.getName().startsWith(ENERGY_POTION + "(") || item.getName().startsWith(SUPER_ENERGY + "(")));
+    }
+
+    public static void enableRun() {
+        if (!Walking.isRunEnabled()) {
+            Walking.toggleRun();
+            Sleep.sleepUntil(Walking::isRunEnabled, 1200);
+        }
     }
 
     /**
-     * Drink the highest-dose Energy potion available: (4) -> (3) -> (2) -> (1)
-     * Uses precise item names to avoid misclicks and waits until energy increases
+     * Pick the dose to drink: the one that covers most of the shortfall without restoring past 100%.
+     * Ties go to the lowest-dose potion so partial potions are finished (and their slots freed) first.
+     * @param neededEnergy energy the upcoming walk still lacks
+     * @param room energy that can be restored before hitting 100%
+     * @return exact item name, or null if nothing in the inventory fits
      */
-    private static boolean drinkHighestDoseEnergyPotion() {
-        String[] doses = new String[] {
-            ENERGY_POTION + "(4)",
-            ENERGY_POTION + "(3)",
-            ENERGY_POTION + "(2)",
-            ENERGY_POTION + "(1)"
-        };
-
-        int beforeEnergy = (int) Walking.getRunEnergy();
-        for (String name : doses) {
-            org.dreambot.api.wrappers.items.Item item = Inventory.get(name);
-            if (item != null) {
-                int beforeCount = Inventory.count(name);
-                if (item.interact("Drink")) {
-                    boolean ok = Sleep.sleepUntil(
-                        () -> (int) Walking.getRunEnergy() > beforeEnergy || Inventory.count(name) < beforeCount || Inventory.contains(EMPTY_VIAL),
-                        3000
-                    );
-                    if (ok) {
-                        dropEmptyVial();
-                        return true;
-                    }
+    public static String choosePotion(double neededEnergy, double room) {
+        String best = null;
+        double bestCovered = 0;
+        int[] perDose = {SUPER_ENERGY_PER_DOSE, ENERGY_PER_DOSE};
+        String[] names = {SUPER_ENERGY, ENERGY_POTION};
+        for (int p = 0; p < names.length; p++) {
+            if (perDose[p] > room) continue;
+            double covered = Math.min(perDose[p], neededEnergy);
+            for (int dose = 1; dose <= 4; dose++) {
+                String name = names[p] + "(" + dose + ")";
+                if (covered > bestCovered && Inventory.contains(name)) {
+                    best = name;
+                    bestCovered = covered;
                 }
-                // If interaction failed, try next available dose
             }
         }
-        return false;
+        return best;
+    }
+
+    /**
+     * Drink one dose of an exact potion name and wait until it has taken effect
+     */
+    public static boolean drink(String name) {
+        Item item = Inventory.get(name);
+        if (item == null) {
+            return false;
+        }
+        int beforeEnergy = (int) Walking.getRunEnergy();
+        int beforeCount = Inventory.count(name);
+        if (!item.interact("Drink")) {
+            return false;
+        }
+        boolean ok = Sleep.sleepUntil(
+            () -> (int) Walking.getRunEnergy() > beforeEnergy || Inventory.count(name) < beforeCount || Inventory.contains(EMPTY_VIAL),
+            3000
+        );
+        if (ok) {
+            dropEmptyVial();
+        }
+        return ok;
     }
 
     /**
@@ -98,9 +116,21 @@ public class RunEnergyUtil {
     public static boolean restockEnergyPotions() {
         if (hasEnergyPotions()) return true;
 
+        QuestMetrics.getInstance().increment(QuestMetrics.BANK_SESSIONS);
+        QuestMetrics.getInstance().beginPhase(QuestMetrics.Phase.BANKING);
+        try {
+            return withdrawEnergyPotions();
+        } finally {
+            QuestMetrics.getInstance().endPhase();
+        }
+    }
+
+    private static boolean withdrawEnergyPotions() {
+        Object bankEvent = QuestJfr.bankSessionBegin("energy potions");
         if (!Bank.isOpen()) {
             Bank.open();
             if (!Sleep.sleepUntil(Bank::isOpen, 5000)) {
+                QuestJfr.bankSessionEnd(bankEvent, false, 0);
                 return false;
             }
         }
@@ -121,6 +151,7 @@ public class RunEnergyUtil {
             Sleep.sleep(600, 1000);
         }
         Bank.close();
+        QuestJfr.bankSessionEnd(bankEvent, true, withdrew ? 1 : 0);
         return withdrew;
     }
 
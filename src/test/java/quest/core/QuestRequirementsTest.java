@@ -0,0 +1,49 @@
+package quest.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QuestRequirementsTest {
+
+    private static List<String> names(List<QuestRequirements.Requirement> requirements) {
+        List<String> names = new ArrayList<>();
+        for (QuestRequirements.Requirement requirement : requirements) {
+            names.add(requirement.getItemName());
+        }
+        return names;
+    }
+
+    @Test
+    public void parsesQuantitiesAndHandInStage() {
+        QuestRequirements.Requirement bones = QuestRequirements.parseRequirement("Bones x25", "DEMON_SLAYER");
+
+        assertEquals("Bones", bones.getItemName());
+        assertEquals(25, bones.getQuantity());
+        assertEquals(2, bones.getStage());
+        assertEquals(QuestRequirements.STAGE_END, QuestRequirements.parseRequirement("Bones x25", null).getStage());
+    }
+
+    @Test
+    public void handedInItemsAreNotAskedForAgain() {
+        List<String> atStart = names(QuestRequirements.getRequirements("DEMON_SLAYER", QuestRequirements.STAGE_START));
+        List<String> afterKeys = names(QuestRequirements.getRequirements("DEMON_SLAYER", 3));
+
+        assertTrue(atStart.contains("Bones"));
+        assertTrue(atStart.contains("Bucket of water"));
+        assertFalse(afterKeys.contains("Bones"));
+        assertFalse(afterKeys.contains("Bucket of water"));
+    }
+
+    @Test
+    public void reusableToolsStayUntilTheEnd() {
+        List<String> afterHarlow = names(QuestRequirements.getRequirements("VAMPIRE_SLAYER", 2));
+
+        assertTrue(afterHarlow.contains("Hammer"));
+        assertTrue(afterHarlow.contains("Garlic"));
+        assertFalse(afterHarlow.contains("Beer"));
+    }
+}
@@ -0,0 +1,137 @@
+package quest.definition;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class DefinitionCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File directory;
+    private File cacheFile;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = temp.newFolder("quests");
+        cacheFile = new File(temp.getRoot(), "quests.cache");
+    }
+
+    private static String definition(String id, String npc) {
+        return "{\"format\": 1, \"id\": \"" + id + "\", \"name\": \"" + id + "\","
+            + " \"progress\": {\"type\": \"varbit\", \"id\": 1234, \"complete\": 2},"
+            + " \"stages\": [{\"min\": 0, \"max\": 1, \"steps\": ["
+            + "{\"type\": \"talk\", \"npc\": \"" + npc + "\", \"tile\": [3200, 3200, 0]}]}]}";
+    }
+
+    private File write(String name, String json) throws IOException {
+        File file = new File(directory, name);
+        Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private DefinitionCache.LoadResult load() {
+        return DefinitionCache.load(directory, cacheFile);
+    }
+
+    private static String npc(DefinitionCache.LoadResult result, String file) {
+        return result.getDefinitions().get(file).getStages().get(0).getSteps().get(0).getSubject();
+    }
+
+    @Test
+    public void unchangedFilesComeFromTheCache() throws IOException {
+        write("a.json", definition("QUEST_A", "Hans"));
+        write("b.json", definition("QUEST_B", "Bob"));
+
+        DefinitionCache.LoadResult first = load();
+        assertEquals(2, first.getParsed());
+        assertEquals(0, first.getCached());
+        assertTrue(cacheFile.isFile());
+
+        DefinitionCache.LoadResult second = load();
+        assertEquals(0, second.getParsed());
+        assertEquals(2, second.getCached());
+        assertEquals("Hans", npc(second, "a.json"));
+    }
+
+    @Test
+    public void editedFileIsParsedAgainWhateverItsTimestamp() throws IOException {
+        File file = write("a.json", definition("QUEST_A", "Hans"));
+        long modified = file.lastModified();
+        load();
+
+        write("a.json", definition("QUEST_A", "Duke Horacio"));
+        assertTrue(file.setLastModified(modified));
+        DefinitionCache.LoadResult result = load();
+
+        assertEquals(1, result.getParsed());
+        assertEquals(0, result.getCached());
+        assertEquals("Duke Horacio", npc(result, "a.json"));
+    }
+
+    @Test
+    public void touchedButUnchangedFileStaysCached() throws IOException {
+        File file = write("a.json", definition("QUEST_A", "Hans"));
+        load();
+
+        assertTrue(file.setLastModified(file.lastModified() + 60000));
+        DefinitionCache.LoadResult result = load();
+
+        assertEquals(0, result.getParsed());
+        assertEquals(1, result.getCached());
+    }
+
+    @Test
+    public void staleEntriesAreDroppedFromTheCache() throws IOException {
+        write("a.json", definition("QUEST_A", "Hans"));
+        load();
+        write("a.json", definition("QUEST_A", "Bob"));
+        load();
+
+        // Back to the first version: its entry went with the edit, so it is parsed again
+        write("a.json", definition("QUEST_A", "Hans"));
+        DefinitionCache.LoadResult result = load();
+        assertEquals(1, result.getParsed());
+        assertEquals("Hans", npc(result, "a.json"));
+    }
+
+    @Test
+    public void hashIsOfTheText() {
+        assertEquals(DefinitionCache.sha256("abc"), DefinitionCache.sha256("abc"));
+        assertNotEquals(DefinitionCache.sha256("abc"), DefinitionCache.sha256("abc "));
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", DefinitionCache.sha256("abc"));
+    }
+
+    @Test
+    public void corruptCacheIsRebuilt() throws IOException {
+        write("a.json", definition("QUEST_A", "Hans"));
+        load();
+        Files.write(cacheFile.toPath(), new byte[] {0x51, 0x44, 0x45, 0x46, 0, 0, 0, 1, 0, 0});
+
+        DefinitionCache.LoadResult result = load();
+        assertEquals(1, result.getParsed());
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(1, load().getCached());
+    }
+
+    @Test
+    public void invalidAndDuplicateFilesAreReportedAndLeftOut() throws IOException {
+        write("a.json", definition("QUEST_A", "Hans"));
+        write("b.json", definition("QUEST_A", "Bob"));
+        write("c.json", definition("QUEST_C", "Hans").replace("\"talk\"", "\"tlak\""));
+
+        DefinitionCache.LoadResult result = load();
+        assertEquals(1, result.getDefinitions().size());
+        assertTrue(result.getErrors().get("b.json").contains("already defined by a.json"));
+        assertTrue(result.getErrors().get("c.json").contains("tlak"));
+    }
+}
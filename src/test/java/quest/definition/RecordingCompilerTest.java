@@ -0,0 +1,61 @@
+package quest.definition;
+
+import org.junit.Test;
+import quest.recording.RecordingIndex;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RecordingCompilerTest {
+
+    // Fixture shared with ReplayHarnessTest: one full run of The Restless Ghost
+    private static RecordingIndex.FileEntry recording() throws Exception {
+        return RecordingIndex.readFile(new File(RecordingCompilerTest.class.getResource("/replay/quest_logs/restlesshost.log").toURI()));
+    }
+
+    private static QuestDefinition compile(RecordingIndex.FileEntry recording, String var) throws Exception {
+        RecordingCompiler compiler = new RecordingCompiler(var);
+        compiler.add(recording);
+        StringWriter out = new StringWriter();
+        compiler.write(out, "THE_RESTLESS_GHOST", "The Restless Ghost");
+        return QuestDefinition.parse(out.toString(), "compiled", null);
+    }
+
+    @Test
+    public void detectsTheQuestVariable() throws Exception {
+        assertEquals("config 107", RecordingCompiler.detectVar(Collections.singletonList(recording())));
+    }
+
+    @Test
+    public void compilesOneStagePerTransition() throws Exception {
+        QuestDefinition definition = compile(recording(), "config 107");
+
+        assertEquals("config 107", definition.getVarKey());
+        assertEquals(5, definition.getComplete());
+        List<QuestDefinition.Stage> stages = definition.getStages();
+        assertEquals(5, stages.size());
+        for (int i = 0; i < stages.size(); i++) {
+            assertEquals(i, stages.get(i).getMin());
+            assertEquals(i, stages.get(i).getMax());
+        }
+
+        QuestDefinition.Step first = stages.get(0).getSteps().get(0);
+        assertEquals(QuestDefinition.StepType.TALK, first.getType());
+        assertEquals("Father Aereck", first.getSubject());
+        assertEquals(List.of("I'm looking for a quest!"), first.getOptions());
+        assertEquals(3242, first.getX());
+    }
+
+    @Test
+    public void leavesStartingInventoryAndWornGearOutOfTheItems() throws Exception {
+        List<String> items = compile(recording(), "config 107").getItemNames();
+
+        assertFalse(items.contains("Ghostspeak amulet")); // handed over by Father Urhney, then only worn
+        assertFalse(items.contains("Coins"));
+        assertFalse(items.contains("Energy potion(4)"));
+    }
+}
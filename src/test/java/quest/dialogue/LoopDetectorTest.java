@@ -0,0 +1,79 @@
+package quest.dialogue;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LoopDetectorTest {
+
+    @Test
+    public void screenComingBackUnchangedIsALoop() {
+        LoopDetector loops = new LoopDetector(3);
+
+        assertFalse(loops.visit("menu", 0));
+        assertFalse(loops.visit("menu", 0));
+        assertFalse(loops.visit("menu", 0));
+        assertTrue(loops.visit("menu", 0));
+        assertEquals(3, loops.getRepeats("menu"));
+    }
+
+    @Test
+    public void questionMenuWorkedThroughWithOnceRulesIsNotALoop() {
+        // Seven once() questions, then "leave" - the menu is shown eight times
+        LoopDetector loops = new LoopDetector(3);
+        for (int spent = 0; spent <= 7; spent++) {
+            assertFalse("visit " + (spent + 1), loops.visit("guildmaster", spent));
+        }
+        assertEquals(0, loops.getRepeats("guildmaster"));
+    }
+
+    @Test
+    public void menuThatStopsUsingUpRulesStillLoops() {
+        LoopDetector loops = new LoopDetector(2);
+
+        assertFalse(loops.visit("menu", 0));
+        assertFalse(loops.visit("menu", 1));
+        assertFalse(loops.visit("menu", 2));
+        assertFalse(loops.visit("menu", 2));
+        assertTrue(loops.visit("menu", 2));
+    }
+
+    @Test
+    public void screensAreCountedSeparately() {
+        LoopDetector loops = new LoopDetector(1);
+
+        assertFalse(loops.visit("a", 0));
+        assertFalse(loops.visit("b", 0));
+        assertTrue(loops.visit("a", 0));
+        assertEquals(0, loops.getRepeats("b"));
+    }
+
+    @Test
+    public void guildmasterScriptOutlastsTheDefaultLimit() {
+        DialogueScript script = DialogueScript.builder("Guildmaster - info")
+            .once("How can I find the route to Crandor?")
+            .once("Where is Melzar's map piece?")
+            .once("Where is Thalzar's map piece?")
+            .once("Where is Lozar's map piece?")
+            .once("Where can I find the right ship?")
+            .option("Okay, I'll get going!")
+            .build();
+        String[] menu = {"How can I find the route to Crandor?", "Where is Melzar's map piece?",
+            "Where is Thalzar's map piece?", "Where is Lozar's map piece?", "Where can I find the right ship?",
+            "Okay, I'll get going!"};
+        LoopDetector loops = new LoopDetector(script.getMaxRepeats());
+        Set<Integer> spent = new HashSet<>();
+
+        OptionMatcher.Match match;
+        do {
+            assertFalse(loops.visit("menu", spent.size()));
+            match = script.getMatcher().match(menu, spent);
+            if (match.getRule().isOnce()) spent.add(match.getRule().getPriority());
+        } while (match.getRule().isOnce());
+        assertEquals("Okay, I'll get going!", match.getOption());
+        assertEquals(5, spent.size());
+    }
+}
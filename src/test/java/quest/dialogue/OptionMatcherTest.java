@@ -0,0 +1,80 @@
+package quest.dialogue;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class OptionMatcherTest {
+
+    private static final Set<Integer> NONE_SPENT = Collections.emptySet();
+
+    private static OptionMatcher.Match match(DialogueScript script, String... options) {
+        return script.getMatcher().match(options, NONE_SPENT);
+    }
+
+    @Test
+    public void normalizeStripsTagsCaseSpacesAndTrailingDots() {
+        assertEquals("yes please", OptionMatcher.normalize("<col=0000ff>Yes   please...</col>"));
+        assertEquals("ok", OptionMatcher.normalize("OK. "));
+    }
+
+    @Test
+    public void exactMatchIgnoresFormatting() {
+        DialogueScript script = DialogueScript.builder("t").exact("I'm looking for a quest!").build();
+        OptionMatcher.Match match = match(script, "Nothing.", "<col=ff0000>I'M LOOKING  for a quest!</col>");
+
+        assertNotNull(match);
+        assertEquals(1, match.getIndex());
+        assertEquals(OptionMatcher.Kind.EXACT, match.getRule().getKind());
+    }
+
+    @Test
+    public void earlierScriptEntriesWinWhateverTheOptionOrder() {
+        DialogueScript script = DialogueScript.builder("t").option("Yes").option("No").build();
+
+        assertEquals(1, match(script, "No", "Yes").getIndex());
+    }
+
+    @Test
+    public void exactBeatsContainsForTheSameEntry() {
+        DialogueScript script = DialogueScript.builder("t").option("Yes").build();
+        OptionMatcher.Match match = match(script, "Yes, but later", "Yes.");
+
+        assertEquals(1, match.getIndex());
+        assertEquals(OptionMatcher.Kind.EXACT, match.getRule().getKind());
+    }
+
+    @Test
+    public void prefixAndRegexRules() {
+        DialogueScript script = DialogueScript.builder("t").prefix("Can I").regex("^\\d+ coins$").build();
+
+        assertEquals(2, match(script, "Bye", "500 coins", "Can I have a go?").getIndex());
+        assertEquals(0, match(script, "1000 coins", "Bye").getIndex());
+        assertNull(match(script, "I can", "coins"));
+    }
+
+    @Test
+    public void spentOnceRulesAreSkipped() {
+        DialogueScript script = DialogueScript.builder("t").once("First question").option("Leave").build();
+        String[] options = {"Leave", "First question"};
+        OptionMatcher.Match first = script.getMatcher().match(options, NONE_SPENT);
+        assertEquals(1, first.getIndex());
+        assertTrue(first.getRule().isOnce());
+
+        Set<Integer> spent = new HashSet<>();
+        spent.add(first.getRule().getPriority());
+        assertEquals(0, script.getMatcher().match(options, spent).getIndex());
+    }
+
+    @Test
+    public void nothingMatches() {
+        DialogueScript script = DialogueScript.builder("t").option("Yes").build();
+
+        assertNull(match(script, "Maybe", "Bye"));
+        assertNull(script.getMatcher().match(null, NONE_SPENT));
+    }
+}
@@ -0,0 +1,143 @@
+package quest.fleet;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class FleetCoordinatorTest {
+
+    private static final List<String> DEFAULT_QUEUE = List.of("COOKS_ASSISTANT", "THE_RESTLESS_GHOST");
+    private static final String DIALOGUE_KEY = FleetProtocol.KIND_DIALOGUE + "|stub-a\tCook";
+    private static final long TIMEOUT_MS = 5000;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private int port;
+    private File store;
+    private FleetCoordinator coordinator;
+    private final List<FleetStubClient> stubs = new ArrayList<>();
+
+    @Before
+    public void startCoordinator() throws IOException {
+        store = new File(temp.getRoot(), "fleet_learned.jsonl");
+        restartCoordinator();
+    }
+
+    /**
+     * A coordinator on a fresh port - reusing the old one can hit a port still held by the OS
+     */
+    private void restartCoordinator() throws IOException {
+        if (coordinator != null) {
+            coordinator.stop();
+        }
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        coordinator = new FleetCoordinator(port, DEFAULT_QUEUE, true, store);
+        coordinator.start();
+    }
+
+    @After
+    public void stopAll() {
+        for (FleetStubClient stub : stubs) {
+            stub.getConnection().close();
+        }
+        coordinator.stop();
+    }
+
+    private FleetStubClient connect(String instance) throws InterruptedException {
+        FleetStubClient stub = new FleetStubClient(instance, port, stubs.size() + 1);
+        stubs.add(stub);
+        stub.getConnection().start();
+        // The welcome and the default queue arrive right after the hello
+        await(instance + " welcomed", stub, () -> !stub.getQueue().isEmpty());
+        return stub;
+    }
+
+    private void shareDialogue(FleetStubClient from) {
+        from.getConnection().send(FleetProtocol.learned(FleetProtocol.KIND_DIALOGUE, from.getConnection().getInstance() + "\tCook",
+            new JSONObject().put("npc", "Cook").put("stage", "config 29=0")
+                .put("path", new JSONArray().put("[what's wrong?, can you make me a cake?]"))
+                .put("choice", "What's wrong?").put("seen", 1).put("advanced", 1).put("delayMs", 1200),
+            from.getConnection().getInstance()));
+    }
+
+    /**
+     * Let the stubs handle what arrived until the condition holds
+     */
+    private void await(String what, FleetStubClient stub, BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + TIMEOUT_MS;
+        while (System.currentTimeMillis() < end) {
+            stub.receive();
+            if (condition.getAsBoolean()) return;
+            Thread.sleep(20);
+        }
+        fail("timed out waiting for " + what);
+    }
+
+    @Test
+    public void learnedEntryReachesEveryOtherPeer() throws Exception {
+        FleetStubClient a = connect("stub-a");
+        FleetStubClient b = connect("stub-b");
+        FleetStubClient c = connect("stub-c");
+
+        shareDialogue(a);
+
+        await("stub-b learned", b, () -> b.getLearnedKeys().contains(DIALOGUE_KEY));
+        await("stub-c learned", c, () -> c.getLearnedKeys().contains(DIALOGUE_KEY));
+        a.receive();
+        assertFalse("sent back to its origin", a.getLearnedKeys().contains(DIALOGUE_KEY));
+    }
+
+    @Test
+    public void learnedEntriesAreReplayedOnConnect() throws Exception {
+        FleetStubClient a = connect("stub-a");
+        FleetStubClient b = connect("stub-b");
+        shareDialogue(a);
+        await("stub-b learned", b, () -> b.getLearnedKeys().contains(DIALOGUE_KEY));
+
+        FleetStubClient late = connect("stub-late");
+        assertTrue(late.getLearnedKeys().contains(DIALOGUE_KEY));
+
+        // And after a coordinator restart, from the store
+        restartCoordinator();
+        FleetStubClient afterRestart = connect("stub-restart");
+        assertEquals(List.of(DIALOGUE_KEY), afterRestart.getLearnedKeys());
+    }
+
+    @Test
+    public void commandsChangePeerState() throws Exception {
+        FleetStubClient a = connect("stub-a");
+        FleetStubClient b = connect("stub-b");
+        assertEquals(DEFAULT_QUEUE, a.getQueue());
+        assertEquals("EXECUTING", a.getState());
+
+        assertEquals(2, coordinator.command("all", FleetProtocol.command(FleetProtocol.PAUSE)));
+        await("stub-a paused", a, () -> "PAUSED".equals(a.getState()));
+        await("stub-b paused", b, () -> "PAUSED".equals(b.getState()));
+
+        assertEquals(1, coordinator.command("stub-b", FleetProtocol.assign(List.of("VAMPIRE_SLAYER"), false)));
+        await("stub-b assigned", b, () -> List.of("VAMPIRE_SLAYER").equals(b.getQueue()));
+        assertEquals("EXECUTING", b.getState());
+        a.receive();
+        assertEquals("PAUSED", a.getState());
+        assertEquals(DEFAULT_QUEUE, a.getQueue());
+
+        coordinator.command("stub-a", FleetProtocol.command(FleetProtocol.RESUME));
+        await("stub-a resumed", a, () -> "EXECUTING".equals(a.getState()));
+    }
+}
@@ -0,0 +1,115 @@
+package quest.metrics;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        for (long v = 0; v < 8; v++) {
+            assertEquals(v, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(v)));
+        }
+    }
+
+    @Test
+    public void bucketsCoverEveryValueWithinRelativeError() {
+        int previous = -1;
+        for (long v = 0; v < 1 << 20; v++) {
+            int index = LatencyHistogram.bucketIndex(v);
+            assertTrue("buckets go backwards at " + v, index >= previous);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(v + " above its bucket bound " + upper, v <= upper);
+            assertTrue(v + " reported as " + upper, upper - v <= v / 8);
+            previous = index;
+        }
+    }
+
+    @Test
+    public void hugeValuesLandInTheLastBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1L << 40);
+        assertEquals(1L << 40, histogram.getPercentile(100));
+        assertEquals(1L << 40, histogram.getMax());
+    }
+
+    @Test
+    public void negativeValuesCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getSum());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void percentilesNeverExceedTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        assertEquals(1000, histogram.getPercentile(50));
+        assertEquals(1000, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void percentilesStayWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int v = 1; v <= 1000; v++) {
+            histogram.record(v);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getSum());
+        assertEquals(500.5, histogram.getMean(), 1e-9);
+        assertWithin(500, histogram.getPercentile(50));
+        assertWithin(900, histogram.getPercentile(90));
+        assertWithin(990, histogram.getPercentile(99));
+        assertEquals(1000, histogram.getPercentile(100));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual, actual >= expected && actual <= expected + expected / 8);
+    }
+
+    @Test
+    public void emptyAndResetHistogramsReportZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getMean(), 0);
+
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void concurrentRecordingLosesNothing() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        long[] maxima = new long[4];
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            pool.execute(() -> {
+                Random random = new Random(thread);
+                for (int i = 0; i < 10000; i++) {
+                    long v = random.nextInt(5000);
+                    maxima[thread] = Math.max(maxima[thread], v);
+                    histogram.record(v);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(40000, histogram.getCount());
+        long max = 0;
+        for (long m : maxima) max = Math.max(max, m);
+        assertEquals(max, histogram.getMax());
+    }
+}
@@ -0,0 +1,107 @@
+package quest.recording;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RecordingJournalTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static String repeat(String text, int times) {
+        return String.join("", Collections.nCopies(times, text));
+    }
+
+    @Test
+    public void recordsReadBackAsWritten() throws Exception {
+        // Bigger than the 64KB write buffer, and with multi-byte characters
+        String large = repeat("Bucket of milk é ", 10000);
+        RecordingJournal journal = RecordingJournal.create(temp.getRoot(), "cook", "Cook's Assistant", "Tester", true);
+        journal.headerField("Starting Location", "Tile(3208, 3220, 2)");
+        journal.step(1, "Talk to the Cook", "new TalkToNPCNode(\"Cook\")");
+        journal.detail("DIALOGUE_OPTIONS", "[What's wrong?, Can you make me a cake?]");
+        journal.detail("INVENTORY", large);
+        journal.action("DIALOGUE_SELECTION", "What's wrong?");
+        journal.detail("DIALOGUE_OPTIONS", "[I'll get right on it.]");
+        journal.console("done");
+        journal.close();
+
+        List<String> read = new ArrayList<>();
+        try (RecordingJournalReader reader = new RecordingJournalReader(journal.getFile())) {
+            assertEquals("Cook's Assistant", reader.getQuest());
+            assertEquals("Tester", reader.getPlayer());
+            RecordingJournalReader.Cursor cursor = reader.cursor();
+            while (cursor.next()) {
+                if (cursor.getKind() == RecordingJournal.DEFINE) continue;
+                read.add(cursor.getKind() + " " + cursor.getNumber() + " " + cursor.getCategory() + " "
+                    + cursor.getMessage() + " " + cursor.getScript());
+            }
+        }
+
+        assertEquals(List.of(
+            RecordingJournal.HEADER_FIELD + " 0 Starting Location Tile(3208, 3220, 2) null",
+            RecordingJournal.STEP + " 1 null Talk to the Cook new TalkToNPCNode(\"Cook\")",
+            RecordingJournal.DETAIL + " 0 DIALOGUE_OPTIONS [What's wrong?, Can you make me a cake?] null",
+            RecordingJournal.DETAIL + " 0 INVENTORY " + large + " null",
+            RecordingJournal.ACTION + " 0 null DIALOGUE_SELECTION What's wrong?",
+            RecordingJournal.DETAIL + " 0 DIALOGUE_OPTIONS [I'll get right on it.] null",
+            RecordingJournal.CONSOLE + " 0 null done null",
+            RecordingJournal.END + " 0 null null null"), read);
+        assertEquals(10, journal.getRecordCount()); // the eight above and two DEFINEs
+    }
+
+    @Test
+    public void renderedTextMatchesTheWrittenLog() throws Exception {
+        RecordingJournal journal = RecordingJournal.create(temp.getRoot(), "ghost", "The Restless Ghost", "Tester", true);
+        journal.headerField("Starting Inventory", "[Bronze sword]");
+        journal.action("Selected 'Talk-to' on Father Aereck", "new TalkToNPCNode(\"Father Aereck\")");
+        journal.detail("DIALOGUE_OPTIONS", repeat("[I'm looking for a quest!] ", 5000));
+        journal.step(2, "VARBIT DISCOVERED: config 107 changed from 0 to 1", null);
+        journal.close();
+
+        String written = new String(Files.readAllBytes(journal.getTextFile().toPath()), StandardCharsets.UTF_8);
+        StringWriter rendered = new StringWriter();
+        try (RecordingJournalReader reader = new RecordingJournalReader(journal.getFile())) {
+            reader.renderText(rendered);
+        }
+
+        assertEquals(written, rendered.toString());
+        assertTrue(written.contains("Starting Inventory: [Bronze sword]\n" + RecordingJournal.RULE + "\n\n"));
+        assertTrue(written.contains("ACTION: Selected 'Talk-to' on Father Aereck\n    SCRIPT: new TalkToNPCNode(\"Father Aereck\")\n"));
+        assertTrue(written.contains("QUEST STEP 2: VARBIT DISCOVERED: config 107 changed from 0 to 1\n\n"));
+    }
+
+    @Test
+    public void quietJournalIsFlushedWithoutAnotherRecord() throws Exception {
+        RecordingJournal journal = RecordingJournal.create(temp.getRoot(), "idle", "Idle", "Tester", true);
+        try {
+            journal.action("Selected 'Talk-to' on Cook", null);
+            File file = journal.getFile();
+            File text = journal.getTextFile();
+            assertTrue(RecordingJournal.isBeingWritten(file));
+            assertTrue(RecordingJournal.isBeingWritten(text));
+
+            long end = System.currentTimeMillis() + 5000;
+            while (file.length() == RecordingJournal.HEADER_SIZE && System.currentTimeMillis() < end) {
+                Thread.sleep(100);
+            }
+            assertTrue("journal tail still buffered", file.length() > RecordingJournal.HEADER_SIZE);
+            String written = new String(Files.readAllBytes(text.toPath()), StandardCharsets.UTF_8);
+            assertTrue(written.contains("ACTION: Selected 'Talk-to' on Cook"));
+        } finally {
+            journal.close();
+        }
+        assertFalse(RecordingJournal.isBeingWritten(journal.getFile()));
+    }
+}
@@ -0,0 +1,105 @@
+package quest.recording;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RecordingParserTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void questKeyIgnoresCaseSpacingAndPunctuation() {
+        assertEquals("below_ice_mountain", RecordingParser.questKey("below ice mountain"));
+        assertEquals("below_ice_mountain", RecordingParser.questKey("below_ice_mountain"));
+        assertEquals("below_ice_mountain", RecordingParser.questKey("  BELOW_ICE_MOUNTAIN "));
+        assertEquals("pirates_treasure", RecordingParser.questKey("Pirate's Treasure"));
+        assertEquals("black_knights_fortress", RecordingParser.questKey("Black_Knights__Fortress"));
+        assertEquals("dragon_slayer_boat_obtaining", RecordingParser.questKey("Dragon Slayer (Boat Obtaining)"));
+    }
+
+    @Test
+    public void typeOfNormalizesCategories() {
+        assertEquals("ACTION", RecordingParser.typeOf("ACTION"));
+        assertEquals("QUEST_STEP", RecordingParser.typeOf("QUEST STEP 5"));
+        assertEquals("DIALOGUE_OPTIONS", RecordingParser.typeOf("dialogue options"));
+    }
+
+    @Test
+    public void spellingsOfOneQuestShareAnIndexKey() throws IOException {
+        File logs = temp.newFolder("logs");
+        write(logs, "a.log", "Quest: below ice mountain", "[10:00:00] ACTION: Selected 'Talk-to' on Willow");
+        write(logs, "b.log", "Quest: below_ice_mountain", "[11:00:00] ACTION: Selected 'Talk-to' on Marley",
+            "[11:00:05] ACTION: Selected 'Talk-to' on Checkal");
+        write(logs, "c.log", "Quest: Cook's Assistant", "[12:00:00] ACTION: Selected 'Talk-to' on Cook");
+        RecordingIndex index = RecordingIndex.open(logs, new File(temp.getRoot(), "recordings.idx"));
+
+        Map<String, Integer> counts = index.countByQuest();
+        assertEquals(Integer.valueOf(3), counts.get("below_ice_mountain"));
+        assertEquals(2, counts.size());
+
+        List<RecordingEvent> events = index.query(new RecordingIndex.Query().quest("Below Ice Mountain"));
+        assertEquals(3, events.size());
+        assertEquals(1, index.query(new RecordingIndex.Query().quest("COOKS_ASSISTANT")).size());
+    }
+
+    @Test
+    public void fileFilterMatchesHeaderOrDetectedQuest() throws IOException {
+        File logs = temp.newFolder("logs");
+        write(logs, "named.log", "Quest: Below Ice Mountain", "[10:00:00] ACTION: Selected 'Talk-to' on Willow");
+        write(logs, "discovery.log", "Quest: Free_Discovery",
+            "[10:00:00] ACTIVE_QUEST_DETECTED: below_ice_mountain (varbit 12063)",
+            "[10:00:01] ACTION: Selected 'Talk-to' on Marley");
+        write(logs, "other.log", "Quest: Imp Catcher", "[10:00:00] ACTION: Selected 'Talk-to' on Wizard Mizgog");
+        RecordingIndex index = RecordingIndex.open(logs, new File(temp.getRoot(), "recordings.idx"));
+
+        RecordingIndex.Query query = new RecordingIndex.Query().quest("BELOW_ICE_MOUNTAIN");
+        int matched = 0;
+        for (RecordingIndex.FileEntry entry : index.getFiles()) {
+            if (query.matches(entry)) {
+                matched++;
+                assertNotEquals("other.log", entry.getName());
+            }
+        }
+        assertEquals(2, matched);
+    }
+
+    @Test
+    public void logRewrittenInPlaceIsParsedAgain() throws IOException {
+        File logs = temp.newFolder("logs");
+        write(logs, "a.log", "Quest: The Restless Ghost", "[10:00:00] ACTION: Selected 'Talk-to' on Father Aereck");
+        File indexFile = new File(temp.getRoot(), "recordings.idx");
+        RecordingIndex index = RecordingIndex.open(logs, indexFile);
+        File log = new File(logs, "a.log");
+        long modified = log.lastModified();
+
+        // Same length, different NPC
+        write(logs, "a.log", "Quest: The Restless Ghost", "[10:00:00] ACTION: Selected 'Talk-to' on Father Urhney");
+        assertTrue(log.setLastModified(modified + 2000));
+        RecordingIndex.UpdateStats sameLength = index.update();
+        assertEquals(1, sameLength.getReparsed());
+        assertEquals(0, sameLength.getAppended());
+        assertEquals(1, index.query(new RecordingIndex.Query().type("ACTION")).size());
+        assertTrue(index.query(new RecordingIndex.Query().type("ACTION")).get(0).getText().contains("Father Urhney"));
+
+        // Shorter
+        write(logs, "a.log", "Quest: The Restless Ghost", "[10:00:00] ACTION: Selected 'Talk-to' on Ghost");
+        assertTrue(log.setLastModified(modified + 4000));
+        assertEquals(1, index.update().getReparsed());
+        assertTrue(index.query(new RecordingIndex.Query().type("ACTION")).get(0).getText().endsWith("on Ghost"));
+    }
+
+    private static void write(File dir, String name, String... lines) throws IOException {
+        Files.write(new File(dir, name).toPath(), (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
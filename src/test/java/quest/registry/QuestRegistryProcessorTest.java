@@ -0,0 +1,144 @@
+package quest.registry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QuestRegistryProcessorTest {
+
+    // Stand-ins for the real base class and registry, which need the client
+    private static final String QUEST_TREE = "package quest.core; public abstract class QuestTree { }";
+    private static final String QUEST_REGISTRY = "package quest.registry; final class QuestRegistry {"
+        + " static final class Entry { Entry(String id, String name, QuestType type, int difficulty, int minutes,"
+        + " String[] skills, String[] items, java.util.function.Supplier<quest.core.QuestTree> factory) { } } }";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File generated;
+
+    private static String tree(String name, String annotations) {
+        return "package quest.trees; import quest.registry.QuestEntry; " + annotations
+            + " public class " + name + " extends quest.core.QuestTree { public " + name + "() { } }";
+    }
+
+    /**
+     * Run the processor over the sources; returns the error messages
+     */
+    private List<String> process(String... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<JavaFileObject> units = new ArrayList<>();
+        units.add(source(QUEST_TREE));
+        units.add(source(QUEST_REGISTRY));
+        for (String source : sources) {
+            units.add(source(source));
+        }
+        generated = temp.newFolder();
+        String classpath = new File(QuestEntry.class.getProtectionDomain().getCodeSource().getLocation().getPath()).getPath();
+        List<String> options = Arrays.asList("-proc:only", "-classpath", classpath,
+            "-s", generated.getPath(), "-d", temp.newFolder().getPath());
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, units);
+        task.setProcessors(Collections.singletonList(new QuestRegistryProcessor()));
+        task.call();
+
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+        return errors;
+    }
+
+    private static JavaFileObject source(String code) {
+        String pkg = code.substring("package ".length(), code.indexOf(';'));
+        int at = code.indexOf(" class ") + " class ".length();
+        String name = code.substring(at, code.indexOf(' ', at));
+        URI uri = URI.create("string:///" + pkg.replace('.', '/') + "/" + name + ".java");
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private String generatedSource() throws IOException {
+        File file = new File(generated, "quest/registry/GeneratedQuestRegistry.java");
+        assertTrue("no registry generated", file.isFile());
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void generatesOneEntryPerAnnotationSortedById() throws IOException {
+        List<String> errors = process(
+            tree("ImpCatcherTree", "@QuestEntry(id = \"IMP_CATCHER\", name = \"Imp Catcher\")"),
+            tree("CooksAssistantTree", "@QuestEntry(id = \"COOKS_ASSISTANT\", name = \"Cook's Assistant\", items = {\"Egg\"})"));
+
+        assertEquals(Collections.emptyList(), errors);
+        String registry = generatedSource();
+        int cook = registry.indexOf("\"COOKS_ASSISTANT\"");
+        int imp = registry.indexOf("\"IMP_CATCHER\"");
+        assertTrue(cook > 0 && imp > cook);
+        assertTrue(registry.contains("quest.trees.CooksAssistantTree::new"));
+        assertTrue(registry.contains("new String[] {\"Egg\"}"));
+    }
+
+    @Test
+    public void duplicateIdFailsTheBuild() throws IOException {
+        List<String> errors = process(
+            tree("CooksAssistantTree", "@QuestEntry(id = \"COOKS_ASSISTANT\", name = \"Cook's Assistant\")"),
+            tree("CooksAssistantCopyTree", "@QuestEntry(id = \"COOKS_ASSISTANT\", name = \"Cook's Assistant (copy)\")"));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0), errors.get(0).startsWith("Quest id COOKS_ASSISTANT is already registered by "));
+        assertFalse(new File(generated, "quest/registry/GeneratedQuestRegistry.java").exists());
+    }
+
+    @Test
+    public void duplicateNameFailsTheBuild() throws IOException {
+        List<String> errors = process(
+            tree("ATree", "@QuestEntry(id = \"QUEST_A\", name = \"Same name\")"),
+            tree("BTree", "@QuestEntry(id = \"QUEST_B\", name = \"Same name\")"));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0), errors.get(0).startsWith("Quest name \"Same name\" is already registered by "));
+    }
+
+    @Test
+    public void duplicateIdWithinOneTreeFailsTheBuild() throws IOException {
+        List<String> errors = process(tree("DebugTree",
+            "@QuestEntry(id = \"DEBUG\", name = \"Debug\") @QuestEntry(id = \"DEBUG\", name = \"Debug 2\")"));
+
+        assertEquals(Collections.singletonList("Quest id DEBUG is already registered by DebugTree"), errors);
+    }
+
+    @Test
+    public void badIdsAndMissingConstructorsAreReported() throws IOException {
+        List<String> errors = process(
+            tree("LowerTree", "@QuestEntry(id = \"lower_case\", name = \"Lower\")"),
+            tree("VariantTree", "@QuestEntry(id = \"VARIANT\", name = \"Variant\", variant = \"debug\")"));
+
+        assertTrue(errors.toString(), errors.contains("Quest id must be UPPER_SNAKE_CASE: lower_case"));
+        assertTrue(errors.toString(), errors.contains("VARIANT needs a public (String variant) constructor in VariantTree"));
+    }
+}
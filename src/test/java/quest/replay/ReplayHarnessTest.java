@@ -0,0 +1,104 @@
+package quest.replay;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import quest.definition.QuestDefinition;
+import quest.recording.RecordingIndex;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ReplayHarnessTest {
+
+    // Fixture: restlesshost.log and a definition written by hand against it
+    private static final List<String> RECORDED = List.of("0->1", "1->2", "2->3", "3->4", "4->5");
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static File fixture(String path) throws Exception {
+        return new File(ReplayHarnessTest.class.getResource("/replay/" + path).toURI());
+    }
+
+    private static RecordingIndex.FileEntry recording() throws Exception {
+        return RecordingIndex.readFile(fixture("quest_logs/restlesshost.log"));
+    }
+
+    private static String definitionJson() throws Exception {
+        return new String(Files.readAllBytes(fixture("quests/the_restless_ghost.json").toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static ReplayHarness.Result replay(String json) throws Exception {
+        QuestDefinition definition = QuestDefinition.parse(json, "the_restless_ghost.json", null);
+        return new ReplayHarness(1).run(new ReplayHarness.Pair(definition, recording()));
+    }
+
+    private static void assertPassed(ReplayHarness.Result result) {
+        assertNull(result.getSkipped());
+        assertFalse(result.getProblems().toString(), result.isFailed());
+        assertEquals(RECORDED, result.getTransitions());
+    }
+
+    @Test
+    public void definitionReplaysItsRecording() throws Exception {
+        assertPassed(replay(definitionJson()));
+    }
+
+    @Test
+    public void definitionThatTalksToTheWrongNpcFails() throws Exception {
+        ReplayHarness.Result result = replay(definitionJson().replace("\"npc\": \"Father Urhney\"", "\"npc\": \"Father Aereck\""));
+
+        assertTrue(result.isFailed());
+        assertEquals(List.of("0->1"), result.getTransitions());
+    }
+
+    @Test
+    public void restlessGhostTreeReplaysItsRecording() throws Exception {
+        // Runs the registered QuestTree through OfflineDriver - needs the client jar, not a client
+        ReplayHarness.Result result = new ReplayHarness(1).runTree("THE_RESTLESS_GHOST", recording());
+
+        assertEquals("tree:THE_RESTLESS_GHOST@restlesshost.log", result.getKey());
+        assertPassed(result);
+    }
+
+    @Test
+    public void harnessPassesTheFixture() throws Exception {
+        String[] args = {"--logs", fixture("quest_logs").getPath(), "--quests", fixture("quests").getPath(),
+            "--pairs", fixture("replay_pairs.properties").getPath(),
+            "--baseline", new File(temp.getRoot(), "baselines.properties").getPath()};
+
+        assertEquals(0, ReplayHarness.execute(args));
+    }
+
+    @Test
+    public void unlistedTreesAreReportedAsGaps() {
+        List<String> gaps = ReplayHarness.unlistedTrees(Set.of("THE_RESTLESS_GHOST"));
+
+        assertTrue(gaps.contains("COOKS_ASSISTANT"));
+        assertFalse(gaps.contains("THE_RESTLESS_GHOST"));
+    }
+
+    @Test
+    public void strictHarnessFailsOnGaps() throws Exception {
+        String[] args = {"--logs", fixture("quest_logs").getPath(), "--quests", fixture("quests").getPath(),
+            "--pairs", fixture("replay_pairs.properties").getPath(),
+            "--baseline", new File(temp.getRoot(), "baselines.properties").getPath(), "--strict"};
+
+        assertEquals(1, ReplayHarness.execute(args));
+    }
+
+    @Test
+    public void harnessFailsWhenNothingWasReplayed() throws Exception {
+        String[] args = {"--logs", temp.newFolder("quest_logs").getPath(), "--quests", temp.newFolder("quests").getPath(),
+            "--pairs", new File(temp.getRoot(), "replay_pairs.properties").getPath(),
+            "--baseline", new File(temp.getRoot(), "baselines.properties").getPath()};
+
+        assertEquals(1, ReplayHarness.execute(args));
+    }
+}
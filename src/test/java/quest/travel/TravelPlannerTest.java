@@ -0,0 +1,120 @@
+package quest.travel;
+
+import org.dreambot.api.methods.map.Tile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import quest.core.QuestEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+
+public class TravelPlannerTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private QuestEngine engine;
+
+    @Before
+    public void setUp() throws Exception {
+        // An empty recording directory keeps the graph to the hand-coded transitions
+        Properties settings = new Properties();
+        settings.setProperty("recording.dir", temp.newFolder("quest_logs").getPath());
+        engine = new QuestEngine("test", settings);
+    }
+
+    private TravelPlan plan(Tile from, Tile goal) throws Exception {
+        return on(() -> engine.getTravelPlanner().plan(from, goal));
+    }
+
+    private <T> T on(Callable<T> task) throws Exception {
+        return engine.call(task);
+    }
+
+    private static List<String> actions(TravelPlan plan) {
+        List<String> actions = new ArrayList<>();
+        for (TravelPlan.Leg leg : plan.getLegs()) {
+            if (leg.isTransition()) {
+                actions.add(leg.getTransition().getAction());
+            }
+        }
+        return actions;
+    }
+
+    private static TravelPlan.Leg last(TravelPlan plan) {
+        return plan.getLegs().get(plan.getLegs().size() - 1);
+    }
+
+    @Test
+    public void surfaceWalkNeedsNoTransitions() throws Exception {
+        Tile goal = new Tile(3222, 3218, 0);
+        TravelPlan plan = plan(new Tile(3210, 3420, 0), goal);
+
+        assertEquals(0, plan.getTransitionCount());
+        assertEquals(goal, last(plan).getTarget());
+    }
+
+    @Test
+    public void climbsDownToReachTheBasement() throws Exception {
+        Tile goal = new Tile(3110, 9570, 0);
+        TravelPlan plan = plan(new Tile(3109, 3167, 0), goal);
+
+        assertEquals(1, plan.getTransitionCount());
+        Transition ladder = plan.getLegs().stream().filter(TravelPlan.Leg::isTransition)
+            .findFirst().get().getTransition();
+        assertEquals("Ladder", ladder.getEntityName());
+        assertEquals("Climb-down", ladder.getAction());
+        assertEquals(goal, last(plan).getTarget());
+    }
+
+    @Test
+    public void chainsStaircasesInOrder() throws Exception {
+        Tile goal = new Tile(3204, 3495, 2);
+        TravelPlan plan = plan(new Tile(3210, 3480, 0), goal);
+
+        assertEquals(2, plan.getTransitionCount());
+        assertEquals(List.of("Climb-up", "Climb-up"), actions(plan));
+        assertEquals(goal, last(plan).getTarget());
+    }
+
+    @Test
+    public void unreachableGoalFallsBackToDirectPlan() throws Exception {
+        // No known transition reaches the third floor here, so the web walker gets the whole walk
+        Tile goal = new Tile(3000, 3300, 3);
+        TravelPlan plan = plan(new Tile(3210, 3420, 0), goal);
+
+        assertEquals(0, plan.getTransitionCount());
+        assertEquals(1, plan.getLegs().size());
+        assertEquals(goal, plan.getLegs().get(0).getTarget());
+    }
+
+    @Test
+    public void plansAreCachedPerStartBlock() throws Exception {
+        Tile goal = new Tile(3110, 9570, 0);
+        TravelPlan first = plan(new Tile(3108, 3164, 0), goal);
+
+        assertSame(first, plan(new Tile(3108, 3164, 0), goal));
+        assertSame(first, plan(new Tile(3109, 3165, 0), goal));
+        assertNotSame(first, plan(new Tile(3120, 3164, 0), goal));
+    }
+
+    @Test
+    public void graphChangeInvalidatesCachedPlans() throws Exception {
+        Tile from = new Tile(3210, 3420, 0);
+        Tile goal = new Tile(3000, 3300, 3);
+        TravelPlan before = plan(from, goal);
+
+        on(() -> engine.getTravelPlanner().getGraph().add(Transition.object(Transition.Type.STAIRS, "Staircase",
+            "Climb-up", new Tile(3005, 3305, 0), new Tile(3005, 3305, 3), "test")));
+        TravelPlan after = plan(from, goal);
+
+        assertNotSame(before, after);
+        assertEquals(List.of("Climb-up"), actions(after));
+    }
+}